@@ -0,0 +1,16 @@
+package com.smartuniversity.common.events;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Domain event published when an exam's window ends and it stops accepting submissions.
+ */
+public record ExamClosedEvent(
+        UUID examId,
+        UUID creatorId,
+        String tenantId,
+        Instant closedAt
+) implements Serializable {
+}
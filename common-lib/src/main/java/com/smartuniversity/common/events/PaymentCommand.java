@@ -0,0 +1,41 @@
+package com.smartuniversity.common.events;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Command consumed by the Payment service from the {@code university.events} exchange,
+ * published with routing key {@code payment.authorize} or {@code payment.cancel}.
+ * The outcome is published as a {@link PaymentEvent}.
+ *
+ * {@code userId} and {@code amount} are only set for authorizations.
+ */
+public record PaymentCommand(
+        Type type,
+        UUID orderId,
+        String tenantId,
+        UUID userId,
+        BigDecimal amount
+) implements Serializable {
+
+    public static final String AUTHORIZE_ROUTING_KEY = "payment.authorize";
+    public static final String CANCEL_ROUTING_KEY = "payment.cancel";
+
+    public enum Type {
+        AUTHORIZE,
+        CANCEL
+    }
+
+    public static PaymentCommand authorize(UUID orderId, String tenantId, UUID userId, BigDecimal amount) {
+        return new PaymentCommand(Type.AUTHORIZE, orderId, tenantId, userId, amount);
+    }
+
+    public static PaymentCommand cancel(UUID orderId, String tenantId) {
+        return new PaymentCommand(Type.CANCEL, orderId, tenantId, null, null);
+    }
+
+    public String routingKey() {
+        return type == Type.AUTHORIZE ? AUTHORIZE_ROUTING_KEY : CANCEL_ROUTING_KEY;
+    }
+}
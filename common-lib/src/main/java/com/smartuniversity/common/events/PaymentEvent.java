@@ -0,0 +1,35 @@
+package com.smartuniversity.common.events;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Outcome of a {@link PaymentCommand}, published by the Payment service with routing
+ * key {@code payment.event.<type>} (e.g. {@code payment.event.authorized}).
+ *
+ * {@code paymentId} is {@code null} when a cancelled order never had a payment. A
+ * {@code CANCELED} event with a {@code reason} means the payment could not be released
+ * because it was already captured.
+ */
+public record PaymentEvent(
+        Type type,
+        UUID orderId,
+        String tenantId,
+        UUID paymentId,
+        String reason,
+        Instant occurredAt
+) implements Serializable {
+
+    public static final String ROUTING_KEY_PREFIX = "payment.event.";
+
+    public enum Type {
+        AUTHORIZED,
+        DECLINED,
+        CANCELED
+    }
+
+    public String routingKey() {
+        return ROUTING_KEY_PREFIX + type.name().toLowerCase();
+    }
+}
@@ -0,0 +1,56 @@
+package com.smartuniversity.common.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+
+/**
+ * {@link IdempotencyService} for services that accept an {@code Idempotency-Key}.
+ * Enabled by setting {@code idempotency.key-prefix}, which namespaces the service's
+ * keys in the store; {@code idempotency.store} picks {@code redis} (the default) or
+ * {@code local}.
+ */
+@AutoConfiguration(after = RedisAutoConfiguration.class)
+@ConditionalOnClass(ResponseEntity.class)
+@ConditionalOnProperty(prefix = "idempotency", name = "key-prefix")
+public class IdempotencyAutoConfiguration {
+
+    @Bean
+    public IdempotencyService idempotencyService(IdempotencyStore store,
+                                                 ObjectMapper objectMapper,
+                                                 MeterRegistry meterRegistry,
+                                                 @Value("${idempotency.ttl:24h}") Duration ttl,
+                                                 @Value("${idempotency.lock-ttl:30s}") Duration lockTtl,
+                                                 @Value("${idempotency.wait-timeout:10s}") Duration waitTimeout) {
+        return new IdempotencyService(store, objectMapper, meterRegistry, ttl, lockTtl, waitTimeout);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "idempotency.store", havingValue = "local")
+    public LocalIdempotencyStore localIdempotencyStore() {
+        return new LocalIdempotencyStore();
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(StringRedisTemplate.class)
+    @ConditionalOnProperty(name = "idempotency.store", havingValue = "redis", matchIfMissing = true)
+    static class RedisStoreConfiguration {
+
+        @Bean
+        public RedisIdempotencyStore redisIdempotencyStore(StringRedisTemplate redisTemplate,
+                                                           ObjectMapper objectMapper,
+                                                           @Value("${idempotency.key-prefix}") String prefix) {
+            return new RedisIdempotencyStore(redisTemplate, objectMapper, prefix);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.smartuniversity.common.idempotency;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Entry stored under an idempotency key: the fingerprint of the request that claimed
+ * the key and, once it has finished, the response to replay.
+ *
+ * @param fingerprint hash of the original request, used to reject key reuse with a different request
+ * @param status      HTTP status of the stored response, or 0 while the request is in progress
+ * @param location    {@code Location} header of the stored response, if any
+ * @param body        JSON body of the stored response, if any
+ */
+public record IdempotencyRecord(String fingerprint, int status, String location, String body) {
+
+    public static IdempotencyRecord inProgress(String fingerprint) {
+        return new IdempotencyRecord(fingerprint, 0, null, null);
+    }
+
+    @JsonIgnore
+    public boolean isCompleted() {
+        return status != 0;
+    }
+}
@@ -0,0 +1,243 @@
+package com.smartuniversity.common.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Executes a request at most once per {@code Idempotency-Key}.
+ *
+ * The first request for a key claims it in the {@link IdempotencyStore} and runs;
+ * its response is stored for the configured TTL and replayed to every retry.
+ * Duplicates arriving on the same instance while the first is running wait on it in
+ * memory; duplicates on other instances poll the store until the response appears.
+ * A request that fails releases its key, so a retry runs again.
+ *
+ * Keys are scoped to the operation, tenant and user, so two users who happen to send
+ * the same key never see each other's responses.
+ */
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_INTERVAL_MILLIS = 50;
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Duration ttl;
+    private final Duration lockTtl;
+    private final Duration waitTimeout;
+
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyStore store,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              Duration ttl,
+                              Duration lockTtl,
+                              Duration waitTimeout) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.ttl = ttl;
+        this.lockTtl = lockTtl;
+        this.waitTimeout = waitTimeout;
+    }
+
+    /**
+     * Runs {@code action} unless a response for the same key is already stored or
+     * being produced, in which case that response is returned instead.
+     *
+     * @param scope    operation the key belongs to, e.g. {@code checkout}
+     * @param userId   user the request is made for
+     * @param key      value of the {@code Idempotency-Key} header; {@code null} disables deduplication
+     * @param request  request content; reusing a key with different content is rejected with 422
+     * @param bodyType type of the response body, used to replay stored responses
+     */
+    public <T> ResponseEntity<T> execute(String scope, String tenantId, UUID userId, String key, Object request,
+                                         Class<T> bodyType, Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (!StringUtils.hasText(key) || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid " + HEADER + " header");
+        }
+
+        String storeKey = scope + ":" + tenantId + ":" + userId + ":" + key;
+        String fingerprint = fingerprint(request);
+
+        InFlight mine = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(storeKey, mine);
+        if (running != null) {
+            checkFingerprint(running.fingerprint(), fingerprint);
+            IdempotencyRecord record = await(running.response());
+            count("coalesced");
+            return toResponse(record, bodyType, true);
+        }
+
+        try {
+            Resolution resolution = resolve(storeKey, fingerprint, bodyType, action);
+            mine.response().complete(resolution.record());
+            return toResponse(resolution.record(), bodyType, resolution.replayed());
+        } catch (RuntimeException ex) {
+            mine.response().completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(storeKey, mine);
+        }
+    }
+
+    private <T> Resolution resolve(String storeKey, String fingerprint, Class<T> bodyType,
+                                          Supplier<ResponseEntity<T>> action) {
+        Optional<IdempotencyRecord> existing = store.claim(storeKey, IdempotencyRecord.inProgress(fingerprint),
+                lockTtl);
+        if (existing.isPresent()) {
+            checkFingerprint(existing.get().fingerprint(), fingerprint);
+            IdempotencyRecord completed = existing.get().isCompleted()
+                    ? existing.get()
+                    : pollUntilCompleted(storeKey);
+            count("replayed");
+            return new Resolution(completed, true);
+        }
+
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException ex) {
+            store.release(storeKey);
+            throw ex;
+        }
+        IdempotencyRecord completed = new IdempotencyRecord(
+                fingerprint,
+                response.getStatusCode().value(),
+                response.getHeaders().getLocation() != null ? response.getHeaders().getLocation().toString() : null,
+                response.getBody() != null ? toJson(response.getBody()) : null);
+        if (response.getStatusCode().is2xxSuccessful()) {
+            store.complete(storeKey, completed, ttl);
+        } else {
+            store.release(storeKey);
+        }
+        count("executed");
+        return new Resolution(completed, false);
+    }
+
+    private IdempotencyRecord pollUntilCompleted(String storeKey) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            Optional<IdempotencyRecord> record = store.find(storeKey);
+            if (record.isEmpty()) {
+                // The original request failed and released the key.
+                throw inProgressConflict();
+            }
+            if (record.get().isCompleted()) {
+                return record.get();
+            }
+        }
+        throw inProgressConflict();
+    }
+
+    private IdempotencyRecord await(CompletableFuture<IdempotencyRecord> response) {
+        try {
+            return response.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            throw inProgressConflict();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw inProgressConflict();
+        }
+    }
+
+    private <T> ResponseEntity<T> toResponse(IdempotencyRecord record, Class<T> bodyType, boolean replayed) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(record.status());
+        if (record.location() != null) {
+            builder.location(URI.create(record.location()));
+        }
+        if (replayed) {
+            builder.header(REPLAYED_HEADER, "true");
+        }
+        return builder.body(record.body() != null ? fromJson(record.body(), bodyType) : null);
+    }
+
+    private void checkFingerprint(String expected, String actual) {
+        if (!expected.equals(actual)) {
+            count("mismatch");
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    HEADER + " was already used for a different request");
+        }
+    }
+
+    private ResponseStatusException inProgressConflict() {
+        count("conflict");
+        return new ResponseStatusException(HttpStatus.CONFLICT,
+                "A request with this " + HEADER + " is still in progress");
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("idempotency.requests", "outcome", outcome).increment();
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(toJson(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize " + value.getClass().getName(), ex);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not read stored response as " + type.getName(), ex);
+        }
+    }
+
+    private record InFlight(String fingerprint, CompletableFuture<IdempotencyRecord> response) {
+    }
+
+    private record Resolution(IdempotencyRecord record, boolean replayed) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.smartuniversity.common.idempotency;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Shared storage for idempotency keys.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Atomically claims {@code key} with an in-progress record.
+     *
+     * @return empty if the key was claimed by this call, otherwise the existing record
+     */
+    Optional<IdempotencyRecord> claim(String key, IdempotencyRecord inProgress, Duration ttl);
+
+    Optional<IdempotencyRecord> find(String key);
+
+    void complete(String key, IdempotencyRecord completed, Duration ttl);
+
+    /**
+     * Drops a claim whose request failed, so that a retry executes again.
+     */
+    void release(String key);
+}
@@ -0,0 +1,54 @@
+package com.smartuniversity.common.idempotency;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-process {@link IdempotencyStore} for single-instance deployments and tests.
+ */
+public class LocalIdempotencyStore implements IdempotencyStore {
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<IdempotencyRecord> claim(String key, IdempotencyRecord inProgress, Duration ttl) {
+        Instant now = Instant.now();
+        Entry mine = new Entry(inProgress, now.plus(ttl));
+        Entry current = entries.compute(key, (k, existing) ->
+                existing == null || existing.isExpired(now) ? mine : existing);
+        return current == mine ? Optional.empty() : Optional.of(current.record());
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> find(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.isExpired(Instant.now())) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.record());
+    }
+
+    @Override
+    public void complete(String key, IdempotencyRecord completed, Duration ttl) {
+        entries.put(key, new Entry(completed, Instant.now().plus(ttl)));
+        if (entries.size() % 1024 == 0) {
+            Instant now = Instant.now();
+            entries.values().removeIf(entry -> entry.isExpired(now));
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        entries.remove(key);
+    }
+
+    private record Entry(IdempotencyRecord record, Instant expiresAt) {
+
+        boolean isExpired(Instant now) {
+            return !expiresAt.isAfter(now);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.smartuniversity.common.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Redis-backed {@link IdempotencyStore}, shared by all instances of a service. Claims
+ * use {@code SET NX} with an expiry, so a claim held by a crashed instance lapses.
+ * Keys are stored under {@code idempotency.key-prefix}, so services can share a Redis.
+ */
+public class RedisIdempotencyStore implements IdempotencyStore {
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final String prefix;
+
+    public RedisIdempotencyStore(StringRedisTemplate redisTemplate, ObjectMapper objectMapper, String prefix) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.prefix = prefix;
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> claim(String key, IdempotencyRecord inProgress, Duration ttl) {
+        Boolean claimed = redisTemplate.opsForValue().setIfAbsent(prefix + key, write(inProgress), ttl);
+        if (Boolean.TRUE.equals(claimed)) {
+            return Optional.empty();
+        }
+        // The claim may have expired between the two calls; report it as still in progress.
+        return Optional.of(find(key).orElse(inProgress));
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> find(String key) {
+        return Optional.ofNullable(redisTemplate.opsForValue().get(prefix + key)).map(this::read);
+    }
+
+    @Override
+    public void complete(String key, IdempotencyRecord completed, Duration ttl) {
+        redisTemplate.opsForValue().set(prefix + key, write(completed), ttl);
+    }
+
+    @Override
+    public void release(String key) {
+        redisTemplate.delete(prefix + key);
+    }
+
+    private String write(IdempotencyRecord record) {
+        try {
+            return objectMapper.writeValueAsString(record);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize idempotency record", ex);
+        }
+    }
+
+    private IdempotencyRecord read(String json) {
+        try {
+            return objectMapper.readValue(json, IdempotencyRecord.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not read idempotency record", ex);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.smartuniversity.common.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.boot.model.naming.PhysicalNamingStrategy;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+
+/**
+ * Transactional outbox for services that publish to RabbitMQ. Enabled by setting
+ * {@code outbox.exchange}, the exchange every appended message is published to.
+ *
+ * Registers this package for entity and repository scanning, so the service's own
+ * scanning stays as it is.
+ */
+@AutoConfiguration(before = HibernateJpaAutoConfiguration.class)
+@AutoConfigurationPackage
+@ConditionalOnClass({RabbitTemplate.class, PhysicalNamingStrategy.class})
+@ConditionalOnProperty(prefix = "outbox", name = "exchange")
+public class OutboxAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(PhysicalNamingStrategy.class)
+    public OutboxNamingStrategy outboxNamingStrategy(@Value("${outbox.table:" + OutboxEvent.TABLE + "}") String table) {
+        return new OutboxNamingStrategy(table);
+    }
+
+    @Bean
+    public OutboxService outboxService(OutboxEventRepository outboxEventRepository,
+                                       ObjectMapper objectMapper,
+                                       @Value("${outbox.exchange}") String exchange) {
+        return new OutboxService(outboxEventRepository, objectMapper, exchange);
+    }
+
+    @Bean
+    public OutboxRelay outboxRelay(OutboxEventRepository outboxEventRepository,
+                                   RabbitTemplate rabbitTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${outbox.batch-size:100}") int batchSize,
+                                   @Value("${outbox.confirm-timeout:5s}") Duration confirmTimeout,
+                                   @Value("${outbox.retention:7d}") Duration retention) {
+        return new OutboxRelay(outboxEventRepository, rabbitTemplate, transactionManager, meterRegistry,
+                batchSize, confirmTimeout, retention);
+    }
+}
@@ -0,0 +1,26 @@
+package com.smartuniversity.common.outbox;
+
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.model.naming.Identifier;
+import org.hibernate.engine.jdbc.env.spi.JdbcEnvironment;
+
+/**
+ * Spring Boot's default naming, except that {@link OutboxEvent} is mapped to the
+ * table configured with {@code outbox.table}.
+ */
+public class OutboxNamingStrategy extends CamelCaseToUnderscoresNamingStrategy {
+
+    private final String table;
+
+    public OutboxNamingStrategy(String table) {
+        this.table = table;
+    }
+
+    @Override
+    public Identifier toPhysicalTableName(Identifier logicalName, JdbcEnvironment jdbcEnvironment) {
+        if (logicalName != null && OutboxEvent.TABLE.equals(logicalName.getText())) {
+            return Identifier.toIdentifier(table, logicalName.isQuoted());
+        }
+        return super.toPhysicalTableName(logicalName, jdbcEnvironment);
+    }
+}
@@ -0,0 +1,202 @@
+package com.smartuniversity.common.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes outbox events to RabbitMQ in the background.
+ *
+ * Each run claims a batch of pending events with {@code SKIP LOCKED}, so several
+ * instances can relay concurrently, sends them all, then waits for the publisher
+ * confirms and marks only the acknowledged events as published. Events that were
+ * nacked or not confirmed in time stay pending and are retried on the next run, so
+ * delivery is at least once; the outbox id is sent as the AMQP message id.
+ */
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration confirmTimeout;
+    private final Duration retention;
+
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Timer lagTimer;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong oldestPendingAgeMillis = new AtomicLong();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       RabbitTemplate rabbitTemplate,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       int batchSize,
+                       Duration confirmTimeout,
+                       Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.confirmTimeout = confirmTimeout;
+        this.retention = retention;
+
+        this.publishedCounter = Counter.builder("outbox.published")
+                .description("Outbox events confirmed by the broker")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("outbox.failed")
+                .description("Outbox events nacked or not confirmed in time")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("outbox.lag")
+                .description("Time from writing an outbox event to its publisher confirm")
+                .register(meterRegistry);
+        Gauge.builder("outbox.pending", pending, AtomicLong::get)
+                .description("Outbox events waiting to be published")
+                .register(meterRegistry);
+        Gauge.builder("outbox.oldest.age", oldestPendingAgeMillis, AtomicLong::get)
+                .description("Age of the oldest unpublished outbox event")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay-interval-ms:200}",
+            initialDelayString = "${outbox.relay-interval-ms:200}")
+    public void relay() {
+        try {
+            relayPending();
+        } catch (RuntimeException ex) {
+            logger.warn("Outbox relay run failed: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Publishes pending events until the outbox is drained or a batch could not be
+     * fully confirmed.
+     *
+     * @return the number of events published
+     */
+    public int relayPending() {
+        int total = 0;
+        while (true) {
+            Integer published = transactionTemplate.execute(status -> publishBatch());
+            int count = published == null ? 0 : published;
+            total += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+        refreshBacklogGauges();
+        return total;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.purge-interval-ms:3600000}")
+    public void purgePublished() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deletePublishedBefore(Instant.now().minus(retention)));
+        if (deleted != null && deleted > 0) {
+            logger.info("Purged {} published outbox events", deleted);
+        }
+    }
+
+    private int publishBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.findPendingForUpdate(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<CorrelationData> confirms = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            CorrelationData correlation = new CorrelationData(event.getId().toString());
+            rabbitTemplate.send(event.getExchange(), event.getRoutingKey(), toMessage(event), correlation);
+            confirms.add(correlation);
+        }
+
+        // All messages are in flight; wait for their confirms against one deadline.
+        long deadline = System.nanoTime() + confirmTimeout.toNanos();
+        List<UUID> acknowledged = new ArrayList<>(batch.size());
+        Instant now = Instant.now();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            if (awaitAck(event, confirms.get(i), deadline)) {
+                acknowledged.add(event.getId());
+                lagTimer.record(Duration.between(event.getCreatedAt(), now));
+            } else {
+                failedCounter.increment();
+            }
+        }
+
+        if (!acknowledged.isEmpty()) {
+            outboxEventRepository.markPublished(acknowledged, now);
+            publishedCounter.increment(acknowledged.size());
+        }
+        return acknowledged.size();
+    }
+
+    private boolean awaitAck(OutboxEvent event, CorrelationData correlation, long deadline) {
+        try {
+            CorrelationData.Confirm confirm = correlation.getFuture()
+                    .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            if (!confirm.isAck()) {
+                logger.warn("Broker nacked outbox event {} ({}): {}", event.getId(), event.getRoutingKey(),
+                        confirm.getReason());
+            }
+            return confirm.isAck();
+        } catch (TimeoutException ex) {
+            logger.warn("No publisher confirm for outbox event {} ({}) within {}", event.getId(),
+                    event.getRoutingKey(), confirmTimeout);
+            return false;
+        } catch (ExecutionException ex) {
+            logger.warn("Publishing outbox event {} failed: {}", event.getId(), ex.getCause().getMessage());
+            return false;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Message toMessage(OutboxEvent event) {
+        return MessageBuilder.withBody(event.getPayload().getBytes(StandardCharsets.UTF_8))
+                .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                .setContentEncoding(StandardCharsets.UTF_8.name())
+                .setMessageId(event.getId().toString())
+                .setTimestamp(Date.from(event.getCreatedAt()))
+                .setDeliveryMode(MessageDeliveryMode.PERSISTENT)
+                .setHeader("__TypeId__", event.getPayloadType())
+                .build();
+    }
+
+    private void refreshBacklogGauges() {
+        pending.set(outboxEventRepository.countByPublishedAtIsNull());
+        oldestPendingAgeMillis.set(outboxEventRepository.findOldestPendingCreatedAt()
+                .map(createdAt -> Duration.between(createdAt, Instant.now()).toMillis())
+                .orElse(0L));
+    }
+}
@@ -0,0 +1,37 @@
+package com.smartuniversity.common.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records outgoing messages in the outbox table as part of the caller's transaction;
+ * {@link OutboxRelay} publishes them afterwards to the {@code outbox.exchange} exchange.
+ */
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final String exchange;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper, String exchange) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.exchange = exchange;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String routingKey, Object message) {
+        OutboxEvent event = new OutboxEvent();
+        event.setExchange(exchange);
+        event.setRoutingKey(routingKey);
+        event.setPayloadType(message.getClass().getName());
+        try {
+            event.setPayload(objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Could not serialize outbox message " + message.getClass().getName(), ex);
+        }
+        outboxEventRepository.save(event);
+    }
+}
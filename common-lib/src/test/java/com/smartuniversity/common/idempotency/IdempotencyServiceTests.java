@@ -0,0 +1,153 @@
+package com.smartuniversity.common.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyServiceTests {
+
+    private static final UUID BUYER = UUID.randomUUID();
+
+    private LocalIdempotencyStore store;
+    private IdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        store = new LocalIdempotencyStore();
+        service = newInstance();
+    }
+
+    @Test
+    void retryReplaysStoredResponseWithoutExecutingAgain() {
+        AtomicInteger executions = new AtomicInteger();
+
+        ResponseEntity<Order> first = service.execute("checkout", "engineering", BUYER, "key-1", "body",
+                Order.class, () -> accepted(executions));
+        ResponseEntity<Order> retry = service.execute("checkout", "engineering", BUYER, "key-1", "body",
+                Order.class, () -> accepted(executions));
+
+        assertThat(executions).hasValue(1);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(retry.getBody().id()).isEqualTo(first.getBody().id());
+        assertThat(retry.getHeaders().getLocation()).isEqualTo(first.getHeaders().getLocation());
+        assertThat(retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(first.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheFirstRequest() throws Exception {
+        // Two instances sharing one store: duplicates coalesce locally or poll the store.
+        IdempotencyService otherInstance = newInstance();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ResponseEntity<Order>>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                IdempotencyService instance = i % 2 == 0 ? service : otherInstance;
+                futures.add(executor.submit(() -> instance.execute("checkout", "engineering", BUYER, "key-2", "body",
+                        Order.class, () -> {
+                            awaitQuietly(release);
+                            return accepted(executions);
+                        })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            UUID orderId = null;
+            for (Future<ResponseEntity<Order>> future : futures) {
+                ResponseEntity<Order> response = future.get(10, TimeUnit.SECONDS);
+                orderId = orderId == null ? response.getBody().id() : orderId;
+                assertThat(response.getBody().id()).isEqualTo(orderId);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void failedRequestReleasesKeyForRetry() {
+        AtomicInteger executions = new AtomicInteger();
+
+        assertThatThrownBy(() -> service.execute("checkout", "engineering", BUYER, "key-3", "body", Order.class, () -> {
+            executions.incrementAndGet();
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Insufficient stock");
+        })).isInstanceOf(ResponseStatusException.class);
+
+        ResponseEntity<Order> retry = service.execute("checkout", "engineering", BUYER, "key-3", "body",
+                Order.class, () -> accepted(executions));
+        assertThat(executions).hasValue(2);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+    }
+
+    @Test
+    void reusingKeyForDifferentRequestIsRejected() {
+        AtomicInteger executions = new AtomicInteger();
+        service.execute("checkout", "engineering", BUYER, "key-4", "body", Order.class, () -> accepted(executions));
+
+        assertThatThrownBy(() -> service.execute("checkout", "engineering", BUYER, "key-4", "other body",
+                Order.class, () -> accepted(executions)))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY));
+        // Keys are scoped per tenant.
+        service.execute("checkout", "science", BUYER, "key-4", "other body", Order.class, () -> accepted(executions));
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void sameKeyFromAnotherUserIsNotShared() {
+        AtomicInteger executions = new AtomicInteger();
+        ResponseEntity<Order> mine = service.execute("checkout", "engineering", BUYER, "key-5", "body",
+                Order.class, () -> accepted(executions));
+
+        ResponseEntity<Order> theirs = service.execute("checkout", "engineering", UUID.randomUUID(), "key-5",
+                "other body", Order.class, () -> accepted(executions));
+
+        assertThat(executions).hasValue(2);
+        assertThat(theirs.getBody().id()).isNotEqualTo(mine.getBody().id());
+        assertThat(theirs.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+    }
+
+    private IdempotencyService newInstance() {
+        return new IdempotencyService(store, new ObjectMapper(), new SimpleMeterRegistry(),
+                Duration.ofHours(1), Duration.ofSeconds(30), Duration.ofSeconds(5));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ResponseEntity<Order> accepted(AtomicInteger executions) {
+        executions.incrementAndGet();
+        UUID orderId = UUID.randomUUID();
+        return ResponseEntity.accepted().location(URI.create("/orders/" + orderId)).body(new Order(orderId));
+    }
+
+    record Order(UUID id) {
+    }
+}
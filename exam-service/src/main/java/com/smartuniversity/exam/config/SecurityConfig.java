@@ -1,5 +1,6 @@
 package com.smartuniversity.exam.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -10,6 +11,7 @@ import org.springframework.security.web.SecurityFilterChain;
  * Authentication and RBAC are handled at the API Gateway.
  */
 @Configuration
+@ConditionalOnWebApplication
 public class SecurityConfig {
 
     @Bean
@@ -0,0 +1,17 @@
+package com.smartuniversity.exam.domain;
+
+import java.util.List;
+
+/**
+ * Correct answer of an automatically graded question. Which fields apply depends on
+ * the {@link QuestionType}: {@code correctOptions} (1-based option numbers) for choice
+ * questions, {@code value} and {@code tolerance} for numeric ones, and
+ * {@code patterns} (regular expressions) for short answers.
+ */
+public record AnswerKey(
+        List<Integer> correctOptions,
+        Double value,
+        Double tolerance,
+        List<String> patterns
+) {
+}
@@ -9,6 +9,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
@@ -19,8 +20,15 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
+/**
+ * An exam goes LIVE at {@code startTime} and is CLOSED at {@code endTime}; the
+ * indexes serve the lifecycle scheduler's lookups of upcoming transitions.
+ */
 @Entity
-@Table(name = "exams")
+@Table(name = "exams", indexes = {
+        @Index(name = "idx_exams_state_start_time", columnList = "state, start_time"),
+        @Index(name = "idx_exams_state_end_time", columnList = "state, end_time")
+})
 public class Exam {
 
     @Id
@@ -42,10 +50,22 @@ public class Exam {
     @Column(name = "start_time", nullable = false)
     private Instant startTime;
 
+    /**
+     * End of the exam window; exams without one are never closed automatically.
+     */
+    @Column(name = "end_time")
+    private Instant endTime;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
     private ExamStateType state;
 
+    /**
+     * Incremented whenever an answer key changes; grades record the version they used.
+     */
+    @Column(name = "grading_version")
+    private Integer gradingVersion;
+
     @OneToMany(mappedBy = "exam", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<Question> questions = new ArrayList<>();
 
@@ -115,6 +135,14 @@ public class Exam {
         this.startTime = startTime;
     }
 
+    public Instant getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(Instant endTime) {
+        this.endTime = endTime;
+    }
+
     public ExamStateType getState() {
         return state;
     }
@@ -146,4 +174,12 @@ public class Exam {
     public void setUpdatedAt(Instant updatedAt) {
         this.updatedAt = updatedAt;
     }
-}
\ No newline at end of file
+
+    public int getGradingVersion() {
+        return gradingVersion != null ? gradingVersion : 0;
+    }
+
+    public void setGradingVersion(int gradingVersion) {
+        this.gradingVersion = gradingVersion;
+    }
+}
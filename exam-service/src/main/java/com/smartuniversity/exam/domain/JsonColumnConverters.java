@@ -0,0 +1,73 @@
+package com.smartuniversity.exam.domain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.List;
+
+/**
+ * Stores small question attributes as JSON text columns.
+ */
+final class JsonColumnConverters {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private JsonColumnConverters() {
+    }
+
+    private static String write(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot store " + value, e);
+        }
+    }
+
+    private static <T> T read(String json, TypeReference<T> type) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return MAPPER.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read stored value " + json, e);
+        }
+    }
+
+    @Converter
+    static class StringList implements AttributeConverter<List<String>, String> {
+
+        @Override
+        public String convertToDatabaseColumn(List<String> attribute) {
+            return attribute == null || attribute.isEmpty() ? null : write(attribute);
+        }
+
+        @Override
+        public List<String> convertToEntityAttribute(String dbData) {
+            List<String> values = read(dbData, new TypeReference<>() {
+            });
+            return values != null ? values : List.of();
+        }
+    }
+
+    @Converter
+    static class Key implements AttributeConverter<AnswerKey, String> {
+
+        @Override
+        public String convertToDatabaseColumn(AnswerKey attribute) {
+            return write(attribute);
+        }
+
+        @Override
+        public AnswerKey convertToEntityAttribute(String dbData) {
+            return read(dbData, new TypeReference<>() {
+            });
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.smartuniversity.exam.domain;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -10,10 +14,16 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
+import java.util.List;
 import java.util.UUID;
 
+/**
+ * A question of an exam. Questions other than free text carry an answer key and are
+ * graded automatically; the key is never sent to students.
+ */
 @Entity
 @Table(name = "questions")
+@EntityListeners(QuestionChangeListener.class)
 public class Question {
 
     @Id
@@ -30,6 +40,27 @@ public class Question {
     @Column(name = "sort_order")
     private int sortOrder;
 
+    /**
+     * Nullable for questions created before types existed; those are free text.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private QuestionType type;
+
+    /**
+     * Choices of a choice question, numbered from 1 in answers and keys.
+     */
+    @Convert(converter = JsonColumnConverters.StringList.class)
+    @Column(name = "options_json", columnDefinition = "TEXT")
+    private List<String> options = List.of();
+
+    @Convert(converter = JsonColumnConverters.Key.class)
+    @Column(name = "answer_key_json", columnDefinition = "TEXT")
+    private AnswerKey answerKey;
+
+    @Column
+    private Integer points;
+
     public UUID getId() {
         return id;
     }
@@ -61,4 +92,36 @@ public class Question {
     public void setSortOrder(int sortOrder) {
         this.sortOrder = sortOrder;
     }
-}
\ No newline at end of file
+
+    public QuestionType getType() {
+        return type != null ? type : QuestionType.FREE_TEXT;
+    }
+
+    public void setType(QuestionType type) {
+        this.type = type;
+    }
+
+    public List<String> getOptions() {
+        return options != null ? options : List.of();
+    }
+
+    public void setOptions(List<String> options) {
+        this.options = options;
+    }
+
+    public AnswerKey getAnswerKey() {
+        return answerKey;
+    }
+
+    public void setAnswerKey(AnswerKey answerKey) {
+        this.answerKey = answerKey;
+    }
+
+    public int getPoints() {
+        return points != null ? points : 1;
+    }
+
+    public void setPoints(Integer points) {
+        this.points = points;
+    }
+}
@@ -0,0 +1,29 @@
+package com.smartuniversity.exam.domain;
+
+import com.smartuniversity.exam.lifecycle.ExamContentChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Reports every write to a question, whichever code path made it, so that cached
+ * exam content can be dropped. Instantiated by Hibernate through Spring's bean container.
+ */
+public class QuestionChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public QuestionChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Question question) {
+        if (question.getExam() != null && question.getExam().getId() != null) {
+            eventPublisher.publishEvent(new ExamContentChangedEvent(question.getExam().getId()));
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.smartuniversity.exam.domain;
+
+/**
+ * How a question is answered and, except for free text, graded automatically.
+ */
+public enum QuestionType {
+    FREE_TEXT,
+    SINGLE_CHOICE,
+    MULTIPLE_CHOICE,
+    NUMERIC,
+    SHORT_ANSWER
+}
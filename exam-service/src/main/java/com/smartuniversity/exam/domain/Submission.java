@@ -10,12 +10,18 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 import java.time.Instant;
 import java.util.UUID;
 
+/**
+ * One submission per student and exam, enforced by the unique constraint; submissions
+ * are written in batches by {@link com.smartuniversity.exam.submission.SubmissionIngestor}.
+ */
 @Entity
-@Table(name = "submissions")
+@Table(name = "submissions", uniqueConstraints = @UniqueConstraint(
+        name = "uk_submissions_exam_student", columnNames = {"exam_id", "student_id"}))
 public class Submission {
 
     @Id
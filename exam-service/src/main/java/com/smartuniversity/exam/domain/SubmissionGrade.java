@@ -0,0 +1,141 @@
+package com.smartuniversity.exam.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Automatic grade of one submission: totals plus one bit per question, so that a
+ * result row stays a few dozen bytes however many questions the exam has. Written by
+ * {@link com.smartuniversity.exam.grading.GradingEngine}.
+ */
+@Entity
+@Table(name = "submission_grades", indexes = @Index(name = "idx_submission_grades_exam", columnList = "exam_id"))
+public class SubmissionGrade {
+
+    @Id
+    @Column(name = "submission_id")
+    private UUID submissionId;
+
+    @Column(name = "tenant_id", nullable = false, length = 64)
+    private String tenantId;
+
+    @Column(name = "exam_id", nullable = false)
+    private UUID examId;
+
+    @Column(name = "student_id", nullable = false)
+    private UUID studentId;
+
+    @Column(nullable = false)
+    private int score;
+
+    /**
+     * Points of the automatically graded questions.
+     */
+    @Column(name = "max_score", nullable = false)
+    private int maxScore;
+
+    /**
+     * Questions left for manual grading: free text, or no answer key yet.
+     */
+    @Column(name = "pending_questions", nullable = false)
+    private int pendingQuestions;
+
+    /**
+     * Bit {@code i} (little-endian) is set if question {@code i + 1} in sort order was
+     * answered correctly.
+     */
+    @Column(name = "correct_questions", nullable = false)
+    private byte[] correctQuestions;
+
+    @Column(name = "grading_version", nullable = false)
+    private int gradingVersion;
+
+    @Column(name = "graded_at", nullable = false)
+    private Instant gradedAt;
+
+    public UUID getSubmissionId() {
+        return submissionId;
+    }
+
+    public void setSubmissionId(UUID submissionId) {
+        this.submissionId = submissionId;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(String tenantId) {
+        this.tenantId = tenantId;
+    }
+
+    public UUID getExamId() {
+        return examId;
+    }
+
+    public void setExamId(UUID examId) {
+        this.examId = examId;
+    }
+
+    public UUID getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(UUID studentId) {
+        this.studentId = studentId;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void setScore(int score) {
+        this.score = score;
+    }
+
+    public int getMaxScore() {
+        return maxScore;
+    }
+
+    public void setMaxScore(int maxScore) {
+        this.maxScore = maxScore;
+    }
+
+    public int getPendingQuestions() {
+        return pendingQuestions;
+    }
+
+    public void setPendingQuestions(int pendingQuestions) {
+        this.pendingQuestions = pendingQuestions;
+    }
+
+    public byte[] getCorrectQuestions() {
+        return correctQuestions;
+    }
+
+    public void setCorrectQuestions(byte[] correctQuestions) {
+        this.correctQuestions = correctQuestions;
+    }
+
+    public int getGradingVersion() {
+        return gradingVersion;
+    }
+
+    public void setGradingVersion(int gradingVersion) {
+        this.gradingVersion = gradingVersion;
+    }
+
+    public Instant getGradedAt() {
+        return gradedAt;
+    }
+
+    public void setGradedAt(Instant gradedAt) {
+        this.gradedAt = gradedAt;
+    }
+}
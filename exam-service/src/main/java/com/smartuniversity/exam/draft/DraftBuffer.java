@@ -0,0 +1,200 @@
+package com.smartuniversity.exam.draft;
+
+import com.smartuniversity.exam.domain.DraftAnswer;
+import com.smartuniversity.exam.repository.DraftAnswerRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for autosaved exam answers.
+ *
+ * Autosaves only update memory: each student has one buffered draft, and a newer
+ * answer to a question replaces the buffered one, so a student saving every few
+ * seconds costs one row per changed question per flush rather than one write per
+ * request. Every {@code exam.drafts.flush-interval-ms} the buffered drafts are
+ * written to draft_answers in JDBC batches of up to {@code exam.drafts.batch-size}
+ * answers; a draft leaves the buffer only once it is committed and has not changed
+ * in the meantime. Reads merge the stored answers with the buffered ones.
+ *
+ * Buffered answers are lost if the instance dies before the next flush; the
+ * interval bounds how much. When {@code exam.drafts.max-students} drafts are
+ * buffered, autosaves from further students are refused with 503.
+ */
+@Component
+public class DraftBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(DraftBuffer.class);
+
+    private final DraftAnswerRepository draftAnswerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<DraftKey, Draft> buffer = new ConcurrentHashMap<>();
+    private final int batchSize;
+    private final int maxStudents;
+
+    private final Counter savedCounter;
+    private final Counter rejectedCounter;
+    private final Counter flushedCounter;
+    private final Timer flushTimer;
+
+    public DraftBuffer(DraftAnswerRepository draftAnswerRepository,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${exam.drafts.batch-size:500}") int batchSize,
+                       @Value("${exam.drafts.max-students:50000}") int maxStudents) {
+        this.draftAnswerRepository = draftAnswerRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxStudents = maxStudents;
+
+        this.savedCounter = Counter.builder("exam.drafts.autosaves")
+                .description("Autosave requests taken into the draft buffer")
+                .tag("outcome", "buffered")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("exam.drafts.autosaves")
+                .description("Autosave requests taken into the draft buffer")
+                .tag("outcome", "buffer-full")
+                .register(meterRegistry);
+        this.flushedCounter = Counter.builder("exam.drafts.flushed")
+                .description("Draft answers written to the database")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("exam.drafts.flush")
+                .description("Time to write one batch of draft answers")
+                .register(meterRegistry);
+        Gauge.builder("exam.drafts.buffered", buffer, Map::size)
+                .description("Students with draft answers not yet written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Buffers the answers, replacing earlier buffered answers to the same questions.
+     *
+     * @throws ResponseStatusException 503 if the buffer is full
+     */
+    public void save(String tenantId, UUID examId, UUID studentId, Map<String, String> answers) {
+        DraftKey key = new DraftKey(examId, studentId);
+        if (buffer.size() >= maxStudents && !buffer.containsKey(key)) {
+            rejectedCounter.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many unsaved drafts, please retry");
+        }
+        Instant now = Instant.now();
+        Map<String, TimedAnswer> timed = new HashMap<>();
+        answers.forEach((question, answer) -> timed.put(question, new TimedAnswer(answer, now)));
+        buffer.merge(key, new Draft(tenantId, Map.copyOf(timed)), Draft::merge);
+        savedCounter.increment();
+    }
+
+    /**
+     * Returns the student's draft: stored answers overlaid with buffered ones.
+     */
+    public Map<String, String> answers(String tenantId, UUID examId, UUID studentId) {
+        // Read the buffer first: an entry flushed in between is then found in the table.
+        Draft buffered = buffer.get(new DraftKey(examId, studentId));
+        Map<String, String> answers = new HashMap<>();
+        for (DraftAnswer stored : draftAnswerRepository.findAllByExamIdAndStudentIdAndTenantId(
+                examId, studentId, tenantId)) {
+            answers.put(stored.getQuestionKey(), stored.getAnswer());
+        }
+        if (buffered != null) {
+            buffered.answers().forEach((question, answer) -> answers.put(question, answer.answer()));
+        }
+        return answers;
+    }
+
+    /**
+     * Drops the buffered draft of a student whose submission has been stored.
+     */
+    public void discard(UUID examId, UUID studentId) {
+        buffer.remove(new DraftKey(examId, studentId));
+    }
+
+    /**
+     * Writes the buffered drafts.
+     *
+     * @return the number of answers written
+     */
+    @Scheduled(fixedDelayString = "${exam.drafts.flush-interval-ms:5000}",
+            initialDelayString = "${exam.drafts.flush-interval-ms:5000}")
+    public synchronized int flush() {
+        List<Map.Entry<DraftKey, Draft>> batch = new ArrayList<>();
+        List<PendingDraftAnswer> rows = new ArrayList<>(batchSize);
+        int written = 0;
+        for (Map.Entry<DraftKey, Draft> entry : buffer.entrySet()) {
+            // Entries of the live map may change under us; keep the value we write.
+            Map.Entry<DraftKey, Draft> snapshot = Map.entry(entry.getKey(), entry.getValue());
+            batch.add(snapshot);
+            snapshot.getValue().answers().forEach((question, answer) -> rows.add(new PendingDraftAnswer(
+                    snapshot.getValue().tenantId(), snapshot.getKey().examId(), snapshot.getKey().studentId(),
+                    question, answer.answer(), answer.updatedAt())));
+            if (rows.size() >= batchSize) {
+                written += write(batch, rows);
+            }
+        }
+        written += write(batch, rows);
+        return written;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private int write(List<Map.Entry<DraftKey, Draft>> batch, List<PendingDraftAnswer> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        int written = rows.size();
+        try {
+            flushTimer.record(() -> transactionTemplate.executeWithoutResult(
+                    status -> draftAnswerRepository.upsertAll(rows)));
+            // Only drop drafts that were not updated while they were being written.
+            for (Map.Entry<DraftKey, Draft> entry : batch) {
+                buffer.remove(entry.getKey(), entry.getValue());
+            }
+            flushedCounter.increment(written);
+        } catch (RuntimeException ex) {
+            // Left in the buffer for the next flush.
+            logger.warn("Could not write {} draft answers: {}", written, ex.getMessage());
+            written = 0;
+        } finally {
+            batch.clear();
+            rows.clear();
+        }
+        return written;
+    }
+
+    private record DraftKey(UUID examId, UUID studentId) {
+    }
+
+    private record TimedAnswer(String answer, Instant updatedAt) {
+    }
+
+    private record Draft(String tenantId, Map<String, TimedAnswer> answers) {
+
+        Draft merge(Draft newer) {
+            Map<String, TimedAnswer> merged = new HashMap<>(answers);
+            merged.putAll(newer.answers());
+            return new Draft(tenantId, Map.copyOf(merged));
+        }
+    }
+}
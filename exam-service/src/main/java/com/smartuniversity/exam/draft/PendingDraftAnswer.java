@@ -0,0 +1,18 @@
+package com.smartuniversity.exam.draft;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A buffered answer on its way to draft_answers. {@code updatedAt} is when the
+ * autosave arrived and decides which write wins.
+ */
+public record PendingDraftAnswer(
+        String tenantId,
+        UUID examId,
+        UUID studentId,
+        String questionKey,
+        String answer,
+        Instant updatedAt
+) {
+}
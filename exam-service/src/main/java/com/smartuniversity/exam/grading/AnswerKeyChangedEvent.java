@@ -0,0 +1,10 @@
+package com.smartuniversity.exam.grading;
+
+import java.util.UUID;
+
+/**
+ * Published when a question's answer key changes; the exam's submissions are re-graded
+ * after commit.
+ */
+public record AnswerKeyChangedEvent(UUID examId, int gradingVersion) {
+}
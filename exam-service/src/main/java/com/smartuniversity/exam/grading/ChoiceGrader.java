@@ -0,0 +1,54 @@
+package com.smartuniversity.exam.grading;
+
+import com.smartuniversity.exam.domain.AnswerKey;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Choice questions are answered with 1-based option numbers, several of them
+ * separated by commas ("2" or "1,3"). Only the exact set of correct options scores.
+ */
+abstract class ChoiceGrader implements QuestionGrader {
+
+    @Override
+    public void validate(List<String> options, AnswerKey key) {
+        if (options.size() < 2) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Choice questions need at least two options");
+        }
+        if (key == null) {
+            return;
+        }
+        List<Integer> correct = key.correctOptions();
+        if (correct == null || correct.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Answer key needs correctOptions");
+        }
+        if (new HashSet<>(correct).size() != correct.size()
+                || correct.stream().anyMatch(o -> o == null || o < 1 || o > options.size())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "correctOptions must be distinct option numbers from 1 to " + options.size());
+        }
+    }
+
+    @Override
+    public Predicate<String> compile(AnswerKey key) {
+        Set<Integer> correct = Set.copyOf(key.correctOptions());
+        return answer -> correct.equals(parse(answer));
+    }
+
+    private static Set<Integer> parse(String answer) {
+        Set<Integer> chosen = new HashSet<>();
+        for (String part : answer.split(",")) {
+            try {
+                chosen.add(Integer.parseInt(part.trim()));
+            } catch (NumberFormatException ex) {
+                return Set.of();
+            }
+        }
+        return chosen;
+    }
+}
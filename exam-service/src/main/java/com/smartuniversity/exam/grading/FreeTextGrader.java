@@ -0,0 +1,38 @@
+package com.smartuniversity.exam.grading;
+
+import com.smartuniversity.exam.domain.AnswerKey;
+import com.smartuniversity.exam.domain.QuestionType;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Free text is left to the teacher.
+ */
+public class FreeTextGrader implements QuestionGrader {
+
+    @Override
+    public QuestionType getType() {
+        return QuestionType.FREE_TEXT;
+    }
+
+    @Override
+    public boolean isAutomatic() {
+        return false;
+    }
+
+    @Override
+    public void validate(List<String> options, AnswerKey key) {
+        if (!options.isEmpty() || key != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Free text questions have no options or answer key");
+        }
+    }
+
+    @Override
+    public Predicate<String> compile(AnswerKey key) {
+        return answer -> false;
+    }
+}
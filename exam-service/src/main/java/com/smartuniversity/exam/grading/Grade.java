@@ -0,0 +1,7 @@
+package com.smartuniversity.exam.grading;
+
+/**
+ * Result of grading one submission; see {@link com.smartuniversity.exam.domain.SubmissionGrade}.
+ */
+public record Grade(int score, int maxScore, int pendingQuestions, byte[] correctQuestions) {
+}
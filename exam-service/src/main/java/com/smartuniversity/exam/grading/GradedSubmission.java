@@ -0,0 +1,18 @@
+package com.smartuniversity.exam.grading;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A grade on its way to submission_grades.
+ */
+public record GradedSubmission(
+        UUID submissionId,
+        String tenantId,
+        UUID examId,
+        UUID studentId,
+        Grade grade,
+        int gradingVersion,
+        Instant gradedAt
+) {
+}
@@ -0,0 +1,288 @@
+package com.smartuniversity.exam.grading;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartuniversity.exam.repository.SubmissionGradeRepository;
+import com.smartuniversity.exam.repository.SubmissionRepository;
+import com.smartuniversity.exam.submission.PendingSubmission;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Scores submissions against the exam's answer keys and stores the results in
+ * submission_grades.
+ *
+ * New submissions are graded by the ingestion flushers right after their batch
+ * commits, with the cached {@link GradingKey}. When an answer key changes, the
+ * exam's submissions are re-graded: they are streamed from the database in chunks of
+ * {@code exam.grading.chunk-size}, and each chunk is graded and written by a
+ * fork-join task that splits down to {@code exam.grading.leaf-size} submissions per
+ * batch write. At most two chunks per worker are in memory at a time.
+ *
+ * Every grade records the grading version of its key, and a grade is never replaced
+ * by one computed with an older key.
+ */
+@Component
+public class GradingEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(GradingEngine.class);
+
+    private static final TypeReference<Map<String, String>> ANSWERS = new TypeReference<>() {
+    };
+
+    private final GradingKeyCache gradingKeys;
+    private final SubmissionRepository submissionRepository;
+    private final SubmissionGradeRepository gradeRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate streamTransaction;
+    private final int parallelism;
+    private final int chunkSize;
+    private final int leafSize;
+    private final ForkJoinPool pool;
+    private final ExecutorService coordinator;
+
+    private final Counter ingestCounter;
+    private final Counter regradeCounter;
+    private final Timer regradeTimer;
+
+    public GradingEngine(GradingKeyCache gradingKeys,
+                         SubmissionRepository submissionRepository,
+                         SubmissionGradeRepository gradeRepository,
+                         ObjectMapper objectMapper,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${exam.grading.parallelism:4}") int parallelism,
+                         @Value("${exam.grading.chunk-size:1000}") int chunkSize,
+                         @Value("${exam.grading.leaf-size:250}") int leafSize) {
+        this.gradingKeys = gradingKeys;
+        this.submissionRepository = submissionRepository;
+        this.gradeRepository = gradeRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.streamTransaction = new TransactionTemplate(transactionManager);
+        this.streamTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.streamTransaction.setReadOnly(true);
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.leafSize = leafSize;
+        this.pool = new ForkJoinPool(parallelism, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("exam-grading-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("exam-regrade-");
+        threadFactory.setDaemon(true);
+        this.coordinator = Executors.newSingleThreadExecutor(threadFactory);
+
+        this.ingestCounter = graded(meterRegistry, "ingest");
+        this.regradeCounter = graded(meterRegistry, "regrade");
+        this.regradeTimer = Timer.builder("exam.grading.regrade")
+                .description("Time to re-grade all submissions of an exam")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Grades newly stored submissions. Failures are logged; the next re-grade of the
+     * exam covers them.
+     *
+     * Once the batch is graded, the exam's grading version is read from the database,
+     * and the batch is graded again if the key has changed in the meantime. The batch
+     * is committed before that read, so a key change it does not see commits later,
+     * and the re-grade that follows that change reads this batch.
+     */
+    public void gradeIngested(List<PendingSubmission> submissions) {
+        Map<UUID, List<PendingSubmission>> byExam = new LinkedHashMap<>();
+        for (PendingSubmission submission : submissions) {
+            byExam.computeIfAbsent(submission.examId(), id -> new ArrayList<>()).add(submission);
+        }
+        Instant now = Instant.now();
+        List<GradedSubmission> grades = new ArrayList<>(submissions.size());
+        byExam.forEach((examId, examSubmissions) -> gradingKeys.get(examId).ifPresent(key -> {
+            List<GradedSubmission> examGrades = grade(key, examSubmissions, now);
+            GradingKey current = gradingKeys.latest(key).orElse(key);
+            if (current.version() > key.version()) {
+                examGrades = grade(current, examSubmissions, now);
+            }
+            grades.addAll(examGrades);
+        }));
+        write(grades);
+        ingestCounter.increment(grades.size());
+    }
+
+    /**
+     * Re-grades every submission of the exam with its current keys.
+     *
+     * @return the number of submissions graded
+     */
+    public int regrade(UUID examId) {
+        GradingKey key = gradingKeys.refresh(examId).orElse(null);
+        if (key == null) {
+            return 0;
+        }
+        return regradeTimer.record(() -> {
+            Semaphore inFlight = new Semaphore(parallelism * 2);
+            List<ForkJoinTask<Integer>> tasks = new ArrayList<>();
+            streamTransaction.executeWithoutResult(status -> {
+                try (Stream<SubmissionAnswers> stream =
+                             submissionRepository.streamAnswersByExam(examId, key.tenantId())) {
+                    List<SubmissionAnswers> chunk = new ArrayList<>(chunkSize);
+                    for (SubmissionAnswers submission : (Iterable<SubmissionAnswers>) stream::iterator) {
+                        chunk.add(submission);
+                        if (chunk.size() == chunkSize) {
+                            tasks.add(submit(key, chunk, inFlight));
+                            chunk = new ArrayList<>(chunkSize);
+                        }
+                    }
+                    if (!chunk.isEmpty()) {
+                        tasks.add(submit(key, chunk, inFlight));
+                    }
+                }
+            });
+            int graded = 0;
+            for (ForkJoinTask<Integer> task : tasks) {
+                try {
+                    graded += task.get();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Re-grade of exam " + examId + " interrupted", ex);
+                } catch (ExecutionException ex) {
+                    throw new IllegalStateException("Re-grade of exam " + examId + " failed", ex.getCause());
+                }
+            }
+            regradeCounter.increment(graded);
+            logger.info("Re-graded {} submissions of exam {} with grading version {}", graded, examId, key.version());
+            return graded;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnswerKeyChanged(AnswerKeyChangedEvent event) {
+        coordinator.execute(() -> {
+            try {
+                regrade(event.examId());
+            } catch (RuntimeException ex) {
+                logger.error("Re-grade of exam {} failed", event.examId(), ex);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    private ForkJoinTask<Integer> submit(GradingKey key, List<SubmissionAnswers> chunk, Semaphore inFlight) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Re-grade interrupted", ex);
+        }
+        return pool.submit(new GradeTask(key, chunk, Instant.now(), inFlight));
+    }
+
+    private List<GradedSubmission> grade(GradingKey key, List<PendingSubmission> submissions, Instant gradedAt) {
+        List<GradedSubmission> grades = new ArrayList<>(submissions.size());
+        for (PendingSubmission submission : submissions) {
+            grades.add(new GradedSubmission(submission.id(), submission.tenantId(), key.examId(),
+                    submission.studentId(), key.grade(answers(submission.answersJson())), key.version(), gradedAt));
+        }
+        return grades;
+    }
+
+    private void write(List<GradedSubmission> grades) {
+        if (!grades.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> gradeRepository.upsertAll(grades));
+        }
+    }
+
+    private Map<String, String> answers(String json) {
+        try {
+            Map<String, String> answers = objectMapper.readValue(json, ANSWERS);
+            return answers != null ? answers : Map.of();
+        } catch (JsonProcessingException ex) {
+            return Map.of();
+        }
+    }
+
+    private static Counter graded(MeterRegistry meterRegistry, String mode) {
+        return Counter.builder("exam.grading.graded")
+                .description("Submissions graded automatically")
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Grades a slice of a chunk, splitting it until each write is one batch.
+     */
+    private final class GradeTask extends RecursiveTask<Integer> {
+
+        private final GradingKey key;
+        private final List<SubmissionAnswers> submissions;
+        private final Instant gradedAt;
+        private final Semaphore inFlight;
+
+        private GradeTask(GradingKey key, List<SubmissionAnswers> submissions, Instant gradedAt, Semaphore inFlight) {
+            this.key = key;
+            this.submissions = submissions;
+            this.gradedAt = gradedAt;
+            this.inFlight = inFlight;
+        }
+
+        @Override
+        protected Integer compute() {
+            try {
+                if (submissions.size() > leafSize) {
+                    int middle = submissions.size() / 2;
+                    GradeTask left = new GradeTask(key, submissions.subList(0, middle), gradedAt, null);
+                    GradeTask right = new GradeTask(key, submissions.subList(middle, submissions.size()), gradedAt, null);
+                    invokeAll(left, right);
+                    return left.join() + right.join();
+                }
+                List<GradedSubmission> grades = new ArrayList<>(submissions.size());
+                for (SubmissionAnswers submission : submissions) {
+                    grades.add(new GradedSubmission(submission.id(), key.tenantId(), key.examId(),
+                            submission.studentId(), key.grade(answers(submission.answersJson())), key.version(),
+                            gradedAt));
+                }
+                write(grades);
+                return grades.size();
+            } finally {
+                if (inFlight != null) {
+                    inFlight.release();
+                }
+            }
+        }
+    }
+}
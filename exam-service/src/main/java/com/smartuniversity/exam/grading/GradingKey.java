@@ -0,0 +1,89 @@
+package com.smartuniversity.exam.grading;
+
+import com.smartuniversity.exam.domain.Exam;
+import com.smartuniversity.exam.domain.Question;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * The compiled answer keys of one exam at one grading version. Immutable, so one
+ * instance is shared by all threads grading the exam.
+ */
+public final class GradingKey {
+
+    private final UUID examId;
+    private final String tenantId;
+    private final int version;
+    private final List<GradedQuestion> questions;
+
+    private GradingKey(UUID examId, String tenantId, int version, List<GradedQuestion> questions) {
+        this.examId = examId;
+        this.tenantId = tenantId;
+        this.version = version;
+        this.questions = questions;
+    }
+
+    /**
+     * Compiles the keys of an exam whose questions are loaded.
+     */
+    public static GradingKey of(Exam exam, QuestionGraderFactory graderFactory) {
+        List<GradedQuestion> questions = new ArrayList<>();
+        exam.getQuestions().stream()
+                .sorted(Comparator.comparingInt(Question::getSortOrder))
+                .forEach(q -> {
+                    QuestionGrader grader = graderFactory.getGrader(q.getType());
+                    boolean automatic = grader.isAutomatic() && q.getAnswerKey() != null;
+                    questions.add(new GradedQuestion(q.getId().toString(), "q" + q.getSortOrder(), q.getPoints(),
+                            automatic ? grader.compile(q.getAnswerKey()) : null));
+                });
+        return new GradingKey(exam.getId(), exam.getTenantId(), exam.getGradingVersion(), List.copyOf(questions));
+    }
+
+    public UUID examId() {
+        return examId;
+    }
+
+    public String tenantId() {
+        return tenantId;
+    }
+
+    public int version() {
+        return version;
+    }
+
+    /**
+     * Scores answers keyed by question id or by "q" and the question's sort order.
+     */
+    public Grade grade(Map<String, String> answers) {
+        int score = 0;
+        int maxScore = 0;
+        int pending = 0;
+        BitSet correct = new BitSet(questions.size());
+        for (int i = 0; i < questions.size(); i++) {
+            GradedQuestion question = questions.get(i);
+            if (question.test() == null) {
+                pending++;
+                continue;
+            }
+            maxScore += question.points();
+            String answer = answers.get(question.id());
+            if (answer == null) {
+                answer = answers.get(question.alias());
+            }
+            if (answer != null && question.test().test(answer.trim())) {
+                score += question.points();
+                correct.set(i);
+            }
+        }
+        return new Grade(score, maxScore, pending, correct.toByteArray());
+    }
+
+    private record GradedQuestion(String id, String alias, int points, Predicate<String> test) {
+    }
+}
@@ -0,0 +1,75 @@
+package com.smartuniversity.exam.grading;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartuniversity.exam.lifecycle.ExamContentChangedEvent;
+import com.smartuniversity.exam.repository.ExamRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Compiled answer keys per exam, so that grading on ingest does not load the
+ * questions for every batch. Dropped after commit when a question of the exam
+ * changes; changes made on other instances show up within {@code exam.grading.key-cache-ttl}.
+ */
+@Component
+public class GradingKeyCache {
+
+    private final ExamRepository examRepository;
+    private final QuestionGraderFactory graderFactory;
+    private final TransactionTemplate readTransaction;
+    private final Cache<UUID, GradingKey> cache;
+
+    public GradingKeyCache(ExamRepository examRepository,
+                           QuestionGraderFactory graderFactory,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${exam.grading.key-cache-ttl:30s}") Duration ttl) {
+        this.examRepository = examRepository;
+        this.graderFactory = graderFactory;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(1000)
+                .build();
+    }
+
+    public Optional<GradingKey> get(UUID examId) {
+        return Optional.ofNullable(cache.get(examId, this::load));
+    }
+
+    public Optional<GradingKey> refresh(UUID examId) {
+        cache.invalidate(examId);
+        return get(examId);
+    }
+
+    /**
+     * Returns {@code key}, or the exam's key reloaded if the exam's grading version in
+     * the database has moved past it. Unlike {@link #get}, this sees key changes made
+     * on other instances straight away.
+     */
+    public Optional<GradingKey> latest(GradingKey key) {
+        int stored = examRepository.findGradingVersion(key.examId()).orElse(key.version());
+        return stored > key.version() ? refresh(key.examId()) : Optional.of(key);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChanged(ExamContentChangedEvent event) {
+        cache.invalidate(event.examId());
+    }
+
+    private GradingKey load(UUID examId) {
+        return readTransaction.execute(status -> examRepository.findById(examId)
+                .map(exam -> GradingKey.of(exam, graderFactory))
+                .orElse(null));
+    }
+}
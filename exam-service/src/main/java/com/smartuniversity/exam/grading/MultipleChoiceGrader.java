@@ -0,0 +1,14 @@
+package com.smartuniversity.exam.grading;
+
+import com.smartuniversity.exam.domain.QuestionType;
+
+/**
+ * Any number of options may be correct; the answer must name all of them and no other.
+ */
+public class MultipleChoiceGrader extends ChoiceGrader {
+
+    @Override
+    public QuestionType getType() {
+        return QuestionType.MULTIPLE_CHOICE;
+    }
+}
@@ -0,0 +1,49 @@
+package com.smartuniversity.exam.grading;
+
+import com.smartuniversity.exam.domain.AnswerKey;
+import com.smartuniversity.exam.domain.QuestionType;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Correct if the answer is within {@code tolerance} of {@code value} (exact without one).
+ */
+public class NumericGrader implements QuestionGrader {
+
+    @Override
+    public QuestionType getType() {
+        return QuestionType.NUMERIC;
+    }
+
+    @Override
+    public void validate(List<String> options, AnswerKey key) {
+        if (!options.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Numeric questions have no options");
+        }
+        if (key == null) {
+            return;
+        }
+        if (key.value() == null || !Double.isFinite(key.value())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Answer key needs a numeric value");
+        }
+        if (key.tolerance() != null && !(key.tolerance() >= 0)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tolerance must not be negative");
+        }
+    }
+
+    @Override
+    public Predicate<String> compile(AnswerKey key) {
+        double value = key.value();
+        double tolerance = key.tolerance() != null ? key.tolerance() : 0;
+        return answer -> {
+            try {
+                return Math.abs(Double.parseDouble(answer) - value) <= tolerance;
+            } catch (NumberFormatException ex) {
+                return false;
+            }
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.smartuniversity.exam.grading;
+
+import com.smartuniversity.exam.domain.AnswerKey;
+import com.smartuniversity.exam.domain.QuestionType;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Grading rules of one {@link QuestionType}.
+ */
+public interface QuestionGrader {
+
+    QuestionType getType();
+
+    /**
+     * Whether answers to this type can be graded without a teacher.
+     */
+    default boolean isAutomatic() {
+        return true;
+    }
+
+    /**
+     * Checks the options and the answer key of a question of this type. The key may
+     * be {@code null} until the teacher provides it.
+     *
+     * @throws org.springframework.web.server.ResponseStatusException 400 if they do not fit the type
+     */
+    void validate(List<String> options, AnswerKey key);
+
+    /**
+     * Prepares a validated key once; the returned test is applied to every trimmed
+     * answer to the question.
+     */
+    Predicate<String> compile(AnswerKey key);
+}
@@ -0,0 +1,32 @@
+package com.smartuniversity.exam.grading;
+
+import com.smartuniversity.exam.domain.QuestionType;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Factory returning the grader for a question type.
+ */
+@Component
+public class QuestionGraderFactory {
+
+    private final Map<QuestionType, QuestionGrader> graders = new EnumMap<>(QuestionType.class);
+
+    public QuestionGraderFactory() {
+        graders.put(QuestionType.FREE_TEXT, new FreeTextGrader());
+        graders.put(QuestionType.SINGLE_CHOICE, new SingleChoiceGrader());
+        graders.put(QuestionType.MULTIPLE_CHOICE, new MultipleChoiceGrader());
+        graders.put(QuestionType.NUMERIC, new NumericGrader());
+        graders.put(QuestionType.SHORT_ANSWER, new ShortAnswerGrader());
+    }
+
+    public QuestionGrader getGrader(QuestionType type) {
+        QuestionGrader grader = graders.get(type);
+        if (grader == null) {
+            return graders.get(QuestionType.FREE_TEXT);
+        }
+        return grader;
+    }
+}
@@ -0,0 +1,50 @@
+package com.smartuniversity.exam.grading;
+
+import com.smartuniversity.exam.domain.AnswerKey;
+import com.smartuniversity.exam.domain.QuestionType;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Correct if the whole answer matches one of the patterns, ignoring case.
+ */
+public class ShortAnswerGrader implements QuestionGrader {
+
+    @Override
+    public QuestionType getType() {
+        return QuestionType.SHORT_ANSWER;
+    }
+
+    @Override
+    public void validate(List<String> options, AnswerKey key) {
+        if (!options.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Short answer questions have no options");
+        }
+        if (key == null) {
+            return;
+        }
+        if (key.patterns() == null || key.patterns().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Answer key needs patterns");
+        }
+        for (String pattern : key.patterns()) {
+            try {
+                Pattern.compile(pattern);
+            } catch (PatternSyntaxException | NullPointerException ex) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid answer pattern: " + pattern);
+            }
+        }
+    }
+
+    @Override
+    public Predicate<String> compile(AnswerKey key) {
+        List<Pattern> patterns = key.patterns().stream()
+                .map(p -> Pattern.compile(p, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE))
+                .toList();
+        return answer -> patterns.stream().anyMatch(p -> p.matcher(answer).matches());
+    }
+}
@@ -0,0 +1,28 @@
+package com.smartuniversity.exam.grading;
+
+import com.smartuniversity.exam.domain.AnswerKey;
+import com.smartuniversity.exam.domain.QuestionType;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Exactly one option is correct.
+ */
+public class SingleChoiceGrader extends ChoiceGrader {
+
+    @Override
+    public QuestionType getType() {
+        return QuestionType.SINGLE_CHOICE;
+    }
+
+    @Override
+    public void validate(List<String> options, AnswerKey key) {
+        super.validate(options, key);
+        if (key != null && key.correctOptions().size() != 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Single choice questions have exactly one correct option");
+        }
+    }
+}
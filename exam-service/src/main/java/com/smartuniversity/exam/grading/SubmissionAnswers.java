@@ -0,0 +1,9 @@
+package com.smartuniversity.exam.grading;
+
+import java.util.UUID;
+
+/**
+ * The columns of a submission that grading needs.
+ */
+public record SubmissionAnswers(UUID id, UUID studentId, String answersJson) {
+}
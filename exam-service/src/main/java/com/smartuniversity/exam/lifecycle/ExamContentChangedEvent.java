@@ -0,0 +1,9 @@
+package com.smartuniversity.exam.lifecycle;
+
+import java.util.UUID;
+
+/**
+ * Published when an exam's questions are added, changed or removed.
+ */
+public record ExamContentChangedEvent(UUID examId) {
+}
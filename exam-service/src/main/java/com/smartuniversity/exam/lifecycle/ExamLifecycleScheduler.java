@@ -0,0 +1,180 @@
+package com.smartuniversity.exam.lifecycle;
+
+import com.smartuniversity.exam.domain.Exam;
+import com.smartuniversity.exam.domain.ExamStateType;
+import com.smartuniversity.exam.repository.ExamRepository;
+import com.smartuniversity.exam.service.ExamService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves exams to LIVE at their start time and to CLOSED at their end time.
+ *
+ * Upcoming transitions are kept in an in-memory {@link TimingWheel}. It is filled
+ * from the database at startup and every {@code exam.lifecycle.reload-interval-ms}
+ * with the exams whose start or end falls within {@code exam.lifecycle.horizon}
+ * (indexed range queries, not a scan of all exams), and directly when an exam is
+ * created. A single thread advances the wheel every {@code exam.lifecycle.tick} and
+ * applies due transitions through {@link ExamService#applyTransition}.
+ *
+ * Every instance schedules the same transitions; the row lock and state check in
+ * {@code applyTransition} make exactly one of them apply each one and publish its
+ * event through the outbox. A transition that could not be applied because the exam
+ * was locked is retried on the next tick.
+ */
+@Component
+public class ExamLifecycleScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExamLifecycleScheduler.class);
+
+    private final ExamRepository examRepository;
+    private final ExamService examService;
+    private final boolean enabled;
+    private final Duration tick;
+    private final Duration horizon;
+    private final TimingWheel<ExamTransition, ExamTransition> wheel;
+    private final ScheduledExecutorService ticker;
+    private final Map<ExamTransition.Outcome, Counter> outcomes = new EnumMap<>(ExamTransition.Outcome.class);
+
+    public ExamLifecycleScheduler(ExamRepository examRepository,
+                                  ExamService examService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${exam.lifecycle.enabled:true}") boolean enabled,
+                                  @Value("${exam.lifecycle.tick:1s}") Duration tick,
+                                  @Value("${exam.lifecycle.wheel-size:512}") int wheelSize,
+                                  @Value("${exam.lifecycle.horizon:10m}") Duration horizon) {
+        this.examRepository = examRepository;
+        this.examService = examService;
+        this.enabled = enabled;
+        this.tick = tick;
+        this.horizon = horizon;
+        this.wheel = new TimingWheel<>(tick.toMillis(), wheelSize, System.currentTimeMillis());
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("exam-lifecycle-");
+        threadFactory.setDaemon(true);
+        this.ticker = Executors.newSingleThreadScheduledExecutor(threadFactory);
+
+        for (ExamTransition.Outcome outcome : ExamTransition.Outcome.values()) {
+            outcomes.put(outcome, Counter.builder("exam.lifecycle.transitions")
+                    .description("Scheduled exam transitions by outcome")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("exam.lifecycle.pending", wheel, TimingWheel::size)
+                .description("Exam transitions waiting in the timing wheel")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        reload();
+        ticker.scheduleWithFixedDelay(this::advance, tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schedules the transitions due within the horizon. Runs more often than the
+     * horizon is long, so no transition falls between two reloads.
+     */
+    @Scheduled(fixedDelayString = "${exam.lifecycle.reload-interval-ms:300000}",
+            initialDelayString = "${exam.lifecycle.reload-interval-ms:300000}")
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+        Instant until = Instant.now().plus(horizon);
+        int scheduled = 0;
+        for (Exam exam : examRepository.findAllByStateAndStartTimeLessThanEqual(ExamStateType.SCHEDULED, until)) {
+            wheel.schedule(ExamTransition.start(exam.getId()), ExamTransition.start(exam.getId()),
+                    exam.getStartTime().toEpochMilli());
+            scheduled++;
+        }
+        for (Exam exam : examRepository.findAllByStateInAndEndTimeLessThanEqual(
+                List.of(ExamStateType.SCHEDULED, ExamStateType.LIVE), until)) {
+            wheel.schedule(ExamTransition.close(exam.getId()), ExamTransition.close(exam.getId()),
+                    exam.getEndTime().toEpochMilli());
+            scheduled++;
+        }
+        logger.debug("Loaded {} exam transitions due before {}", scheduled, until);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ExamScheduleChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Instant until = Instant.now().plus(horizon);
+        if (event.state() == ExamStateType.SCHEDULED && !event.startTime().isAfter(until)) {
+            wheel.schedule(ExamTransition.start(event.examId()), ExamTransition.start(event.examId()),
+                    event.startTime().toEpochMilli());
+        }
+        if (event.endTime() != null && !event.endTime().isAfter(until)) {
+            wheel.schedule(ExamTransition.close(event.examId()), ExamTransition.close(event.examId()),
+                    event.endTime().toEpochMilli());
+        }
+    }
+
+    /**
+     * Applies the transitions that are due at {@code now}.
+     *
+     * @return the number of transitions this node applied
+     */
+    public int fireDue(Instant now) {
+        int applied = 0;
+        for (ExamTransition transition : wheel.advance(now.toEpochMilli())) {
+            ExamTransition.Outcome outcome;
+            try {
+                outcome = examService.applyTransition(transition, now);
+            } catch (RuntimeException ex) {
+                logger.warn("Exam transition {} failed, retrying: {}", transition, ex.getMessage());
+                outcome = ExamTransition.Outcome.LOCKED;
+            }
+            outcomes.get(outcome).increment();
+            if (outcome == ExamTransition.Outcome.LOCKED) {
+                wheel.schedule(transition, transition, now.plus(tick).toEpochMilli());
+            } else if (outcome == ExamTransition.Outcome.APPLIED) {
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    public int pending() {
+        return wheel.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    private void advance() {
+        try {
+            fireDue(Instant.now());
+        } catch (RuntimeException ex) {
+            logger.warn("Exam lifecycle tick failed: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.smartuniversity.exam.lifecycle;
+
+import com.smartuniversity.exam.domain.ExamStateType;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published when an exam's start or end time is set, so the lifecycle scheduler can
+ * pick it up without waiting for its next reload.
+ */
+public record ExamScheduleChangedEvent(UUID examId, ExamStateType state, Instant startTime, Instant endTime) {
+}
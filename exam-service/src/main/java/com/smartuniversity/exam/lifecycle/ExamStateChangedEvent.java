@@ -0,0 +1,12 @@
+package com.smartuniversity.exam.lifecycle;
+
+import com.smartuniversity.exam.domain.ExamStateType;
+
+import java.util.UUID;
+
+/**
+ * Published when an exam moves to another state, for caches of exam data to drop
+ * their copy once the change is committed.
+ */
+public record ExamStateChangedEvent(UUID examId, ExamStateType state) {
+}
@@ -0,0 +1,35 @@
+package com.smartuniversity.exam.lifecycle;
+
+import com.smartuniversity.exam.domain.ExamStateType;
+
+import java.util.UUID;
+
+/**
+ * A time-based lifecycle transition of one exam: to LIVE at its start time or to
+ * CLOSED at its end time.
+ */
+public record ExamTransition(UUID examId, ExamStateType target) {
+
+    public enum Outcome {
+        /**
+         * This node moved the exam and recorded the event.
+         */
+        APPLIED,
+        /**
+         * Another transaction holds the exam; try again shortly.
+         */
+        LOCKED,
+        /**
+         * Nothing to do: the exam is gone, already moved, or was rescheduled.
+         */
+        STALE
+    }
+
+    public static ExamTransition start(UUID examId) {
+        return new ExamTransition(examId, ExamStateType.LIVE);
+    }
+
+    public static ExamTransition close(UUID examId) {
+        return new ExamTransition(examId, ExamStateType.CLOSED);
+    }
+}
@@ -0,0 +1,124 @@
+package com.smartuniversity.exam.lifecycle;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timing wheel: deadlines are hashed by tick into a fixed ring of buckets,
+ * so scheduling is O(1) and each tick only looks at one bucket, however many timers
+ * are pending. Deadlines further out than one revolution stay in their bucket until
+ * the wheel comes round to their tick.
+ *
+ * Tasks are keyed; scheduling a key again replaces its previous deadline. The wheel
+ * does not keep time itself: the owner calls {@link #advance(long)} with the current
+ * time. All methods are synchronized.
+ *
+ * @param <K> task key
+ * @param <T> task
+ */
+public class TimingWheel<K, T> {
+
+    private final long tickMillis;
+    private final ArrayDeque<Entry<K, T>>[] buckets;
+    private final int mask;
+    private final Map<K, Entry<K, T>> entries = new HashMap<>();
+
+    /**
+     * Last tick that has been processed.
+     */
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.buckets = new ArrayDeque[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.mask = size - 1;
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedules {@code task} to become due at {@code deadlineMillis}. Past deadlines
+     * fire on the next {@link #advance(long)}.
+     */
+    public synchronized void schedule(K key, T task, long deadlineMillis) {
+        Entry<K, T> previous = entries.remove(key);
+        if (previous != null) {
+            previous.canceled = true;
+        }
+        long tick = Math.max(currentTick + 1, ceilDiv(deadlineMillis, tickMillis));
+        Entry<K, T> entry = new Entry<>(key, task, tick);
+        entries.put(key, entry);
+        buckets[(int) (tick & mask)].add(entry);
+    }
+
+    public synchronized boolean cancel(K key) {
+        Entry<K, T> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        entry.canceled = true;
+        return true;
+    }
+
+    public synchronized boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Moves the wheel to {@code nowMillis} and returns the tasks that became due.
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        List<T> due = new ArrayList<>();
+        // After a long pause every bucket is visited once; that already covers all ticks.
+        long first = Math.max(currentTick + 1, target - mask);
+        for (long tick = first; tick <= target; tick++) {
+            Iterator<Entry<K, T>> iterator = buckets[(int) (tick & mask)].iterator();
+            while (iterator.hasNext()) {
+                Entry<K, T> entry = iterator.next();
+                if (entry.canceled) {
+                    iterator.remove();
+                } else if (entry.tick <= target) {
+                    iterator.remove();
+                    entries.remove(entry.key);
+                    due.add(entry.task);
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, target);
+        return due;
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+
+    private static final class Entry<K, T> {
+
+        private final K key;
+        private final T task;
+        private final long tick;
+        private boolean canceled;
+
+        private Entry(K key, T task, long tick) {
+            this.key = key;
+            this.task = task;
+            this.tick = tick;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.smartuniversity.exam.repository;
+
+import com.smartuniversity.exam.domain.DraftAnswer;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface DraftAnswerRepository extends JpaRepository<DraftAnswer, UUID>, DraftAnswerRepositoryCustom {
+
+    List<DraftAnswer> findAllByExamIdAndStudentIdAndTenantId(UUID examId, UUID studentId, String tenantId);
+}
@@ -0,0 +1,14 @@
+package com.smartuniversity.exam.repository;
+
+import com.smartuniversity.exam.draft.PendingDraftAnswer;
+
+import java.util.List;
+
+public interface DraftAnswerRepositoryCustom {
+
+    /**
+     * Writes the answers with JDBC batches, keeping whichever answer to a question is
+     * newest when a row already exists.
+     */
+    void upsertAll(List<PendingDraftAnswer> answers);
+}
@@ -0,0 +1,71 @@
+package com.smartuniversity.exam.repository;
+
+import com.smartuniversity.exam.draft.PendingDraftAnswer;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+class DraftAnswerRepositoryCustomImpl implements DraftAnswerRepositoryCustom {
+
+    // The updated_at guard keeps an older answer, e.g. from a slower instance, from
+    // overwriting a newer one.
+    private static final String UPDATE_SQL =
+            "UPDATE draft_answers SET answer = ?, updated_at = ? "
+                    + "WHERE exam_id = ? AND student_id = ? AND question_key = ? AND updated_at <= ?";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO draft_answers (id, tenant_id, exam_id, student_id, question_key, answer, updated_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    DraftAnswerRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void upsertAll(List<PendingDraftAnswer> answers) {
+        if (answers.isEmpty()) {
+            return;
+        }
+        int[] counts = update(answers);
+
+        // Not updated: either the row does not exist yet or it holds a newer answer.
+        List<PendingDraftAnswer> missing = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] <= 0) {
+                missing.add(answers.get(i));
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, missing, missing.size(), (ps, answer) -> {
+            ps.setObject(1, UUID.randomUUID());
+            ps.setString(2, answer.tenantId());
+            ps.setObject(3, answer.examId());
+            ps.setObject(4, answer.studentId());
+            ps.setString(5, answer.questionKey());
+            ps.setString(6, answer.answer());
+            ps.setTimestamp(7, Timestamp.from(answer.updatedAt()));
+        });
+        // Rewritten batches report no per-row counts, and another instance may have
+        // inserted first; the guarded update settles both cases.
+        update(missing);
+    }
+
+    private int[] update(List<PendingDraftAnswer> answers) {
+        return jdbcTemplate.batchUpdate(UPDATE_SQL, answers, answers.size(), (ps, answer) -> {
+            Timestamp updatedAt = Timestamp.from(answer.updatedAt());
+            ps.setString(1, answer.answer());
+            ps.setTimestamp(2, updatedAt);
+            ps.setObject(3, answer.examId());
+            ps.setObject(4, answer.studentId());
+            ps.setString(5, answer.questionKey());
+            ps.setTimestamp(6, updatedAt);
+        })[0];
+    }
+}
@@ -1,8 +1,18 @@
 package com.smartuniversity.exam.repository;
 
 import com.smartuniversity.exam.domain.Exam;
+import com.smartuniversity.exam.domain.ExamStateType;
+import com.smartuniversity.exam.service.ExamStateSnapshot;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -12,4 +22,27 @@ public interface ExamRepository extends JpaRepository<Exam, UUID> {
     Optional<Exam> findByIdAndTenantId(UUID id, String tenantId);
 
     List<Exam> findAllByTenantId(String tenantId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from Exam e where e.id = :id and e.tenantId = :tenantId")
+    Optional<Exam> findByIdAndTenantIdForUpdate(@Param("id") UUID id, @Param("tenantId") String tenantId);
+
+    /**
+     * Locks an exam unless another transaction already holds it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from Exam e where e.id = :id")
+    Optional<Exam> findByIdSkipLocked(@Param("id") UUID id);
+
+    @Query("select new com.smartuniversity.exam.service.ExamStateSnapshot(e.id, e.tenantId, e.state, e.endTime) "
+            + "from Exam e where e.id = :id")
+    Optional<ExamStateSnapshot> findStateSnapshot(@Param("id") UUID id);
+
+    @Query("select coalesce(e.gradingVersion, 0) from Exam e where e.id = :id")
+    Optional<Integer> findGradingVersion(@Param("id") UUID id);
+
+    List<Exam> findAllByStateAndStartTimeLessThanEqual(ExamStateType state, Instant until);
+
+    List<Exam> findAllByStateInAndEndTimeLessThanEqual(Collection<ExamStateType> states, Instant until);
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.smartuniversity.exam.repository;
+
+import com.smartuniversity.exam.domain.SubmissionGrade;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface SubmissionGradeRepository extends JpaRepository<SubmissionGrade, UUID>, SubmissionGradeRepositoryCustom {
+
+    List<SubmissionGrade> findAllByExamIdAndTenantId(UUID examId, String tenantId);
+}
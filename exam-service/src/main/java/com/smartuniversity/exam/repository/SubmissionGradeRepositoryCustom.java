@@ -0,0 +1,14 @@
+package com.smartuniversity.exam.repository;
+
+import com.smartuniversity.exam.grading.GradedSubmission;
+
+import java.util.List;
+
+public interface SubmissionGradeRepositoryCustom {
+
+    /**
+     * Writes the grades with JDBC batches. An existing grade is only replaced by one
+     * computed with the same or a newer grading version.
+     */
+    void upsertAll(List<GradedSubmission> grades);
+}
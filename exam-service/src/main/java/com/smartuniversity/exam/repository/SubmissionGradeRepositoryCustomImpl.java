@@ -0,0 +1,73 @@
+package com.smartuniversity.exam.repository;
+
+import com.smartuniversity.exam.grading.GradedSubmission;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+class SubmissionGradeRepositoryCustomImpl implements SubmissionGradeRepositoryCustom {
+
+    // Grading on ingest and a re-grade may race; the version guard lets the newer key win.
+    private static final String UPDATE_SQL =
+            "UPDATE submission_grades SET score = ?, max_score = ?, pending_questions = ?, correct_questions = ?, "
+                    + "grading_version = ?, graded_at = ? WHERE submission_id = ? AND grading_version <= ?";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO submission_grades (submission_id, tenant_id, exam_id, student_id, score, max_score, "
+                    + "pending_questions, correct_questions, grading_version, graded_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    SubmissionGradeRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void upsertAll(List<GradedSubmission> grades) {
+        if (grades.isEmpty()) {
+            return;
+        }
+        int[] counts = update(grades);
+
+        // Not updated: either not graded before or graded with a newer key.
+        List<GradedSubmission> missing = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] <= 0) {
+                missing.add(grades.get(i));
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, missing, missing.size(), (ps, graded) -> {
+            ps.setObject(1, graded.submissionId());
+            ps.setString(2, graded.tenantId());
+            ps.setObject(3, graded.examId());
+            ps.setObject(4, graded.studentId());
+            ps.setInt(5, graded.grade().score());
+            ps.setInt(6, graded.grade().maxScore());
+            ps.setInt(7, graded.grade().pendingQuestions());
+            ps.setBytes(8, graded.grade().correctQuestions());
+            ps.setInt(9, graded.gradingVersion());
+            ps.setTimestamp(10, Timestamp.from(graded.gradedAt()));
+        });
+        // Another writer may have inserted first; the guarded update settles it.
+        update(missing);
+    }
+
+    private int[] update(List<GradedSubmission> grades) {
+        return jdbcTemplate.batchUpdate(UPDATE_SQL, grades, grades.size(), (ps, graded) -> {
+            ps.setInt(1, graded.grade().score());
+            ps.setInt(2, graded.grade().maxScore());
+            ps.setInt(3, graded.grade().pendingQuestions());
+            ps.setBytes(4, graded.grade().correctQuestions());
+            ps.setInt(5, graded.gradingVersion());
+            ps.setTimestamp(6, Timestamp.from(graded.gradedAt()));
+            ps.setObject(7, graded.submissionId());
+            ps.setInt(8, graded.gradingVersion());
+        })[0];
+    }
+}
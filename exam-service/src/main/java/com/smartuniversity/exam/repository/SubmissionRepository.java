@@ -1,15 +1,30 @@
 package com.smartuniversity.exam.repository;
 
 import com.smartuniversity.exam.domain.Submission;
+import com.smartuniversity.exam.grading.SubmissionAnswers;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface SubmissionRepository extends JpaRepository<Submission, UUID> {
+public interface SubmissionRepository extends JpaRepository<Submission, UUID>, SubmissionRepositoryCustom {
 
     Optional<Submission> findByExam_IdAndStudentIdAndTenantId(UUID examId, UUID studentId, String tenantId);
 
     List<Submission> findAllByExam_IdAndTenantId(UUID examId, String tenantId);
+
+    /**
+     * Streams the answers of an exam's submissions without loading them all; must be
+     * consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("select new com.smartuniversity.exam.grading.SubmissionAnswers(s.id, s.studentId, s.answersJson) "
+            + "from Submission s where s.exam.id = :examId and s.tenantId = :tenantId")
+    Stream<SubmissionAnswers> streamAnswersByExam(@Param("examId") UUID examId, @Param("tenantId") String tenantId);
 }
\ No newline at end of file
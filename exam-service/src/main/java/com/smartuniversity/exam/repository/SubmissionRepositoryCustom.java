@@ -0,0 +1,18 @@
+package com.smartuniversity.exam.repository;
+
+import com.smartuniversity.exam.submission.PendingSubmission;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+public interface SubmissionRepositoryCustom {
+
+    /**
+     * Inserts the submissions with one JDBC batch, skipping students who already
+     * submitted to the exam (uk_submissions_exam_student).
+     *
+     * @return the ids of the submissions that were not inserted
+     */
+    Set<UUID> insertAllIfAbsent(List<PendingSubmission> submissions);
+}
@@ -0,0 +1,67 @@
+package com.smartuniversity.exam.repository;
+
+import com.smartuniversity.exam.submission.PendingSubmission;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+class SubmissionRepositoryCustomImpl implements SubmissionRepositoryCustom {
+
+    // Conflicts can only come from uk_submissions_exam_student: ids are fresh UUIDs.
+    private static final String INSERT_SQL =
+            "INSERT INTO submissions (id, tenant_id, exam_id, student_id, answers_json, submitted_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private static final String EXISTING_IDS_SQL = "SELECT id FROM submissions WHERE id IN (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    SubmissionRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    @Override
+    public Set<UUID> insertAllIfAbsent(List<PendingSubmission> submissions) {
+        if (submissions.isEmpty()) {
+            return Set.of();
+        }
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_SQL, submissions, submissions.size(), (ps, submission) -> {
+            ps.setObject(1, submission.id());
+            ps.setString(2, submission.tenantId());
+            ps.setObject(3, submission.examId());
+            ps.setObject(4, submission.studentId());
+            ps.setString(5, submission.answersJson());
+            ps.setTimestamp(6, Timestamp.from(submission.submittedAt()));
+        })[0];
+
+        Set<UUID> rejected = new HashSet<>();
+        List<UUID> unknown = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                rejected.add(submissions.get(i).id());
+            } else if (counts[i] != 1) {
+                // Rewritten batches report no per-row counts; look the rows up instead.
+                unknown.add(submissions.get(i).id());
+            }
+        }
+        if (!unknown.isEmpty()) {
+            Set<UUID> stored = new HashSet<>(namedJdbcTemplate.queryForList(EXISTING_IDS_SQL,
+                    new MapSqlParameterSource("ids", unknown), UUID.class));
+            for (UUID id : unknown) {
+                if (!stored.contains(id)) {
+                    rejected.add(id);
+                }
+            }
+        }
+        return rejected;
+    }
+}
@@ -0,0 +1,175 @@
+package com.smartuniversity.exam.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.smartuniversity.exam.domain.Exam;
+import com.smartuniversity.exam.domain.ExamStateType;
+import com.smartuniversity.exam.lifecycle.ExamContentChangedEvent;
+import com.smartuniversity.exam.lifecycle.ExamStateChangedEvent;
+import com.smartuniversity.exam.repository.ExamRepository;
+import com.smartuniversity.exam.web.dto.ExamDetailDto;
+import com.smartuniversity.exam.web.dto.QuestionDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Exam detail JSON, serialized once per exam rather than once per request.
+ *
+ * While an exam is LIVE every student asks for the same content, so it is rendered
+ * when the exam goes live and kept until its end time; student requests during the
+ * exam are answered from memory. Other exams are kept for {@code exam.content-cache.ttl}
+ * only, so that a start on another instance shows up quickly.
+ *
+ * Entries are dropped after commit when this instance changes an exam's state or
+ * any of its questions, and re-rendered straight away if the exam is LIVE.
+ */
+@Component
+public class ExamContentCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExamContentCache.class);
+
+    private final ExamRepository examRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readTransaction;
+    private final Cache<UUID, RenderedExam> cache;
+
+    public ExamContentCache(ExamRepository examRepository,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${exam.content-cache.ttl:5s}") Duration ttl,
+                            @Value("${exam.content-cache.live-ttl:1h}") Duration liveTtl,
+                            @Value("${exam.content-cache.maximum-size:1000}") long maximumSize) {
+        this.examRepository = examRepository;
+        this.objectMapper = objectMapper;
+        // Runs from after-commit listeners, where the finished transaction is still bound.
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+        this.cache = Caffeine.newBuilder()
+                .expireAfter(new ContentExpiry(ttl, liveTtl))
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "exam-content");
+    }
+
+    /**
+     * Returns the rendered exam, loading it on a miss.
+     *
+     * @throws ResponseStatusException 404 if the exam does not exist for the tenant
+     */
+    public RenderedExam get(UUID examId, String tenantId) {
+        RenderedExam exam = cache.get(examId, this::load);
+        if (exam == null || !exam.tenantId().equals(tenantId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Exam not found");
+        }
+        return exam;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStateChanged(ExamStateChangedEvent event) {
+        cache.invalidate(event.examId());
+        if (event.state() == ExamStateType.LIVE) {
+            warm(event.examId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChanged(ExamContentChangedEvent event) {
+        RenderedExam previous = cache.asMap().remove(event.examId());
+        if (previous != null && previous.state() == ExamStateType.LIVE) {
+            warm(event.examId());
+        }
+    }
+
+    private void warm(UUID examId) {
+        try {
+            cache.get(examId, this::load);
+        } catch (RuntimeException ex) {
+            // The next request loads it instead.
+            logger.warn("Could not render exam {}: {}", examId, ex.getMessage());
+        }
+    }
+
+    private RenderedExam load(UUID examId) {
+        return readTransaction.execute(status -> examRepository.findById(examId)
+                .map(this::render)
+                .orElse(null));
+    }
+
+    private RenderedExam render(Exam exam) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(toDetailDto(exam));
+            String etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+            return new RenderedExam(exam.getId(), exam.getTenantId(), exam.getState(), exam.getEndTime(), json, etag);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize exam " + exam.getId(), e);
+        }
+    }
+
+    private static ExamDetailDto toDetailDto(Exam exam) {
+        List<QuestionDto> questionDtos = exam.getQuestions().stream()
+                .sorted(Comparator.comparingInt(q -> q.getSortOrder()))
+                .map(q -> new QuestionDto(q.getId(), q.getText(), q.getSortOrder(), q.getType(), q.getOptions(),
+                        q.getPoints()))
+                .toList();
+
+        return new ExamDetailDto(
+                exam.getId(),
+                exam.getTitle(),
+                exam.getDescription(),
+                exam.getStartTime(),
+                exam.getEndTime(),
+                exam.getState(),
+                questionDtos
+        );
+    }
+
+    /**
+     * LIVE exams are kept until their end time, everything else for the short TTL.
+     */
+    private record ContentExpiry(Duration ttl, Duration liveTtl) implements Expiry<UUID, RenderedExam> {
+
+        @Override
+        public long expireAfterCreate(UUID key, RenderedExam exam, long currentTime) {
+            if (exam.state() != ExamStateType.LIVE) {
+                return ttl.toNanos();
+            }
+            if (exam.endTime() == null) {
+                return liveTtl.toNanos();
+            }
+            return Math.max(0, Duration.between(Instant.now(), exam.endTime()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(UUID key, RenderedExam exam, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, exam, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(UUID key, RenderedExam exam, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
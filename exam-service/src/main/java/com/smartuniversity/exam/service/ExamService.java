@@ -2,57 +2,100 @@ package com.smartuniversity.exam.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartuniversity.common.events.ExamClosedEvent;
 import com.smartuniversity.common.events.ExamStartedEvent;
-import com.smartuniversity.exam.config.MessagingConfig;
+import com.smartuniversity.common.outbox.OutboxService;
+import com.smartuniversity.exam.domain.AnswerKey;
 import com.smartuniversity.exam.domain.Exam;
 import com.smartuniversity.exam.domain.ExamStateType;
 import com.smartuniversity.exam.domain.Question;
-import com.smartuniversity.exam.domain.Submission;
+import com.smartuniversity.exam.domain.QuestionType;
+import com.smartuniversity.exam.domain.SubmissionGrade;
+import com.smartuniversity.exam.draft.DraftBuffer;
+import com.smartuniversity.exam.grading.AnswerKeyChangedEvent;
+import com.smartuniversity.exam.grading.QuestionGrader;
+import com.smartuniversity.exam.grading.QuestionGraderFactory;
+import com.smartuniversity.exam.lifecycle.ExamScheduleChangedEvent;
+import com.smartuniversity.exam.lifecycle.ExamStateChangedEvent;
+import com.smartuniversity.exam.lifecycle.ExamTransition;
 import com.smartuniversity.exam.repository.ExamRepository;
-import com.smartuniversity.exam.repository.SubmissionRepository;
+import com.smartuniversity.exam.repository.SubmissionGradeRepository;
 import com.smartuniversity.exam.state.ExamState;
+import com.smartuniversity.exam.submission.PendingSubmission;
+import com.smartuniversity.exam.submission.SubmissionIngestor;
 import com.smartuniversity.exam.state.ExamStateFactory;
 import com.smartuniversity.exam.web.dto.CreateExamRequest;
 import com.smartuniversity.exam.web.dto.CreateQuestionRequest;
-import com.smartuniversity.exam.web.dto.ExamDetailDto;
+import com.smartuniversity.exam.web.dto.DraftDto;
 import com.smartuniversity.exam.web.dto.ExamDto;
-import com.smartuniversity.exam.web.dto.QuestionDto;
+import com.smartuniversity.exam.web.dto.ExamResultDto;
+import com.smartuniversity.exam.web.dto.SaveDraftRequest;
 import com.smartuniversity.exam.web.dto.SubmitExamRequest;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 public class ExamService {
 
+    public static final String EXAM_STARTED_ROUTING_KEY = "exam.exam.started";
+    public static final String EXAM_CLOSED_ROUTING_KEY = "exam.exam.closed";
+
     private final ExamRepository examRepository;
-    private final SubmissionRepository submissionRepository;
     private final ExamStateFactory examStateFactory;
+    private final QuestionGraderFactory questionGraderFactory;
+    private final ExamStateCache examStateCache;
+    private final ExamContentCache examContentCache;
+    private final SubmissionIngestor submissionIngestor;
+    private final DraftBuffer draftBuffer;
+    private final SubmissionGradeRepository submissionGradeRepository;
     private final NotificationClient notificationClient;
-    private final RabbitTemplate rabbitTemplate;
+    private final OutboxService outboxService;
     private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration defaultDuration;
 
     public ExamService(ExamRepository examRepository,
-                       SubmissionRepository submissionRepository,
                        ExamStateFactory examStateFactory,
+                       QuestionGraderFactory questionGraderFactory,
+                       ExamStateCache examStateCache,
+                       ExamContentCache examContentCache,
+                       SubmissionIngestor submissionIngestor,
+                       DraftBuffer draftBuffer,
+                       SubmissionGradeRepository submissionGradeRepository,
                        NotificationClient notificationClient,
-                       RabbitTemplate rabbitTemplate,
-                       ObjectMapper objectMapper) {
+                       OutboxService outboxService,
+                       ObjectMapper objectMapper,
+                       ApplicationEventPublisher eventPublisher,
+                       @Value("${exam.lifecycle.default-duration:PT1H}") Duration defaultDuration) {
         this.examRepository = examRepository;
-        this.submissionRepository = submissionRepository;
         this.examStateFactory = examStateFactory;
+        this.questionGraderFactory = questionGraderFactory;
+        this.examStateCache = examStateCache;
+        this.examContentCache = examContentCache;
+        this.submissionIngestor = submissionIngestor;
+        this.draftBuffer = draftBuffer;
+        this.submissionGradeRepository = submissionGradeRepository;
         this.notificationClient = notificationClient;
-        this.rabbitTemplate = rabbitTemplate;
+        this.outboxService = outboxService;
         this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.defaultDuration = defaultDuration;
     }
 
     @Transactional(readOnly = true)
@@ -62,12 +105,12 @@ public class ExamService {
                 .collect(Collectors.toList());
     }
 
-    @Transactional(readOnly = true)
-    public ExamDetailDto getExamDetail(UUID examId, String tenantId) {
-        Exam exam = examRepository.findByIdAndTenantId(examId, tenantId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Exam not found"));
-
-        return toDetailDto(exam);
+    /**
+     * Returns the exam's detail JSON from {@link ExamContentCache}; requests for a LIVE
+     * exam are answered without reading the database.
+     */
+    public RenderedExam getExamDetail(UUID examId, String tenantId) {
+        return examContentCache.get(examId, tenantId);
     }
 
     @Transactional
@@ -85,26 +128,39 @@ public class ExamService {
         exam.setTitle(request.getTitle());
         exam.setDescription(request.getDescription());
         exam.setStartTime(request.getStartTime() != null ? request.getStartTime() : Instant.now());
+        exam.setEndTime(exam.getStartTime().plus(request.getDurationMinutes() != null
+                ? Duration.ofMinutes(request.getDurationMinutes()) : defaultDuration));
         exam.setState(ExamStateType.SCHEDULED);
 
         List<Question> questions = new ArrayList<>();
         int sortOrder = 1;
         for (CreateQuestionRequest qReq : request.getQuestions()) {
+            QuestionType type = qReq.getType() != null ? qReq.getType() : QuestionType.FREE_TEXT;
+            List<String> options = qReq.getOptions() != null ? List.copyOf(qReq.getOptions()) : List.of();
+            questionGraderFactory.getGrader(type).validate(options, qReq.getAnswerKey());
+
             Question question = new Question();
             question.setExam(exam);
             question.setText(qReq.getText());
             question.setSortOrder(sortOrder++);
+            question.setType(type);
+            question.setOptions(options);
+            question.setAnswerKey(qReq.getAnswerKey());
+            question.setPoints(qReq.getPoints());
             questions.add(question);
         }
         exam.setQuestions(questions);
 
         Exam saved = examRepository.save(exam);
+        eventPublisher.publishEvent(new ExamScheduleChangedEvent(saved.getId(), saved.getState(),
+                saved.getStartTime(), saved.getEndTime()));
         return toDto(saved);
     }
 
     @Transactional
     public ExamDto startExam(UUID examId, UUID userId, String tenantId, String role) {
-        Exam exam = examRepository.findByIdAndTenantId(examId, tenantId)
+        // Locked so that a manual start and the scheduled one cannot both go through.
+        Exam exam = examRepository.findByIdAndTenantIdForUpdate(examId, tenantId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Exam not found"));
 
         boolean isTeacherOrAdmin = "TEACHER".equals(role) || "ADMIN".equals(role);
@@ -115,48 +171,165 @@ public class ExamService {
         ExamState state = examStateFactory.getState(exam.getState());
         state.start(exam);
         Exam saved = examRepository.save(exam);
+        eventPublisher.publishEvent(new ExamStateChangedEvent(saved.getId(), saved.getState()));
 
         // Notify Notification service with Circuit Breaker protection.
         notificationClient.notifyExamStarted(tenantId, saved.getId());
 
-        // Publish exam.started event.
+        // Publish exam.started event via the outbox, committed with the state change.
         ExamStartedEvent event = new ExamStartedEvent(
                 saved.getId(),
                 saved.getCreatorId(),
                 tenantId,
                 Instant.now()
         );
-        rabbitTemplate.convertAndSend(MessagingConfig.EXCHANGE_NAME, "exam.exam.started", event);
+        outboxService.append(EXAM_STARTED_ROUTING_KEY, event);
 
         return toDto(saved);
     }
 
+    /**
+     * Replaces the answer key of a question and has all submissions of the exam
+     * re-graded after commit.
+     */
     @Transactional
-    public void submitExam(UUID examId, UUID studentId, String tenantId, SubmitExamRequest request) {
+    public void updateAnswerKey(UUID examId, UUID questionId, AnswerKey answerKey,
+                                UUID userId, String tenantId, String role) {
+        Exam exam = examRepository.findByIdAndTenantIdForUpdate(examId, tenantId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Exam not found"));
+
+        boolean isTeacherOrAdmin = "TEACHER".equals(role) || "ADMIN".equals(role);
+        if (!isTeacherOrAdmin || !exam.getCreatorId().equals(userId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only the exam creator may change answer keys");
+        }
+
+        Question question = exam.getQuestions().stream()
+                .filter(q -> q.getId().equals(questionId))
+                .findFirst()
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Question not found"));
+        QuestionGrader grader = questionGraderFactory.getGrader(question.getType());
+        if (!grader.isAutomatic()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Free text questions are graded manually");
+        }
+        grader.validate(question.getOptions(), answerKey);
+
+        question.setAnswerKey(answerKey);
+        exam.setGradingVersion(exam.getGradingVersion() + 1);
+        examRepository.save(exam);
+        eventPublisher.publishEvent(new AnswerKeyChangedEvent(exam.getId(), exam.getGradingVersion()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ExamResultDto> getResults(UUID examId, UUID userId, String tenantId, String role) {
         Exam exam = examRepository.findByIdAndTenantId(examId, tenantId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Exam not found"));
 
+        boolean isTeacherOrAdmin = "TEACHER".equals(role) || "ADMIN".equals(role);
+        if (!isTeacherOrAdmin || !exam.getCreatorId().equals(userId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only the exam creator may see results");
+        }
+
+        return submissionGradeRepository.findAllByExamIdAndTenantId(examId, tenantId).stream()
+                .map(this::toResultDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Applies a time-based transition through the exam's state and records its event
+     * in the outbox. Every node of a cluster fires the same transitions; the row lock
+     * and the state and time checks let exactly one of them apply it.
+     */
+    @Transactional
+    public ExamTransition.Outcome applyTransition(ExamTransition transition, Instant now) {
+        Optional<Exam> locked = examRepository.findByIdSkipLocked(transition.examId());
+        if (locked.isEmpty()) {
+            return examRepository.existsById(transition.examId())
+                    ? ExamTransition.Outcome.LOCKED : ExamTransition.Outcome.STALE;
+        }
+        Exam exam = locked.get();
         ExamState state = examStateFactory.getState(exam.getState());
-        if (!state.canSubmit()) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT, "Exam is not accepting submissions");
+
+        if (transition.target() == ExamStateType.LIVE) {
+            if (exam.getState() != ExamStateType.SCHEDULED || exam.getStartTime().isAfter(now)) {
+                return ExamTransition.Outcome.STALE;
+            }
+            state.start(exam);
+            eventPublisher.publishEvent(new ExamStateChangedEvent(exam.getId(), exam.getState()));
+            outboxService.append(EXAM_STARTED_ROUTING_KEY,
+                    new ExamStartedEvent(exam.getId(), exam.getCreatorId(), exam.getTenantId(), now));
+            return ExamTransition.Outcome.APPLIED;
         }
 
-        submissionRepository.findByExam_IdAndStudentIdAndTenantId(examId, studentId, tenantId)
-                .ifPresent(existing -> {
-                    throw new ResponseStatusException(HttpStatus.CONFLICT, "Submission already exists for this exam");
-                });
+        boolean open = exam.getState() == ExamStateType.SCHEDULED || exam.getState() == ExamStateType.LIVE;
+        if (!open || exam.getEndTime() == null || exam.getEndTime().isAfter(now)) {
+            return ExamTransition.Outcome.STALE;
+        }
+        state.close(exam);
+        eventPublisher.publishEvent(new ExamStateChangedEvent(exam.getId(), exam.getState()));
+        outboxService.append(EXAM_CLOSED_ROUTING_KEY,
+                new ExamClosedEvent(exam.getId(), exam.getCreatorId(), exam.getTenantId(), now));
+        return ExamTransition.Outcome.APPLIED;
+    }
+
+    /**
+     * Stores a submission through the ingestion queue and returns once it is
+     * committed. The exam state comes from {@link ExamStateCache}; duplicates are
+     * detected by the unique constraint when the batch is written. Autosaved draft
+     * answers are merged in, with the answers in the request taking precedence.
+     */
+    public void submitExam(UUID examId, UUID studentId, String tenantId, SubmitExamRequest request) {
+        Instant now = Instant.now();
+        requireOpenExam(examId, tenantId, now);
 
-        Submission submission = new Submission();
-        submission.setExam(exam);
-        submission.setTenantId(tenantId);
-        submission.setStudentId(studentId);
-        submission.setAnswersJson(toJson(request));
-        submissionRepository.save(submission);
+        Map<String, String> answers = new HashMap<>(draftBuffer.answers(tenantId, examId, studentId));
+        answers.putAll(request.getAnswers());
+        PendingSubmission submission = new PendingSubmission(UUID.randomUUID(), tenantId, examId, studentId,
+                toJson(answers), now);
+        if (submissionIngestor.submit(submission) == SubmissionIngestor.Outcome.DUPLICATE) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Submission already exists for this exam");
+        }
+        draftBuffer.discard(examId, studentId);
+    }
+
+    /**
+     * Autosaves answers to the write-behind {@link DraftBuffer}; they reach the
+     * database with the next flush.
+     */
+    public void saveDraft(UUID examId, UUID studentId, String tenantId, SaveDraftRequest request) {
+        requireOpenExam(examId, tenantId, Instant.now());
+        draftBuffer.save(tenantId, examId, studentId, request.getAnswers());
+    }
+
+    public DraftDto getDraft(UUID examId, UUID studentId, String tenantId) {
+        examStateCache.get(examId)
+                .filter(e -> e.tenantId().equals(tenantId))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Exam not found"));
+        return new DraftDto(draftBuffer.answers(tenantId, examId, studentId));
     }
 
-    private String toJson(SubmitExamRequest request) {
+    private void requireOpenExam(UUID examId, String tenantId, Instant now) {
+        ExamStateSnapshot exam = examStateCache.get(examId)
+                .filter(e -> e.tenantId().equals(tenantId))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Exam not found"));
+        if (!acceptsSubmissions(exam, now)) {
+            // The cached state may predate a start on another instance.
+            exam = examStateCache.refresh(examId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Exam not found"));
+            if (!acceptsSubmissions(exam, now)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Exam is not accepting submissions");
+            }
+        }
+    }
+
+    private boolean acceptsSubmissions(ExamStateSnapshot exam, Instant now) {
+        // The end time wins over a close transition that has not fired yet.
+        return examStateFactory.getState(exam.state()).canSubmit()
+                && (exam.endTime() == null || !exam.endTime().isBefore(now));
+    }
+
+    private String toJson(Map<String, String> answers) {
         try {
-            return objectMapper.writeValueAsString(request.getAnswers());
+            return objectMapper.writeValueAsString(answers);
         } catch (JsonProcessingException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid answers format");
         }
@@ -168,23 +341,22 @@ public class ExamService {
                 exam.getTitle(),
                 exam.getDescription(),
                 exam.getStartTime(),
+                exam.getEndTime(),
                 exam.getState()
         );
     }
 
-    public ExamDetailDto toDetailDto(Exam exam) {
-        List<QuestionDto> questionDtos = exam.getQuestions().stream()
-                .sorted((a, b) -> Integer.compare(a.getSortOrder(), b.getSortOrder()))
-                .map(q -> new QuestionDto(q.getId(), q.getText(), q.getSortOrder()))
-                .collect(Collectors.toList());
-
-        return new ExamDetailDto(
-                exam.getId(),
-                exam.getTitle(),
-                exam.getDescription(),
-                exam.getStartTime(),
-                exam.getState(),
-                questionDtos
+    private ExamResultDto toResultDto(SubmissionGrade grade) {
+        BitSet correct = BitSet.valueOf(grade.getCorrectQuestions());
+        List<Integer> correctQuestions = correct.stream().map(i -> i + 1).boxed().toList();
+        return new ExamResultDto(
+                grade.getSubmissionId(),
+                grade.getStudentId(),
+                grade.getScore(),
+                grade.getMaxScore(),
+                grade.getPendingQuestions(),
+                correctQuestions,
+                grade.getGradedAt()
         );
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,52 @@
+package com.smartuniversity.exam.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartuniversity.exam.lifecycle.ExamStateChangedEvent;
+import com.smartuniversity.exam.repository.ExamRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Short-lived cache of exam states for the submission path, so that a burst of
+ * submissions to one exam does not load the exam for every request.
+ *
+ * Entries are dropped when this instance changes an exam's state; changes made by
+ * other instances show up within {@code exam.state-cache.ttl}. Callers that are
+ * about to reject a request because of a cached state should {@link #refresh} first.
+ */
+@Component
+public class ExamStateCache {
+
+    private final ExamRepository examRepository;
+    private final Cache<UUID, ExamStateSnapshot> cache;
+
+    public ExamStateCache(ExamRepository examRepository,
+                          @Value("${exam.state-cache.ttl:5s}") Duration ttl,
+                          @Value("${exam.state-cache.maximum-size:10000}") long maximumSize) {
+        this.examRepository = examRepository;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    public Optional<ExamStateSnapshot> get(UUID examId) {
+        return Optional.ofNullable(cache.get(examId, id -> examRepository.findStateSnapshot(id).orElse(null)));
+    }
+
+    public Optional<ExamStateSnapshot> refresh(UUID examId) {
+        cache.invalidate(examId);
+        return get(examId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStateChanged(ExamStateChangedEvent event) {
+        cache.invalidate(event.examId());
+    }
+}
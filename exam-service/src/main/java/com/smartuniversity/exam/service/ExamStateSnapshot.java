@@ -0,0 +1,12 @@
+package com.smartuniversity.exam.service;
+
+import com.smartuniversity.exam.domain.ExamStateType;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * What the submission path needs to know about an exam.
+ */
+public record ExamStateSnapshot(UUID examId, String tenantId, ExamStateType state, Instant endTime) {
+}
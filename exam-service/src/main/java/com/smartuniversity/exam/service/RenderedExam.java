@@ -0,0 +1,17 @@
+package com.smartuniversity.exam.service;
+
+import com.smartuniversity.exam.domain.ExamStateType;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An exam's {@code ExamDetailDto} serialized once, with the ETag of those bytes.
+ */
+public record RenderedExam(UUID examId,
+                           String tenantId,
+                           ExamStateType state,
+                           Instant endTime,
+                           byte[] json,
+                           String etag) {
+}
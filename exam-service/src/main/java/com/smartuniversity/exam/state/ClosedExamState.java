@@ -20,6 +20,11 @@ public class ClosedExamState implements ExamState {
         throw new ResponseStatusException(HttpStatus.CONFLICT, "Exam is already closed");
     }
 
+    @Override
+    public void close(Exam exam) {
+        throw new ResponseStatusException(HttpStatus.CONFLICT, "Exam is already closed");
+    }
+
     @Override
     public boolean canSubmit() {
         return false;
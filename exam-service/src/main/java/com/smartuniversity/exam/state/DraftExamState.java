@@ -20,6 +20,11 @@ public class DraftExamState implements ExamState {
         throw new ResponseStatusException(HttpStatus.CONFLICT, "Draft exams cannot be started");
     }
 
+    @Override
+    public void close(Exam exam) {
+        throw new ResponseStatusException(HttpStatus.CONFLICT, "Draft exams cannot be closed");
+    }
+
     @Override
     public boolean canSubmit() {
         return false;
@@ -15,6 +15,11 @@ public interface ExamState {
      */
     void start(Exam exam);
 
+    /**
+     * Transition exam into CLOSED state if allowed.
+     */
+    void close(Exam exam);
+
     /**
      * Whether students are allowed to submit in this state.
      */
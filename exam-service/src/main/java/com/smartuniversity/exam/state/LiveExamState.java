@@ -6,7 +6,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
 /**
- * LIVE exam is already running; cannot be started again but accepts submissions.
+ * LIVE exam is already running; cannot be started again but accepts submissions
+ * until it is closed.
  */
 public class LiveExamState implements ExamState {
 
@@ -20,6 +21,11 @@ public class LiveExamState implements ExamState {
         throw new ResponseStatusException(HttpStatus.CONFLICT, "Exam is already live");
     }
 
+    @Override
+    public void close(Exam exam) {
+        exam.setState(ExamStateType.CLOSED);
+    }
+
     @Override
     public boolean canSubmit() {
         return true;
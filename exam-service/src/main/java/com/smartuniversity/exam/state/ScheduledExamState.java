@@ -4,7 +4,8 @@ import com.smartuniversity.exam.domain.Exam;
 import com.smartuniversity.exam.domain.ExamStateType;
 
 /**
- * SCHEDULED exam can be started and transitions to LIVE.
+ * SCHEDULED exam can be started and transitions to LIVE, or be closed once its
+ * window has passed.
  */
 public class ScheduledExamState implements ExamState {
 
@@ -18,6 +19,14 @@ public class ScheduledExamState implements ExamState {
         exam.setState(ExamStateType.LIVE);
     }
 
+    /**
+     * Closes an exam whose window passed without it being started.
+     */
+    @Override
+    public void close(Exam exam) {
+        exam.setState(ExamStateType.CLOSED);
+    }
+
     @Override
     public boolean canSubmit() {
         return false;
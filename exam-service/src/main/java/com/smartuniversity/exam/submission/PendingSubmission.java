@@ -0,0 +1,18 @@
+package com.smartuniversity.exam.submission;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A validated submission waiting in the ingestion queue. The id is assigned up front
+ * so that the outcome of a batch insert can be matched to its request.
+ */
+public record PendingSubmission(
+        UUID id,
+        String tenantId,
+        UUID examId,
+        UUID studentId,
+        String answersJson,
+        Instant submittedAt
+) {
+}
@@ -0,0 +1,264 @@
+package com.smartuniversity.exam.submission;
+
+import com.smartuniversity.exam.grading.GradingEngine;
+import com.smartuniversity.exam.repository.SubmissionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Writes submissions in batches (group commit).
+ *
+ * Request threads put submissions on a bounded queue and wait; flusher threads take
+ * up to {@code exam.submissions.batch-size} of them at a time, lingering at most
+ * {@code exam.submissions.max-wait} for a batch to fill, and insert them with one
+ * JDBC batch in one transaction. A request only returns once its batch has
+ * committed, so an acknowledged submission is durable. Students who already
+ * submitted are rejected by the unique constraint rather than a lookup.
+ *
+ * When the queue is full, or the commit is not confirmed within
+ * {@code exam.submissions.ack-timeout}, the request fails with 503 and can be retried:
+ * a retry of a submission that did get stored comes back as a duplicate.
+ *
+ * Once the requests of a batch are answered, the flusher grades the accepted
+ * submissions through the {@link GradingEngine}.
+ */
+@Component
+public class SubmissionIngestor {
+
+    public enum Outcome {
+        ACCEPTED,
+        DUPLICATE
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(SubmissionIngestor.class);
+
+    private final SubmissionRepository submissionRepository;
+    private final GradingEngine gradingEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<QueuedSubmission> queue;
+    private final int batchSize;
+    private final Duration maxWait;
+    private final Duration ackTimeout;
+    private final int flushers;
+    private final ExecutorService flusherPool;
+    private volatile boolean running = true;
+
+    private final Counter acceptedCounter;
+    private final Counter duplicateCounter;
+    private final Counter rejectedCounter;
+    private final DistributionSummary batchSizes;
+    private final Timer flushTimer;
+
+    public SubmissionIngestor(SubmissionRepository submissionRepository,
+                              GradingEngine gradingEngine,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${exam.submissions.queue-capacity:5000}") int queueCapacity,
+                              @Value("${exam.submissions.batch-size:200}") int batchSize,
+                              @Value("${exam.submissions.max-wait:5ms}") Duration maxWait,
+                              @Value("${exam.submissions.ack-timeout:10s}") Duration ackTimeout,
+                              @Value("${exam.submissions.flushers:2}") int flushers) {
+        this.submissionRepository = submissionRepository;
+        this.gradingEngine = gradingEngine;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.maxWait = maxWait;
+        this.ackTimeout = ackTimeout;
+        this.flushers = flushers;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("exam-submission-flusher-");
+        threadFactory.setDaemon(true);
+        this.flusherPool = Executors.newFixedThreadPool(flushers, threadFactory);
+
+        this.acceptedCounter = outcome(meterRegistry, "accepted");
+        this.duplicateCounter = outcome(meterRegistry, "duplicate");
+        this.rejectedCounter = outcome(meterRegistry, "queue-full");
+        this.batchSizes = DistributionSummary.builder("exam.submissions.batch.size")
+                .description("Submissions written per batch")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("exam.submissions.flush")
+                .description("Time to write and commit one batch of submissions")
+                .register(meterRegistry);
+        Gauge.builder("exam.submissions.queued", queue, BlockingQueue::size)
+                .description("Submissions waiting to be written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < flushers; i++) {
+            flusherPool.execute(this::runFlusher);
+        }
+    }
+
+    /**
+     * Stops taking new submissions and lets the flushers write what is queued.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        flusherPool.shutdown();
+        if (!flusherPool.awaitTermination(ackTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            flusherPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Queues the submission and waits until it is committed.
+     *
+     * @throws ResponseStatusException 503 if the queue is full or the commit is not
+     *                                 confirmed in time
+     */
+    public Outcome submit(PendingSubmission submission) {
+        QueuedSubmission queued = new QueuedSubmission(submission, new CompletableFuture<>());
+        if (!running || !queue.offer(queued)) {
+            rejectedCounter.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many submissions in progress, please retry");
+        }
+        try {
+            return queued.outcome().get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Submission not confirmed in time, please retry");
+        } catch (ExecutionException ex) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Submission could not be stored, please retry", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Submission interrupted");
+        }
+    }
+
+    private void runFlusher() {
+        List<QueuedSubmission> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                QueuedSubmission first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+                flush(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                fail(batch, ex);
+                return;
+            } catch (RuntimeException ex) {
+                logger.error("Submission flusher failed", ex);
+                fail(batch, ex);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void fill(List<QueuedSubmission> batch) throws InterruptedException {
+        queue.drainTo(batch, batchSize - batch.size());
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        while (batch.size() < batchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            QueuedSubmission next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, batchSize - batch.size());
+        }
+    }
+
+    private void flush(List<QueuedSubmission> batch) {
+        try {
+            Set<UUID> rejected = flushTimer.record(() -> write(batch));
+            batchSizes.record(batch.size());
+            complete(batch, rejected);
+        } catch (RuntimeException ex) {
+            if (batch.size() == 1) {
+                logger.warn("Could not store submission {}: {}", batch.get(0).submission().id(), ex.getMessage());
+                fail(batch, ex);
+                return;
+            }
+            // Keep one bad row (e.g. an exam deleted meanwhile) from failing the whole batch.
+            logger.warn("Submission batch of {} failed, writing one by one: {}", batch.size(), ex.getMessage());
+            for (QueuedSubmission queued : batch) {
+                flush(List.of(queued));
+            }
+        }
+    }
+
+    private Set<UUID> write(List<QueuedSubmission> batch) {
+        List<PendingSubmission> submissions = new ArrayList<>(batch.size());
+        for (QueuedSubmission queued : batch) {
+            submissions.add(queued.submission());
+        }
+        return transactionTemplate.execute(status -> submissionRepository.insertAllIfAbsent(submissions));
+    }
+
+    private void complete(List<QueuedSubmission> batch, Set<UUID> rejected) {
+        List<PendingSubmission> accepted = new ArrayList<>(batch.size());
+        for (QueuedSubmission queued : batch) {
+            if (rejected.contains(queued.submission().id())) {
+                duplicateCounter.increment();
+                queued.outcome().complete(Outcome.DUPLICATE);
+            } else {
+                acceptedCounter.increment();
+                queued.outcome().complete(Outcome.ACCEPTED);
+                accepted.add(queued.submission());
+            }
+        }
+        try {
+            gradingEngine.gradeIngested(accepted);
+        } catch (RuntimeException ex) {
+            logger.warn("Could not grade {} submissions: {}", accepted.size(), ex.getMessage());
+        }
+    }
+
+    private static void fail(List<QueuedSubmission> batch, Exception cause) {
+        for (QueuedSubmission queued : batch) {
+            queued.outcome().completeExceptionally(cause);
+        }
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("exam.submissions.ingested")
+                .description("Submissions handled by the ingestion queue")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record QueuedSubmission(PendingSubmission submission, CompletableFuture<Outcome> outcome) {
+    }
+}
@@ -1,19 +1,29 @@
 package com.smartuniversity.exam.web;
 
+import com.smartuniversity.exam.domain.AnswerKey;
 import com.smartuniversity.exam.service.ExamService;
+import com.smartuniversity.exam.service.RenderedExam;
 import com.smartuniversity.exam.web.dto.CreateExamRequest;
+import com.smartuniversity.exam.web.dto.DraftDto;
 import com.smartuniversity.exam.web.dto.ExamDetailDto;
 import com.smartuniversity.exam.web.dto.ExamDto;
+import com.smartuniversity.exam.web.dto.ExamResultDto;
+import com.smartuniversity.exam.web.dto.SaveDraftRequest;
 import com.smartuniversity.exam.web.dto.SubmitExamRequest;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -52,15 +62,23 @@ public class ExamController {
     @GetMapping("/exams/{id}")
     @Operation(
             summary = "Get exam details",
-            description = "Returns exam metadata and questions for the current tenant."
+            description = "Returns exam metadata and questions for the current tenant. The body is pre-rendered "
+                    + "and carries an ETag; a matching If-None-Match is answered with 304 Not Modified.",
+            responses = @ApiResponse(responseCode = "200", content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ExamDetailDto.class)))
     )
-    public ResponseEntity<ExamDetailDto> getExam(@PathVariable("id") UUID examId,
-                                                 @RequestHeader("X-Tenant-Id") String tenantId) {
+    public ResponseEntity<byte[]> getExam(@PathVariable("id") UUID examId,
+                                          @RequestHeader("X-Tenant-Id") String tenantId) {
         if (!StringUtils.hasText(tenantId)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        ExamDetailDto exam = examService.getExamDetail(examId, tenantId);
-        return ResponseEntity.ok(exam);
+        RenderedExam exam = examService.getExamDetail(examId, tenantId);
+        // Spring answers 304 itself when If-None-Match matches the ETag.
+        return ResponseEntity.ok()
+                .eTag(exam.etag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(exam.json());
     }
 
     @PostMapping("/exams")
@@ -125,4 +143,93 @@ public class ExamController {
         examService.submitExam(examId, studentId, tenantId, request);
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
-}
\ No newline at end of file
+
+    @PutMapping("/exams/{id}/draft")
+    @Operation(
+            summary = "Autosave draft answers",
+            description = "Saves answers to some or all questions while the exam is LIVE. Only STUDENT role is allowed. "
+                    + "Answers are buffered and written in batches; the last answer to each question wins and is "
+                    + "merged into the submission."
+    )
+    public ResponseEntity<Void> saveDraft(@PathVariable("id") UUID examId,
+                                          @Valid @RequestBody SaveDraftRequest request,
+                                          @RequestHeader("X-User-Id") String userIdHeader,
+                                          @RequestHeader("X-User-Role") String role,
+                                          @RequestHeader("X-Tenant-Id") String tenantId) {
+
+        if (!StringUtils.hasText(userIdHeader) || !StringUtils.hasText(role)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        if (!"STUDENT".equals(role)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        UUID studentId = UUID.fromString(userIdHeader);
+        examService.saveDraft(examId, studentId, tenantId, request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+    }
+
+    @GetMapping("/exams/{id}/draft")
+    @Operation(
+            summary = "Get draft answers",
+            description = "Returns the caller's autosaved answers, including those not yet written to the database."
+    )
+    public ResponseEntity<DraftDto> getDraft(@PathVariable("id") UUID examId,
+                                             @RequestHeader("X-User-Id") String userIdHeader,
+                                             @RequestHeader("X-User-Role") String role,
+                                             @RequestHeader("X-Tenant-Id") String tenantId) {
+
+        if (!StringUtils.hasText(userIdHeader) || !StringUtils.hasText(role)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        if (!"STUDENT".equals(role)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        UUID studentId = UUID.fromString(userIdHeader);
+        return ResponseEntity.ok(examService.getDraft(examId, studentId, tenantId));
+    }
+
+    @PutMapping("/exams/{id}/questions/{questionId}/answer-key")
+    @Operation(
+            summary = "Set answer key",
+            description = "Replaces the answer key of an automatically graded question and re-grades all submissions "
+                    + "of the exam in the background. Only the exam creator with TEACHER/ADMIN role may call this."
+    )
+    public ResponseEntity<Void> updateAnswerKey(@PathVariable("id") UUID examId,
+                                                @PathVariable("questionId") UUID questionId,
+                                                @RequestBody AnswerKey answerKey,
+                                                @RequestHeader("X-User-Id") String userIdHeader,
+                                                @RequestHeader("X-User-Role") String role,
+                                                @RequestHeader("X-Tenant-Id") String tenantId) {
+
+        if (!StringUtils.hasText(userIdHeader) || !StringUtils.hasText(role)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        UUID userId = UUID.fromString(userIdHeader);
+        examService.updateAnswerKey(examId, questionId, answerKey, userId, tenantId, role);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+    }
+
+    @GetMapping("/exams/{id}/results")
+    @Operation(
+            summary = "Get exam results",
+            description = "Returns the automatic grade of every submission. Only the exam creator with TEACHER/ADMIN role "
+                    + "may call this."
+    )
+    public ResponseEntity<List<ExamResultDto>> getResults(@PathVariable("id") UUID examId,
+                                                          @RequestHeader("X-User-Id") String userIdHeader,
+                                                          @RequestHeader("X-User-Role") String role,
+                                                          @RequestHeader("X-Tenant-Id") String tenantId) {
+
+        if (!StringUtils.hasText(userIdHeader) || !StringUtils.hasText(role)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        UUID userId = UUID.fromString(userIdHeader);
+        return ResponseEntity.ok(examService.getResults(examId, userId, tenantId, role));
+    }
+}
@@ -2,8 +2,10 @@ package com.smartuniversity.exam.web.dto;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 
 import java.time.Instant;
@@ -21,6 +23,13 @@ public class CreateExamRequest {
     @FutureOrPresent
     private Instant startTime;
 
+    /**
+     * Length of the exam window; defaults to {@code exam.lifecycle.default-duration}.
+     */
+    @Positive
+    @Max(24 * 60)
+    private Integer durationMinutes;
+
     @NotEmpty
     @Valid
     private List<CreateQuestionRequest> questions;
@@ -49,6 +58,14 @@ public class CreateExamRequest {
         this.startTime = startTime;
     }
 
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+
     public List<CreateQuestionRequest> getQuestions() {
         return questions;
     }
@@ -1,14 +1,40 @@
 package com.smartuniversity.exam.web.dto;
 
+import com.smartuniversity.exam.domain.AnswerKey;
+import com.smartuniversity.exam.domain.QuestionType;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 
+import java.util.List;
+
 public class CreateQuestionRequest {
 
     @NotBlank
     @Size(min = 1, max = 1000)
     private String text;
 
+    /**
+     * Defaults to {@link QuestionType#FREE_TEXT}.
+     */
+    private QuestionType type;
+
+    /**
+     * Choices of a choice question; answers and keys refer to them by number, from 1.
+     */
+    @Size(max = 26)
+    private List<@NotBlank @Size(max = 500) String> options;
+
+    /**
+     * Optional; questions without a key are left for manual grading until one is set.
+     */
+    private AnswerKey answerKey;
+
+    @Positive
+    @Max(100)
+    private Integer points;
+
     public String getText() {
         return text;
     }
@@ -16,4 +42,36 @@ public class CreateQuestionRequest {
     public void setText(String text) {
         this.text = text;
     }
-}
\ No newline at end of file
+
+    public QuestionType getType() {
+        return type;
+    }
+
+    public void setType(QuestionType type) {
+        this.type = type;
+    }
+
+    public List<String> getOptions() {
+        return options;
+    }
+
+    public void setOptions(List<String> options) {
+        this.options = options;
+    }
+
+    public AnswerKey getAnswerKey() {
+        return answerKey;
+    }
+
+    public void setAnswerKey(AnswerKey answerKey) {
+        this.answerKey = answerKey;
+    }
+
+    public Integer getPoints() {
+        return points;
+    }
+
+    public void setPoints(Integer points) {
+        this.points = points;
+    }
+}
@@ -0,0 +1,23 @@
+package com.smartuniversity.exam.web.dto;
+
+import java.util.Map;
+
+public class DraftDto {
+
+    private Map<String, String> answers;
+
+    public DraftDto() {
+    }
+
+    public DraftDto(Map<String, String> answers) {
+        this.answers = answers;
+    }
+
+    public Map<String, String> getAnswers() {
+        return answers;
+    }
+
+    public void setAnswers(Map<String, String> answers) {
+        this.answers = answers;
+    }
+}
@@ -12,6 +12,7 @@ public class ExamDetailDto {
     private String title;
     private String description;
     private Instant startTime;
+    private Instant endTime;
     private ExamStateType state;
     private List<QuestionDto> questions;
 
@@ -22,12 +23,14 @@ public class ExamDetailDto {
                          String title,
                          String description,
                          Instant startTime,
+                         Instant endTime,
                          ExamStateType state,
                          List<QuestionDto> questions) {
         this.id = id;
         this.title = title;
         this.description = description;
         this.startTime = startTime;
+        this.endTime = endTime;
         this.state = state;
         this.questions = questions;
     }
@@ -64,6 +67,14 @@ public class ExamDetailDto {
         this.startTime = startTime;
     }
 
+    public Instant getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(Instant endTime) {
+        this.endTime = endTime;
+    }
+
     public ExamStateType getState() {
         return state;
     }
@@ -11,16 +11,19 @@ public class ExamDto {
     private String title;
     private String description;
     private Instant startTime;
+    private Instant endTime;
     private ExamStateType state;
 
     public ExamDto() {
     }
 
-    public ExamDto(UUID id, String title, String description, Instant startTime, ExamStateType state) {
+    public ExamDto(UUID id, String title, String description, Instant startTime, Instant endTime,
+                   ExamStateType state) {
         this.id = id;
         this.title = title;
         this.description = description;
         this.startTime = startTime;
+        this.endTime = endTime;
         this.state = state;
     }
 
@@ -56,6 +59,14 @@ public class ExamDto {
         this.startTime = startTime;
     }
 
+    public Instant getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(Instant endTime) {
+        this.endTime = endTime;
+    }
+
     public ExamStateType getState() {
         return state;
     }
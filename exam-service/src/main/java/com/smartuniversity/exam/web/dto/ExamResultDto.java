@@ -0,0 +1,94 @@
+package com.smartuniversity.exam.web.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public class ExamResultDto {
+
+    private UUID submissionId;
+    private UUID studentId;
+    private int score;
+    private int maxScore;
+    private int pendingQuestions;
+    private List<Integer> correctQuestions;
+    private Instant gradedAt;
+
+    public ExamResultDto() {
+    }
+
+    public ExamResultDto(UUID submissionId,
+                         UUID studentId,
+                         int score,
+                         int maxScore,
+                         int pendingQuestions,
+                         List<Integer> correctQuestions,
+                         Instant gradedAt) {
+        this.submissionId = submissionId;
+        this.studentId = studentId;
+        this.score = score;
+        this.maxScore = maxScore;
+        this.pendingQuestions = pendingQuestions;
+        this.correctQuestions = correctQuestions;
+        this.gradedAt = gradedAt;
+    }
+
+    public UUID getSubmissionId() {
+        return submissionId;
+    }
+
+    public void setSubmissionId(UUID submissionId) {
+        this.submissionId = submissionId;
+    }
+
+    public UUID getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(UUID studentId) {
+        this.studentId = studentId;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void setScore(int score) {
+        this.score = score;
+    }
+
+    public int getMaxScore() {
+        return maxScore;
+    }
+
+    public void setMaxScore(int maxScore) {
+        this.maxScore = maxScore;
+    }
+
+    public int getPendingQuestions() {
+        return pendingQuestions;
+    }
+
+    public void setPendingQuestions(int pendingQuestions) {
+        this.pendingQuestions = pendingQuestions;
+    }
+
+    /**
+     * Sort orders of the questions answered correctly.
+     */
+    public List<Integer> getCorrectQuestions() {
+        return correctQuestions;
+    }
+
+    public void setCorrectQuestions(List<Integer> correctQuestions) {
+        this.correctQuestions = correctQuestions;
+    }
+
+    public Instant getGradedAt() {
+        return gradedAt;
+    }
+
+    public void setGradedAt(Instant gradedAt) {
+        this.gradedAt = gradedAt;
+    }
+}
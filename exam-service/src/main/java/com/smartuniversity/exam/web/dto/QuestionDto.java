@@ -1,20 +1,32 @@
 package com.smartuniversity.exam.web.dto;
 
+import com.smartuniversity.exam.domain.QuestionType;
+
+import java.util.List;
 import java.util.UUID;
 
+/**
+ * A question as students see it; answer keys are never included.
+ */
 public class QuestionDto {
 
     private UUID id;
     private String text;
     private int sortOrder;
+    private QuestionType type;
+    private List<String> options;
+    private int points;
 
     public QuestionDto() {
     }
 
-    public QuestionDto(UUID id, String text, int sortOrder) {
+    public QuestionDto(UUID id, String text, int sortOrder, QuestionType type, List<String> options, int points) {
         this.id = id;
         this.text = text;
         this.sortOrder = sortOrder;
+        this.type = type;
+        this.options = options;
+        this.points = points;
     }
 
     public UUID getId() {
@@ -40,4 +52,28 @@ public class QuestionDto {
     public void setSortOrder(int sortOrder) {
         this.sortOrder = sortOrder;
     }
-}
\ No newline at end of file
+
+    public QuestionType getType() {
+        return type;
+    }
+
+    public void setType(QuestionType type) {
+        this.type = type;
+    }
+
+    public List<String> getOptions() {
+        return options;
+    }
+
+    public void setOptions(List<String> options) {
+        this.options = options;
+    }
+
+    public int getPoints() {
+        return points;
+    }
+
+    public void setPoints(int points) {
+        this.points = points;
+    }
+}
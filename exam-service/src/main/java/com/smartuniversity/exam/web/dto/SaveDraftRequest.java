@@ -0,0 +1,25 @@
+package com.smartuniversity.exam.web.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.Map;
+
+public class SaveDraftRequest {
+
+    /**
+     * Answers changed since the last autosave, keyed like {@link SubmitExamRequest#getAnswers()}.
+     * Questions left out keep their saved answer.
+     */
+    @NotEmpty
+    @Size(max = 200)
+    private Map<String, String> answers;
+
+    public Map<String, String> getAnswers() {
+        return answers;
+    }
+
+    public void setAnswers(Map<String, String> answers) {
+        this.answers = answers;
+    }
+}
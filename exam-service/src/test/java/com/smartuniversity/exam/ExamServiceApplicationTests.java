@@ -1,9 +1,11 @@
 package com.smartuniversity.exam;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.amqp.RabbitAutoConfiguration;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ActiveProfiles;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
@@ -11,6 +13,9 @@ import org.springframework.test.context.ActiveProfiles;
 @ActiveProfiles("test")
 class ExamServiceApplicationTests {
 
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
     @Test
     void contextLoads() {
         // verifies that the Spring context starts successfully
@@ -0,0 +1,170 @@
+package com.smartuniversity.exam.draft;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartuniversity.common.outbox.OutboxEventRepository;
+import com.smartuniversity.exam.domain.DraftAnswer;
+import com.smartuniversity.exam.domain.Exam;
+import com.smartuniversity.exam.domain.ExamStateType;
+import com.smartuniversity.exam.domain.Submission;
+import com.smartuniversity.exam.repository.DraftAnswerRepository;
+import com.smartuniversity.exam.repository.ExamRepository;
+import com.smartuniversity.exam.repository.SubmissionRepository;
+import com.smartuniversity.exam.service.ExamService;
+import com.smartuniversity.exam.web.dto.SaveDraftRequest;
+import com.smartuniversity.exam.web.dto.SubmitExamRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.amqp.RabbitAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@EnableAutoConfiguration(exclude = {RabbitAutoConfiguration.class})
+@ActiveProfiles("test")
+class DraftBufferTest {
+
+    private static final String TENANT = "engineering";
+    private static final int STUDENTS = 500;
+    private static final int AUTOSAVES = 10;
+
+    @Autowired
+    private ExamService examService;
+
+    @Autowired
+    private DraftBuffer draftBuffer;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private DraftAnswerRepository draftAnswerRepository;
+
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @BeforeEach
+    void setUp() {
+        draftBuffer.flush();
+        draftAnswerRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+        submissionRepository.deleteAll();
+        examRepository.deleteAll();
+    }
+
+    @Test
+    void autosavesAreCoalescedUntilTheFlush() {
+        UUID examId = liveExam();
+        List<UUID> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            students.add(UUID.randomUUID());
+        }
+
+        for (int round = 1; round <= AUTOSAVES; round++) {
+            for (UUID student : students) {
+                examService.saveDraft(examId, student, TENANT, draft(Map.of(
+                        "q" + (1 + round % 3), "round " + round)));
+            }
+        }
+        assertThat(draftAnswerRepository.count()).isZero();
+        assertThat(examService.getDraft(examId, students.get(0), TENANT).getAnswers())
+                .containsEntry("q1", "round 9")
+                .containsEntry("q2", "round 10")
+                .containsEntry("q3", "round 8");
+
+        // 5000 autosaves, one row per student and question.
+        assertThat(draftBuffer.flush()).isEqualTo(STUDENTS * 3);
+        assertThat(draftAnswerRepository.count()).isEqualTo(STUDENTS * 3);
+        assertThat(draftBuffer.flush()).isZero();
+
+        examService.saveDraft(examId, students.get(0), TENANT, draft(Map.of("q1", "changed")));
+        assertThat(draftBuffer.flush()).isEqualTo(1);
+        assertThat(examService.getDraft(examId, students.get(0), TENANT).getAnswers())
+                .containsEntry("q1", "changed")
+                .containsEntry("q2", "round 10");
+    }
+
+    @Test
+    void submissionMergesStoredAndBufferedDraft() throws Exception {
+        UUID examId = liveExam();
+        UUID student = UUID.randomUUID();
+        examService.saveDraft(examId, student, TENANT, draft(Map.of("q1", "stored", "q2", "stored")));
+        draftBuffer.flush();
+        examService.saveDraft(examId, student, TENANT, draft(Map.of("q2", "buffered", "q3", "buffered")));
+
+        SubmitExamRequest submit = new SubmitExamRequest();
+        submit.setAnswers(Map.of("q3", "submitted"));
+        examService.submitExam(examId, student, TENANT, submit);
+
+        Submission submission = submissionRepository.findAll().get(0);
+        Map<String, String> answers = objectMapper.readValue(submission.getAnswersJson(), new TypeReference<>() {
+        });
+        assertThat(answers).containsExactlyInAnyOrderEntriesOf(Map.of(
+                "q1", "stored", "q2", "buffered", "q3", "submitted"));
+    }
+
+    @Test
+    void olderAnswerDoesNotOverwriteANewerOne() {
+        UUID examId = UUID.randomUUID();
+        UUID student = UUID.randomUUID();
+        Instant now = Instant.now();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        tx.executeWithoutResult(status -> draftAnswerRepository.upsertAll(List.of(
+                new PendingDraftAnswer(TENANT, examId, student, "q1", "newer", now))));
+        tx.executeWithoutResult(status -> draftAnswerRepository.upsertAll(List.of(
+                new PendingDraftAnswer(TENANT, examId, student, "q1", "older", now.minusSeconds(5)),
+                new PendingDraftAnswer(TENANT, examId, student, "q2", "first", now))));
+
+        assertThat(draftAnswerRepository.findAllByExamIdAndStudentIdAndTenantId(examId, student, TENANT))
+                .extracting(DraftAnswer::getQuestionKey, DraftAnswer::getAnswer)
+                .containsExactlyInAnyOrder(
+                        tuple("q1", "newer"),
+                        tuple("q2", "first"));
+    }
+
+    private UUID liveExam() {
+        Exam exam = new Exam();
+        exam.setTenantId(TENANT);
+        exam.setCreatorId(UUID.randomUUID());
+        exam.setTitle("Final");
+        exam.setStartTime(Instant.now().minusSeconds(60));
+        exam.setEndTime(Instant.now().plus(Duration.ofHours(1)));
+        exam.setState(ExamStateType.LIVE);
+        return examRepository.save(exam).getId();
+    }
+
+    private static SaveDraftRequest draft(Map<String, String> answers) {
+        SaveDraftRequest request = new SaveDraftRequest();
+        request.setAnswers(answers);
+        return request;
+    }
+}
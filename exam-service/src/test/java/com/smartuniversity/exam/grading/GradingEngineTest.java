@@ -0,0 +1,229 @@
+package com.smartuniversity.exam.grading;
+
+import com.smartuniversity.common.outbox.OutboxEventRepository;
+import com.smartuniversity.exam.domain.AnswerKey;
+import com.smartuniversity.exam.domain.Exam;
+import com.smartuniversity.exam.domain.ExamStateType;
+import com.smartuniversity.exam.domain.QuestionType;
+import com.smartuniversity.exam.domain.SubmissionGrade;
+import com.smartuniversity.exam.repository.ExamRepository;
+import com.smartuniversity.exam.repository.SubmissionGradeRepository;
+import com.smartuniversity.exam.repository.SubmissionRepository;
+import com.smartuniversity.exam.service.ExamService;
+import com.smartuniversity.exam.submission.PendingSubmission;
+import com.smartuniversity.exam.web.dto.CreateExamRequest;
+import com.smartuniversity.exam.web.dto.CreateQuestionRequest;
+import com.smartuniversity.exam.web.dto.ExamDto;
+import com.smartuniversity.exam.web.dto.ExamResultDto;
+import com.smartuniversity.exam.web.dto.SubmitExamRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.amqp.RabbitAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@EnableAutoConfiguration(exclude = {RabbitAutoConfiguration.class})
+@ActiveProfiles("test")
+class GradingEngineTest {
+
+    private static final String TENANT = "engineering";
+    private static final int SUBMISSIONS = 10_000;
+
+    @Autowired
+    private ExamService examService;
+
+    @Autowired
+    private GradingEngine gradingEngine;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    @Autowired
+    private SubmissionGradeRepository submissionGradeRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private GradingKeyCache gradingKeys;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    private final UUID teacherId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        submissionGradeRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+        submissionRepository.deleteAll();
+        examRepository.deleteAll();
+    }
+
+    @Test
+    void submissionIsGradedOnIngest() throws Exception {
+        UUID examId = liveExam();
+        UUID student = UUID.randomUUID();
+
+        SubmitExamRequest submit = new SubmitExamRequest();
+        submit.setAnswers(Map.of("q1", "2", "q2", "1,3", "q3", "3.141", "q4", "JVM", "q5", "Essay"));
+        examService.submitExam(examId, student, TENANT, submit);
+
+        ExamResultDto result = awaitResults(examId, 1).get(0);
+        assertThat(result.getStudentId()).isEqualTo(student);
+        assertThat(result.getScore()).isEqualTo(4);
+        assertThat(result.getMaxScore()).isEqualTo(4);
+        assertThat(result.getPendingQuestions()).isEqualTo(1);
+        assertThat(result.getCorrectQuestions()).containsExactly(1, 2, 3, 4);
+    }
+
+    @Test
+    void answerKeyChangeRegradesAllSubmissions() throws Exception {
+        UUID examId = liveExam();
+        // Half the class answered option 2, the other half option 3.
+        List<PendingSubmission> submissions = new ArrayList<>(SUBMISSIONS);
+        for (int i = 0; i < SUBMISSIONS; i++) {
+            String answers = "{\"q1\":\"" + (i % 2 == 0 ? 2 : 3) + "\",\"q3\":\"3.2\"}";
+            submissions.add(new PendingSubmission(UUID.randomUUID(), TENANT, examId, UUID.randomUUID(),
+                    answers, Instant.now()));
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> submissionRepository.insertAllIfAbsent(submissions));
+
+        assertThat(gradingEngine.regrade(examId)).isEqualTo(SUBMISSIONS);
+        assertThat(scores(examId)).containsOnlyKeys(0, 1);
+
+        // Option 3 was also right, and the numeric tolerance was too strict.
+        UUID choiceId = questionId(examId, 1);
+        examService.updateAnswerKey(examId, choiceId, new AnswerKey(List.of(3), null, null, null),
+                teacherId, TENANT, "TEACHER");
+        UUID numericId = questionId(examId, 3);
+        examService.updateAnswerKey(examId, numericId, new AnswerKey(null, 3.14159, 0.1, null),
+                teacherId, TENANT, "TEACHER");
+
+        // The key changes re-grade in the background; wait for the second one.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (System.nanoTime() < deadline
+                && submissionGradeRepository.findAllByExamIdAndTenantId(examId, TENANT).stream()
+                .anyMatch(g -> g.getGradingVersion() < 2)) {
+            Thread.sleep(100);
+        }
+        var scores = scores(examId);
+        assertThat(scores).containsEntry(1, (long) SUBMISSIONS / 2).containsEntry(2, (long) SUBMISSIONS / 2);
+
+        assertThatThrownBy(() -> examService.updateAnswerKey(examId, choiceId,
+                new AnswerKey(List.of(9), null, null, null), teacherId, TENANT, "TEACHER"))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode().value()).isEqualTo(400));
+        assertThatThrownBy(() -> examService.updateAnswerKey(examId, choiceId,
+                new AnswerKey(List.of(2), null, null, null), UUID.randomUUID(), TENANT, "TEACHER"))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode().value()).isEqualTo(403));
+    }
+
+    @Test
+    void ingestSeesKeyChangedOnAnotherInstance() {
+        UUID examId = liveExam();
+        assertThat(gradingKeys.get(examId)).get().extracting(GradingKey::version).isEqualTo(0);
+
+        // Another instance changes the key; this instance's cache is not told.
+        jdbcTemplate.update("UPDATE questions SET answer_key_json = ? WHERE id = ?",
+                "{\"correctOptions\":[3]}", questionId(examId, 1));
+        jdbcTemplate.update("UPDATE exams SET grading_version = 1 WHERE id = ?", examId);
+
+        PendingSubmission submission = new PendingSubmission(UUID.randomUUID(), TENANT, examId, UUID.randomUUID(),
+                "{\"q1\":\"3\"}", Instant.now());
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> submissionRepository.insertAllIfAbsent(List.of(submission)));
+        gradingEngine.gradeIngested(List.of(submission));
+
+        SubmissionGrade grade = submissionGradeRepository.findById(submission.id()).orElseThrow();
+        assertThat(grade.getGradingVersion()).isEqualTo(1);
+        assertThat(grade.getScore()).isEqualTo(1);
+    }
+
+    private Map<Integer, Long> scores(UUID examId) {
+        List<SubmissionGrade> grades = submissionGradeRepository.findAllByExamIdAndTenantId(examId, TENANT);
+        assertThat(grades).hasSize(SUBMISSIONS);
+        return grades.stream().collect(Collectors.groupingBy(
+                SubmissionGrade::getScore, Collectors.counting()));
+    }
+
+    private List<ExamResultDto> awaitResults(UUID examId, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        List<ExamResultDto> results = List.of();
+        while (results.size() < expected && System.nanoTime() < deadline) {
+            results = examService.getResults(examId, teacherId, TENANT, "TEACHER");
+            Thread.sleep(20);
+        }
+        return results;
+    }
+
+    private UUID questionId(UUID examId, int sortOrder) {
+        return new TransactionTemplate(transactionManager).execute(status -> examRepository.findById(examId)
+                .orElseThrow().getQuestions().stream()
+                .filter(q -> q.getSortOrder() == sortOrder)
+                .findFirst().orElseThrow().getId());
+    }
+
+    private UUID liveExam() {
+        CreateExamRequest request = new CreateExamRequest();
+        request.setTitle("Programming languages");
+        request.setStartTime(Instant.now().minusSeconds(60));
+        request.setDurationMinutes(60);
+        request.setQuestions(List.of(
+                question(QuestionType.SINGLE_CHOICE, List.of("Java", "Kotlin", "Scala"),
+                        new AnswerKey(List.of(2), null, null, null)),
+                question(QuestionType.MULTIPLE_CHOICE, List.of("JVM", "CLR", "JVM too"),
+                        new AnswerKey(List.of(1, 3), null, null, null)),
+                question(QuestionType.NUMERIC, null, new AnswerKey(null, 3.14159, 0.01, null)),
+                question(QuestionType.SHORT_ANSWER, null, new AnswerKey(null, null, null, List.of("jvm"))),
+                question(null, null, null)));
+
+        ExamDto created = examService.createExam(request, teacherId, TENANT, "TEACHER");
+        Exam exam = examRepository.findById(created.getId()).orElseThrow();
+        exam.setState(ExamStateType.LIVE);
+        exam.setEndTime(Instant.now().plus(Duration.ofHours(1)));
+        examRepository.save(exam);
+        return exam.getId();
+    }
+
+    private static CreateQuestionRequest question(QuestionType type, List<String> options, AnswerKey key) {
+        CreateQuestionRequest question = new CreateQuestionRequest();
+        question.setText(type != null ? type.name() : "Explain the JVM");
+        question.setType(type);
+        question.setOptions(options);
+        question.setAnswerKey(key);
+        return question;
+    }
+}
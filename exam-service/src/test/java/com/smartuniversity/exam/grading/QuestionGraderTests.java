@@ -0,0 +1,124 @@
+package com.smartuniversity.exam.grading;
+
+import com.smartuniversity.exam.domain.AnswerKey;
+import com.smartuniversity.exam.domain.Exam;
+import com.smartuniversity.exam.domain.Question;
+import com.smartuniversity.exam.domain.QuestionType;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QuestionGraderTests {
+
+    private final QuestionGraderFactory factory = new QuestionGraderFactory();
+
+    private static final List<String> OPTIONS = List.of("Java", "Kotlin", "Scala", "Groovy");
+
+    @Test
+    void singleChoiceMatchesTheOneCorrectOption() {
+        Predicate<String> test = compile(QuestionType.SINGLE_CHOICE, OPTIONS, key(List.of(2), null, null, null));
+
+        assertThat(test.test("2")).isTrue();
+        assertThat(test.test("1")).isFalse();
+        assertThat(test.test("2,3")).isFalse();
+        assertThat(test.test("Kotlin")).isFalse();
+        assertThatThrownBy(() -> factory.getGrader(QuestionType.SINGLE_CHOICE)
+                .validate(OPTIONS, key(List.of(1, 2), null, null, null)))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void multipleChoiceNeedsExactlyTheCorrectSet() {
+        Predicate<String> test = compile(QuestionType.MULTIPLE_CHOICE, OPTIONS, key(List.of(1, 3), null, null, null));
+
+        assertThat(test.test("1,3")).isTrue();
+        assertThat(test.test("3, 1")).isTrue();
+        assertThat(test.test("1")).isFalse();
+        assertThat(test.test("1,3,4")).isFalse();
+        assertThatThrownBy(() -> factory.getGrader(QuestionType.MULTIPLE_CHOICE)
+                .validate(OPTIONS, key(List.of(5), null, null, null)))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void numericAcceptsAnswersWithinTheTolerance() {
+        Predicate<String> test = compile(QuestionType.NUMERIC, List.of(), key(null, 3.14, 0.01, null));
+
+        assertThat(test.test("3.14")).isTrue();
+        assertThat(test.test("3.145")).isTrue();
+        assertThat(test.test("3.2")).isFalse();
+        assertThat(test.test("pi")).isFalse();
+        assertThat(compile(QuestionType.NUMERIC, List.of(), key(null, 42.0, null, null)).test("42")).isTrue();
+    }
+
+    @Test
+    void shortAnswerMatchesAnyPatternIgnoringCase() {
+        Predicate<String> test = compile(QuestionType.SHORT_ANSWER, List.of(),
+                key(null, null, null, List.of("java virtual machine", "jvm")));
+
+        assertThat(test.test("JVM")).isTrue();
+        assertThat(test.test("Java Virtual Machine")).isTrue();
+        assertThat(test.test("the JVM")).isFalse();
+        assertThatThrownBy(() -> factory.getGrader(QuestionType.SHORT_ANSWER)
+                .validate(List.of(), key(null, null, null, List.of("(unclosed"))))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void gradingKeyScoresByIdOrAliasAndLeavesUngradedQuestionsPending() {
+        Exam exam = new Exam();
+        exam.setId(UUID.randomUUID());
+        exam.setTenantId("engineering");
+        Question choice = question(exam, 1, QuestionType.SINGLE_CHOICE, OPTIONS, key(List.of(1), null, null, null), 2);
+        Question numeric = question(exam, 2, QuestionType.NUMERIC, List.of(), key(null, 10.0, null, null), 3);
+        question(exam, 3, QuestionType.FREE_TEXT, List.of(), null, 5);
+        question(exam, 4, QuestionType.SHORT_ANSWER, List.of(), null, 1);
+
+        GradingKey key = GradingKey.of(exam, factory);
+        Grade grade = key.grade(Map.of(
+                choice.getId().toString(), "1",
+                "q2", "11",
+                "q3", "Because"));
+
+        assertThat(grade.score()).isEqualTo(2);
+        assertThat(grade.maxScore()).isEqualTo(5);
+        assertThat(grade.pendingQuestions()).isEqualTo(2);
+        BitSet correct = BitSet.valueOf(grade.correctQuestions());
+        assertThat(correct.get(0)).isTrue();
+        assertThat(correct.get(1)).isFalse();
+        assertThat(numeric.getPoints()).isEqualTo(3);
+    }
+
+    private Predicate<String> compile(QuestionType type, List<String> options, AnswerKey key) {
+        QuestionGrader grader = factory.getGrader(type);
+        grader.validate(options, key);
+        return grader.compile(key);
+    }
+
+    private static AnswerKey key(List<Integer> options, Double value, Double tolerance, List<String> patterns) {
+        return new AnswerKey(options, value, tolerance, patterns);
+    }
+
+    private static Question question(Exam exam, int sortOrder, QuestionType type, List<String> options,
+                                     AnswerKey key, int points) {
+        Question question = new Question();
+        question.setId(UUID.randomUUID());
+        question.setExam(exam);
+        question.setText("Question " + sortOrder);
+        question.setSortOrder(sortOrder);
+        question.setType(type);
+        question.setOptions(options);
+        question.setAnswerKey(key);
+        question.setPoints(points);
+        exam.getQuestions().add(question);
+        return question;
+    }
+}
@@ -0,0 +1,163 @@
+package com.smartuniversity.exam.lifecycle;
+
+import com.smartuniversity.common.outbox.OutboxEvent;
+import com.smartuniversity.common.outbox.OutboxEventRepository;
+import com.smartuniversity.exam.domain.Exam;
+import com.smartuniversity.exam.domain.ExamStateType;
+import com.smartuniversity.exam.repository.ExamRepository;
+import com.smartuniversity.exam.repository.SubmissionRepository;
+import com.smartuniversity.exam.service.ExamService;
+import com.smartuniversity.exam.web.dto.CreateExamRequest;
+import com.smartuniversity.exam.web.dto.CreateQuestionRequest;
+import com.smartuniversity.exam.web.dto.ExamDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.amqp.RabbitAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "exam.lifecycle.enabled=true",
+        "exam.lifecycle.tick=50ms",
+        "exam.lifecycle.horizon=2h"
+})
+@EnableAutoConfiguration(exclude = {RabbitAutoConfiguration.class})
+@ActiveProfiles("test")
+class ExamLifecycleSchedulerTest {
+
+    private static final String TENANT = "engineering";
+    private static final int NODES = 8;
+
+    @Autowired
+    private ExamLifecycleScheduler scheduler;
+
+    @Autowired
+    private ExamService examService;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        submissionRepository.deleteAll();
+        examRepository.deleteAll();
+    }
+
+    @Test
+    void examGoesLiveAtItsStartAndClosesAtItsEnd() throws Exception {
+        Instant now = Instant.now();
+        Exam exam = examRepository.save(exam(now.plusMillis(300), now.plusMillis(900)));
+        scheduler.reload();
+
+        List<ExamStateType> observed = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        ExamStateType state = ExamStateType.SCHEDULED;
+        while (state != ExamStateType.CLOSED && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            state = examRepository.findById(exam.getId()).orElseThrow().getState();
+            if (observed.isEmpty() || observed.get(observed.size() - 1) != state) {
+                observed.add(state);
+            }
+        }
+
+        assertThat(observed).containsSubsequence(ExamStateType.LIVE, ExamStateType.CLOSED);
+        assertThat(events(ExamService.EXAM_STARTED_ROUTING_KEY, exam.getId())).hasSize(1);
+        assertThat(events(ExamService.EXAM_CLOSED_ROUTING_KEY, exam.getId())).hasSize(1);
+    }
+
+    @Test
+    void exactlyOneNodeAppliesATransition() throws Exception {
+        Instant now = Instant.now();
+        Exam exam = examRepository.save(exam(now.minusSeconds(1), now.plus(Duration.ofHours(1))));
+
+        // Every node fires the same transition at the same time.
+        ExecutorService nodes = Executors.newFixedThreadPool(NODES);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ExamTransition.Outcome>> outcomes = new ArrayList<>();
+        try {
+            for (int i = 0; i < NODES; i++) {
+                outcomes.add(nodes.submit(() -> {
+                    start.await();
+                    return examService.applyTransition(ExamTransition.start(exam.getId()), Instant.now());
+                }));
+            }
+            start.countDown();
+            int applied = 0;
+            for (Future<ExamTransition.Outcome> outcome : outcomes) {
+                if (outcome.get(30, TimeUnit.SECONDS) == ExamTransition.Outcome.APPLIED) {
+                    applied++;
+                }
+            }
+            assertThat(applied).isEqualTo(1);
+        } finally {
+            nodes.shutdownNow();
+        }
+
+        assertThat(examRepository.findById(exam.getId()).orElseThrow().getState()).isEqualTo(ExamStateType.LIVE);
+        assertThat(events(ExamService.EXAM_STARTED_ROUTING_KEY, exam.getId())).hasSize(1);
+        // A close that fires before the end time is ignored.
+        assertThat(examService.applyTransition(ExamTransition.close(exam.getId()), Instant.now()))
+                .isEqualTo(ExamTransition.Outcome.STALE);
+    }
+
+    @Test
+    void createdExamIsScheduledWithoutWaitingForAReload() {
+        CreateQuestionRequest question = new CreateQuestionRequest();
+        question.setText("What is a timing wheel?");
+        CreateExamRequest request = new CreateExamRequest();
+        request.setTitle("Scheduled quiz");
+        request.setStartTime(Instant.now().plus(Duration.ofHours(1)));
+        request.setDurationMinutes(30);
+        request.setQuestions(List.of(question));
+
+        int pending = scheduler.pending();
+        ExamDto created = examService.createExam(request, UUID.randomUUID(), TENANT, "TEACHER");
+
+        assertThat(created.getEndTime()).isEqualTo(created.getStartTime().plus(Duration.ofMinutes(30)));
+        assertThat(scheduler.pending()).isEqualTo(pending + 2);
+    }
+
+    private List<OutboxEvent> events(String routingKey, UUID examId) {
+        return outboxEventRepository.findAll().stream()
+                .filter(e -> routingKey.equals(e.getRoutingKey()) && e.getPayload().contains(examId.toString()))
+                .toList();
+    }
+
+    private static Exam exam(Instant startTime, Instant endTime) {
+        Exam exam = new Exam();
+        exam.setTenantId(TENANT);
+        exam.setCreatorId(UUID.randomUUID());
+        exam.setTitle("Timed exam");
+        exam.setStartTime(startTime);
+        exam.setEndTime(endTime);
+        exam.setState(ExamStateType.SCHEDULED);
+        return exam;
+    }
+}
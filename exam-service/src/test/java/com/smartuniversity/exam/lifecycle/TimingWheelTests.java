@@ -0,0 +1,61 @@
+package com.smartuniversity.exam.lifecycle;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTests {
+
+    private static final long TICK = 100;
+
+    @Test
+    void firesTasksOnceTheirTickHasPassed() {
+        TimingWheel<String, String> wheel = new TimingWheel<>(TICK, 8, 0);
+        wheel.schedule("a", "a", 200);
+        wheel.schedule("b", "b", 250);
+
+        assertThat(wheel.advance(199)).isEmpty();
+        assertThat(wheel.advance(250)).containsExactly("a");
+        // A deadline between ticks fires on the following tick, never early.
+        assertThat(wheel.advance(299)).isEmpty();
+        assertThat(wheel.advance(300)).containsExactly("b");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void keepsDeadlinesBeyondOneRevolutionUntilTheirTurn() {
+        TimingWheel<String, String> wheel = new TimingWheel<>(TICK, 8, 0);
+        // Same bucket as tick 2, but five revolutions later.
+        wheel.schedule("far", "far", 4_200);
+        wheel.schedule("near", "near", 200);
+
+        assertThat(wheel.advance(200)).containsExactly("near");
+        assertThat(wheel.advance(4_100)).isEmpty();
+        assertThat(wheel.advance(4_200)).containsExactly("far");
+    }
+
+    @Test
+    void catchesUpAfterALongPauseAndFiresPastDeadlinesImmediately() {
+        TimingWheel<String, String> wheel = new TimingWheel<>(TICK, 8, 0);
+        wheel.schedule("a", "a", 500);
+        wheel.schedule("b", "b", 2_500);
+
+        assertThat(wheel.advance(10_000)).containsExactlyInAnyOrder("a", "b");
+
+        wheel.schedule("late", "late", 1_000);
+        assertThat(wheel.advance(10_100)).containsExactly("late");
+    }
+
+    @Test
+    void reschedulingReplacesAndCancelRemoves() {
+        TimingWheel<String, String> wheel = new TimingWheel<>(TICK, 8, 0);
+        wheel.schedule("exam", "start", 200);
+        wheel.schedule("exam", "moved", 900);
+        wheel.schedule("other", "other", 300);
+        assertThat(wheel.cancel("other")).isTrue();
+
+        assertThat(wheel.advance(500)).isEmpty();
+        assertThat(wheel.advance(900)).containsExactly("moved");
+        assertThat(wheel.cancel("exam")).isFalse();
+    }
+}
@@ -0,0 +1,131 @@
+package com.smartuniversity.exam.service;
+
+import com.smartuniversity.common.outbox.OutboxEventRepository;
+import com.smartuniversity.exam.domain.Exam;
+import com.smartuniversity.exam.repository.ExamRepository;
+import com.smartuniversity.exam.repository.SubmissionRepository;
+import com.smartuniversity.exam.web.dto.CreateExamRequest;
+import com.smartuniversity.exam.web.dto.CreateQuestionRequest;
+import com.smartuniversity.exam.web.dto.ExamDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.amqp.RabbitAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@EnableAutoConfiguration(exclude = {RabbitAutoConfiguration.class})
+@ActiveProfiles("test")
+class ExamContentCacheTest {
+
+    private static final String TENANT = "engineering";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ExamService examService;
+
+    @SpyBean
+    private ExamRepository examRepository;
+
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    private final UUID teacherId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        submissionRepository.deleteAll();
+        examRepository.deleteAll();
+    }
+
+    @Test
+    void liveExamIsServedWithoutTheDatabase() throws Exception {
+        UUID examId = startedExam();
+        clearInvocations(examRepository);
+
+        String etag = null;
+        for (int i = 0; i < 200; i++) {
+            etag = mockMvc.perform(get("/exam/exams/{id}", examId).header("X-Tenant-Id", TENANT))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.state").value("LIVE"))
+                    .andExpect(jsonPath("$.questions[0].text").value("What is Java?"))
+                    .andReturn().getResponse().getHeader("ETag");
+        }
+        assertThat(etag).isNotBlank();
+
+        mockMvc.perform(get("/exam/exams/{id}", examId)
+                        .header("X-Tenant-Id", TENANT)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/exam/exams/{id}", examId).header("X-Tenant-Id", "other-tenant"))
+                .andExpect(status().isNotFound());
+
+        verifyNoInteractions(examRepository);
+    }
+
+    @Test
+    void questionChangeReplacesTheRenderedExam() throws Exception {
+        UUID examId = startedExam();
+        String before = mockMvc.perform(get("/exam/exams/{id}", examId).header("X-Tenant-Id", TENANT))
+                .andReturn().getResponse().getHeader("ETag");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Exam exam = examRepository.findById(examId).orElseThrow();
+            exam.getQuestions().get(0).setText("What is the JVM?");
+        });
+
+        mockMvc.perform(get("/exam/exams/{id}", examId)
+                        .header("X-Tenant-Id", TENANT)
+                        .header("If-None-Match", before))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.questions[0].text").value("What is the JVM?"));
+    }
+
+    private UUID startedExam() {
+        CreateQuestionRequest question = new CreateQuestionRequest();
+        question.setText("What is Java?");
+        CreateExamRequest request = new CreateExamRequest();
+        request.setTitle("Midterm");
+        request.setStartTime(Instant.now());
+        request.setQuestions(List.of(question));
+
+        ExamDto created = examService.createExam(request, teacherId, TENANT, "TEACHER");
+        examService.startExam(created.getId(), teacherId, TENANT, "TEACHER");
+        return created.getId();
+    }
+}
@@ -2,6 +2,7 @@ package com.smartuniversity.exam.service;
 
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.amqp.RabbitAutoConfiguration;
@@ -28,6 +29,9 @@ class NotificationClientCircuitBreakerTest {
     @MockBean
     private RestTemplate restTemplate;
 
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
     @Autowired(required = false)
     private CircuitBreakerRegistry circuitBreakerRegistry;
 
@@ -49,6 +49,19 @@ class ExamStateFactoryTests {
         assertThatThrownBy(() -> state.start(exam))
                 .isInstanceOf(ResponseStatusException.class)
                 .hasFieldOrPropertyWithValue("status", HttpStatus.CONFLICT);
+
+        state.close(exam);
+        assertThat(exam.getState()).isEqualTo(ExamStateType.CLOSED);
+    }
+
+    @Test
+    void scheduledExamWhoseWindowPassedCanBeClosed() {
+        Exam exam = new Exam();
+        exam.setState(ExamStateType.SCHEDULED);
+
+        factory.getState(exam.getState()).close(exam);
+
+        assertThat(exam.getState()).isEqualTo(ExamStateType.CLOSED);
     }
 
     @Test
@@ -63,5 +76,8 @@ class ExamStateFactoryTests {
         assertThatThrownBy(() -> state.start(exam))
                 .isInstanceOf(ResponseStatusException.class)
                 .hasFieldOrPropertyWithValue("status", HttpStatus.CONFLICT);
+        assertThatThrownBy(() -> state.close(exam))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasFieldOrPropertyWithValue("status", HttpStatus.CONFLICT);
     }
 }
\ No newline at end of file
@@ -0,0 +1,159 @@
+package com.smartuniversity.exam.submission;
+
+import com.smartuniversity.common.outbox.OutboxEventRepository;
+import com.smartuniversity.exam.domain.Exam;
+import com.smartuniversity.exam.domain.ExamStateType;
+import com.smartuniversity.exam.repository.ExamRepository;
+import com.smartuniversity.exam.repository.SubmissionRepository;
+import com.smartuniversity.exam.service.ExamService;
+import com.smartuniversity.exam.web.dto.SubmitExamRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.amqp.RabbitAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Submits a whole class to one exam at the same moment, as happens when an exam ends.
+ */
+@SpringBootTest
+@EnableAutoConfiguration(exclude = {RabbitAutoConfiguration.class})
+@ActiveProfiles("test")
+class SubmissionIngestionTest {
+
+    private static final String TENANT = "engineering";
+    private static final int STUDENTS = 2_000;
+    private static final int THREADS = 64;
+
+    @Autowired
+    private ExamService examService;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        submissionRepository.deleteAll();
+        examRepository.deleteAll();
+    }
+
+    @Test
+    void burstOfSubmissionsIsWrittenInBatchesAndDuplicatesAreRejected() throws Exception {
+        Exam exam = examRepository.save(exam(ExamStateType.LIVE));
+        List<UUID> students = new ArrayList<>(STUDENTS);
+        for (int i = 0; i < STUDENTS; i++) {
+            students.add(UUID.randomUUID());
+        }
+        double batchesBefore = meterRegistry.get("exam.submissions.batch.size").summary().count();
+
+        assertThat(submitAll(exam.getId(), students)).isEqualTo(STUDENTS);
+        double batches = meterRegistry.get("exam.submissions.batch.size").summary().count() - batchesBefore;
+
+        // Every acknowledged submission is already stored.
+        assertThat(submissionRepository.count()).isEqualTo(STUDENTS);
+        assertThat(batches).isLessThan(STUDENTS);
+
+        // Resubmitting is refused by the unique constraint.
+        assertThat(submitAll(exam.getId(), students.subList(0, 100))).isZero();
+        assertThat(submissionRepository.count()).isEqualTo(STUDENTS);
+    }
+
+    @Test
+    void cachedStateIsRefreshedBeforeASubmissionIsRefused() {
+        Exam exam = examRepository.save(exam(ExamStateType.SCHEDULED));
+
+        assertThatThrownBy(() -> examService.submitExam(exam.getId(), UUID.randomUUID(), TENANT, answers()))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode().value()).isEqualTo(409));
+
+        // Started by another instance: no local event reaches the cache.
+        exam.setState(ExamStateType.LIVE);
+        examRepository.save(exam);
+        examService.submitExam(exam.getId(), UUID.randomUUID(), TENANT, answers());
+
+        assertThatThrownBy(() -> examService.submitExam(exam.getId(), UUID.randomUUID(), "other-tenant", answers()))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode().value()).isEqualTo(404));
+        assertThat(submissionRepository.count()).isEqualTo(1);
+    }
+
+    private int submitAll(UUID examId, List<UUID> students) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>(students.size());
+        try {
+            for (UUID student : students) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        examService.submitExam(examId, student, TENANT, answers());
+                        accepted.incrementAndGet();
+                    } catch (ResponseStatusException ex) {
+                        assertThat(ex.getStatusCode().value()).isEqualTo(409);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return accepted.get();
+    }
+
+    private static SubmitExamRequest answers() {
+        SubmitExamRequest request = new SubmitExamRequest();
+        request.setAnswers(Map.of("q1", "42", "q2", "Because microservices"));
+        return request;
+    }
+
+    private static Exam exam(ExamStateType state) {
+        Exam exam = new Exam();
+        exam.setTenantId(TENANT);
+        exam.setCreatorId(UUID.randomUUID());
+        exam.setTitle("Final");
+        exam.setStartTime(Instant.now().minusSeconds(60));
+        exam.setEndTime(Instant.now().plus(Duration.ofHours(1)));
+        exam.setState(state);
+        return exam;
+    }
+}
@@ -1,30 +1,46 @@
 package com.smartuniversity.exam.web;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartuniversity.common.outbox.OutboxEventRepository;
+import com.smartuniversity.common.outbox.OutboxRelay;
 import com.smartuniversity.exam.domain.Exam;
 import com.smartuniversity.exam.domain.ExamStateType;
+import com.smartuniversity.exam.config.MessagingConfig;
 import com.smartuniversity.exam.repository.ExamRepository;
+import com.smartuniversity.exam.repository.SubmissionRepository;
 import com.smartuniversity.exam.web.dto.CreateExamRequest;
 import com.smartuniversity.exam.web.dto.CreateQuestionRequest;
 import com.smartuniversity.exam.web.dto.SubmitExamRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.amqp.RabbitAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -45,12 +61,26 @@ class ExamControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
     private final String tenantId = "engineering";
     private final String teacherId = UUID.randomUUID().toString();
     private final String studentId = UUID.randomUUID().toString();
 
     @BeforeEach
     void setUp() {
+        outboxEventRepository.deleteAll();
+        submissionRepository.deleteAll();
         examRepository.deleteAll();
     }
 
@@ -59,7 +89,7 @@ class ExamControllerIntegrationTest {
         CreateExamRequest create = new CreateExamRequest();
         create.setTitle("Midterm");
         create.setDescription("CS101 Midterm");
-        create.setStartTime(Instant.now());
+        create.setStartTime(Instant.now().plusSeconds(60));
         CreateQuestionRequest q = new CreateQuestionRequest();
         q.setText("What is Java?");
         create.setQuestions(List.of(q));
@@ -89,6 +119,21 @@ class ExamControllerIntegrationTest {
                         .header("X-User-Role", "TEACHER"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.state").value(ExamStateType.LIVE.name()));
+
+        // exam.started is committed to the outbox and published by the relay, not the request.
+        verifyNoInteractions(rabbitTemplate);
+        doAnswer(invocation -> {
+            CorrelationData correlation = invocation.getArgument(3);
+            correlation.getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(rabbitTemplate).send(any(), any(), any(Message.class), any(CorrelationData.class));
+
+        assertThat(outboxRelay.relayPending()).isEqualTo(1);
+        ArgumentCaptor<Message> message = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate).send(eq(MessagingConfig.EXCHANGE_NAME), eq("exam.exam.started"), message.capture(),
+                any(CorrelationData.class));
+        assertThat(new String(message.getValue().getBody(), StandardCharsets.UTF_8)).contains(examId);
+        assertThat(outboxEventRepository.countByPublishedAtIsNull()).isZero();
     }
 
     @Test
@@ -0,0 +1,164 @@
+package com.smartuniversity.market.cache;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis value serializer that picks a {@link CacheValueCodec} per value and
+ * optionally LZ4-compresses large payloads.
+ *
+ * Wire format: {@code [format version][codec id][flags][original length if compressed][payload]}.
+ * Entries written with an unknown format version or codec, or that fail to decode,
+ * are treated as cache misses rather than errors, so nodes running different releases can share Redis
+ * during a rolling deploy. Cache keys are additionally prefixed with the format
+ * version (see {@link #keyPrefix(String)}) so that older nodes never read entries
+ * they cannot decode.
+ *
+ * Payload sizes and encode/decode times are recorded per codec.
+ */
+public class BinaryCacheSerializer implements RedisSerializer<Object> {
+
+    public static final byte FORMAT_VERSION = 2;
+
+    private static final Logger logger = LoggerFactory.getLogger(BinaryCacheSerializer.class);
+    private static final byte FLAG_LZ4 = 0x01;
+
+    private final List<CacheValueCodec> codecs;
+    private final int compressionThreshold;
+    private final MeterRegistry meterRegistry;
+    private final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+    private final LZ4FastDecompressor decompressor = LZ4Factory.fastestInstance().fastDecompressor();
+
+    /**
+     * @param codecs               codecs in order of preference; the last one should accept any value
+     * @param compressionThreshold encoded size in bytes above which payloads are compressed;
+     *                             a negative value disables compression
+     */
+    public BinaryCacheSerializer(List<CacheValueCodec> codecs, int compressionThreshold, MeterRegistry meterRegistry) {
+        this.codecs = List.copyOf(codecs);
+        this.compressionThreshold = compressionThreshold;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public static String keyPrefix(String cacheName) {
+        return cacheName + "::v" + FORMAT_VERSION + "::";
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        CacheValueCodec codec = codecFor(value);
+        long start = System.nanoTime();
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            codec.write(value, new DataOutputStream(body));
+            byte[] payload = body.toByteArray();
+
+            boolean compress = compressionThreshold >= 0 && payload.length > compressionThreshold;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.length + 8);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(FORMAT_VERSION);
+            out.writeByte(codec.id());
+            out.writeByte(compress ? FLAG_LZ4 : 0);
+            if (compress) {
+                out.writeInt(payload.length);
+                out.write(compressor.compress(payload));
+            } else {
+                out.write(payload);
+            }
+            byte[] result = bytes.toByteArray();
+            payloadSize(codec, compress).record(result.length);
+            return result;
+        } catch (IOException ex) {
+            throw new SerializationException("Could not encode cache value with codec " + codec.name(), ex);
+        } finally {
+            timer("market.cache.codec.encode", codec).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length < 3) {
+            return null;
+        }
+        if (bytes[0] != FORMAT_VERSION) {
+            logger.debug("Ignoring cache entry with unsupported format version {}", bytes[0]);
+            return null;
+        }
+        CacheValueCodec codec = codecById(bytes[1]);
+        if (codec == null) {
+            logger.debug("Ignoring cache entry with unknown codec id {}", bytes[1]);
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            byte[] payload;
+            if ((bytes[2] & FLAG_LZ4) != 0) {
+                int originalLength = ((bytes[3] & 0xFF) << 24) | ((bytes[4] & 0xFF) << 16)
+                        | ((bytes[5] & 0xFF) << 8) | (bytes[6] & 0xFF);
+                payload = decompressor.decompress(bytes, 7, originalLength);
+            } else {
+                payload = Arrays.copyOfRange(bytes, 3, bytes.length);
+            }
+            return codec.read(new DataInputStream(new ByteArrayInputStream(payload)));
+        } catch (IOException | RuntimeException ex) {
+            // A corrupt entry is recomputed by the caller instead of failing the read.
+            logger.warn("Could not decode cache value with codec {}: {}", codec.name(), ex.toString());
+            return null;
+        } finally {
+            timer("market.cache.codec.decode", codec).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private CacheValueCodec codecFor(Object value) {
+        for (CacheValueCodec codec : codecs) {
+            if (codec.supports(value)) {
+                return codec;
+            }
+        }
+        throw new SerializationException("No cache codec supports " + value.getClass().getName());
+    }
+
+    private CacheValueCodec codecById(byte id) {
+        for (CacheValueCodec codec : codecs) {
+            if (codec.id() == id) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
+    private DistributionSummary payloadSize(CacheValueCodec codec, boolean compressed) {
+        return DistributionSummary.builder("market.cache.codec.payload")
+                .description("Size of encoded cache values")
+                .baseUnit("bytes")
+                .tag("codec", codec.name())
+                .tag("compressed", Boolean.toString(compressed))
+                .register(meterRegistry);
+    }
+
+    private Timer timer(String name, CacheValueCodec codec) {
+        return Timer.builder(name)
+                .tag("codec", codec.name())
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,25 @@
+package com.smartuniversity.market.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Encodes one family of cached values into a compact binary payload.
+ *
+ * Codecs are identified on the wire by {@link #id()}, so an id must never be reused
+ * for a different layout; introduce a new codec (or bump
+ * {@link BinaryCacheSerializer#FORMAT_VERSION}) instead of changing an existing one.
+ */
+public interface CacheValueCodec {
+
+    byte id();
+
+    String name();
+
+    boolean supports(Object value);
+
+    void write(Object value, DataOutputStream out) throws IOException;
+
+    Object read(DataInputStream in) throws IOException;
+}
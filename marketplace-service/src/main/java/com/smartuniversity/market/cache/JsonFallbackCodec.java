@@ -0,0 +1,47 @@
+package com.smartuniversity.market.cache;
+
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Fallback for values without a dedicated codec: the previous self-describing
+ * JSON representation, length-prefixed.
+ */
+public class JsonFallbackCodec implements CacheValueCodec {
+
+    public static final byte ID = 0;
+
+    private final GenericJackson2JsonRedisSerializer delegate = new GenericJackson2JsonRedisSerializer();
+
+    @Override
+    public byte id() {
+        return ID;
+    }
+
+    @Override
+    public String name() {
+        return "json";
+    }
+
+    @Override
+    public boolean supports(Object value) {
+        return true;
+    }
+
+    @Override
+    public void write(Object value, DataOutputStream out) throws IOException {
+        byte[] json = delegate.serialize(value);
+        out.writeInt(json.length);
+        out.write(json);
+    }
+
+    @Override
+    public Object read(DataInputStream in) throws IOException {
+        byte[] json = new byte[in.readInt()];
+        in.readFully(json);
+        return delegate.deserialize(json);
+    }
+}
@@ -0,0 +1,123 @@
+package com.smartuniversity.market.cache;
+
+import com.smartuniversity.market.web.dto.ProductDto;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Hand-rolled codec for tenant catalogs ({@code List<ProductDto>}).
+ *
+ * Layout: item count, then per product the id as two longs, name, optional
+ * description, price as scale plus unscaled bytes, and stock. Strings are UTF-8
+ * and, like the unscaled bytes, prefixed with an int length, so neither has a size
+ * limit below the payload's own. No field names or class names are written.
+ */
+public class ProductListCodec implements CacheValueCodec {
+
+    public static final byte ID = 1;
+
+    @Override
+    public byte id() {
+        return ID;
+    }
+
+    @Override
+    public String name() {
+        return "product-list";
+    }
+
+    @Override
+    public boolean supports(Object value) {
+        if (!(value instanceof List<?> list)) {
+            return false;
+        }
+        for (Object element : list) {
+            if (!(element instanceof ProductDto)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void write(Object value, DataOutputStream out) throws IOException {
+        List<?> products = (List<?>) value;
+        out.writeInt(products.size());
+        for (Object element : products) {
+            ProductDto product = (ProductDto) element;
+            out.writeLong(product.getId().getMostSignificantBits());
+            out.writeLong(product.getId().getLeastSignificantBits());
+            writeNullableString(out, product.getName());
+            writeNullableString(out, product.getDescription());
+            writeNullableDecimal(out, product.getPrice());
+            out.writeInt(product.getStock());
+        }
+    }
+
+    @Override
+    public Object read(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<ProductDto> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            UUID id = new UUID(in.readLong(), in.readLong());
+            String name = readNullableString(in);
+            String description = readNullableString(in);
+            BigDecimal price = readNullableDecimal(in);
+            int stock = in.readInt();
+            products.add(new ProductDto(id, name, description, price, stock));
+        }
+        return products;
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(utf8.length);
+            out.write(utf8);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    private static void writeNullableDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            byte[] unscaled = value.unscaledValue().toByteArray();
+            out.writeInt(value.scale());
+            out.writeInt(unscaled.length);
+            out.write(unscaled);
+        }
+    }
+
+    private static BigDecimal readNullableDecimal(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        int scale = in.readInt();
+        return new BigDecimal(new BigInteger(readBytes(in)), scale);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Invalid length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,153 @@
+package com.smartuniversity.market.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Cache with a bounded in-process (near) tier in front of a shared remote tier.
+ *
+ * Reads are served from the local tier when possible and fall back to the remote
+ * tier, populating the local tier on a remote hit. Writes go to the remote tier
+ * first; the local tier is refreshed on this node and an invalidation is published
+ * so other nodes drop their local copy.
+ *
+ * Keys are normalised to strings in the local tier so that invalidation messages
+ * received from other nodes can address them.
+ */
+public class TwoTierCache extends AbstractValueAdaptingCache {
+
+    static final String TIER_LOCAL = "local";
+    static final String TIER_REMOTE = "remote";
+
+    private final String name;
+    private final Cache<String, Object> local;
+    private final org.springframework.cache.Cache remote;
+    private final BiConsumer<String, String> invalidationPublisher;
+
+    private final Timer localHits;
+    private final Timer remoteHits;
+    private final Timer remoteMisses;
+
+    /**
+     * @param invalidationPublisher receives the cache name and the affected key,
+     *                              or {@code null} as key when the whole cache is cleared
+     */
+    public TwoTierCache(String name,
+                        Cache<String, Object> local,
+                        org.springframework.cache.Cache remote,
+                        BiConsumer<String, String> invalidationPublisher,
+                        MeterRegistry meterRegistry) {
+        super(false);
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.invalidationPublisher = invalidationPublisher;
+        this.localHits = lookupTimer(meterRegistry, TIER_LOCAL, "hit");
+        this.remoteHits = lookupTimer(meterRegistry, TIER_REMOTE, "hit");
+        this.remoteMisses = lookupTimer(meterRegistry, TIER_REMOTE, "miss");
+    }
+
+    private Timer lookupTimer(MeterRegistry meterRegistry, String tier, String result) {
+        return Timer.builder("market.cache.lookup")
+                .description("Cache lookups per tier; hit ratios are derived from the counts")
+                .tag("cache", name)
+                .tag("tier", tier)
+                .tag("result", result)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String localKey = localKey(key);
+
+        long start = System.nanoTime();
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            localHits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return value;
+        }
+
+        start = System.nanoTime();
+        ValueWrapper wrapper = remote.get(key);
+        long elapsed = System.nanoTime() - start;
+        if (wrapper == null || wrapper.get() == null) {
+            remoteMisses.record(elapsed, TimeUnit.NANOSECONDS);
+            return null;
+        }
+
+        remoteHits.record(elapsed, TimeUnit.NANOSECONDS);
+        local.put(localKey, wrapper.get());
+        return wrapper.get();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        T value = remote.get(key, valueLoader);
+        if (value != null) {
+            local.put(localKey(key), value);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        String localKey = localKey(key);
+        invalidationPublisher.accept(name, localKey);
+        if (value != null) {
+            local.put(localKey, value);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        String localKey = localKey(key);
+        local.invalidate(localKey);
+        invalidationPublisher.accept(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        invalidationPublisher.accept(name, null);
+    }
+
+    /**
+     * Drops a local entry in response to a change made on another node.
+     */
+    void invalidateLocal(String key) {
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,107 @@
+package com.smartuniversity.market.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link CacheManager} that puts a bounded, short-lived Caffeine tier in front of
+ * every cache of a remote (Redis) cache manager.
+ *
+ * Local entries are invalidated cluster-wide through Redis pub/sub: each node
+ * publishes the cache name and key it changed on {@link #INVALIDATION_CHANNEL} and
+ * drops the matching local entry when another node does the same. The short local
+ * TTL bounds staleness if an invalidation message is lost.
+ */
+public class TwoTierCacheManager implements CacheManager {
+
+    public static final String INVALIDATION_CHANNEL = "market:cache:invalidation";
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoTierCacheManager.class);
+    private static final String SEPARATOR = "|";
+
+    private final CacheManager remote;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final long localMaximumSize;
+    private final Duration localTtl;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Cache> decorated = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager remote,
+                               StringRedisTemplate redisTemplate,
+                               MeterRegistry meterRegistry,
+                               long localMaximumSize,
+                               Duration localTtl) {
+        this.remote = remote;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.localMaximumSize = localMaximumSize;
+        this.localTtl = localTtl;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return decorated.computeIfAbsent(name, n -> {
+            Cache remoteCache = remote.getCache(n);
+            if (remoteCache == null) {
+                return null;
+            }
+            TwoTierCache cache = createCache(n, remoteCache);
+            caches.put(n, cache);
+            // Evictions are deferred until after commit, matching the previous
+            // transaction-aware RedisCacheManager.
+            return new TransactionAwareCacheDecorator(cache);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remote.getCacheNames();
+    }
+
+    private TwoTierCache createCache(String name, Cache remoteCache) {
+        com.github.benmanes.caffeine.cache.Cache<String, Object> local = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(localTtl)
+                .build();
+        return new TwoTierCache(name, local, remoteCache, this::publishInvalidation, meterRegistry);
+    }
+
+    private void publishInvalidation(String cacheName, String key) {
+        String message = instanceId + SEPARATOR + cacheName + SEPARATOR + (key != null ? key : "");
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+        } catch (RuntimeException ex) {
+            // Other nodes fall back to the local TTL.
+            logger.warn("Failed to publish cache invalidation for {}: {}", cacheName, ex.toString());
+        }
+    }
+
+    /**
+     * Applies an invalidation message received from the pub/sub channel.
+     */
+    public void onInvalidation(String message) {
+        String[] parts = message.split("\\" + SEPARATOR, 3);
+        if (parts.length < 3 || instanceId.equals(parts[0])) {
+            return;
+        }
+        TwoTierCache cache = caches.get(parts[1]);
+        if (cache != null) {
+            cache.invalidateLocal(parts[2].isEmpty() ? null : parts[2]);
+        }
+    }
+}
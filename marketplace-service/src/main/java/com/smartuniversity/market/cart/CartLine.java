@@ -0,0 +1,15 @@
+package com.smartuniversity.market.cart;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record CartLine(PricedProduct product, int quantity) {
+
+    public UUID productId() {
+        return product.productId();
+    }
+
+    public BigDecimal total() {
+        return product.unitPrice().multiply(BigDecimal.valueOf(quantity));
+    }
+}
@@ -0,0 +1,164 @@
+package com.smartuniversity.market.cart;
+
+import com.smartuniversity.market.domain.Product;
+import com.smartuniversity.market.repository.ProductRepository;
+import com.smartuniversity.market.service.OrderSagaService;
+import com.smartuniversity.market.web.dto.CartDto;
+import com.smartuniversity.market.web.dto.CartItemDto;
+import com.smartuniversity.market.web.dto.CheckoutRequest;
+import com.smartuniversity.market.web.dto.OrderDto;
+import com.smartuniversity.market.web.dto.OrderItemRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Server-side shopping carts.
+ *
+ * Each line keeps the {@link PricedProduct} snapshot it was priced at. Viewing a cart
+ * reads only product versions and re-prices just the lines whose product moved on;
+ * checkout hands the snapshots to the Saga, which reserves them with a version check
+ * and reads only the products that changed since.
+ */
+@Service
+public class CartService {
+
+    private final CartStore cartStore;
+    private final ProductRepository productRepository;
+    private final OrderSagaService orderSagaService;
+    private final Duration ttl;
+    private final Counter repriced;
+
+    public CartService(CartStore cartStore,
+                       ProductRepository productRepository,
+                       OrderSagaService orderSagaService,
+                       MeterRegistry meterRegistry,
+                       @Value("${market.cart.ttl:7d}") Duration ttl) {
+        this.cartStore = cartStore;
+        this.productRepository = productRepository;
+        this.orderSagaService = orderSagaService;
+        this.ttl = ttl;
+        this.repriced = Counter.builder("market.cart.repriced")
+                .description("Cart lines re-read because their product changed")
+                .register(meterRegistry);
+    }
+
+    public CartDto view(String tenantId, UUID buyerId) {
+        String cartId = cartId(tenantId, buyerId);
+        return toDto(revalidate(tenantId, cartId, cartStore.lines(cartId)));
+    }
+
+    public CartDto add(String tenantId, UUID buyerId, UUID productId, int quantity) {
+        if (quantity <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Quantity must be positive");
+        }
+        Product product = productRepository.findByIdAndTenantId(productId, tenantId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
+        cartStore.add(cartId(tenantId, buyerId), PricedProduct.of(product), quantity, ttl);
+        return view(tenantId, buyerId);
+    }
+
+    public CartDto remove(String tenantId, UUID buyerId, UUID productId) {
+        cartStore.remove(cartId(tenantId, buyerId), productId);
+        return view(tenantId, buyerId);
+    }
+
+    /**
+     * Checks the cart out at the prices of its snapshots, or the current price of any
+     * product that changed since, and empties it once the Saga has started.
+     */
+    public OrderDto checkout(String tenantId, UUID buyerId) {
+        String cartId = cartId(tenantId, buyerId);
+        List<CartLine> lines = cartStore.lines(cartId);
+        if (lines.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cart is empty");
+        }
+
+        List<OrderItemRequest> items = new ArrayList<>(lines.size());
+        Map<UUID, PricedProduct> snapshots = new HashMap<>();
+        for (CartLine line : lines) {
+            OrderItemRequest item = new OrderItemRequest();
+            item.setProductId(line.productId());
+            item.setQuantity(line.quantity());
+            items.add(item);
+            snapshots.put(line.productId(), line.product());
+        }
+        CheckoutRequest request = new CheckoutRequest();
+        request.setItems(items);
+
+        OrderDto order = orderSagaService.checkout(tenantId, buyerId, request, snapshots);
+        cartStore.clear(cartId);
+        return order;
+    }
+
+    /**
+     * Re-prices lines whose product version moved and drops lines whose product is
+     * gone. Unchanged lines cost only their share of one version lookup.
+     */
+    private List<CartLine> revalidate(String tenantId, String cartId, List<CartLine> lines) {
+        if (lines.isEmpty()) {
+            return lines;
+        }
+        Map<UUID, Long> versions = new HashMap<>();
+        for (ProductRepository.VersionView view : productRepository.findVersions(tenantId,
+                lines.stream().map(CartLine::productId).toList())) {
+            versions.put(view.getId(), view.getVersion());
+        }
+
+        List<UUID> stale = new ArrayList<>();
+        for (CartLine line : lines) {
+            Long version = versions.get(line.productId());
+            if (version == null) {
+                cartStore.remove(cartId, line.productId());
+            } else if (version != line.product().version()) {
+                stale.add(line.productId());
+            }
+        }
+
+        Map<UUID, PricedProduct> fresh = new HashMap<>();
+        if (!stale.isEmpty()) {
+            for (Product product : productRepository.findAllById(stale)) {
+                fresh.put(product.getId(), PricedProduct.of(product));
+            }
+            cartStore.reprice(cartId, fresh.values());
+            repriced.increment(fresh.size());
+        }
+
+        List<CartLine> current = new ArrayList<>(lines.size());
+        for (CartLine line : lines) {
+            if (!versions.containsKey(line.productId())) {
+                continue;
+            }
+            PricedProduct product = fresh.get(line.productId());
+            current.add(product != null ? new CartLine(product, line.quantity()) : line);
+        }
+        return current;
+    }
+
+    private static CartDto toDto(List<CartLine> lines) {
+        List<CartItemDto> items = new ArrayList<>(lines.size());
+        BigDecimal total = BigDecimal.ZERO;
+        for (CartLine line : lines) {
+            PricedProduct product = line.product();
+            items.add(new CartItemDto(product.productId(), product.name(), line.quantity(), product.unitPrice(),
+                    product.available() >= line.quantity()));
+            total = total.add(line.total());
+        }
+        return new CartDto(items, total);
+    }
+
+    private static String cartId(String tenantId, UUID buyerId) {
+        return tenantId + ":" + buyerId;
+    }
+}
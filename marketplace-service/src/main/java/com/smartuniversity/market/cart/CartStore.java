@@ -0,0 +1,33 @@
+package com.smartuniversity.market.cart;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Server-side storage for shopping carts. Quantities and price snapshots are kept
+ * per product, so concurrent adds to the same cart do not lose each other's units.
+ */
+public interface CartStore {
+
+    /**
+     * Lines of the cart, or an empty list if there is none or it expired.
+     */
+    List<CartLine> lines(String cartId);
+
+    /**
+     * Adds {@code quantity} units of the product, stores its snapshot and extends the
+     * cart's expiry.
+     */
+    void add(String cartId, PricedProduct product, int quantity, Duration ttl);
+
+    /**
+     * Replaces the snapshots of products that are still in the cart; quantities are kept.
+     */
+    void reprice(String cartId, Collection<PricedProduct> products);
+
+    void remove(String cartId, UUID productId);
+
+    void clear(String cartId);
+}
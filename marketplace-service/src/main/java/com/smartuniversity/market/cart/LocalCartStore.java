@@ -0,0 +1,98 @@
+package com.smartuniversity.market.cart;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-process {@link CartStore} for single-instance deployments and tests. Carts are
+ * evicted once their TTL has passed.
+ */
+@Component
+@ConditionalOnProperty(name = "market.cart.store", havingValue = "local")
+public class LocalCartStore implements CartStore {
+
+    private final ConcurrentMap<String, Entry> carts = Caffeine.newBuilder()
+            .expireAfter(new UntilExpiresAt())
+            .<String, Entry>build()
+            .asMap();
+
+    @Override
+    public List<CartLine> lines(String cartId) {
+        Entry entry = carts.get(cartId);
+        if (entry == null) {
+            return List.of();
+        }
+        return List.copyOf(entry.lines().values());
+    }
+
+    @Override
+    public void add(String cartId, PricedProduct product, int quantity, Duration ttl) {
+        carts.compute(cartId, (id, existing) -> {
+            Map<UUID, CartLine> lines = existing == null
+                    ? new LinkedHashMap<>() : new LinkedHashMap<>(existing.lines());
+            CartLine current = lines.get(product.productId());
+            lines.put(product.productId(), new CartLine(product, quantity + (current != null ? current.quantity() : 0)));
+            return new Entry(lines, Instant.now().plus(ttl));
+        });
+    }
+
+    @Override
+    public void reprice(String cartId, Collection<PricedProduct> products) {
+        carts.computeIfPresent(cartId, (id, existing) -> {
+            Map<UUID, CartLine> lines = new LinkedHashMap<>(existing.lines());
+            for (PricedProduct product : products) {
+                lines.computeIfPresent(product.productId(), (productId, line) -> new CartLine(product, line.quantity()));
+            }
+            return new Entry(lines, existing.expiresAt());
+        });
+    }
+
+    @Override
+    public void remove(String cartId, UUID productId) {
+        carts.computeIfPresent(cartId, (id, existing) -> {
+            Map<UUID, CartLine> lines = new LinkedHashMap<>(existing.lines());
+            lines.remove(productId);
+            return new Entry(lines, existing.expiresAt());
+        });
+    }
+
+    @Override
+    public void clear(String cartId) {
+        carts.remove(cartId);
+    }
+
+    private record Entry(Map<UUID, CartLine> lines, Instant expiresAt) {
+    }
+
+    /**
+     * Expires each cart at its {@code expiresAt}, which reads leave unchanged.
+     */
+    private static final class UntilExpiresAt implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(String cartId, Entry entry, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), entry.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String cartId, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(cartId, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String cartId, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.smartuniversity.market.cart;
+
+import com.smartuniversity.market.domain.Product;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * What a cart knows about a product: its price, name and available stock as of
+ * {@code version}. A line whose product has since moved to another version must be
+ * re-priced before it is trusted.
+ *
+ * @param available unreserved stock when priced; reservations do not change the version,
+ *                  so this is only indicative
+ */
+public record PricedProduct(UUID productId, String name, BigDecimal unitPrice, long version, int available) {
+
+    /**
+     * Placeholder for a line whose snapshot was lost; never matches a real version.
+     */
+    public static PricedProduct unpriced(UUID productId) {
+        return new PricedProduct(productId, null, null, -1, 0);
+    }
+
+    public static PricedProduct of(Product product) {
+        return new PricedProduct(product.getId(), product.getName(), product.getPrice(), product.getVersion(),
+                product.getStock() - product.getReservedStock());
+    }
+}
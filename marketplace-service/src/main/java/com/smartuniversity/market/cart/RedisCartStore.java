@@ -0,0 +1,106 @@
+package com.smartuniversity.market.cart;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Redis-backed {@link CartStore}, shared by all Marketplace instances. Each cart is a
+ * hash with a {@code qty:<productId>} counter, incremented atomically, and a
+ * {@code snap:<productId>} JSON snapshot per product.
+ */
+@Component
+@ConditionalOnProperty(name = "market.cart.store", havingValue = "redis", matchIfMissing = true)
+public class RedisCartStore implements CartStore {
+
+    private static final String PREFIX = "market:cart:";
+    private static final String QUANTITY = "qty:";
+    private static final String SNAPSHOT = "snap:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    public RedisCartStore(StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public List<CartLine> lines(String cartId) {
+        Map<String, String> fields = hash().entries(PREFIX + cartId);
+        List<CartLine> lines = new ArrayList<>();
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            if (!field.getKey().startsWith(QUANTITY)) {
+                continue;
+            }
+            int quantity = Integer.parseInt(field.getValue());
+            if (quantity <= 0) {
+                continue;
+            }
+            UUID productId = UUID.fromString(field.getKey().substring(QUANTITY.length()));
+            String snapshot = fields.get(SNAPSHOT + productId);
+            lines.add(new CartLine(snapshot != null ? read(snapshot) : PricedProduct.unpriced(productId), quantity));
+        }
+        return lines;
+    }
+
+    @Override
+    public void add(String cartId, PricedProduct product, int quantity, Duration ttl) {
+        String key = PREFIX + cartId;
+        hash().increment(key, QUANTITY + product.productId(), quantity);
+        hash().put(key, SNAPSHOT + product.productId(), write(product));
+        redisTemplate.expire(key, ttl);
+    }
+
+    @Override
+    public void reprice(String cartId, Collection<PricedProduct> products) {
+        String key = PREFIX + cartId;
+        Map<String, String> snapshots = new HashMap<>();
+        for (PricedProduct product : products) {
+            snapshots.put(SNAPSHOT + product.productId(), write(product));
+        }
+        // A snapshot written for a product removed meanwhile has no quantity and is ignored.
+        hash().putAll(key, snapshots);
+    }
+
+    @Override
+    public void remove(String cartId, UUID productId) {
+        hash().delete(PREFIX + cartId, QUANTITY + productId, SNAPSHOT + productId);
+    }
+
+    @Override
+    public void clear(String cartId) {
+        redisTemplate.delete(PREFIX + cartId);
+    }
+
+    private HashOperations<String, String, String> hash() {
+        return redisTemplate.opsForHash();
+    }
+
+    private String write(PricedProduct product) {
+        try {
+            return objectMapper.writeValueAsString(product);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize cart snapshot", ex);
+        }
+    }
+
+    private PricedProduct read(String json) {
+        try {
+            return objectMapper.readValue(json, PricedProduct.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not read cart snapshot", ex);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.smartuniversity.market.config;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+/**
+ * HTTP client configuration for calling downstream services.
+ *
+ * The Payment service is called through a pooled, keep-alive Apache HttpClient with
+ * bounded connect, pool-lease and response timeouts, so a slow or hung Payment
+ * service cannot pin Marketplace threads indefinitely. The template is built with
+ * {@link RestTemplateBuilder}, so every call is recorded in {@code http.client.requests}.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient paymentHttpClient(
+            @Value("${payment.client.pool.max-total:100}") int maxTotal,
+            @Value("${payment.client.pool.max-per-route:50}") int maxPerRoute,
+            @Value("${payment.client.pool.time-to-live:5m}") Duration timeToLive,
+            @Value("${payment.client.pool.idle-eviction:30s}") Duration idleEviction,
+            @Value("${payment.client.connect-timeout:1s}") Duration connectTimeout,
+            @Value("${payment.client.read-timeout:3s}") Duration readTimeout,
+            @Value("${payment.client.pool.acquire-timeout:500ms}") Duration acquireTimeout) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setTimeToLive(TimeValue.of(timeToLive))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(acquireTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleEviction))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate paymentRestTemplate(RestTemplateBuilder builder,
+                                            CloseableHttpClient paymentHttpClient,
+                                            @Value("${payment.service.base-url:http://localhost:8084}") String baseUrl) {
+        return builder
+                .rootUri(baseUrl)
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(paymentHttpClient))
+                .build();
+    }
+}
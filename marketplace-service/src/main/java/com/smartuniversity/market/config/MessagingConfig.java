@@ -1,5 +1,8 @@
 package com.smartuniversity.market.config;
 
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.TopicExchange;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
@@ -10,18 +13,61 @@ import org.springframework.context.annotation.Configuration;
 
 /**
  * RabbitMQ configuration for the Marketplace service.
- * Declares the shared topic exchange and JSON message converter.
+ * Declares the shared topic exchange, the checkout Saga command/reply queues, the
+ * queue for events from the Payment service and the JSON message converter.
  */
 @Configuration
 public class MessagingConfig {
 
     public static final String EXCHANGE_NAME = "university.events";
+    public static final String SAGA_COMMAND_QUEUE = "market.saga.commands";
+    public static final String SAGA_COMMAND_ROUTING_KEY = "market.saga.command";
+    public static final String SAGA_REPLY_QUEUE = "market.saga.replies";
+    public static final String SAGA_REPLY_ROUTING_KEY = "market.saga.reply";
+    public static final String PAYMENT_EVENT_QUEUE = "market.payment.events";
+    public static final String PAYMENT_EVENT_BINDING = "payment.event.#";
 
     @Bean
     public TopicExchange universityExchange() {
         return new TopicExchange(EXCHANGE_NAME, true, false);
     }
 
+    @Bean
+    public Queue sagaCommandQueue() {
+        return new Queue(SAGA_COMMAND_QUEUE, true);
+    }
+
+    @Bean
+    public Queue sagaReplyQueue() {
+        return new Queue(SAGA_REPLY_QUEUE, true);
+    }
+
+    @Bean
+    public Queue paymentEventQueue() {
+        return new Queue(PAYMENT_EVENT_QUEUE, true);
+    }
+
+    @Bean
+    public Binding sagaCommandBinding(Queue sagaCommandQueue, TopicExchange universityExchange) {
+        return BindingBuilder.bind(sagaCommandQueue)
+                .to(universityExchange)
+                .with(SAGA_COMMAND_ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding sagaReplyBinding(Queue sagaReplyQueue, TopicExchange universityExchange) {
+        return BindingBuilder.bind(sagaReplyQueue)
+                .to(universityExchange)
+                .with(SAGA_REPLY_ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding paymentEventBinding(Queue paymentEventQueue, TopicExchange universityExchange) {
+        return BindingBuilder.bind(paymentEventQueue)
+                .to(universityExchange)
+                .with(PAYMENT_EVENT_BINDING);
+    }
+
     @Bean
     public MessageConverter jacksonMessageConverter() {
         return new Jackson2JsonMessageConverter();
@@ -1,59 +1,102 @@
 package com.smartuniversity.market.config;
 
-import org.springframework.cache.CacheManager;
+import com.smartuniversity.market.cache.BinaryCacheSerializer;
+import com.smartuniversity.market.cache.JsonFallbackCodec;
+import com.smartuniversity.market.cache.ProductListCodec;
+import com.smartuniversity.market.cache.TwoTierCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.annotation.CachingConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Redis caching configuration for the Marketplace service.
- * 
+ *
  * This configuration provides:
  * - Distributed caching across service instances
+ * - A bounded in-process near cache in front of Redis, invalidated via pub/sub
  * - TTL (Time-To-Live) configuration per cache
- * - JSON serialization for cached objects
- * 
+ * - Compact binary serialization for cached objects (see {@link BinaryCacheSerializer})
+ *
  * Cache Names:
  * - productsByTenant: Caches product listings per tenant (10 min TTL)
+ *
+ * Only active when {@code spring.cache.type=redis}; other cache types fall back to
+ * Spring Boot's auto-configured cache manager.
  */
 @Configuration
+@ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis")
 public class RedisConfig implements CachingConfigurer {
 
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        // Default cache configuration
+    public TwoTierCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                            StringRedisTemplate redisTemplate,
+                                            MeterRegistry meterRegistry,
+                                            @Value("${market.cache.local.maximum-size:1000}") long localMaximumSize,
+                                            @Value("${market.cache.local.ttl:5s}") Duration localTtl,
+                                            @Value("${market.cache.codec.compression-threshold:1024}") int compressionThreshold) {
+        // Tenant catalogs use a dedicated codec; anything else falls back to JSON.
+        BinaryCacheSerializer valueSerializer = new BinaryCacheSerializer(
+                List.of(new ProductListCodec(), new JsonFallbackCodec()),
+                compressionThreshold,
+                meterRegistry);
+
+        // Default cache configuration; keys carry the serialization format version so
+        // nodes on different releases never read each other's entries.
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(10))
                 .disableCachingNullValues()
+                .computePrefixWith(BinaryCacheSerializer::keyPrefix)
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()));
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer));
 
         // Per-cache TTL configuration
         Map<String, RedisCacheConfiguration> cacheConfigs = new HashMap<>();
-        
+
         // Products cache: 10 minutes TTL (products don't change frequently)
         cacheConfigs.put("productsByTenant", defaultConfig.entryTtl(Duration.ofMinutes(10)));
-        
+
         // Orders cache: 5 minutes TTL (orders may change more frequently)
         cacheConfigs.put("ordersByTenant", defaultConfig.entryTtl(Duration.ofMinutes(5)));
-        
+
         // Single product cache: 15 minutes TTL
         cacheConfigs.put("productById", defaultConfig.entryTtl(Duration.ofMinutes(15)));
 
-        return RedisCacheManager.builder(connectionFactory)
+        // Transaction awareness is applied by the two-tier manager so that both tiers
+        // are evicted together after commit.
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigs)
-                .transactionAware()
                 .build();
+        redisCacheManager.afterPropertiesSet();
+
+        return new TwoTierCacheManager(redisCacheManager, redisTemplate, meterRegistry, localMaximumSize, localTtl);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            TwoTierCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> cacheManager.onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(TwoTierCacheManager.INVALIDATION_CHANNEL));
+        return container;
     }
 }
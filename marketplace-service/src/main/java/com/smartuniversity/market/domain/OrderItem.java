@@ -29,6 +29,13 @@ public class OrderItem {
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
+    /**
+     * Product name at the time of purchase, so that orders can be shown without loading
+     * their products. Null for orders placed before it was recorded.
+     */
+    @Column(name = "product_name", length = 200)
+    private String productName;
+
     @Column(nullable = false)
     private int quantity;
 
@@ -59,6 +66,14 @@ public class OrderItem {
         this.product = product;
     }
 
+    public String getProductName() {
+        return productName != null ? productName : product.getName();
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
     public int getQuantity() {
         return quantity;
     }
@@ -5,16 +5,20 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_updated_at", columnList = "updated_at")
+})
 public class Product {
 
     @Id
@@ -39,6 +43,24 @@ public class Product {
     @Column(nullable = false)
     private int stock;
 
+    /**
+     * Units held by active stock reservations. Only changed through conditional
+     * updates in {@link com.smartuniversity.market.repository.ProductRepositoryCustom},
+     * never by entity writes.
+     */
+    @ColumnDefault("0")
+    @Column(name = "reserved_stock", nullable = false, updatable = false)
+    private int reservedStock;
+
+    /**
+     * Incremented whenever price, name or on-hand stock changes, by entity updates and
+     * by the stock statements in {@link com.smartuniversity.market.repository.ProductRepositoryCustom}.
+     * Reservations do not move it. Carts remember the version they were priced at.
+     */
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
@@ -55,6 +77,7 @@ public class Product {
     @PreUpdate
     public void preUpdate() {
         this.updatedAt = Instant.now();
+        this.version++;
     }
 
     public UUID getId() {
@@ -113,6 +136,22 @@ public class Product {
         this.stock = stock;
     }
 
+    public int getReservedStock() {
+        return reservedStock;
+    }
+
+    public void setReservedStock(int reservedStock) {
+        this.reservedStock = reservedStock;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
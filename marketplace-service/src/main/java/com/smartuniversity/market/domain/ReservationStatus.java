@@ -0,0 +1,11 @@
+package com.smartuniversity.market.domain;
+
+/**
+ * Lifecycle of a stock reservation. A reservation leaves {@link #ACTIVE} exactly once.
+ */
+public enum ReservationStatus {
+    ACTIVE,
+    CONFIRMED,
+    RELEASED,
+    EXPIRED
+}
@@ -0,0 +1,27 @@
+package com.smartuniversity.market.domain;
+
+/**
+ * Persisted state of a checkout Saga.
+ *
+ * <pre>
+ * PAYMENT_PENDING --authorized--> PAYMENT_AUTHORIZED --stock confirmed--> COMPLETED
+ *        |                              |
+ *     declined                     stock conflict
+ *        v                              v
+ *      FAILED <----payment canceled---- COMPENSATING
+ * </pre>
+ *
+ * A PAYMENT_PENDING saga whose authorization never answers is also moved to
+ * COMPENSATING by the recovery worker.
+ */
+public enum SagaState {
+    PAYMENT_PENDING,
+    PAYMENT_AUTHORIZED,
+    COMPENSATING,
+    COMPLETED,
+    FAILED;
+
+    public boolean isTerminal() {
+        return this == COMPLETED || this == FAILED;
+    }
+}
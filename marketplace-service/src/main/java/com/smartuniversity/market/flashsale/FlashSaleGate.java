@@ -0,0 +1,193 @@
+package com.smartuniversity.market.flashsale;
+
+import com.smartuniversity.market.service.StockReleasedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for products in flash-sale mode.
+ *
+ * While a flash sale runs, its stock lives in a shared {@link FlashSaleStore} counter.
+ * Each instance draws units from that counter in small chunks into a local shard and
+ * admits checkouts from the shard with a compare-and-set, so most admissions cost no
+ * network call at all. Once the shared counter is empty, further checkouts are
+ * rejected with 409 before any order, reservation or payment work happens.
+ *
+ * The counter only filters demand; the stock reservation in the database remains
+ * authoritative, so units stranded in a shard can cause early rejections but never
+ * overselling. Units come back when a checkout fails before its order is created,
+ * and when a canceled or expired order releases its reservation.
+ */
+@Component
+public class FlashSaleGate {
+
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final FlashSaleStore store;
+    private final int shardSize;
+    private final long flagTtlNanos;
+    private final Counter admitted;
+    private final Counter rejected;
+
+    private final ConcurrentMap<String, Shard> shards = new ConcurrentHashMap<>();
+
+    public FlashSaleGate(FlashSaleStore store,
+                         MeterRegistry meterRegistry,
+                         @Value("${market.flash-sale.shard-size:10}") int shardSize,
+                         @Value("${market.flash-sale.flag-ttl:1s}") Duration flagTtl) {
+        this.store = store;
+        this.shardSize = shardSize;
+        this.flagTtlNanos = flagTtl.toNanos();
+        this.admitted = Counter.builder("market.flash-sale.admissions").tag("outcome", "admitted")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("market.flash-sale.admissions").tag("outcome", "rejected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts a flash sale for a product with {@code units} available, replacing any
+     * running one.
+     */
+    public void enable(String tenantId, UUID productId, int units) {
+        String key = key(tenantId, productId);
+        store.load(key, Math.max(units, 0));
+        shards.remove(key);
+    }
+
+    public void disable(String tenantId, UUID productId) {
+        String key = key(tenantId, productId);
+        store.clear(key);
+        shards.remove(key);
+    }
+
+    /**
+     * Admits the flash-sale items of a checkout or fails with 409 without holding any
+     * units. Items of products not in flash-sale mode are ignored.
+     *
+     * @return the units taken per product, to be handed to {@link #restore} if the
+     * checkout fails before its order exists
+     */
+    public Map<UUID, Integer> admit(String tenantId, Map<UUID, Integer> quantities) {
+        Map<UUID, Integer> taken = new HashMap<>();
+        for (Map.Entry<UUID, Integer> item : quantities.entrySet()) {
+            if (item.getValue() == null || item.getValue() <= 0) {
+                continue;
+            }
+            Shard shard = activeShard(tenantId, item.getKey());
+            if (shard == null) {
+                continue;
+            }
+            Outcome outcome = tryTake(shard, item.getValue());
+            if (outcome == Outcome.SOLD_OUT) {
+                restore(tenantId, taken);
+                rejected.increment();
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Flash sale sold out");
+            }
+            if (outcome == Outcome.TAKEN) {
+                taken.put(item.getKey(), item.getValue());
+            }
+        }
+        if (!taken.isEmpty()) {
+            admitted.increment();
+        }
+        return taken;
+    }
+
+    /**
+     * Returns units taken by {@link #admit} to this instance's shards.
+     */
+    public void restore(String tenantId, Map<UUID, Integer> taken) {
+        taken.forEach((productId, units) -> {
+            Shard shard = shards.get(key(tenantId, productId));
+            if (shard != null) {
+                shard.units.addAndGet(units);
+            } else {
+                store.giveBack(key(tenantId, productId), units);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockReleased(StockReleasedEvent event) {
+        event.quantities().forEach((productId, units) -> {
+            String key = key(event.tenantId(), productId);
+            Shard shard = shards.get(key);
+            if (shard == null || shard.active) {
+                store.giveBack(key, units);
+            }
+        });
+    }
+
+    private Shard activeShard(String tenantId, UUID productId) {
+        String key = key(tenantId, productId);
+        Shard shard = shards.computeIfAbsent(key, Shard::new);
+        long now = System.nanoTime();
+        if (shard.checkedAt == NEVER || now - shard.checkedAt > flagTtlNanos) {
+            shard.active = store.isActive(key);
+            shard.checkedAt = now;
+        }
+        return shard.active ? shard : null;
+    }
+
+    private Outcome tryTake(Shard shard, int quantity) {
+        while (true) {
+            int current = shard.units.get();
+            if (current >= quantity) {
+                if (shard.units.compareAndSet(current, current - quantity)) {
+                    return Outcome.TAKEN;
+                }
+                continue;
+            }
+            synchronized (shard) {
+                if (shard.units.get() >= quantity) {
+                    continue;
+                }
+                int refill = store.take(shard.key, Math.max(shardSize, quantity - shard.units.get()));
+                if (refill < 0) {
+                    // Switched off since the flag was last checked; use the regular checkout path.
+                    shard.active = false;
+                    return Outcome.INACTIVE;
+                }
+                if (refill == 0) {
+                    return Outcome.SOLD_OUT;
+                }
+                shard.units.addAndGet(refill);
+            }
+        }
+    }
+
+    private enum Outcome {
+        TAKEN,
+        SOLD_OUT,
+        INACTIVE
+    }
+
+    private static String key(String tenantId, UUID productId) {
+        return tenantId + ":" + productId;
+    }
+
+    private static final class Shard {
+
+        private final String key;
+        private final AtomicInteger units = new AtomicInteger();
+        private volatile boolean active;
+        private volatile long checkedAt = NEVER;
+
+        private Shard(String key) {
+            this.key = key;
+        }
+    }
+}
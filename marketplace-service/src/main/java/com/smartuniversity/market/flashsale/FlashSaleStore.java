@@ -0,0 +1,30 @@
+package com.smartuniversity.market.flashsale;
+
+/**
+ * Shared flash-sale stock counters, one per product. A product is in flash-sale mode
+ * while its counter exists.
+ */
+public interface FlashSaleStore {
+
+    /**
+     * Starts or restarts a flash sale with {@code units} available.
+     */
+    void load(String key, int units);
+
+    /**
+     * Atomically takes up to {@code max} units.
+     *
+     * @return the number of units taken, 0 when sold out, or -1 when the product is
+     * not in flash-sale mode
+     */
+    int take(String key, int max);
+
+    /**
+     * Returns units to the counter if the flash sale is still running.
+     */
+    void giveBack(String key, int units);
+
+    boolean isActive(String key);
+
+    void clear(String key);
+}
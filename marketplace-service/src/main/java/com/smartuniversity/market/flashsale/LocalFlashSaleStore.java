@@ -0,0 +1,47 @@
+package com.smartuniversity.market.flashsale;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-process {@link FlashSaleStore} for single-instance deployments and tests.
+ */
+@Component
+@ConditionalOnProperty(name = "market.flash-sale.store", havingValue = "local")
+public class LocalFlashSaleStore implements FlashSaleStore {
+
+    private final ConcurrentMap<String, Integer> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public void load(String key, int units) {
+        counters.put(key, units);
+    }
+
+    @Override
+    public int take(String key, int max) {
+        int[] taken = {-1};
+        counters.computeIfPresent(key, (k, units) -> {
+            taken[0] = Math.min(units, max);
+            return units - taken[0];
+        });
+        return taken[0];
+    }
+
+    @Override
+    public void giveBack(String key, int units) {
+        counters.computeIfPresent(key, (k, current) -> current + units);
+    }
+
+    @Override
+    public boolean isActive(String key) {
+        return counters.containsKey(key);
+    }
+
+    @Override
+    public void clear(String key) {
+        counters.remove(key);
+    }
+}
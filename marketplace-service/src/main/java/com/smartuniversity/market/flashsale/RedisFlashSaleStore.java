@@ -0,0 +1,66 @@
+package com.smartuniversity.market.flashsale;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Redis-backed {@link FlashSaleStore} shared by all Marketplace instances. Takes and
+ * give-backs are Lua scripts, so a counter never goes negative and a give-back never
+ * resurrects a flash sale that has been switched off.
+ */
+@Component
+@ConditionalOnProperty(name = "market.flash-sale.store", havingValue = "redis", matchIfMissing = true)
+public class RedisFlashSaleStore implements FlashSaleStore {
+
+    private static final String PREFIX = "market:flash-sale:";
+
+    private static final RedisScript<Long> TAKE = new DefaultRedisScript<>(
+            "local v = tonumber(redis.call('GET', KEYS[1])) "
+                    + "if not v then return -1 end "
+                    + "local n = math.min(v, tonumber(ARGV[1])) "
+                    + "if n > 0 then redis.call('DECRBY', KEYS[1], n) else n = 0 end "
+                    + "return n",
+            Long.class);
+
+    private static final RedisScript<Long> GIVE_BACK = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return redis.call('INCRBY', KEYS[1], ARGV[1]) end "
+                    + "return -1",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisFlashSaleStore(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public void load(String key, int units) {
+        redisTemplate.opsForValue().set(PREFIX + key, Integer.toString(units));
+    }
+
+    @Override
+    public int take(String key, int max) {
+        Long taken = redisTemplate.execute(TAKE, List.of(PREFIX + key), Integer.toString(max));
+        return taken == null ? -1 : taken.intValue();
+    }
+
+    @Override
+    public void giveBack(String key, int units) {
+        redisTemplate.execute(GIVE_BACK, List.of(PREFIX + key), Integer.toString(units));
+    }
+
+    @Override
+    public boolean isActive(String key) {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(PREFIX + key));
+    }
+
+    @Override
+    public void clear(String key) {
+        redisTemplate.delete(PREFIX + key);
+    }
+}
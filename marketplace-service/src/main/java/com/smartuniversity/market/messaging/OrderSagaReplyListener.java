@@ -0,0 +1,24 @@
+package com.smartuniversity.market.messaging;
+
+import com.smartuniversity.market.config.MessagingConfig;
+import com.smartuniversity.market.service.OrderSagaService;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds participant replies back into the checkout Saga.
+ */
+@Component
+public class OrderSagaReplyListener {
+
+    private final OrderSagaService orderSagaService;
+
+    public OrderSagaReplyListener(OrderSagaService orderSagaService) {
+        this.orderSagaService = orderSagaService;
+    }
+
+    @RabbitListener(queues = MessagingConfig.SAGA_REPLY_QUEUE)
+    public void onReply(SagaReply reply) {
+        orderSagaService.onReply(reply);
+    }
+}
@@ -0,0 +1,115 @@
+package com.smartuniversity.market.messaging;
+
+import com.smartuniversity.market.config.MessagingConfig;
+import com.smartuniversity.market.service.PaymentAuthorizationBatcher;
+import com.smartuniversity.market.service.PaymentClient;
+import com.smartuniversity.market.web.dto.PaymentAuthorizationRequest;
+import com.smartuniversity.market.web.dto.PaymentResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.UUID;
+
+/**
+ * Saga participant that executes payment commands against the Payment service and
+ * replies with the outcome.
+ *
+ * Rejections of the request itself (400, 402, 422) are definitive and produce a
+ * reply. Other failures, including 409 from a duplicate of an authorization that is
+ * still running and 429, are not answered; the recovery worker re-sends the command
+ * once the saga has been idle for long enough.
+ *
+ * Authorizations are coalesced with those of other consumer threads into batch calls
+ * unless {@code market.payment.batch.enabled} is off.
+ */
+@Component
+public class PaymentCommandHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentCommandHandler.class);
+
+    private final PaymentClient paymentClient;
+    private final PaymentAuthorizationBatcher authorizationBatcher;
+    private final RabbitTemplate rabbitTemplate;
+    private final boolean batchingEnabled;
+
+    public PaymentCommandHandler(PaymentClient paymentClient,
+                                 PaymentAuthorizationBatcher authorizationBatcher,
+                                 RabbitTemplate rabbitTemplate,
+                                 @Value("${market.payment.batch.enabled:true}") boolean batchingEnabled) {
+        this.paymentClient = paymentClient;
+        this.authorizationBatcher = authorizationBatcher;
+        this.rabbitTemplate = rabbitTemplate;
+        this.batchingEnabled = batchingEnabled;
+    }
+
+    @RabbitListener(queues = MessagingConfig.SAGA_COMMAND_QUEUE,
+            concurrency = "${market.saga.command-concurrency:4-16}")
+    public void onCommand(SagaCommand command) {
+        switch (command.type()) {
+            case AUTHORIZE_PAYMENT -> authorize(command);
+            case CANCEL_PAYMENT -> cancel(command);
+        }
+    }
+
+    private void authorize(SagaCommand command) {
+        PaymentAuthorizationRequest request = new PaymentAuthorizationRequest();
+        request.setOrderId(command.orderId());
+        request.setUserId(command.buyerId());
+        request.setAmount(command.amount());
+
+        try {
+            PaymentResponse response = batchingEnabled
+                    ? authorizationBatcher.authorize(command.tenantId(), request)
+                    : paymentClient.authorize(command.tenantId(), request);
+            if ("AUTHORIZED".equalsIgnoreCase(response.getStatus())) {
+                reply(command, SagaReply.Type.PAYMENT_AUTHORIZED, response.getPaymentId(), null);
+            } else {
+                reply(command, SagaReply.Type.PAYMENT_DECLINED, response.getPaymentId(), "Payment not authorized");
+            }
+        } catch (HttpClientErrorException ex) {
+            if (isDecline(ex.getStatusCode())) {
+                reply(command, SagaReply.Type.PAYMENT_DECLINED, null, "Payment authorization failed");
+            } else {
+                // Declining now could cancel before a still-running authorization commits.
+                logger.warn("Payment authorization for order {} not answered yet: {}", command.orderId(),
+                        ex.getMessage());
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("Payment authorization for order {} failed transiently: {}", command.orderId(), ex.getMessage());
+        }
+    }
+
+    private void cancel(SagaCommand command) {
+        try {
+            PaymentResponse response = paymentClient.cancel(command.tenantId(), command.orderId().toString());
+            reply(command, SagaReply.Type.PAYMENT_CANCELED, response.getPaymentId(), null);
+        } catch (HttpClientErrorException ex) {
+            if (ex.getStatusCode() == HttpStatus.NOT_FOUND) {
+                // Authorization never went through, so there is nothing to cancel.
+                reply(command, SagaReply.Type.PAYMENT_CANCELED, null, null);
+            } else {
+                logger.error("Payment cancellation for order {} rejected: {}", command.orderId(), ex.getMessage());
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("Payment cancellation for order {} failed transiently: {}", command.orderId(), ex.getMessage());
+        }
+    }
+
+    private static boolean isDecline(HttpStatusCode status) {
+        return status.isSameCodeAs(HttpStatus.BAD_REQUEST)
+                || status.isSameCodeAs(HttpStatus.PAYMENT_REQUIRED)
+                || status.isSameCodeAs(HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    private void reply(SagaCommand command, SagaReply.Type type, UUID paymentId, String reason) {
+        SagaReply reply = new SagaReply(type, command.orderId(), command.tenantId(), paymentId, reason);
+        rabbitTemplate.convertAndSend(MessagingConfig.EXCHANGE_NAME, MessagingConfig.SAGA_REPLY_ROUTING_KEY, reply);
+    }
+}
@@ -0,0 +1,37 @@
+package com.smartuniversity.market.messaging;
+
+import com.smartuniversity.common.events.PaymentEvent;
+import com.smartuniversity.market.config.MessagingConfig;
+import com.smartuniversity.market.service.OrderSagaService;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds events published by the Payment service for commands sent over RabbitMQ
+ * ({@code market.payment.transport=amqp}) into the checkout Saga, like the replies
+ * of {@link PaymentCommandHandler}.
+ */
+@Component
+public class PaymentEventListener {
+
+    private final OrderSagaService orderSagaService;
+
+    public PaymentEventListener(OrderSagaService orderSagaService) {
+        this.orderSagaService = orderSagaService;
+    }
+
+    @RabbitListener(queues = MessagingConfig.PAYMENT_EVENT_QUEUE,
+            concurrency = "${market.payment.event-concurrency:2-8}")
+    public void onEvent(PaymentEvent event) {
+        orderSagaService.onReply(new SagaReply(replyType(event.type()), event.orderId(), event.tenantId(),
+                event.paymentId(), event.reason()));
+    }
+
+    private static SagaReply.Type replyType(PaymentEvent.Type type) {
+        return switch (type) {
+            case AUTHORIZED -> SagaReply.Type.PAYMENT_AUTHORIZED;
+            case DECLINED -> SagaReply.Type.PAYMENT_DECLINED;
+            case CANCELED -> SagaReply.Type.PAYMENT_CANCELED;
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package com.smartuniversity.market.messaging;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Command sent by the checkout Saga orchestrator to the payment participant.
+ */
+public record SagaCommand(
+        Type type,
+        UUID orderId,
+        String tenantId,
+        UUID buyerId,
+        BigDecimal amount
+) {
+
+    public enum Type {
+        AUTHORIZE_PAYMENT,
+        CANCEL_PAYMENT
+    }
+}
@@ -0,0 +1,21 @@
+package com.smartuniversity.market.messaging;
+
+import java.util.UUID;
+
+/**
+ * Outcome of a {@link SagaCommand}, sent back to the orchestrator.
+ */
+public record SagaReply(
+        Type type,
+        UUID orderId,
+        String tenantId,
+        UUID paymentId,
+        String reason
+) {
+
+    public enum Type {
+        PAYMENT_AUTHORIZED,
+        PAYMENT_DECLINED,
+        PAYMENT_CANCELED
+    }
+}
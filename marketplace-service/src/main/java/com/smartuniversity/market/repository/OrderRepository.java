@@ -1,12 +1,34 @@
 package com.smartuniversity.market.repository;
 
 import com.smartuniversity.market.domain.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface OrderRepository extends JpaRepository<Order, UUID> {
 
     Optional<Order> findByIdAndTenantId(UUID id, String tenantId);
+
+    /**
+     * Loads an order together with its items and their products in one statement,
+     * for callers that walk the items.
+     */
+    @EntityGraph(attributePaths = {"items", "items.product"})
+    Optional<Order> findWithItemsByIdAndTenantId(UUID id, String tenantId);
+
+    /**
+     * Loads orders together with their items and products in one statement.
+     */
+    @EntityGraph(attributePaths = {"items", "items.product"})
+    List<Order> findWithItemsByIdIn(Collection<UUID> ids);
+
+    @Query("select o.id from Order o where not exists "
+            + "(select s.orderId from OrderSummary s where s.orderId = o.id) order by o.id")
+    List<UUID> findIdsWithoutSummary(Pageable pageable);
 }
\ No newline at end of file
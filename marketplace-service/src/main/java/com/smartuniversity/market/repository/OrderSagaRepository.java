@@ -0,0 +1,62 @@
+package com.smartuniversity.market.repository;
+
+import com.smartuniversity.market.domain.OrderSaga;
+import com.smartuniversity.market.domain.SagaState;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface OrderSagaRepository extends JpaRepository<OrderSaga, UUID> {
+
+    Optional<OrderSaga> findByOrderId(UUID orderId);
+
+    /**
+     * Reads the current state from the database, bypassing any cached entity.
+     */
+    @Query("select s.state from OrderSaga s where s.orderId = :orderId")
+    Optional<SagaState> findStateByOrderId(@Param("orderId") UUID orderId);
+
+    /**
+     * Moves the saga from {@code from} to {@code to}; returns 0 if it is no longer in {@code from}.
+     */
+    @Modifying
+    @Query("update OrderSaga s set s.state = :to, s.failureReason = coalesce(:reason, s.failureReason), "
+            + "s.attempts = 0, s.updatedAt = :now where s.orderId = :orderId and s.state = :from")
+    int transition(@Param("orderId") UUID orderId,
+                   @Param("from") SagaState from,
+                   @Param("to") SagaState to,
+                   @Param("reason") String reason,
+                   @Param("now") Instant now);
+
+    @Modifying
+    @Query("update OrderSaga s set s.state = com.smartuniversity.market.domain.SagaState.PAYMENT_AUTHORIZED, "
+            + "s.paymentId = :paymentId, s.attempts = 0, s.updatedAt = :now where s.orderId = :orderId "
+            + "and s.state = com.smartuniversity.market.domain.SagaState.PAYMENT_PENDING")
+    int markPaymentAuthorized(@Param("orderId") UUID orderId,
+                              @Param("paymentId") UUID paymentId,
+                              @Param("now") Instant now);
+
+    /**
+     * Claims a retry of the current step; fails if another worker claimed it or the
+     * saga moved on since {@code attempts} was read.
+     */
+    @Modifying
+    @Query("update OrderSaga s set s.attempts = s.attempts + 1, s.updatedAt = :now "
+            + "where s.orderId = :orderId and s.state = :state and s.attempts = :attempts")
+    int claimRetry(@Param("orderId") UUID orderId,
+                   @Param("state") SagaState state,
+                   @Param("attempts") int attempts,
+                   @Param("now") Instant now);
+
+    List<OrderSaga> findByStateInAndUpdatedAtBeforeOrderByUpdatedAtAsc(Collection<SagaState> states,
+                                                                      Instant cutoff,
+                                                                      Pageable pageable);
+}
@@ -0,0 +1,41 @@
+package com.smartuniversity.market.repository;
+
+import com.smartuniversity.market.domain.OrderStatus;
+import com.smartuniversity.market.domain.OrderSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, UUID> {
+
+    /**
+     * First page of a buyer's order history, newest first.
+     */
+    @Query("select s from OrderSummary s where s.tenantId = :tenantId and s.buyerId = :buyerId "
+            + "order by s.createdAt desc, s.orderId desc")
+    List<OrderSummary> findHistory(@Param("tenantId") String tenantId,
+                                   @Param("buyerId") UUID buyerId,
+                                   Pageable pageable);
+
+    /**
+     * Next page of a buyer's order history, strictly after the given (createdAt, orderId) key.
+     */
+    @Query("select s from OrderSummary s where s.tenantId = :tenantId and s.buyerId = :buyerId "
+            + "and (s.createdAt < :createdAt or (s.createdAt = :createdAt and s.orderId < :orderId)) "
+            + "order by s.createdAt desc, s.orderId desc")
+    List<OrderSummary> findHistoryAfter(@Param("tenantId") String tenantId,
+                                        @Param("buyerId") UUID buyerId,
+                                        @Param("createdAt") Instant createdAt,
+                                        @Param("orderId") UUID orderId,
+                                        Pageable pageable);
+
+    @Modifying
+    @Query("update OrderSummary s set s.status = :status, s.updatedAt = :now where s.orderId = :orderId")
+    int updateStatus(@Param("orderId") UUID orderId, @Param("status") OrderStatus status, @Param("now") Instant now);
+}
@@ -0,0 +1,10 @@
+package com.smartuniversity.market.repository;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Partial update of a product; {@code null} fields are left unchanged.
+ */
+public record ProductPatch(UUID id, String name, String description, BigDecimal price, Integer stock) {
+}
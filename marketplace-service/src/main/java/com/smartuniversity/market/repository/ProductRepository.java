@@ -1,23 +1,48 @@
 package com.smartuniversity.market.repository;
 
 import com.smartuniversity.market.domain.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import jakarta.persistence.LockModeType;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface ProductRepository extends JpaRepository<Product, UUID> {
+public interface ProductRepository extends JpaRepository<Product, UUID>, ProductRepositoryCustom {
 
     List<Product> findAllByTenantId(String tenantId);
 
     Optional<Product> findByIdAndTenantId(UUID id, String tenantId);
 
+    /**
+     * First page of a keyset walk over all products, used to rebuild the search index.
+     */
+    List<Product> findAllByOrderByIdAsc(Pageable pageable);
+
+    List<Product> findByIdGreaterThanOrderByIdAsc(UUID id, Pageable pageable);
+
+    List<Product> findByUpdatedAtAfter(Instant updatedAt);
+
+    /**
+     * Current versions only, so carts can tell which of their products need re-pricing.
+     */
+    @Query("select p.id as id, p.version as version from Product p where p.tenantId = :tenantId and p.id in :ids")
+    List<VersionView> findVersions(@Param("tenantId") String tenantId, @Param("ids") Collection<UUID> ids);
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("select p from Product p where p.id = :id and p.tenantId = :tenantId")
     Optional<Product> findByIdAndTenantIdForUpdate(@Param("id") UUID id, @Param("tenantId") String tenantId);
-}
\ No newline at end of file
+
+    interface VersionView {
+
+        UUID getId();
+
+        long getVersion();
+    }
+}
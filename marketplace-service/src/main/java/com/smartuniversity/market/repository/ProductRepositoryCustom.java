@@ -0,0 +1,58 @@
+package com.smartuniversity.market.repository;
+
+import com.smartuniversity.market.domain.Product;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Set-based product writes, each executed as one JDBC batch.
+ *
+ * Available stock is {@code stock - reserved_stock}. The conditional operations
+ * return update counts in the iteration order of {@code quantities}: 1 when the row
+ * was changed, 0 when the product was missing or short. Callers must roll back when
+ * any entry is 0.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Decrements stock directly, without a prior reservation, if enough unreserved
+     * stock is available.
+     */
+    int[] decrementStock(String tenantId, Map<UUID, Integer> quantities);
+
+    /**
+     * Holds stock for a pending order if enough unreserved stock is available.
+     */
+    int[] reserveStock(String tenantId, Map<UUID, Integer> quantities);
+
+    /**
+     * Like {@link #reserveStock}, but also requires products listed in {@code versions}
+     * to still be at that version. For those, a 0 means the product was short or has
+     * changed since.
+     */
+    int[] reserveStockAtVersion(String tenantId, Map<UUID, Integer> quantities, Map<UUID, Long> versions);
+
+    /**
+     * Turns previously reserved units into a stock decrement.
+     */
+    int[] commitReservedStock(String tenantId, Map<UUID, Integer> quantities);
+
+    /**
+     * Returns previously reserved units to the available pool.
+     */
+    int[] releaseReservedStock(String tenantId, Map<UUID, Integer> quantities);
+
+    /**
+     * Inserts new products in one batch, assigning their ids and timestamps.
+     */
+    void insertAll(List<Product> products);
+
+    /**
+     * Applies the patches of products of the tenant in one batch, bumping their
+     * version. Returns 0 for a product that is missing or whose new stock would be
+     * below its reserved units.
+     */
+    int[] patchAll(String tenantId, List<ProductPatch> patches);
+}
@@ -0,0 +1,119 @@
+package com.smartuniversity.market.repository;
+
+import com.smartuniversity.market.domain.Product;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private static final String DECREMENT_STOCK_SQL =
+            "UPDATE products SET stock = stock - ?, version = version + 1, updated_at = CURRENT_TIMESTAMP "
+                    + "WHERE id = ? AND tenant_id = ? AND stock - reserved_stock >= ?";
+
+    private static final String RESERVE_STOCK_SQL =
+            "UPDATE products SET reserved_stock = reserved_stock + ? "
+                    + "WHERE id = ? AND tenant_id = ? AND stock - reserved_stock >= ?";
+
+    private static final String RESERVE_STOCK_AT_VERSION_SQL =
+            RESERVE_STOCK_SQL + " AND (? < 0 OR version = ?)";
+
+    private static final String COMMIT_RESERVED_SQL =
+            "UPDATE products SET stock = stock - ?, reserved_stock = reserved_stock - ?, "
+                    + "version = version + 1, updated_at = CURRENT_TIMESTAMP WHERE id = ? AND tenant_id = ? AND reserved_stock >= ?";
+
+    private static final String RELEASE_RESERVED_SQL =
+            "UPDATE products SET reserved_stock = reserved_stock - ? "
+                    + "WHERE id = ? AND tenant_id = ? AND reserved_stock >= ?";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO products (id, tenant_id, seller_id, name, description, price, stock, reserved_stock, "
+                    + "version, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, 0, 0, ?, ?)";
+
+    private static final String PATCH_SQL =
+            "UPDATE products SET name = COALESCE(?, name), description = COALESCE(?, description), "
+                    + "price = COALESCE(?, price), stock = COALESCE(?, stock), version = version + 1, "
+                    + "updated_at = ? WHERE id = ? AND tenant_id = ? AND COALESCE(?, stock) >= reserved_stock";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    ProductRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int[] decrementStock(String tenantId, Map<UUID, Integer> quantities) {
+        return guardedBatch(DECREMENT_STOCK_SQL, tenantId, quantities);
+    }
+
+    @Override
+    public int[] reserveStock(String tenantId, Map<UUID, Integer> quantities) {
+        return guardedBatch(RESERVE_STOCK_SQL, tenantId, quantities);
+    }
+
+    @Override
+    public int[] reserveStockAtVersion(String tenantId, Map<UUID, Integer> quantities, Map<UUID, Long> versions) {
+        List<Object[]> batchArgs = new ArrayList<>(quantities.size());
+        for (Map.Entry<UUID, Integer> entry : quantities.entrySet()) {
+            long version = versions.getOrDefault(entry.getKey(), -1L);
+            batchArgs.add(new Object[]{entry.getValue(), entry.getKey(), tenantId, entry.getValue(), version, version});
+        }
+        return jdbcTemplate.batchUpdate(RESERVE_STOCK_AT_VERSION_SQL, batchArgs);
+    }
+
+    @Override
+    public int[] commitReservedStock(String tenantId, Map<UUID, Integer> quantities) {
+        List<Object[]> batchArgs = new ArrayList<>(quantities.size());
+        for (Map.Entry<UUID, Integer> entry : quantities.entrySet()) {
+            batchArgs.add(new Object[]{entry.getValue(), entry.getValue(), entry.getKey(), tenantId, entry.getValue()});
+        }
+        return jdbcTemplate.batchUpdate(COMMIT_RESERVED_SQL, batchArgs);
+    }
+
+    @Override
+    public int[] releaseReservedStock(String tenantId, Map<UUID, Integer> quantities) {
+        return guardedBatch(RELEASE_RESERVED_SQL, tenantId, quantities);
+    }
+
+    @Override
+    public void insertAll(List<Product> products) {
+        Instant now = Instant.now();
+        List<Object[]> batchArgs = new ArrayList<>(products.size());
+        for (Product product : products) {
+            product.setId(UUID.randomUUID());
+            product.setCreatedAt(now);
+            product.setUpdatedAt(now);
+            batchArgs.add(new Object[]{product.getId(), product.getTenantId(), product.getSellerId(),
+                    product.getName(), product.getDescription(), product.getPrice(), product.getStock(),
+                    Timestamp.from(now), Timestamp.from(now)});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, batchArgs);
+    }
+
+    @Override
+    public int[] patchAll(String tenantId, List<ProductPatch> patches) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> batchArgs = new ArrayList<>(patches.size());
+        for (ProductPatch patch : patches) {
+            batchArgs.add(new Object[]{patch.name(), patch.description(), patch.price(), patch.stock(), now,
+                    patch.id(), tenantId, patch.stock()});
+        }
+        return jdbcTemplate.batchUpdate(PATCH_SQL, batchArgs);
+    }
+
+    /**
+     * Runs a statement of the form {@code ... SET x = x +/- ? WHERE id = ? AND tenant_id = ? AND guard >= ?}.
+     */
+    private int[] guardedBatch(String sql, String tenantId, Map<UUID, Integer> quantities) {
+        List<Object[]> batchArgs = new ArrayList<>(quantities.size());
+        for (Map.Entry<UUID, Integer> entry : quantities.entrySet()) {
+            batchArgs.add(new Object[]{entry.getValue(), entry.getKey(), tenantId, entry.getValue()});
+        }
+        return jdbcTemplate.batchUpdate(sql, batchArgs);
+    }
+}
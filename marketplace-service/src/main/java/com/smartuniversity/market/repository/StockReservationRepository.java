@@ -0,0 +1,31 @@
+package com.smartuniversity.market.repository;
+
+import com.smartuniversity.market.domain.ReservationStatus;
+import com.smartuniversity.market.domain.StockReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, UUID> {
+
+    List<StockReservation> findByOrderId(UUID orderId);
+
+    /**
+     * Moves all active reservations of an order to {@code status}. Concurrent callers
+     * (confirm vs. expiry) race on this statement and only one sees a non-zero count.
+     */
+    @Modifying
+    @Query("update StockReservation r set r.status = :status "
+            + "where r.orderId = :orderId and r.status = com.smartuniversity.market.domain.ReservationStatus.ACTIVE")
+    int closeActive(@Param("orderId") UUID orderId, @Param("status") ReservationStatus status);
+
+    @Query("select distinct r.orderId from StockReservation r "
+            + "where r.status = com.smartuniversity.market.domain.ReservationStatus.ACTIVE and r.expiresAt < :now")
+    List<UUID> findExpiredOrderIds(@Param("now") Instant now, Pageable pageable);
+}
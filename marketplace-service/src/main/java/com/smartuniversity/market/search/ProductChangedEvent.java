@@ -0,0 +1,11 @@
+package com.smartuniversity.market.search;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Published when products are created or their stock changes, so that the search
+ * index can refresh them once the surrounding transaction has committed.
+ */
+public record ProductChangedEvent(String tenantId, Collection<UUID> productIds) {
+}
@@ -0,0 +1,344 @@
+package com.smartuniversity.market.search;
+
+import com.smartuniversity.market.domain.Product;
+import com.smartuniversity.market.web.dto.ProductDto;
+import com.smartuniversity.market.web.dto.ProductSearchPage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-process inverted index over the product catalog, one per tenant.
+ *
+ * Names and descriptions are split into accent- and case-folded words; each word
+ * maps to a bitset of the products containing it. A text query matches products
+ * that contain every query word as a word prefix. Price and stock filters are
+ * applied to the matching products, and the requested page is selected with a
+ * bounded heap instead of sorting all matches.
+ *
+ * Pages are addressed with opaque keyset cursors holding the sort value and id of
+ * the last product returned, so paging stays stable while products are added.
+ *
+ * Each tenant index is guarded by a read/write lock: queries run concurrently and
+ * updates touch only the words of the product being changed.
+ */
+@Component
+public class ProductSearchIndex {
+
+    public static final int MAX_LIMIT = 100;
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private volatile Map<String, TenantIndex> tenants = new ConcurrentHashMap<>();
+    private final Timer queryTimer;
+
+    public ProductSearchIndex(MeterRegistry meterRegistry) {
+        this.queryTimer = Timer.builder("market.search.query")
+                .description("Time to answer a product search from the in-process index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds or replaces products in their tenants' indexes.
+     */
+    public void upsertAll(Collection<Product> products) {
+        for (Product product : products) {
+            tenant(tenants, product.getTenantId()).upsert(Entry.of(product));
+        }
+    }
+
+    public void remove(String tenantId, UUID productId) {
+        TenantIndex index = tenants.get(tenantId);
+        if (index != null) {
+            index.remove(productId);
+        }
+    }
+
+    /**
+     * Starts building a replacement for the whole index. Queries keep using the
+     * current index until {@link Rebuild#publish()} is called.
+     */
+    public Rebuild beginRebuild() {
+        return new Rebuild();
+    }
+
+    public int size(String tenantId) {
+        TenantIndex index = tenants.get(tenantId);
+        return index == null ? 0 : index.size();
+    }
+
+    public ProductSearchPage search(String tenantId, ProductSearchQuery query) {
+        return queryTimer.record(() -> {
+            int limit = Math.max(1, Math.min(query.getLimit(), MAX_LIMIT));
+            Comparator<Entry> order = comparator(query.getSort());
+            Entry after = query.getCursor() == null ? null : decodeCursor(query.getSort(), query.getCursor());
+            TenantIndex index = tenants.get(tenantId);
+            List<Entry> matches = index == null
+                    ? List.of()
+                    : index.top(tokenize(query.getText()), query, after, order, limit + 1);
+
+            boolean hasMore = matches.size() > limit;
+            List<Entry> page = hasMore ? matches.subList(0, limit) : matches;
+            List<ProductDto> items = new ArrayList<>(page.size());
+            for (Entry entry : page) {
+                items.add(new ProductDto(entry.id, entry.name, entry.description, entry.price, entry.stock));
+            }
+            String nextCursor = hasMore ? encodeCursor(query.getSort(), page.get(page.size() - 1)) : null;
+            return new ProductSearchPage(items, nextCursor);
+        });
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : NON_WORD.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return List.copyOf(tokens);
+    }
+
+    private static TenantIndex tenant(Map<String, TenantIndex> tenants, String tenantId) {
+        return tenants.computeIfAbsent(tenantId, id -> new TenantIndex());
+    }
+
+    private static Comparator<Entry> comparator(ProductSort sort) {
+        Comparator<Entry> byId = Comparator.comparing(Entry::id);
+        return switch (sort) {
+            case NAME -> Comparator.comparing(Entry::sortName).thenComparing(byId);
+            case PRICE_ASC -> Comparator.comparing(Entry::price).thenComparing(byId);
+            case PRICE_DESC -> Comparator.comparing(Entry::price).reversed().thenComparing(byId);
+            case NEWEST -> Comparator.comparing(Entry::createdAt).reversed().thenComparing(byId);
+        };
+    }
+
+    private static String encodeCursor(ProductSort sort, Entry last) {
+        String value = switch (sort) {
+            case NAME -> last.sortName;
+            case PRICE_ASC, PRICE_DESC -> last.price.toPlainString();
+            case NEWEST -> last.createdAt.toString();
+        };
+        String raw = sort.name() + "|" + last.id + "|" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Entry decodeCursor(ProductSort sort, String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length != 3 || !parts[0].equals(sort.name())) {
+                throw new IllegalArgumentException("Cursor does not match sort " + sort);
+            }
+            UUID id = UUID.fromString(parts[1]);
+            return switch (sort) {
+                case NAME -> new Entry(id, null, null, null, 0, null, parts[2], null);
+                case PRICE_ASC, PRICE_DESC -> new Entry(id, null, null, new BigDecimal(parts[2]), 0, null, null, null);
+                case NEWEST -> new Entry(id, null, null, null, 0, Instant.parse(parts[2]), null, null);
+            };
+        } catch (RuntimeException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid search cursor");
+        }
+    }
+
+    /**
+     * A full index being built off to the side, typically at startup.
+     */
+    public final class Rebuild {
+
+        private final Map<String, TenantIndex> next = new ConcurrentHashMap<>();
+
+        private Rebuild() {
+        }
+
+        public void addAll(Collection<Product> products) {
+            for (Product product : products) {
+                tenant(next, product.getTenantId()).upsert(Entry.of(product));
+            }
+        }
+
+        public void publish() {
+            tenants = next;
+        }
+    }
+
+    private record Entry(UUID id, String name, String description, BigDecimal price, int stock,
+                         Instant createdAt, String sortName, String[] tokens) {
+
+        static Entry of(Product product) {
+            List<String> words = new ArrayList<>(tokenize(product.getName()));
+            words.addAll(tokenize(product.getDescription()));
+            String[] tokens = new LinkedHashSet<>(words).toArray(String[]::new);
+            Instant createdAt = product.getCreatedAt() != null ? product.getCreatedAt() : Instant.EPOCH;
+            return new Entry(product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                    product.getStock(), createdAt, product.getName().toLowerCase(Locale.ROOT), tokens);
+        }
+    }
+
+    private static final class TenantIndex {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final List<Entry> docs = new ArrayList<>();
+        private final Map<UUID, Integer> docIds = new HashMap<>();
+        private final NavigableMap<String, BitSet> postings = new TreeMap<>();
+        private int live;
+
+        void upsert(Entry entry) {
+            lock.writeLock().lock();
+            try {
+                Integer docId = docIds.get(entry.id);
+                if (docId == null) {
+                    docId = docs.size();
+                    docs.add(entry);
+                    docIds.put(entry.id, docId);
+                    live++;
+                } else {
+                    Entry previous = docs.get(docId);
+                    if (Arrays.equals(previous.tokens, entry.tokens)) {
+                        // Stock and price updates leave the postings untouched.
+                        docs.set(docId, entry);
+                        return;
+                    }
+                    unindex(docId, previous);
+                    docs.set(docId, entry);
+                }
+                for (String token : entry.tokens) {
+                    postings.computeIfAbsent(token, t -> new BitSet()).set(docId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(UUID productId) {
+            lock.writeLock().lock();
+            try {
+                Integer docId = docIds.remove(productId);
+                if (docId != null) {
+                    unindex(docId, docs.get(docId));
+                    // Slots are not reused; removals are rare compared to stock updates.
+                    docs.set(docId, null);
+                    live--;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return live;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Returns up to {@code count} matching entries after {@code after}, in order.
+         */
+        List<Entry> top(List<String> words, ProductSearchQuery query, Entry after,
+                        Comparator<Entry> order, int count) {
+            PriorityQueue<Entry> heap = new PriorityQueue<>(count + 1, order.reversed());
+            lock.readLock().lock();
+            try {
+                BitSet candidates = candidates(words);
+                int docId = candidates == null ? 0 : candidates.nextSetBit(0);
+                while (docId >= 0 && docId < docs.size()) {
+                    Entry entry = docs.get(docId);
+                    if (entry != null && matches(entry, query)
+                            && (after == null || order.compare(entry, after) > 0)) {
+                        if (heap.size() < count) {
+                            heap.add(entry);
+                        } else if (order.compare(entry, heap.peek()) < 0) {
+                            heap.poll();
+                            heap.add(entry);
+                        }
+                    }
+                    docId = candidates == null ? docId + 1 : candidates.nextSetBit(docId + 1);
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            List<Entry> result = new ArrayList<>(heap);
+            result.sort(order);
+            return result;
+        }
+
+        /**
+         * Intersects, per query word, the union of postings of all words it prefixes.
+         * Returns null when there is no text criterion.
+         */
+        private BitSet candidates(List<String> words) {
+            BitSet result = null;
+            for (String word : words) {
+                BitSet union = new BitSet();
+                for (BitSet posting : postings.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+                    union.or(posting);
+                }
+                if (result == null) {
+                    result = union;
+                } else {
+                    result.and(union);
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result;
+        }
+
+        private static boolean matches(Entry entry, ProductSearchQuery query) {
+            if (query.isInStock() && entry.stock <= 0) {
+                return false;
+            }
+            if (query.getMinPrice() != null && entry.price.compareTo(query.getMinPrice()) < 0) {
+                return false;
+            }
+            return query.getMaxPrice() == null || entry.price.compareTo(query.getMaxPrice()) <= 0;
+        }
+
+        private void unindex(int docId, Entry entry) {
+            for (String token : entry.tokens) {
+                BitSet posting = postings.get(token);
+                if (posting != null) {
+                    posting.clear(docId);
+                    if (posting.isEmpty()) {
+                        postings.remove(token);
+                    }
+                }
+            }
+        }
+    }
+}
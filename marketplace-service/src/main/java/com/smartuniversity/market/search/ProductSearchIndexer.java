@@ -0,0 +1,92 @@
+package com.smartuniversity.market.search;
+
+import com.smartuniversity.market.domain.Product;
+import com.smartuniversity.market.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Keeps the {@link ProductSearchIndex} in step with the products table.
+ *
+ * The index is rebuilt at startup by walking the table in id order. Products created
+ * or restocked on this instance are refreshed after their transaction commits;
+ * changes made by other instances are picked up by a periodic scan of recently
+ * updated rows.
+ */
+@Component
+public class ProductSearchIndexer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndexer.class);
+
+    private final ProductRepository productRepository;
+    private final ProductSearchIndex index;
+    private final int batchSize;
+    private final Duration refreshOverlap;
+
+    private volatile Instant watermark = Instant.EPOCH;
+
+    public ProductSearchIndexer(ProductRepository productRepository,
+                                ProductSearchIndex index,
+                                @Value("${market.search.rebuild-batch-size:1000}") int batchSize,
+                                @Value("${market.search.refresh-overlap:10s}") Duration refreshOverlap) {
+        this.productRepository = productRepository;
+        this.index = index;
+        this.batchSize = batchSize;
+        this.refreshOverlap = refreshOverlap;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Instant started = Instant.now();
+        ProductSearchIndex.Rebuild rebuild = index.beginRebuild();
+        int count = 0;
+        List<Product> batch = productRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+        while (!batch.isEmpty()) {
+            rebuild.addAll(batch);
+            count += batch.size();
+            if (batch.size() < batchSize) {
+                break;
+            }
+            batch = productRepository.findByIdGreaterThanOrderByIdAsc(
+                    batch.get(batch.size() - 1).getId(), PageRequest.of(0, batchSize));
+        }
+        rebuild.publish();
+        // Changes committed while the rebuild ran are caught by the next refresh.
+        watermark = started;
+        logger.info("Product search index rebuilt with {} products in {} ms", count,
+                Duration.between(started, Instant.now()).toMillis());
+    }
+
+    /**
+     * Runs after the publishing transaction commits, in a transaction of its own so
+     * that rows are re-read instead of served from the committed persistence context.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        index.upsertAll(productRepository.findAllById(event.productIds()));
+    }
+
+    @Scheduled(fixedDelayString = "${market.search.refresh-interval-ms:30000}",
+            initialDelayString = "${market.search.refresh-interval-ms:30000}")
+    public void refresh() {
+        Instant now = Instant.now();
+        // The overlap absorbs clock skew between instances and in-flight transactions.
+        List<Product> changed = productRepository.findByUpdatedAtAfter(watermark.minus(refreshOverlap));
+        index.upsertAll(changed);
+        watermark = now;
+    }
+}
@@ -0,0 +1,74 @@
+package com.smartuniversity.market.search;
+
+import java.math.BigDecimal;
+
+/**
+ * Criteria of a product search. All criteria are optional; {@code text} matches
+ * products whose name or description contains every query word as a word prefix.
+ */
+public class ProductSearchQuery {
+
+    private String text;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private boolean inStock;
+    private ProductSort sort = ProductSort.NAME;
+    private String cursor;
+    private int limit = 20;
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(BigDecimal minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(BigDecimal maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public boolean isInStock() {
+        return inStock;
+    }
+
+    public void setInStock(boolean inStock) {
+        this.inStock = inStock;
+    }
+
+    public ProductSort getSort() {
+        return sort;
+    }
+
+    public void setSort(ProductSort sort) {
+        this.sort = sort;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+}
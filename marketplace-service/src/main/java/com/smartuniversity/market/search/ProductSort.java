@@ -0,0 +1,12 @@
+package com.smartuniversity.market.search;
+
+/**
+ * Orderings supported by product search. Every ordering is made total by breaking
+ * ties on the product id, which keyset pagination relies on.
+ */
+public enum ProductSort {
+    NAME,
+    PRICE_ASC,
+    PRICE_DESC,
+    NEWEST
+}
@@ -0,0 +1,188 @@
+package com.smartuniversity.market.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartuniversity.market.domain.Order;
+import com.smartuniversity.market.domain.OrderItem;
+import com.smartuniversity.market.domain.OrderStatus;
+import com.smartuniversity.market.domain.OrderSummary;
+import com.smartuniversity.market.repository.OrderRepository;
+import com.smartuniversity.market.repository.OrderSummaryRepository;
+import com.smartuniversity.market.web.dto.OrderHistoryPage;
+import com.smartuniversity.market.web.dto.OrderItemDto;
+import com.smartuniversity.market.web.dto.OrderSummaryDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Maintains and serves the {@link OrderSummary} projection behind buyer order history.
+ *
+ * The saga records an order's summary when the order is created and its status on
+ * every transition, inside the transaction that changes the order. History pages
+ * are read with keyset pagination on {@code (created_at, order_id)} within a
+ * tenant and buyer, newest first.
+ */
+@Service
+public class OrderHistoryService {
+
+    public static final int MAX_LIMIT = 100;
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderHistoryService.class);
+    private static final TypeReference<List<OrderItemDto>> ITEMS = new TypeReference<>() {
+    };
+    private static final int BACKFILL_BATCH_SIZE = 100;
+
+    private final OrderSummaryRepository summaryRepository;
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public OrderHistoryService(OrderSummaryRepository summaryRepository,
+                               OrderRepository orderRepository,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager) {
+        this.summaryRepository = summaryRepository;
+        this.orderRepository = orderRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Records the summary of a newly created order; its items must be loaded.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Order order) {
+        summaryRepository.save(toSummary(order));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatus(UUID orderId, OrderStatus status) {
+        summaryRepository.updateStatus(orderId, status, Instant.now());
+    }
+
+    @Transactional(readOnly = true)
+    public OrderHistoryPage history(String tenantId, UUID buyerId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<OrderSummary> rows;
+        if (cursor == null) {
+            rows = summaryRepository.findHistory(tenantId, buyerId, page);
+        } else {
+            Key after = decodeCursor(cursor);
+            rows = summaryRepository.findHistoryAfter(tenantId, buyerId, after.createdAt(), after.orderId(), page);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<OrderSummary> visible = hasMore ? rows.subList(0, pageSize) : rows;
+        List<OrderSummaryDto> items = new ArrayList<>(visible.size());
+        for (OrderSummary summary : visible) {
+            items.add(new OrderSummaryDto(summary.getOrderId(), summary.getStatus(), summary.getTotalAmount(),
+                    summary.getItemCount(), readItems(summary.getItemsJson()), summary.getCreatedAt()));
+        }
+        String nextCursor = hasMore ? encodeCursor(visible.get(visible.size() - 1)) : null;
+        return new OrderHistoryPage(items, nextCursor);
+    }
+
+    /**
+     * Creates summaries for orders placed before the projection existed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int total = 0;
+        while (true) {
+            Integer created = transactionTemplate.execute(status -> {
+                List<UUID> ids = orderRepository.findIdsWithoutSummary(PageRequest.of(0, BACKFILL_BATCH_SIZE));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                List<OrderSummary> summaries = new ArrayList<>(ids.size());
+                for (Order order : orderRepository.findWithItemsByIdIn(ids)) {
+                    summaries.add(toSummary(order));
+                }
+                summaryRepository.saveAll(summaries);
+                return summaries.size();
+            });
+            if (created == null || created == 0) {
+                break;
+            }
+            total += created;
+        }
+        if (total > 0) {
+            logger.info("Backfilled order history for {} orders", total);
+        }
+    }
+
+    private OrderSummary toSummary(Order order) {
+        List<OrderItemDto> items = new ArrayList<>(order.getItems().size());
+        int itemCount = 0;
+        for (OrderItem item : order.getItems()) {
+            items.add(new OrderItemDto(item.getProduct().getId(), item.getProductName(), item.getQuantity(),
+                    item.getPrice()));
+            itemCount += item.getQuantity();
+        }
+
+        OrderSummary summary = new OrderSummary();
+        summary.setOrderId(order.getId());
+        summary.setTenantId(order.getTenantId());
+        summary.setBuyerId(order.getBuyerId());
+        summary.setStatus(order.getStatus());
+        summary.setTotalAmount(order.getTotalAmount());
+        summary.setItemCount(itemCount);
+        summary.setItemsJson(writeItems(items));
+        summary.setCreatedAt(order.getCreatedAt());
+        summary.setUpdatedAt(order.getUpdatedAt() != null ? order.getUpdatedAt() : order.getCreatedAt());
+        return summary;
+    }
+
+    private String writeItems(List<OrderItemDto> items) {
+        try {
+            return objectMapper.writeValueAsString(items);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize order items", ex);
+        }
+    }
+
+    private List<OrderItemDto> readItems(String json) {
+        try {
+            return objectMapper.readValue(json, ITEMS);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not read order summary items", ex);
+        }
+    }
+
+    private static String encodeCursor(OrderSummary last) {
+        String raw = last.getCreatedAt() + "|" + last.getOrderId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Key decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new Key(Instant.parse(raw.substring(0, separator)), UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid order history cursor");
+        }
+    }
+
+    private record Key(Instant createdAt, UUID orderId) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.smartuniversity.market.service;
+
+import com.smartuniversity.market.domain.OrderSaga;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Resumes checkout Sagas that stopped making progress, e.g. after a restart or a
+ * lost command or reply. Each retry is claimed with a conditional update, so several
+ * instances can run the worker concurrently.
+ */
+@Component
+public class OrderSagaRecoveryWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderSagaRecoveryWorker.class);
+
+    private final OrderSagaSteps steps;
+    private final OrderSagaService orderSagaService;
+    private final Duration stallTimeout;
+    private final int maxAttempts;
+    private final int batchSize;
+
+    public OrderSagaRecoveryWorker(OrderSagaSteps steps,
+                                   OrderSagaService orderSagaService,
+                                   @Value("${market.saga.stall-timeout:30s}") Duration stallTimeout,
+                                   @Value("${market.saga.max-attempts:5}") int maxAttempts,
+                                   @Value("${market.saga.recovery-batch-size:100}") int batchSize) {
+        this.steps = steps;
+        this.orderSagaService = orderSagaService;
+        this.stallTimeout = stallTimeout;
+        this.maxAttempts = maxAttempts;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${market.saga.recovery-interval-ms:10000}")
+    public void resumeStalledSagas() {
+        for (OrderSaga saga : steps.findStalledSagas(Instant.now().minus(stallTimeout), batchSize)) {
+            if (!steps.claimRetry(saga)) {
+                continue;
+            }
+            logger.info("Resuming saga for order {} in state {} (attempt {})",
+                    saga.getOrderId(), saga.getState(), saga.getAttempts() + 1);
+            try {
+                orderSagaService.resume(saga, saga.getAttempts() + 1 >= maxAttempts);
+            } catch (RuntimeException ex) {
+                logger.warn("Failed to resume saga for order {}", saga.getOrderId(), ex);
+            }
+        }
+    }
+}
@@ -1,192 +1,207 @@
 package com.smartuniversity.market.service;
 
-import com.smartuniversity.common.events.OrderConfirmedEvent;
+import com.smartuniversity.common.outbox.OutboxRelay;
+import com.smartuniversity.market.cart.PricedProduct;
 import com.smartuniversity.market.domain.Order;
-import com.smartuniversity.market.domain.OrderItem;
-import com.smartuniversity.market.domain.OrderStatus;
-import com.smartuniversity.market.domain.Product;
+import com.smartuniversity.market.domain.OrderSaga;
+import com.smartuniversity.market.domain.SagaState;
+import com.smartuniversity.market.flashsale.FlashSaleGate;
+import com.smartuniversity.market.messaging.SagaCommand;
+import com.smartuniversity.market.messaging.SagaReply;
 import com.smartuniversity.market.repository.OrderRepository;
-import com.smartuniversity.market.repository.ProductRepository;
 import com.smartuniversity.market.web.dto.CheckoutRequest;
 import com.smartuniversity.market.web.dto.OrderDto;
 import com.smartuniversity.market.web.dto.OrderItemDto;
 import com.smartuniversity.market.web.dto.OrderItemRequest;
-import com.smartuniversity.market.web.dto.PaymentAuthorizationRequest;
-import com.smartuniversity.market.web.dto.PaymentResponse;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.math.BigDecimal;
-import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
 
 /**
  * Orchestrates the multi-step Saga for Marketplace checkout.
+ *
+ * Checkout only creates the pending order, reserves stock and records the saga
+ * before returning; payment runs asynchronously through commands and replies on
+ * RabbitMQ. Commands are written to the outbox together with the saga state and
+ * published by {@link OutboxRelay}, so no request thread waits on the broker. Every
+ * step is driven from the persisted {@link OrderSaga} state, so the
+ * {@link OrderSagaRecoveryWorker} can resume a saga after a crash or lost message.
  */
 @Service
 public class OrderSagaService {
 
-    private final ProductRepository productRepository;
+    private static final Logger logger = LoggerFactory.getLogger(OrderSagaService.class);
+
+    private final OrderSagaSteps steps;
     private final OrderRepository orderRepository;
-    private final PaymentClient paymentClient;
-    private final RabbitTemplate rabbitTemplate;
+    private final FlashSaleGate flashSaleGate;
 
-    public OrderSagaService(ProductRepository productRepository,
+    public OrderSagaService(OrderSagaSteps steps,
             OrderRepository orderRepository,
-            PaymentClient paymentClient,
-            RabbitTemplate rabbitTemplate) {
-        this.productRepository = productRepository;
+            FlashSaleGate flashSaleGate) {
+        this.steps = steps;
         this.orderRepository = orderRepository;
-        this.paymentClient = paymentClient;
-        this.rabbitTemplate = rabbitTemplate;
+        this.flashSaleGate = flashSaleGate;
     }
 
+    /**
+     * Starts the checkout Saga and returns the pending order.
+     */
     public OrderDto checkout(String tenantId, UUID buyerId, CheckoutRequest request) {
+        return checkout(tenantId, buyerId, request, Map.of());
+    }
+
+    /**
+     * Starts the checkout Saga, pricing items from {@code snapshots} where the product
+     * has not changed since. Products whose snapshot is out of date are read and
+     * re-priced, so only those cost a read.
+     */
+    public OrderDto checkout(String tenantId, UUID buyerId, CheckoutRequest request,
+                             Map<UUID, PricedProduct> snapshots) {
         if (request.getItems() == null || request.getItems().isEmpty()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one item is required");
         }
 
-        // Step 1: create pending order and items
-        Order order = createPendingOrder(tenantId, buyerId, request);
-
-        // Step 2: request payment authorization
-        PaymentAuthorizationRequest paymentRequest = new PaymentAuthorizationRequest();
-        paymentRequest.setOrderId(order.getId());
-        paymentRequest.setUserId(buyerId);
-        paymentRequest.setAmount(order.getTotalAmount());
-
-        PaymentResponse paymentResponse;
-        try {
-            paymentResponse = paymentClient.authorize(tenantId, paymentRequest);
-        } catch (Exception ex) {
-            // Mark order as canceled due to payment failure
-            markOrderCanceled(tenantId, order.getId());
-            throw new ResponseStatusException(HttpStatus.PAYMENT_REQUIRED, "Payment authorization failed");
-        }
-
-        if (!"AUTHORIZED".equalsIgnoreCase(paymentResponse.getStatus())) {
-            markOrderCanceled(tenantId, order.getId());
-            throw new ResponseStatusException(HttpStatus.PAYMENT_REQUIRED, "Payment not authorized");
+        // Flash-sale items are admitted at the counter first; losers get 409 before
+        // any database or payment work.
+        Map<UUID, Integer> quantities = new HashMap<>();
+        for (OrderItemRequest item : request.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
         }
+        Map<UUID, Integer> admitted = flashSaleGate.admit(tenantId, quantities);
 
-        // Step 3: decrement stock within transaction, compensate payment on failure
+        // Step 1: create pending order, reserve stock, log the saga and
+        // Step 2: queue the payment authorization, all in one transaction
+        Order order;
         try {
-            confirmOrderAndDecrementStock(tenantId, order.getId());
+            order = startSaga(tenantId, buyerId, request, snapshots);
         } catch (RuntimeException ex) {
-            paymentClient.cancel(tenantId, order.getId().toString());
-            markOrderCanceled(tenantId, order.getId());
+            flashSaleGate.restore(tenantId, admitted);
             throw ex;
         }
 
-        Order confirmed = orderRepository.findByIdAndTenantId(order.getId(), tenantId)
-                .orElseThrow(() -> new IllegalStateException("Order disappeared during Saga"));
-
-        // Step 4: publish order.confirmed event
-        OrderConfirmedEvent event = new OrderConfirmedEvent(
-                confirmed.getId(),
-                confirmed.getBuyerId(),
-                tenantId,
-                confirmed.getTotalAmount(),
-                Instant.now());
-        rabbitTemplate.convertAndSend("university.events", "market.order.confirmed", event);
-
-        return toDto(confirmed);
+        return toDto(order);
     }
 
-    @Transactional
-    protected Order createPendingOrder(String tenantId, UUID buyerId, CheckoutRequest request) {
-        Map<UUID, Integer> quantities = new HashMap<>();
-        for (OrderItemRequest item : request.getItems()) {
-            if (item.getQuantity() <= 0) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Quantity must be positive");
+    private Order startSaga(String tenantId, UUID buyerId, CheckoutRequest request,
+                            Map<UUID, PricedProduct> snapshots) {
+        Map<UUID, PricedProduct> trusted = new HashMap<>(snapshots);
+        while (true) {
+            try {
+                return steps.startSaga(tenantId, buyerId, request, trusted);
+            } catch (StaleSnapshotException ex) {
+                // Each retry trusts fewer snapshots, so this ends with a plain checkout at worst.
+                trusted.keySet().removeAll(ex.getProductIds());
             }
-            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
         }
+    }
 
-        List<Product> products = productRepository.findAllById(quantities.keySet());
-        if (products.size() != quantities.size()) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "One or more products not found");
-        }
+    @Transactional(readOnly = true)
+    public OrderDto getOrder(String tenantId, UUID buyerId, UUID orderId) {
+        return orderRepository.findWithItemsByIdAndTenantId(orderId, tenantId)
+                .filter(order -> order.getBuyerId().equals(buyerId))
+                .map(this::toDto)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
+    }
 
-        BigDecimal total = BigDecimal.ZERO;
-        Order order = new Order();
-        order.setTenantId(tenantId);
-        order.setBuyerId(buyerId);
-        order.setStatus(OrderStatus.PENDING);
+    public void onReply(SagaReply reply) {
+        switch (reply.type()) {
+            case PAYMENT_AUTHORIZED -> onPaymentAuthorized(reply);
+            case PAYMENT_DECLINED -> steps.failSaga(reply.tenantId(), reply.orderId(), SagaState.PAYMENT_PENDING,
+                    reply.reason());
+            case PAYMENT_CANCELED -> steps.failSaga(reply.tenantId(), reply.orderId(), SagaState.COMPENSATING,
+                    reply.reason());
+        }
+    }
 
-        List<OrderItem> items = new ArrayList<>();
-        for (Product product : products) {
-            if (!tenantId.equals(product.getTenantId())) {
-                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Cross-tenant product access is not allowed");
+    /**
+     * Re-drives the current step of a saga that has been idle for too long.
+     *
+     * @param giveUp whether the step has exhausted its retries
+     */
+    public void resume(OrderSaga saga, boolean giveUp) {
+        switch (saga.getState()) {
+            case PAYMENT_PENDING -> {
+                if (giveUp) {
+                    // The authorization may still have happened, so cancel rather than just fail.
+                    steps.beginCompensation(saga.getTenantId(), saga.getOrderId(), SagaState.PAYMENT_PENDING,
+                            "Payment authorization timed out");
+                } else {
+                    steps.enqueueCommand(new SagaCommand(SagaCommand.Type.AUTHORIZE_PAYMENT, saga.getOrderId(),
+                            saga.getTenantId(), saga.getBuyerId(), saga.getAmount()));
+                }
+            }
+            case PAYMENT_AUTHORIZED -> completeSaga(saga.getTenantId(), saga.getOrderId(), giveUp);
+            case COMPENSATING -> {
+                if (giveUp) {
+                    logger.error("Payment cancellation for order {} keeps failing; retrying", saga.getOrderId());
+                }
+                steps.enqueueCommand(OrderSagaSteps.cancelCommand(saga.getTenantId(), saga.getOrderId()));
+            }
+            default -> {
             }
-            int quantity = quantities.get(product.getId());
-            BigDecimal itemTotal = product.getPrice().multiply(BigDecimal.valueOf(quantity));
-            total = total.add(itemTotal);
-
-            OrderItem orderItem = new OrderItem();
-            orderItem.setOrder(order);
-            orderItem.setProduct(product);
-            orderItem.setQuantity(quantity);
-            orderItem.setPrice(product.getPrice());
-            items.add(orderItem);
         }
-
-        order.setTotalAmount(total);
-        order.setItems(items);
-
-        return orderRepository.save(order);
     }
 
-    @Transactional
-    protected void confirmOrderAndDecrementStock(String tenantId, UUID orderId) {
-        Order order = orderRepository.findByIdAndTenantId(orderId, tenantId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
-
-        if (order.getStatus() != OrderStatus.PENDING) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT, "Order is not pending");
+    private void onPaymentAuthorized(SagaReply reply) {
+        if (!steps.recordPaymentAuthorized(reply.orderId(), reply.paymentId())) {
+            // Duplicate reply, or the saga stopped waiting for this authorization.
+            Optional<SagaState> state = steps.currentState(reply.orderId());
+            if (state.isPresent() && (state.get() == SagaState.COMPENSATING || state.get() == SagaState.FAILED)) {
+                steps.enqueueCommand(OrderSagaSteps.cancelCommand(reply.tenantId(), reply.orderId()));
+            }
+            return;
         }
+        completeSaga(reply.tenantId(), reply.orderId(), false);
+    }
 
-        // Decrement stock; in this sample we rely on single-node execution and simple
-        // stock checks
-        for (OrderItem item : order.getItems()) {
-            UUID productId = item.getProduct().getId();
-            Product product = productRepository.findByIdAndTenantId(productId, tenantId)
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
-
-            if (product.getStock() < item.getQuantity()) {
-                throw new ResponseStatusException(HttpStatus.CONFLICT,
-                        "Insufficient stock for product " + product.getName());
+    /**
+     * Step 3: converts the stock reservation and queues order.confirmed, compensating
+     * the payment on failure.
+     *
+     * Transient database errors leave the saga in PAYMENT_AUTHORIZED for the recovery
+     * worker to retry, up to {@code giveUp}. Nothing is rethrown, so a reply is never
+     * redelivered in a loop while the payment stays authorized.
+     */
+    private void completeSaga(String tenantId, UUID orderId, boolean giveUp) {
+        try {
+            steps.completeSaga(tenantId, orderId);
+        } catch (ResponseStatusException ex) {
+            steps.beginCompensation(tenantId, orderId, SagaState.PAYMENT_AUTHORIZED, ex.getReason());
+        } catch (RuntimeException ex) {
+            if (isTransient(ex) && !giveUp) {
+                logger.warn("Completing saga for order {} failed transiently; will retry: {}", orderId, ex.getMessage());
+                return;
             }
-
-            product.setStock(product.getStock() - item.getQuantity());
-            productRepository.save(product);
+            logger.error("Completing saga for order {} failed; compensating", orderId, ex);
+            steps.beginCompensation(tenantId, orderId, SagaState.PAYMENT_AUTHORIZED, "Order could not be confirmed");
         }
-
-        order.setStatus(OrderStatus.CONFIRMED);
-        orderRepository.save(order);
     }
 
-    @Transactional
-    protected void markOrderCanceled(String tenantId, UUID orderId) {
-        orderRepository.findByIdAndTenantId(orderId, tenantId).ifPresent(order -> {
-            order.setStatus(OrderStatus.CANCELED);
-            orderRepository.save(order);
-        });
+    private static boolean isTransient(RuntimeException ex) {
+        return ex instanceof TransientDataAccessException
+                || ex instanceof RecoverableDataAccessException
+                || ex instanceof CannotCreateTransactionException;
     }
 
     public OrderDto toDto(Order order) {
         List<OrderItemDto> itemDtos = order.getItems().stream()
                 .map(i -> new OrderItemDto(
                         i.getProduct().getId(),
-                        i.getProduct().getName(),
+                        i.getProductName(),
                         i.getQuantity(),
                         i.getPrice()))
                 .collect(Collectors.toList());
 
         return new OrderDto(order.getId(), order.getTotalAmount(), order.getStatus(), itemDtos);
     }
-}
\ No newline at end of file
+}
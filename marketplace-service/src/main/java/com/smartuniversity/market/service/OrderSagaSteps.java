@@ -0,0 +1,320 @@
+package com.smartuniversity.market.service;
+
+import com.smartuniversity.common.events.OrderConfirmedEvent;
+import com.smartuniversity.common.events.PaymentCommand;
+import com.smartuniversity.common.outbox.OutboxService;
+import com.smartuniversity.market.cart.PricedProduct;
+import com.smartuniversity.market.config.MessagingConfig;
+import com.smartuniversity.market.domain.Order;
+import com.smartuniversity.market.domain.OrderItem;
+import com.smartuniversity.market.domain.OrderSaga;
+import com.smartuniversity.market.domain.OrderStatus;
+import com.smartuniversity.market.domain.Product;
+import com.smartuniversity.market.domain.SagaState;
+import com.smartuniversity.market.messaging.SagaCommand;
+import com.smartuniversity.market.repository.OrderRepository;
+import com.smartuniversity.market.repository.OrderSagaRepository;
+import com.smartuniversity.market.repository.ProductRepository;
+import com.smartuniversity.market.web.dto.CheckoutRequest;
+import com.smartuniversity.market.web.dto.OrderItemRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Local transactional steps of the checkout Saga.
+ *
+ * Kept separate from {@link OrderSagaService} so that each step is invoked through
+ * the Spring proxy and actually runs in its own transaction. Saga commands and
+ * events are written to the outbox in the same transaction as the state change
+ * that causes them.
+ */
+@Service
+public class OrderSagaSteps {
+
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final StockReservationService reservationService;
+    private final OrderSagaRepository sagaRepository;
+    private final OutboxService outboxService;
+    private final OrderHistoryService orderHistoryService;
+    private final boolean amqpTransport;
+
+    public OrderSagaSteps(ProductRepository productRepository,
+                          OrderRepository orderRepository,
+                          StockReservationService reservationService,
+                          OrderSagaRepository sagaRepository,
+                          OutboxService outboxService,
+                          OrderHistoryService orderHistoryService,
+                          @Value("${market.payment.transport:http}") String transport) {
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.reservationService = reservationService;
+        this.sagaRepository = sagaRepository;
+        this.outboxService = outboxService;
+        this.orderHistoryService = orderHistoryService;
+        this.amqpTransport = "amqp".equalsIgnoreCase(transport);
+    }
+
+    /**
+     * Creates the pending order with its stock reservation and the saga log entry,
+     * and queues the payment authorization command, in one transaction.
+     */
+    @Transactional
+    public Order startSaga(String tenantId, UUID buyerId, CheckoutRequest request) {
+        return startSaga(tenantId, buyerId, request, Map.of());
+    }
+
+    /**
+     * Like {@link #startSaga(String, UUID, CheckoutRequest)}, pricing products in
+     * {@code snapshots} from the snapshot instead of reading them.
+     *
+     * @throws StaleSnapshotException if some snapshots are out of date
+     */
+    @Transactional
+    public Order startSaga(String tenantId, UUID buyerId, CheckoutRequest request,
+                           Map<UUID, PricedProduct> snapshots) {
+        Order order = createPendingOrder(tenantId, buyerId, request, snapshots);
+
+        OrderSaga saga = new OrderSaga();
+        saga.setOrderId(order.getId());
+        saga.setTenantId(tenantId);
+        saga.setBuyerId(buyerId);
+        saga.setAmount(order.getTotalAmount());
+        saga.setState(SagaState.PAYMENT_PENDING);
+        sagaRepository.save(saga);
+
+        enqueueCommand(new SagaCommand(SagaCommand.Type.AUTHORIZE_PAYMENT, order.getId(), tenantId, buyerId,
+                order.getTotalAmount()));
+        return order;
+    }
+
+    /**
+     * Queues a payment command. With {@code market.payment.transport=amqp} it goes
+     * straight to the Payment service as a {@link PaymentCommand}, whose outcome comes
+     * back as a payment event; otherwise it is handled by {@link
+     * com.smartuniversity.market.messaging.PaymentCommandHandler} over HTTP.
+     */
+    @Transactional
+    public void enqueueCommand(SagaCommand command) {
+        if (amqpTransport) {
+            PaymentCommand paymentCommand = command.type() == SagaCommand.Type.AUTHORIZE_PAYMENT
+                    ? PaymentCommand.authorize(command.orderId(), command.tenantId(), command.buyerId(),
+                            command.amount())
+                    : PaymentCommand.cancel(command.orderId(), command.tenantId());
+            outboxService.append(paymentCommand.routingKey(), paymentCommand);
+        } else {
+            outboxService.append(MessagingConfig.SAGA_COMMAND_ROUTING_KEY, command);
+        }
+    }
+
+    @Transactional
+    public boolean recordPaymentAuthorized(UUID orderId, UUID paymentId) {
+        return sagaRepository.markPaymentAuthorized(orderId, paymentId, Instant.now()) > 0;
+    }
+
+    /**
+     * Confirms the order of an authorized saga and queues the order.confirmed event.
+     *
+     * @return the confirmed order, or {@code null} if the saga was not awaiting confirmation
+     * @throws ResponseStatusException with 409 if stock can no longer be decremented
+     */
+    @Transactional
+    public Order completeSaga(String tenantId, UUID orderId) {
+        if (sagaRepository.transition(orderId, SagaState.PAYMENT_AUTHORIZED, SagaState.COMPLETED,
+                null, Instant.now()) == 0) {
+            return null;
+        }
+        Order confirmed = confirmOrderAndDecrementStock(tenantId, orderId);
+
+        outboxService.append("market.order.confirmed", new OrderConfirmedEvent(
+                confirmed.getId(),
+                confirmed.getBuyerId(),
+                tenantId,
+                confirmed.getTotalAmount(),
+                Instant.now()));
+        return confirmed;
+    }
+
+    /**
+     * Moves the saga into compensation and queues the payment cancellation.
+     */
+    @Transactional
+    public boolean beginCompensation(String tenantId, UUID orderId, SagaState from, String reason) {
+        if (sagaRepository.transition(orderId, from, SagaState.COMPENSATING, reason, Instant.now()) == 0) {
+            return false;
+        }
+        enqueueCommand(cancelCommand(tenantId, orderId));
+        return true;
+    }
+
+    public static SagaCommand cancelCommand(String tenantId, UUID orderId) {
+        return new SagaCommand(SagaCommand.Type.CANCEL_PAYMENT, orderId, tenantId, null, null);
+    }
+
+    /**
+     * Ends the saga as failed and cancels the order, releasing its stock reservation.
+     */
+    @Transactional
+    public boolean failSaga(String tenantId, UUID orderId, SagaState from, String reason) {
+        if (sagaRepository.transition(orderId, from, SagaState.FAILED, reason, Instant.now()) == 0) {
+            return false;
+        }
+        markOrderCanceled(tenantId, orderId);
+        return true;
+    }
+
+    @Transactional
+    public boolean claimRetry(OrderSaga saga) {
+        return sagaRepository.claimRetry(saga.getOrderId(), saga.getState(), saga.getAttempts(), Instant.now()) > 0;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<SagaState> currentState(UUID orderId) {
+        return sagaRepository.findStateByOrderId(orderId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<OrderSaga> findStalledSagas(Instant idleSince, int limit) {
+        return sagaRepository.findByStateInAndUpdatedAtBeforeOrderByUpdatedAtAsc(
+                EnumSet.of(SagaState.PAYMENT_PENDING, SagaState.PAYMENT_AUTHORIZED, SagaState.COMPENSATING),
+                idleSince,
+                PageRequest.of(0, limit));
+    }
+
+    /**
+     * Creates the pending order and reserves its stock in one transaction. When any
+     * product lacks available stock nothing is persisted and 409 is returned, before
+     * payment is ever requested.
+     */
+    @Transactional
+    public Order createPendingOrder(String tenantId, UUID buyerId, CheckoutRequest request) {
+        return createPendingOrder(tenantId, buyerId, request, Map.of());
+    }
+
+    /**
+     * Like {@link #createPendingOrder(String, UUID, CheckoutRequest)}, but products in
+     * {@code snapshots} are priced from the snapshot and not read. Their reservation
+     * only succeeds while they are still at the snapshot version; otherwise
+     * {@link StaleSnapshotException} rolls the order back.
+     */
+    @Transactional
+    public Order createPendingOrder(String tenantId, UUID buyerId, CheckoutRequest request,
+                                    Map<UUID, PricedProduct> snapshots) {
+        // Sorted by product id so concurrent checkouts lock rows in the same order.
+        Map<UUID, Integer> quantities = new TreeMap<>();
+        for (OrderItemRequest item : request.getItems()) {
+            if (item.getQuantity() <= 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Quantity must be positive");
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+
+        Map<UUID, PricedProduct> pricing = new HashMap<>();
+        Map<UUID, Long> versions = new HashMap<>();
+        Set<UUID> unpriced = new HashSet<>();
+        for (UUID productId : quantities.keySet()) {
+            PricedProduct snapshot = snapshots.get(productId);
+            if (snapshot != null && snapshot.version() >= 0) {
+                pricing.put(productId, snapshot);
+                versions.put(productId, snapshot.version());
+            } else {
+                unpriced.add(productId);
+            }
+        }
+
+        if (!unpriced.isEmpty()) {
+            List<Product> products = productRepository.findAllById(unpriced);
+            if (products.size() != unpriced.size()) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "One or more products not found");
+            }
+            for (Product product : products) {
+                if (!tenantId.equals(product.getTenantId())) {
+                    throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Cross-tenant product access is not allowed");
+                }
+                pricing.put(product.getId(), PricedProduct.of(product));
+            }
+        }
+
+        BigDecimal total = BigDecimal.ZERO;
+        Order order = new Order();
+        order.setTenantId(tenantId);
+        order.setBuyerId(buyerId);
+        order.setStatus(OrderStatus.PENDING);
+
+        List<OrderItem> items = new ArrayList<>();
+        Map<UUID, String> names = new HashMap<>();
+        for (Map.Entry<UUID, Integer> entry : quantities.entrySet()) {
+            PricedProduct product = pricing.get(entry.getKey());
+            int quantity = entry.getValue();
+            BigDecimal itemTotal = product.unitPrice().multiply(BigDecimal.valueOf(quantity));
+            total = total.add(itemTotal);
+
+            OrderItem orderItem = new OrderItem();
+            orderItem.setOrder(order);
+            // Loaded products are already in the persistence context; snapshot ones stay unloaded.
+            orderItem.setProduct(productRepository.getReferenceById(entry.getKey()));
+            orderItem.setProductName(product.name());
+            orderItem.setQuantity(quantity);
+            orderItem.setPrice(product.unitPrice());
+            items.add(orderItem);
+            names.put(entry.getKey(), product.name());
+        }
+
+        order.setTotalAmount(total);
+        order.setItems(items);
+
+        Order saved = orderRepository.save(order);
+        reservationService.reserve(tenantId, saved.getId(), quantities, names, versions);
+        orderHistoryService.recordCreated(saved);
+        return saved;
+    }
+
+    /**
+     * Converts the order's stock reservation into a decrement and confirms the order.
+     * If the reservation expired and stock has since run out, the whole transaction
+     * rolls back, so either every item is decremented or none is.
+     *
+     * @return the confirmed order with its items initialized
+     */
+    @Transactional
+    public Order confirmOrderAndDecrementStock(String tenantId, UUID orderId) {
+        Order order = orderRepository.findWithItemsByIdAndTenantId(orderId, tenantId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
+
+        if (order.getStatus() != OrderStatus.PENDING) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Order is not pending");
+        }
+
+        // Sorted by product id so concurrent checkouts lock rows in the same order.
+        Map<UUID, Integer> quantities = new TreeMap<>();
+        Map<UUID, String> names = new HashMap<>();
+        for (OrderItem item : order.getItems()) {
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+            names.put(item.getProduct().getId(), item.getProduct().getName());
+        }
+
+        reservationService.confirm(tenantId, orderId, quantities, names);
+
+        order.setStatus(OrderStatus.CONFIRMED);
+        orderHistoryService.recordStatus(orderId, OrderStatus.CONFIRMED);
+        return orderRepository.save(order);
+    }
+
+    @Transactional
+    public void markOrderCanceled(String tenantId, UUID orderId) {
+        reservationService.release(tenantId, orderId);
+        orderRepository.findByIdAndTenantId(orderId, tenantId).ifPresent(order -> {
+            order.setStatus(OrderStatus.CANCELED);
+            orderRepository.save(order);
+            orderHistoryService.recordStatus(orderId, OrderStatus.CANCELED);
+        });
+    }
+}
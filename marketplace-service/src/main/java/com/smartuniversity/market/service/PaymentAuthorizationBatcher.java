@@ -0,0 +1,208 @@
+package com.smartuniversity.market.service;
+
+import com.smartuniversity.market.web.dto.PaymentAuthorizationRequest;
+import com.smartuniversity.market.web.dto.PaymentBatchItemResult;
+import com.smartuniversity.market.web.dto.PaymentResponse;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces concurrent payment authorizations into batch calls to the Payment service.
+ *
+ * The first authorization for a tenant opens a batch; it is sent once the batching
+ * window elapses or it reaches the maximum size, whichever comes first. Callers block
+ * until their own item's result is known, so saga command consumers keep their
+ * one-command-at-a-time error handling while the Payment service sees a fraction of
+ * the round trips under load.
+ *
+ * A failed batch call fails every item with the same exception. Items the Payment
+ * service rejected individually come back with no status, which callers treat as a
+ * decline. Items it could not process for now (an unavailable provider) fail with the
+ * 503 the single-call path would have raised, so that callers retry them.
+ */
+@Component
+public class PaymentAuthorizationBatcher {
+
+    private final PaymentClient paymentClient;
+    private final long windowNanos;
+    private final int maxSize;
+    private final ScheduledExecutorService timer;
+    private final ExecutorService dispatcher;
+    private final DistributionSummary batchSize;
+
+    private final Map<String, Batch> open = new HashMap<>();
+
+    public PaymentAuthorizationBatcher(PaymentClient paymentClient,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${market.payment.batch.window:5ms}") Duration window,
+                                       @Value("${market.payment.batch.max-size:50}") int maxSize,
+                                       @Value("${market.payment.batch.dispatch-threads:4}") int dispatchThreads) {
+        this.paymentClient = paymentClient;
+        this.windowNanos = window.toNanos();
+        this.maxSize = maxSize;
+        this.timer = Executors.newSingleThreadScheduledExecutor(daemonThreads("payment-batch-timer-"));
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, daemonThreads("payment-batch-"));
+        this.batchSize = DistributionSummary.builder("market.payment.batch.size")
+                .description("Number of authorizations sent per batch call to the Payment service")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Authorizes a payment as part of the next batch for its tenant and waits for the
+     * outcome. Exceptions from the batch call are rethrown unwrapped.
+     */
+    public PaymentResponse authorize(String tenantId, PaymentAuthorizationRequest request) {
+        try {
+            return submit(tenantId, request).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Queues an authorization for the next batch of its tenant.
+     */
+    public CompletableFuture<PaymentResponse> submit(String tenantId, PaymentAuthorizationRequest request) {
+        CompletableFuture<PaymentResponse> result = new CompletableFuture<>();
+        Batch full = null;
+        synchronized (open) {
+            Batch batch = open.get(tenantId);
+            if (batch == null) {
+                batch = new Batch(tenantId);
+                open.put(tenantId, batch);
+                Batch scheduled = batch;
+                try {
+                    batch.deadline = timer.schedule(() -> close(scheduled), windowNanos, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException ex) {
+                    open.remove(tenantId);
+                    result.completeExceptionally(new IllegalStateException("Payment batcher is shut down"));
+                    return result;
+                }
+            }
+            batch.requests.add(request);
+            batch.results.add(result);
+            if (batch.requests.size() >= maxSize) {
+                open.remove(tenantId);
+                batch.deadline.cancel(false);
+                full = batch;
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return result;
+    }
+
+    private void close(Batch batch) {
+        synchronized (open) {
+            if (open.get(batch.tenantId) != batch) {
+                // Already dispatched because it filled up.
+                return;
+            }
+            open.remove(batch.tenantId);
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Batch batch) {
+        try {
+            dispatcher.execute(() -> send(batch));
+        } catch (RejectedExecutionException ex) {
+            batch.fail(new IllegalStateException("Payment batcher is shut down"));
+        }
+    }
+
+    private void send(Batch batch) {
+        batchSize.record(batch.requests.size());
+        List<PaymentBatchItemResult> items;
+        try {
+            items = paymentClient.authorizeBatch(batch.tenantId, batch.requests);
+        } catch (RuntimeException ex) {
+            batch.fail(ex);
+            return;
+        }
+        if (items == null || items.size() != batch.requests.size()) {
+            batch.fail(new IllegalStateException("Payment service returned "
+                    + (items == null ? 0 : items.size()) + " results for " + batch.requests.size() + " items"));
+            return;
+        }
+        for (int i = 0; i < items.size(); i++) {
+            PaymentBatchItemResult item = items.get(i);
+            if (item.getError() != null && item.isRetryable()) {
+                batch.results.get(i).completeExceptionally(
+                        new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE, item.getError()));
+            } else {
+                batch.results.get(i).complete(toResponse(item));
+            }
+        }
+    }
+
+    private static PaymentResponse toResponse(PaymentBatchItemResult item) {
+        PaymentResponse response = new PaymentResponse();
+        response.setPaymentId(item.getPaymentId());
+        response.setOrderId(item.getOrderId());
+        response.setUserId(item.getUserId());
+        response.setAmount(item.getAmount());
+        response.setStatus(item.getError() == null ? item.getStatus() : null);
+        response.setProvider(item.getProvider());
+        return response;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+        List<Batch> pending;
+        synchronized (open) {
+            pending = new ArrayList<>(open.values());
+            open.clear();
+        }
+        // Unanswered commands are re-sent by the saga recovery worker.
+        pending.forEach(batch -> batch.fail(new IllegalStateException("Payment batcher is shut down")));
+        dispatcher.shutdown();
+    }
+
+    private static CustomizableThreadFactory daemonThreads(String prefix) {
+        CustomizableThreadFactory factory = new CustomizableThreadFactory(prefix);
+        factory.setDaemon(true);
+        return factory;
+    }
+
+    private static final class Batch {
+
+        private final String tenantId;
+        private final List<PaymentAuthorizationRequest> requests = new ArrayList<>();
+        private final List<CompletableFuture<PaymentResponse>> results = new ArrayList<>();
+        private ScheduledFuture<?> deadline;
+
+        private Batch(String tenantId) {
+            this.tenantId = tenantId;
+        }
+
+        private void fail(Throwable cause) {
+            results.forEach(result -> result.completeExceptionally(cause));
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.smartuniversity.market.service;
 
 import com.smartuniversity.market.web.dto.PaymentAuthorizationRequest;
+import com.smartuniversity.market.web.dto.PaymentBatchItemResult;
+import com.smartuniversity.market.web.dto.PaymentBatchRequest;
+import com.smartuniversity.market.web.dto.PaymentBatchResponse;
 import com.smartuniversity.market.web.dto.PaymentResponse;
-import org.springframework.beans.factory.annotation.Value;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -11,30 +15,40 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.List;
 import java.util.Objects;
 
 /**
- * Simple HTTP client for interacting with the Payment service.
+ * HTTP client for interacting with the Payment service.
+ *
+ * Calls go through the pooled {@code paymentRestTemplate} and are guarded by a
+ * Resilience4j bulkhead, which caps concurrent calls, and a circuit breaker, which
+ * fails fast while the Payment service is unhealthy. Rejections surface as runtime
+ * exceptions, which the saga treats as transient and retries later; 4xx responses
+ * are definitive and do not count as failures.
  */
 @Component
 public class PaymentClient {
 
     private final RestTemplate restTemplate;
-    private final String baseUrl;
 
-    public PaymentClient(@Value("${payment.service.base-url:http://localhost:8084}") String baseUrl) {
-        this.restTemplate = new RestTemplate();
-        this.baseUrl = baseUrl;
+    public PaymentClient(RestTemplate paymentRestTemplate) {
+        this.restTemplate = paymentRestTemplate;
     }
 
+    @CircuitBreaker(name = "paymentCb")
+    @Bulkhead(name = "paymentBulkhead")
     public PaymentResponse authorize(String tenantId, PaymentAuthorizationRequest request) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         headers.add("X-Tenant-Id", tenantId);
+        // Saga retries re-send the command; the key lets the Payment service answer them
+        // with the original authorization.
+        headers.add("Idempotency-Key", "authorize-" + request.getOrderId());
 
         HttpEntity<PaymentAuthorizationRequest> entity = new HttpEntity<>(request, headers);
         ResponseEntity<PaymentResponse> response = restTemplate.exchange(
-                baseUrl + "/payment/payments/authorize",
+                "/payment/payments/authorize",
                 HttpMethod.POST,
                 entity,
                 PaymentResponse.class
@@ -42,17 +56,42 @@ public class PaymentClient {
         return Objects.requireNonNull(response.getBody());
     }
 
+    /**
+     * Authorizes several payments of one tenant in one round trip. Results are returned
+     * in request order; the Payment service answers orders it has already seen with the
+     * existing payment, so a failed batch can be re-sent as a whole.
+     */
+    @CircuitBreaker(name = "paymentCb")
+    @Bulkhead(name = "paymentBulkhead")
+    public List<PaymentBatchItemResult> authorizeBatch(String tenantId, List<PaymentAuthorizationRequest> requests) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.add("X-Tenant-Id", tenantId);
+
+        HttpEntity<PaymentBatchRequest> entity = new HttpEntity<>(new PaymentBatchRequest(requests), headers);
+        ResponseEntity<PaymentBatchResponse> response = restTemplate.exchange(
+                "/payment/payments/authorize/batch",
+                HttpMethod.POST,
+                entity,
+                PaymentBatchResponse.class
+        );
+        return Objects.requireNonNull(response.getBody()).getResults();
+    }
+
+    @CircuitBreaker(name = "paymentCb")
+    @Bulkhead(name = "paymentBulkhead")
     public PaymentResponse cancel(String tenantId, String orderId) {
         HttpHeaders headers = new HttpHeaders();
         headers.add("X-Tenant-Id", tenantId);
 
         HttpEntity<Void> entity = new HttpEntity<>(headers);
         ResponseEntity<PaymentResponse> response = restTemplate.exchange(
-                baseUrl + "/payment/payments/cancel/" + orderId,
+                "/payment/payments/cancel/{orderId}",
                 HttpMethod.POST,
                 entity,
-                PaymentResponse.class
+                PaymentResponse.class,
+                orderId
         );
         return Objects.requireNonNull(response.getBody());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,243 @@
+package com.smartuniversity.market.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartuniversity.market.domain.Product;
+import com.smartuniversity.market.repository.ProductPatch;
+import com.smartuniversity.market.repository.ProductRepository;
+import com.smartuniversity.market.search.ProductChangedEvent;
+import com.smartuniversity.market.web.dto.ProductImportError;
+import com.smartuniversity.market.web.dto.ProductImportProgress;
+import com.smartuniversity.market.web.dto.ProductImportRow;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.groups.Default;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk creation and update of products from newline-delimited JSON.
+ *
+ * Lines are read in batches. Each batch is parsed and validated in parallel, then
+ * written with one JDBC batch for inserts and one for updates in its own
+ * transaction. The tenant's cached catalog is evicted and the search index notified
+ * once per batch. Invalid rows are reported and skipped; the rest of their batch is
+ * still written.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final String CATALOG_CACHE = "productsByTenant";
+
+    /**
+     * Receives the outcome of an import while it runs.
+     */
+    public interface Listener {
+
+        void onError(ProductImportError error);
+
+        void onProgress(ProductImportProgress progress);
+    }
+
+    private final ProductRepository productRepository;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public ProductImportService(ProductRepository productRepository,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                CacheManager cacheManager,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${market.products.import.batch-size:500}") int batchSize) {
+        this.productRepository = productRepository;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports every line of {@code input}; blank lines are ignored.
+     *
+     * @return the final totals, also passed to {@code listener}
+     */
+    public ProductImportProgress importProducts(String tenantId, UUID sellerId, BufferedReader input,
+                                                Listener listener) throws IOException {
+        Totals totals = new Totals();
+        List<Line> batch = new ArrayList<>(batchSize);
+        long lineNumber = 0;
+        String text;
+        while ((text = input.readLine()) != null) {
+            lineNumber++;
+            if (!StringUtils.hasText(text)) {
+                continue;
+            }
+            batch.add(new Line(lineNumber, text));
+            if (batch.size() == batchSize) {
+                importBatch(tenantId, sellerId, batch, totals, listener);
+                listener.onProgress(totals.snapshot(false));
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            importBatch(tenantId, sellerId, batch, totals, listener);
+        }
+        ProductImportProgress result = totals.snapshot(true);
+        listener.onProgress(result);
+        logger.info("Imported products for tenant {}: {} created, {} updated, {} failed", tenantId,
+                result.getCreated(), result.getUpdated(), result.getFailed());
+        return result;
+    }
+
+    private void importBatch(String tenantId, UUID sellerId, List<Line> batch, Totals totals, Listener listener) {
+        // Parsing and validation dominate for large batches and need no shared state.
+        List<Parsed> parsed = batch.parallelStream().map(this::parse).collect(Collectors.toList());
+
+        List<Product> creates = new ArrayList<>();
+        List<ProductPatch> patches = new ArrayList<>();
+        List<Parsed> patchLines = new ArrayList<>();
+        for (Parsed row : parsed) {
+            if (row.error() != null) {
+                reject(totals, listener, row.line(), row.productId(), row.error());
+            } else if (row.patch() != null) {
+                patches.add(row.patch());
+                patchLines.add(row);
+            } else {
+                Product product = row.product();
+                product.setTenantId(tenantId);
+                product.setSellerId(sellerId);
+                creates.add(product);
+            }
+        }
+        totals.processed += batch.size();
+        if (creates.isEmpty() && patches.isEmpty()) {
+            return;
+        }
+
+        int[] patched;
+        try {
+            patched = transactionTemplate.execute(status -> {
+                if (!creates.isEmpty()) {
+                    productRepository.insertAll(creates);
+                }
+                int[] counts = patches.isEmpty() ? new int[0] : productRepository.patchAll(tenantId, patches);
+                List<UUID> changed = new ArrayList<>(creates.size() + patches.size());
+                creates.forEach(product -> changed.add(product.getId()));
+                patches.forEach(patch -> changed.add(patch.id()));
+                // Delivered after commit.
+                eventPublisher.publishEvent(new ProductChangedEvent(tenantId, changed));
+                return counts;
+            });
+        } catch (DataAccessException ex) {
+            logger.warn("Product import batch for tenant {} failed", tenantId, ex);
+            for (Parsed row : parsed) {
+                if (row.error() == null) {
+                    reject(totals, listener, row.line(), row.productId(), "Batch could not be written");
+                }
+            }
+            return;
+        }
+
+        totals.created += creates.size();
+        for (int i = 0; i < patched.length; i++) {
+            if (patched[i] > 0) {
+                totals.updated++;
+            } else {
+                Parsed row = patchLines.get(i);
+                reject(totals, listener, row.line(), row.productId(),
+                        "Product not found, or stock below reserved units");
+            }
+        }
+
+        Cache catalog = cacheManager.getCache(CATALOG_CACHE);
+        if (catalog != null) {
+            catalog.evict(tenantId);
+        }
+    }
+
+    private Parsed parse(Line line) {
+        ProductImportRow row;
+        try {
+            row = objectMapper.readValue(line.text(), ProductImportRow.class);
+        } catch (JsonProcessingException ex) {
+            return Parsed.error(line.number(), null, "Malformed JSON: " + ex.getOriginalMessage());
+        }
+
+        boolean create = row.getId() == null;
+        Set<ConstraintViolation<ProductImportRow>> violations = create
+                ? validator.validate(row, Default.class, ProductImportRow.Create.class)
+                : validator.validate(row);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted(Comparator.naturalOrder())
+                    .collect(Collectors.joining(", "));
+            return Parsed.error(line.number(), row.getId(), message);
+        }
+
+        if (!create) {
+            return new Parsed(line.number(), row.getId(), null, new ProductPatch(row.getId(), row.getName(),
+                    row.getDescription(), row.getPrice(), row.getStock()), null);
+        }
+        Product product = new Product();
+        product.setName(row.getName());
+        product.setDescription(row.getDescription());
+        product.setPrice(row.getPrice());
+        product.setStock(row.getStock() != null ? row.getStock() : 0);
+        return new Parsed(line.number(), null, product, null, null);
+    }
+
+    private static void reject(Totals totals, Listener listener, long line, UUID productId, String message) {
+        totals.failed++;
+        listener.onError(new ProductImportError(line, productId, message));
+    }
+
+    private record Line(long number, String text) {
+    }
+
+    private record Parsed(long line, UUID productId, Product product, ProductPatch patch, String error) {
+
+        static Parsed error(long line, UUID productId, String error) {
+            return new Parsed(line, productId, null, null, error);
+        }
+    }
+
+    private static final class Totals {
+
+        long processed;
+        long created;
+        long updated;
+        long failed;
+
+        ProductImportProgress snapshot(boolean done) {
+            return new ProductImportProgress(processed, created, updated, failed, done);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.smartuniversity.market.service;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Thrown when products a checkout took from a price snapshot could not be reserved at
+ * their snapshot version. The transaction rolls back and the checkout is retried with
+ * those products read afresh.
+ */
+class StaleSnapshotException extends RuntimeException {
+
+    private final Set<UUID> productIds;
+
+    StaleSnapshotException(Set<UUID> productIds) {
+        super("Product snapshots are stale: " + productIds);
+        this.productIds = productIds;
+    }
+
+    Set<UUID> getProductIds() {
+        return productIds;
+    }
+}
@@ -0,0 +1,11 @@
+package com.smartuniversity.market.service;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Published when reserved units return to available stock because an order was
+ * canceled or its reservation expired.
+ */
+public record StockReleasedEvent(String tenantId, Map<UUID, Integer> quantities) {
+}
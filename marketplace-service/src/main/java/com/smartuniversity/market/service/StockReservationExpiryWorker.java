@@ -0,0 +1,46 @@
+package com.smartuniversity.market.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Periodically returns stock held by reservations whose checkout stalled past the TTL.
+ */
+@Component
+public class StockReservationExpiryWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationExpiryWorker.class);
+
+    private final StockReservationService reservationService;
+    private final int batchSize;
+
+    public StockReservationExpiryWorker(StockReservationService reservationService,
+                                        @Value("${market.reservation.expiry-batch-size:100}") int batchSize) {
+        this.reservationService = reservationService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${market.reservation.expiry-interval-ms:15000}")
+    public void expireStaleReservations() {
+        List<UUID> orderIds = reservationService.findExpiredOrderIds(batchSize);
+        int expired = 0;
+        for (UUID orderId : orderIds) {
+            try {
+                if (reservationService.expire(orderId)) {
+                    expired++;
+                }
+            } catch (RuntimeException ex) {
+                logger.warn("Failed to expire stock reservation for order {}", orderId, ex);
+            }
+        }
+        if (expired > 0) {
+            logger.info("Expired {} stale stock reservations", expired);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.smartuniversity.market.service;
+
+import com.smartuniversity.market.domain.ReservationStatus;
+import com.smartuniversity.market.domain.StockReservation;
+import com.smartuniversity.market.repository.ProductRepository;
+import com.smartuniversity.market.repository.StockReservationRepository;
+import com.smartuniversity.market.search.ProductChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Short-lived stock reservations taken before payment.
+ *
+ * Reserving moves units from available to {@code reserved_stock} and appends one
+ * ledger entry per product. Confirmation turns the reservation into a stock
+ * decrement; cancellation or expiry returns the units. Each transition closes the
+ * order's ledger entries with a single conditional update, so confirm and expiry
+ * cannot both apply.
+ */
+@Service
+public class StockReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationService.class);
+
+    private final ProductRepository productRepository;
+    private final StockReservationRepository reservationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration ttl;
+
+    public StockReservationService(ProductRepository productRepository,
+                                   StockReservationRepository reservationRepository,
+                                   ApplicationEventPublisher eventPublisher,
+                                   @Value("${market.reservation.ttl:2m}") Duration ttl) {
+        this.productRepository = productRepository;
+        this.reservationRepository = reservationRepository;
+        this.eventPublisher = eventPublisher;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Reserves {@code quantities} for the order or fails with 409, in which case the
+     * caller's transaction must roll back.
+     *
+     * @param quantities product quantities, sorted by product id
+     * @param names      product names used in error messages
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(String tenantId, UUID orderId, Map<UUID, Integer> quantities, Map<UUID, String> names) {
+        reserve(tenantId, orderId, quantities, names, Map.of());
+    }
+
+    /**
+     * Like {@link #reserve(String, UUID, Map, Map)}, but products listed in
+     * {@code versions} are only reserved if they are still at that version, so that a
+     * price snapshot can be trusted without reading the product.
+     *
+     * @throws StaleSnapshotException if some of those products could not be reserved;
+     *                                each may have changed or be short
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(String tenantId, UUID orderId, Map<UUID, Integer> quantities, Map<UUID, String> names,
+                        Map<UUID, Long> versions) {
+        if (versions.isEmpty()) {
+            requireAll(productRepository.reserveStock(tenantId, quantities), quantities, names);
+        } else {
+            int[] updated = productRepository.reserveStockAtVersion(tenantId, quantities, versions);
+            Set<UUID> stale = new HashSet<>();
+            int index = 0;
+            for (UUID productId : quantities.keySet()) {
+                if (updated[index++] > 0) {
+                    continue;
+                }
+                if (!versions.containsKey(productId)) {
+                    throw insufficientStock(names.get(productId));
+                }
+                stale.add(productId);
+            }
+            if (!stale.isEmpty()) {
+                throw new StaleSnapshotException(stale);
+            }
+        }
+
+        Instant expiresAt = Instant.now().plus(ttl);
+        List<StockReservation> entries = new ArrayList<>(quantities.size());
+        for (Map.Entry<UUID, Integer> entry : quantities.entrySet()) {
+            StockReservation reservation = new StockReservation();
+            reservation.setTenantId(tenantId);
+            reservation.setOrderId(orderId);
+            reservation.setProductId(entry.getKey());
+            reservation.setQuantity(entry.getValue());
+            reservation.setStatus(ReservationStatus.ACTIVE);
+            reservation.setExpiresAt(expiresAt);
+            entries.add(reservation);
+        }
+        reservationRepository.saveAll(entries);
+    }
+
+    /**
+     * Converts the order's reservation into a stock decrement. If the reservation has
+     * already expired, falls back to decrementing unreserved stock directly and fails
+     * with 409 when that is no longer possible.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void confirm(String tenantId, UUID orderId, Map<UUID, Integer> quantities, Map<UUID, String> names) {
+        // Delivered after commit; a rolled-back confirmation leaves the index untouched.
+        eventPublisher.publishEvent(new ProductChangedEvent(tenantId, List.copyOf(quantities.keySet())));
+        if (reservationRepository.closeActive(orderId, ReservationStatus.CONFIRMED) > 0) {
+            int[] updated = productRepository.commitReservedStock(tenantId, quantities);
+            for (int count : updated) {
+                if (count == 0) {
+                    throw new IllegalStateException("Reserved stock out of sync for order " + orderId);
+                }
+            }
+            return;
+        }
+        logger.info("Reservation for order {} is no longer active; decrementing available stock", orderId);
+        requireAll(productRepository.decrementStock(tenantId, quantities), quantities, names);
+    }
+
+    /**
+     * Returns the order's reserved units to available stock, if still held.
+     */
+    @Transactional
+    public void release(String tenantId, UUID orderId) {
+        close(tenantId, orderId, ReservationStatus.RELEASED);
+    }
+
+    /**
+     * Expires a reservation that outlived its TTL. Returns whether stock was released.
+     */
+    @Transactional
+    public boolean expire(UUID orderId) {
+        List<StockReservation> entries = reservationRepository.findByOrderId(orderId);
+        if (entries.isEmpty()) {
+            return false;
+        }
+        return close(entries.get(0).getTenantId(), orderId, ReservationStatus.EXPIRED);
+    }
+
+    @Transactional(readOnly = true)
+    public List<UUID> findExpiredOrderIds(int limit) {
+        return reservationRepository.findExpiredOrderIds(Instant.now(), PageRequest.of(0, limit));
+    }
+
+    private boolean close(String tenantId, UUID orderId, ReservationStatus status) {
+        if (reservationRepository.closeActive(orderId, status) == 0) {
+            return false;
+        }
+        // All entries of an order are created and closed together, so every entry
+        // belongs to the reservation that was just closed.
+        Map<UUID, Integer> quantities = new TreeMap<>();
+        for (StockReservation entry : reservationRepository.findByOrderId(orderId)) {
+            quantities.merge(entry.getProductId(), entry.getQuantity(), Integer::sum);
+        }
+        productRepository.releaseReservedStock(tenantId, quantities);
+        eventPublisher.publishEvent(new StockReleasedEvent(tenantId, quantities));
+        return true;
+    }
+
+    private static void requireAll(int[] updated, Map<UUID, Integer> quantities, Map<UUID, String> names) {
+        int index = 0;
+        for (UUID productId : quantities.keySet()) {
+            if (updated[index++] == 0) {
+                throw insufficientStock(names.get(productId));
+            }
+        }
+    }
+
+    private static ResponseStatusException insufficientStock(String productName) {
+        return new ResponseStatusException(HttpStatus.CONFLICT, "Insufficient stock for product " + productName);
+    }
+}
@@ -0,0 +1,101 @@
+package com.smartuniversity.market.web;
+
+import com.smartuniversity.common.idempotency.IdempotencyService;
+import com.smartuniversity.market.cart.CartService;
+import com.smartuniversity.market.web.dto.CartDto;
+import com.smartuniversity.market.web.dto.OrderDto;
+import com.smartuniversity.market.web.dto.OrderItemRequest;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * REST API for the current user's server-side cart.
+ */
+@RestController
+@RequestMapping("/market/cart")
+@Tag(name = "Cart", description = "Server-side shopping cart with incremental re-pricing")
+public class CartController {
+
+    private final CartService cartService;
+    private final IdempotencyService idempotencyService;
+
+    public CartController(CartService cartService, IdempotencyService idempotencyService) {
+        this.cartService = cartService;
+        this.idempotencyService = idempotencyService;
+    }
+
+    @GetMapping
+    @Operation(summary = "Get cart", description = "Returns the cart, re-pricing only items whose product changed")
+    public ResponseEntity<CartDto> getCart(@RequestHeader("X-User-Id") String userIdHeader,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+
+        if (!StringUtils.hasText(userIdHeader)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        return ResponseEntity.ok(cartService.view(tenantId, UUID.fromString(userIdHeader)));
+    }
+
+    @PostMapping("/items")
+    @Operation(summary = "Add to cart", description = "Adds units of a product to the cart")
+    public ResponseEntity<CartDto> addItem(@Valid @RequestBody OrderItemRequest request,
+            @RequestHeader("X-User-Id") String userIdHeader,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+
+        if (!StringUtils.hasText(userIdHeader)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        return ResponseEntity.ok(cartService.add(tenantId, UUID.fromString(userIdHeader), request.getProductId(),
+                request.getQuantity()));
+    }
+
+    @DeleteMapping("/items/{productId}")
+    @Operation(summary = "Remove from cart", description = "Removes a product from the cart")
+    public ResponseEntity<CartDto> removeItem(@PathVariable("productId") UUID productId,
+            @RequestHeader("X-User-Id") String userIdHeader,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+
+        if (!StringUtils.hasText(userIdHeader)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        return ResponseEntity.ok(cartService.remove(tenantId, UUID.fromString(userIdHeader), productId));
+    }
+
+    @PostMapping("/checkout")
+    @Operation(summary = "Checkout cart", description = "Starts the checkout Saga for the cart's contents and empties the cart")
+    public ResponseEntity<OrderDto> checkout(@RequestHeader("X-User-Id") String userIdHeader,
+            @RequestHeader("X-Tenant-Id") String tenantId,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+
+        if (!StringUtils.hasText(userIdHeader)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        UUID buyerId = UUID.fromString(userIdHeader);
+        return idempotencyService.execute("cart-checkout", tenantId, buyerId, idempotencyKey, List.of(buyerId),
+                OrderDto.class, () -> {
+                    OrderDto order = cartService.checkout(tenantId, buyerId);
+                    return ResponseEntity.accepted()
+                            .location(URI.create("/market/orders/" + order.getId()))
+                            .body(order);
+                });
+    }
+}
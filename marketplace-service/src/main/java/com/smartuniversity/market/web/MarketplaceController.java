@@ -1,27 +1,44 @@
 package com.smartuniversity.market.web;
 
+import com.smartuniversity.common.idempotency.IdempotencyService;
 import com.smartuniversity.market.domain.Product;
+import com.smartuniversity.market.flashsale.FlashSaleGate;
 import com.smartuniversity.market.repository.ProductRepository;
+import com.smartuniversity.market.search.ProductChangedEvent;
+import com.smartuniversity.market.search.ProductSearchIndex;
+import com.smartuniversity.market.search.ProductSearchQuery;
+import com.smartuniversity.market.search.ProductSort;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import com.smartuniversity.market.service.OrderHistoryService;
 import com.smartuniversity.market.service.OrderSagaService;
 import com.smartuniversity.market.web.dto.CheckoutRequest;
 import com.smartuniversity.market.web.dto.OrderDto;
+import com.smartuniversity.market.web.dto.OrderHistoryPage;
 import com.smartuniversity.market.web.dto.ProductDto;
 import com.smartuniversity.market.web.dto.ProductRequest;
+import com.smartuniversity.market.web.dto.ProductSearchPage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.math.BigDecimal;
+import java.net.URI;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -36,11 +53,26 @@ public class MarketplaceController {
 
     private final ProductRepository productRepository;
     private final OrderSagaService orderSagaService;
+    private final OrderHistoryService orderHistoryService;
+    private final IdempotencyService idempotencyService;
+    private final ProductSearchIndex productSearchIndex;
+    private final FlashSaleGate flashSaleGate;
+    private final ApplicationEventPublisher eventPublisher;
 
     public MarketplaceController(ProductRepository productRepository,
-            OrderSagaService orderSagaService) {
+            OrderSagaService orderSagaService,
+            OrderHistoryService orderHistoryService,
+            IdempotencyService idempotencyService,
+            ProductSearchIndex productSearchIndex,
+            FlashSaleGate flashSaleGate,
+            ApplicationEventPublisher eventPublisher) {
         this.productRepository = productRepository;
         this.orderSagaService = orderSagaService;
+        this.orderHistoryService = orderHistoryService;
+        this.idempotencyService = idempotencyService;
+        this.productSearchIndex = productSearchIndex;
+        this.flashSaleGate = flashSaleGate;
+        this.eventPublisher = eventPublisher;
     }
 
     @GetMapping("/products")
@@ -52,6 +84,28 @@ public class MarketplaceController {
                 .collect(Collectors.toList());
     }
 
+    @GetMapping("/products/search")
+    @Operation(summary = "Search products", description = "Text search over name and description with price and stock filters, sorting and cursor pagination")
+    public ProductSearchPage searchProducts(@RequestHeader("X-Tenant-Id") String tenantId,
+            @RequestParam(value = "q", required = false) String text,
+            @RequestParam(value = "minPrice", required = false) BigDecimal minPrice,
+            @RequestParam(value = "maxPrice", required = false) BigDecimal maxPrice,
+            @RequestParam(value = "inStock", defaultValue = "false") boolean inStock,
+            @RequestParam(value = "sort", defaultValue = "NAME") ProductSort sort,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+
+        ProductSearchQuery query = new ProductSearchQuery();
+        query.setText(text);
+        query.setMinPrice(minPrice);
+        query.setMaxPrice(maxPrice);
+        query.setInStock(inStock);
+        query.setSort(sort);
+        query.setCursor(cursor);
+        query.setLimit(limit);
+        return productSearchIndex.search(tenantId, query);
+    }
+
     @PostMapping("/products")
     @CacheEvict(cacheNames = "productsByTenant", key = "#root.args[3]")
     @Operation(summary = "Create product", description = "Creates a new product (TEACHER/ADMIN only, enforced at gateway)")
@@ -80,23 +134,88 @@ public class MarketplaceController {
         product.setStock(request.getStock());
 
         Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(tenantId, List.of(saved.getId())));
         ProductDto dto = new ProductDto(saved.getId(), saved.getName(), saved.getDescription(), saved.getPrice(),
                 saved.getStock());
         return ResponseEntity.status(HttpStatus.CREATED).body(dto);
     }
 
+    @PutMapping("/products/{productId}/flash-sale")
+    @Operation(summary = "Start flash sale", description = "Admits checkouts of the product at an in-memory stock counter loaded with its available stock (TEACHER/ADMIN only)")
+    public ResponseEntity<Void> startFlashSale(@PathVariable("productId") UUID productId,
+            @RequestHeader("X-User-Role") String role,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+
+        if (!"TEACHER".equals(role) && !"ADMIN".equals(role)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        Product product = productRepository.findByIdAndTenantId(productId, tenantId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
+        flashSaleGate.enable(tenantId, productId, product.getStock() - product.getReservedStock());
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/products/{productId}/flash-sale")
+    @Operation(summary = "Stop flash sale", description = "Returns the product to regular checkout (TEACHER/ADMIN only)")
+    public ResponseEntity<Void> stopFlashSale(@PathVariable("productId") UUID productId,
+            @RequestHeader("X-User-Role") String role,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+
+        if (!"TEACHER".equals(role) && !"ADMIN".equals(role)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        flashSaleGate.disable(tenantId, productId);
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping("/orders/checkout")
-    @Operation(summary = "Checkout order", description = "Orchestrates the Saga across payment and stock updates for the given items")
+    @Operation(summary = "Checkout order", description = "Reserves stock and starts the asynchronous payment Saga; poll the returned order for its outcome")
     public ResponseEntity<OrderDto> checkout(@Valid @RequestBody CheckoutRequest request,
             @RequestHeader("X-User-Id") String userIdHeader,
-            @RequestHeader("X-Tenant-Id") String tenantId) {
+            @RequestHeader("X-Tenant-Id") String tenantId,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
 
         if (!StringUtils.hasText(userIdHeader)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
         UUID buyerId = UUID.fromString(userIdHeader);
-        OrderDto order = orderSagaService.checkout(tenantId, buyerId, request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(order);
+        // A retried checkout with the same key gets the original order instead of a new one.
+        return idempotencyService.execute("checkout", tenantId, buyerId, idempotencyKey, List.of(buyerId, request),
+                OrderDto.class, () -> {
+                    OrderDto order = orderSagaService.checkout(tenantId, buyerId, request);
+                    return ResponseEntity.accepted()
+                            .location(URI.create("/market/orders/" + order.getId()))
+                            .body(order);
+                });
+    }
+
+    @GetMapping("/orders")
+    @Operation(summary = "List my orders", description = "Returns the current user's orders, newest first, with cursor pagination")
+    public ResponseEntity<OrderHistoryPage> listOrders(@RequestHeader("X-User-Id") String userIdHeader,
+            @RequestHeader("X-Tenant-Id") String tenantId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+
+        if (!StringUtils.hasText(userIdHeader)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        return ResponseEntity.ok(orderHistoryService.history(tenantId, UUID.fromString(userIdHeader), cursor, limit));
+    }
+
+    @GetMapping("/orders/{orderId}")
+    @Operation(summary = "Get order", description = "Returns an order of the current user, including its Saga outcome")
+    public ResponseEntity<OrderDto> getOrder(@PathVariable("orderId") UUID orderId,
+            @RequestHeader("X-User-Id") String userIdHeader,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+
+        if (!StringUtils.hasText(userIdHeader)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        return ResponseEntity.ok(orderSagaService.getOrder(tenantId, UUID.fromString(userIdHeader), orderId));
     }
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.smartuniversity.market.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartuniversity.market.service.ProductImportService;
+import com.smartuniversity.market.web.dto.ProductImportError;
+import com.smartuniversity.market.web.dto.ProductImportProgress;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Bulk product import. The request body is read as it arrives and the response
+ * streams one JSON line per rejected row and per committed batch.
+ */
+@RestController
+@RequestMapping("/market/products")
+@Tag(name = "Marketplace", description = "Products catalog and Saga-based checkout")
+public class ProductImportController {
+
+    private final ProductImportService productImportService;
+    private final ObjectMapper objectMapper;
+
+    public ProductImportController(ProductImportService productImportService, ObjectMapper objectMapper) {
+        this.productImportService = productImportService;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Import products", description = "Creates products, or updates them when a row has an id, from newline-delimited JSON; streams per-row errors and progress (TEACHER/ADMIN only)")
+    public ResponseEntity<StreamingResponseBody> importProducts(InputStream body,
+            @RequestHeader("X-User-Id") String userIdHeader,
+            @RequestHeader("X-User-Role") String role,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+
+        if (!StringUtils.hasText(userIdHeader) || !StringUtils.hasText(role)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        boolean isTeacherOrAdmin = "TEACHER".equals(role) || "ADMIN".equals(role);
+        if (!isTeacherOrAdmin) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        UUID sellerId = UUID.fromString(userIdHeader);
+        StreamingResponseBody stream = output -> {
+            Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            try {
+                productImportService.importProducts(tenantId, sellerId, reader, new ProductImportService.Listener() {
+                    @Override
+                    public void onError(ProductImportError error) {
+                        write(writer, error, false);
+                    }
+
+                    @Override
+                    public void onProgress(ProductImportProgress progress) {
+                        write(writer, progress, true);
+                    }
+                });
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(stream);
+    }
+
+    private void write(Writer writer, Object line, boolean flush) {
+        try {
+            writer.write(objectMapper.writeValueAsString(line));
+            writer.write('\n');
+            if (flush) {
+                writer.flush();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.smartuniversity.market.web.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class CartDto {
+
+    private List<CartItemDto> items;
+    private BigDecimal totalAmount;
+
+    public CartDto() {
+    }
+
+    public CartDto(List<CartItemDto> items, BigDecimal totalAmount) {
+        this.items = items;
+        this.totalAmount = totalAmount;
+    }
+
+    public List<CartItemDto> getItems() {
+        return items;
+    }
+
+    public void setItems(List<CartItemDto> items) {
+        this.items = items;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+}
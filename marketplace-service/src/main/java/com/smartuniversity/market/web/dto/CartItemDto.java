@@ -0,0 +1,64 @@
+package com.smartuniversity.market.web.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public class CartItemDto {
+
+    private UUID productId;
+    private String productName;
+    private int quantity;
+    private BigDecimal price;
+    private boolean available;
+
+    public CartItemDto() {
+    }
+
+    public CartItemDto(UUID productId, String productName, int quantity, BigDecimal price, boolean available) {
+        this.productId = productId;
+        this.productName = productName;
+        this.quantity = quantity;
+        this.price = price;
+        this.available = available;
+    }
+
+    public UUID getProductId() {
+        return productId;
+    }
+
+    public void setProductId(UUID productId) {
+        this.productId = productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public void setAvailable(boolean available) {
+        this.available = available;
+    }
+}
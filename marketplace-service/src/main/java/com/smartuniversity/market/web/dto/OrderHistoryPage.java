@@ -0,0 +1,37 @@
+package com.smartuniversity.market.web.dto;
+
+import java.util.List;
+
+/**
+ * One page of a buyer's order history, newest first. {@code nextCursor} is null on
+ * the last page.
+ */
+public class OrderHistoryPage {
+
+    private List<OrderSummaryDto> items;
+    private String nextCursor;
+
+    public OrderHistoryPage() {
+    }
+
+    public OrderHistoryPage(List<OrderSummaryDto> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<OrderSummaryDto> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderSummaryDto> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
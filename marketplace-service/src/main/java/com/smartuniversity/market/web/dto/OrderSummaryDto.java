@@ -0,0 +1,79 @@
+package com.smartuniversity.market.web.dto;
+
+import com.smartuniversity.market.domain.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public class OrderSummaryDto {
+
+    private UUID id;
+    private OrderStatus status;
+    private BigDecimal totalAmount;
+    private int itemCount;
+    private List<OrderItemDto> items;
+    private Instant createdAt;
+
+    public OrderSummaryDto() {
+    }
+
+    public OrderSummaryDto(UUID id, OrderStatus status, BigDecimal totalAmount, int itemCount,
+                           List<OrderItemDto> items, Instant createdAt) {
+        this.id = id;
+        this.status = status;
+        this.totalAmount = totalAmount;
+        this.itemCount = itemCount;
+        this.items = items;
+        this.createdAt = createdAt;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(int itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    public List<OrderItemDto> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderItemDto> items) {
+        this.items = items;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,86 @@
+package com.smartuniversity.market.web.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Outcome of one item of a batch authorization as returned by the Payment service.
+ * {@code error} is set instead of {@code status} when the item was rejected;
+ * {@code retryable} tells a transient failure, such as an unavailable provider, from a
+ * definitive rejection.
+ */
+public class PaymentBatchItemResult {
+
+    private UUID orderId;
+    private UUID paymentId;
+    private UUID userId;
+    private BigDecimal amount;
+    private String status;
+    private String provider;
+    private String error;
+    private boolean retryable;
+
+    public UUID getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(UUID orderId) {
+        this.orderId = orderId;
+    }
+
+    public UUID getPaymentId() {
+        return paymentId;
+    }
+
+    public void setPaymentId(UUID paymentId) {
+        this.paymentId = paymentId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public void setProvider(String provider) {
+        this.provider = provider;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+
+    public void setRetryable(boolean retryable) {
+        this.retryable = retryable;
+    }
+}
@@ -0,0 +1,27 @@
+package com.smartuniversity.market.web.dto;
+
+import java.util.List;
+
+/**
+ * Request body sent to the Payment service to authorize several payments of one
+ * tenant in a single call.
+ */
+public class PaymentBatchRequest {
+
+    private List<PaymentAuthorizationRequest> items;
+
+    public PaymentBatchRequest() {
+    }
+
+    public PaymentBatchRequest(List<PaymentAuthorizationRequest> items) {
+        this.items = items;
+    }
+
+    public List<PaymentAuthorizationRequest> getItems() {
+        return items;
+    }
+
+    public void setItems(List<PaymentAuthorizationRequest> items) {
+        this.items = items;
+    }
+}
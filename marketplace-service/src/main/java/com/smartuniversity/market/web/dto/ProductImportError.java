@@ -0,0 +1,50 @@
+package com.smartuniversity.market.web.dto;
+
+import java.util.UUID;
+
+/**
+ * A rejected import row, reported as soon as it is known.
+ */
+public class ProductImportError {
+
+    private long line;
+    private UUID productId;
+    private String message;
+
+    public ProductImportError() {
+    }
+
+    public ProductImportError(long line, UUID productId, String message) {
+        this.line = line;
+        this.productId = productId;
+        this.message = message;
+    }
+
+    public String getType() {
+        return "error";
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public UUID getProductId() {
+        return productId;
+    }
+
+    public void setProductId(UUID productId) {
+        this.productId = productId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,69 @@
+package com.smartuniversity.market.web.dto;
+
+/**
+ * Running totals of an import, reported after every committed batch; the last one
+ * has {@code done} set.
+ */
+public class ProductImportProgress {
+
+    private long processed;
+    private long created;
+    private long updated;
+    private long failed;
+    private boolean done;
+
+    public ProductImportProgress() {
+    }
+
+    public ProductImportProgress(long processed, long created, long updated, long failed, boolean done) {
+        this.processed = processed;
+        this.created = created;
+        this.updated = updated;
+        this.failed = failed;
+        this.done = done;
+    }
+
+    public String getType() {
+        return "progress";
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(long processed) {
+        this.processed = processed;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(long updated) {
+        this.updated = updated;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public void setDone(boolean done) {
+        this.done = done;
+    }
+}
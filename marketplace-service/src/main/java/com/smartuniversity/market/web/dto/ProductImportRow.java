@@ -0,0 +1,82 @@
+package com.smartuniversity.market.web.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One line of a product import. Rows with an {@code id} update that product and
+ * leave absent fields unchanged, e.g. {@code {"id": "...", "price": 12.5}}; rows
+ * without one create a product and must satisfy the {@link Create} constraints too.
+ */
+public class ProductImportRow {
+
+    /**
+     * Validation group for rows that create a product.
+     */
+    public interface Create {
+    }
+
+    private UUID id;
+
+    @NotBlank(groups = Create.class)
+    @Size(min = 3, max = 200)
+    private String name;
+
+    @Size(max = 500)
+    private String description;
+
+    @NotNull(groups = Create.class)
+    @DecimalMin("0")
+    @Digits(integer = 10, fraction = 2)
+    private BigDecimal price;
+
+    @Min(0)
+    private Integer stock;
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
+}
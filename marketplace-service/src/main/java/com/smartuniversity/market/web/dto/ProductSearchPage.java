@@ -0,0 +1,36 @@
+package com.smartuniversity.market.web.dto;
+
+import java.util.List;
+
+/**
+ * One page of product search results. {@code nextCursor} is null on the last page.
+ */
+public class ProductSearchPage {
+
+    private List<ProductDto> items;
+    private String nextCursor;
+
+    public ProductSearchPage() {
+    }
+
+    public ProductSearchPage(List<ProductDto> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ProductDto> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ProductDto> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
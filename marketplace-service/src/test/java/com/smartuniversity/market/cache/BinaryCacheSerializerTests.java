@@ -0,0 +1,118 @@
+package com.smartuniversity.market.cache;
+
+import com.smartuniversity.market.web.dto.ProductDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinaryCacheSerializerTests {
+
+    private SimpleMeterRegistry meterRegistry;
+    private BinaryCacheSerializer serializer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        serializer = new BinaryCacheSerializer(
+                List.of(new ProductListCodec(), new JsonFallbackCodec()), 1024, meterRegistry);
+    }
+
+    @Test
+    void productListRoundTripsWithDedicatedCodec() {
+        List<ProductDto> products = List.of(
+                new ProductDto(UUID.randomUUID(), "Notebook", "A5 dotted", new BigDecimal("4.50"), 12),
+                new ProductDto(UUID.randomUUID(), "Pen", null, new BigDecimal("1.20"), 0));
+
+        byte[] bytes = serializer.serialize(products);
+
+        assertThat(bytes[1]).isEqualTo(ProductListCodec.ID);
+        @SuppressWarnings("unchecked")
+        List<ProductDto> decoded = (List<ProductDto>) serializer.deserialize(bytes);
+        assertThat(decoded).hasSize(2);
+        assertThat(decoded.get(0).getId()).isEqualTo(products.get(0).getId());
+        assertThat(decoded.get(0).getPrice()).isEqualTo(new BigDecimal("4.50"));
+        assertThat(decoded.get(1).getDescription()).isNull();
+        assertThat(decoded.get(1).getStock()).isZero();
+    }
+
+    @Test
+    void descriptionLongerThan64KbRoundTrips() {
+        // Three UTF-8 bytes per character, well above the 65,535 bytes writeUTF allows.
+        String description = "\u20AC".repeat(30_000);
+        List<ProductDto> products = List.of(
+                new ProductDto(UUID.randomUUID(), "Thesis binding", description, new BigDecimal("9.90"), 1));
+
+        byte[] bytes = serializer.serialize(products);
+
+        assertThat(bytes[1]).isEqualTo(ProductListCodec.ID);
+        @SuppressWarnings("unchecked")
+        List<ProductDto> decoded = (List<ProductDto>) serializer.deserialize(bytes);
+        assertThat(decoded.get(0).getDescription()).isEqualTo(description);
+    }
+
+    @Test
+    void priceWithMoreThan255UnscaledBytesRoundTrips() {
+        BigDecimal price = new BigDecimal(BigInteger.TEN.pow(700).add(BigInteger.ONE), 2);
+        List<ProductDto> products = List.of(
+                new ProductDto(UUID.randomUUID(), "Endowment", null, price, 1));
+        assertThat(price.unscaledValue().toByteArray().length).isGreaterThan(255);
+
+        @SuppressWarnings("unchecked")
+        List<ProductDto> decoded = (List<ProductDto>) serializer.deserialize(serializer.serialize(products));
+        assertThat(decoded.get(0).getPrice()).isEqualTo(price);
+    }
+
+    @Test
+    void largeCatalogIsCompressedAndSmallerThanJson() {
+        List<ProductDto> products = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            products.add(new ProductDto(UUID.randomUUID(), "Product " + i, "Course material for module " + (i % 10),
+                    new BigDecimal("19.99"), i));
+        }
+
+        byte[] binary = serializer.serialize(products);
+        byte[] json = new GenericJackson2JsonRedisSerializer().serialize(products);
+
+        assertThat(binary[2]).isEqualTo((byte) 0x01);
+        assertThat(binary.length).isLessThan(json.length / 2);
+        assertThat(((List<?>) serializer.deserialize(binary))).hasSize(500);
+        assertThat(meterRegistry.get("market.cache.codec.payload")
+                .tag("codec", "product-list").tag("compressed", "true")
+                .summary().count()).isEqualTo(1);
+    }
+
+    @Test
+    void otherValuesUseJsonFallback() {
+        ProductDto product = new ProductDto(UUID.randomUUID(), "Lab coat", null, new BigDecimal("25.00"), 3);
+
+        byte[] bytes = serializer.serialize(product);
+
+        assertThat(bytes[1]).isEqualTo(JsonFallbackCodec.ID);
+        assertThat(((ProductDto) serializer.deserialize(bytes)).getName()).isEqualTo("Lab coat");
+    }
+
+    @Test
+    void unknownFormatVersionIsTreatedAsMiss() {
+        byte[] bytes = serializer.serialize(List.of());
+        bytes[0] = (byte) (BinaryCacheSerializer.FORMAT_VERSION + 1);
+
+        assertThat(serializer.deserialize(bytes)).isNull();
+    }
+
+    @Test
+    void legacyJsonEntryIsTreatedAsMiss() {
+        byte[] legacy = new GenericJackson2JsonRedisSerializer().serialize(Map.of("status", "ok"));
+
+        assertThat(serializer.deserialize(legacy)).isNull();
+    }
+}
@@ -0,0 +1,80 @@
+package com.smartuniversity.market.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+
+class TwoTierCacheManagerTests {
+
+    private ConcurrentMapCacheManager remote;
+    private StringRedisTemplate redisTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private TwoTierCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCacheManager("productsByTenant");
+        redisTemplate = Mockito.mock(StringRedisTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cacheManager = new TwoTierCacheManager(remote, redisTemplate, meterRegistry, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void remoteHitIsServedLocallyAfterwards() {
+        remote.getCache("productsByTenant").put("engineering", "catalog");
+        Cache cache = cacheManager.getCache("productsByTenant");
+
+        assertThat(cache.get("engineering").get()).isEqualTo("catalog");
+        assertThat(cache.get("engineering").get()).isEqualTo("catalog");
+
+        assertThat(lookups("remote", "hit")).isEqualTo(1);
+        assertThat(lookups("local", "hit")).isEqualTo(1);
+    }
+
+    @Test
+    void evictRemovesBothTiersAndPublishesInvalidation() {
+        Cache cache = cacheManager.getCache("productsByTenant");
+        cache.put("engineering", "catalog");
+
+        cache.evict("engineering");
+
+        assertThat(cache.get("engineering")).isNull();
+        assertThat(remote.getCache("productsByTenant").get("engineering")).isNull();
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(redisTemplate, Mockito.times(2))
+                .convertAndSend(eq(TwoTierCacheManager.INVALIDATION_CHANNEL), message.capture());
+        assertThat(message.getValue()).endsWith("|productsByTenant|engineering");
+    }
+
+    @Test
+    void invalidationFromAnotherNodeDropsLocalEntryOnly() {
+        Cache cache = cacheManager.getCache("productsByTenant");
+        cache.put("engineering", "catalog");
+        // Simulate another node having replaced the shared value.
+        remote.getCache("productsByTenant").put("engineering", "updated catalog");
+
+        assertThat(cache.get("engineering").get()).isEqualTo("catalog");
+
+        cacheManager.onInvalidation("other-node|productsByTenant|engineering");
+
+        assertThat(cache.get("engineering").get()).isEqualTo("updated catalog");
+    }
+
+    private long lookups(String tier, String result) {
+        return meterRegistry.get("market.cache.lookup")
+                .tag("tier", tier)
+                .tag("result", result)
+                .timer()
+                .count();
+    }
+}
@@ -0,0 +1,182 @@
+package com.smartuniversity.market.cart;
+
+import com.smartuniversity.common.outbox.OutboxEventRepository;
+import com.smartuniversity.market.domain.Order;
+import com.smartuniversity.market.domain.OrderItem;
+import com.smartuniversity.market.domain.Product;
+import com.smartuniversity.market.repository.OrderRepository;
+import com.smartuniversity.market.repository.OrderSummaryRepository;
+import com.smartuniversity.market.repository.ProductRepository;
+import com.smartuniversity.market.service.PaymentClient;
+import com.smartuniversity.market.web.dto.CartDto;
+import com.smartuniversity.market.web.dto.OrderDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CartServiceTest {
+
+    private static final String TENANT = "engineering";
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderSummaryRepository orderSummaryRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @MockBean
+    private PaymentClient paymentClient;
+
+    private Statistics statistics;
+    private UUID buyerId;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        orderSummaryRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        buyerId = UUID.randomUUID();
+    }
+
+    @Test
+    void addAndRemoveItems() {
+        Product pen = productRepository.save(product("Pen", "1.50", 10));
+        Product notebook = productRepository.save(product("Notebook", "4.00", 1));
+
+        cartService.add(TENANT, buyerId, pen.getId(), 2);
+        cartService.add(TENANT, buyerId, pen.getId(), 1);
+        CartDto cart = cartService.add(TENANT, buyerId, notebook.getId(), 2);
+
+        assertThat(cart.getItems()).hasSize(2);
+        assertThat(cart.getTotalAmount()).isEqualByComparingTo("12.50");
+        assertThat(cart.getItems()).filteredOn(item -> item.getProductId().equals(notebook.getId()))
+                .singleElement()
+                .satisfies(item -> assertThat(item.isAvailable()).isFalse());
+
+        cart = cartService.remove(TENANT, buyerId, notebook.getId());
+        assertThat(cart.getItems()).singleElement().satisfies(item -> {
+            assertThat(item.getProductName()).isEqualTo("Pen");
+            assertThat(item.getQuantity()).isEqualTo(3);
+        });
+    }
+
+    @Test
+    void onlyChangedProductsAreRepriced() {
+        Product pen = productRepository.save(product("Pen", "1.50", 10));
+        Product notebook = productRepository.save(product("Notebook", "4.00", 10));
+        cartService.add(TENANT, buyerId, pen.getId(), 1);
+        cartService.add(TENANT, buyerId, notebook.getId(), 1);
+
+        changePrice(notebook.getId(), "5.00");
+        statistics.clear();
+        CartDto cart = cartService.view(TENANT, buyerId);
+
+        assertThat(cart.getTotalAmount()).isEqualByComparingTo("6.50");
+        assertThat(statistics.getEntityStatistics(Product.class.getName()).getLoadCount()).isEqualTo(1);
+
+        // The second view finds every snapshot current.
+        statistics.clear();
+        cartService.view(TENANT, buyerId);
+        assertThat(statistics.getEntityStatistics(Product.class.getName()).getLoadCount()).isZero();
+    }
+
+    @Test
+    void checkoutTrustsCurrentSnapshotsWithoutReadingProducts() {
+        Product pen = productRepository.save(product("Pen", "1.50", 10));
+        Product notebook = productRepository.save(product("Notebook", "4.00", 10));
+        cartService.add(TENANT, buyerId, pen.getId(), 2);
+        cartService.add(TENANT, buyerId, notebook.getId(), 1);
+
+        statistics.clear();
+        OrderDto order = cartService.checkout(TENANT, buyerId);
+
+        assertThat(order.getTotalAmount()).isEqualByComparingTo("7.00");
+        assertThat(order.getItems()).extracting("productName").containsExactlyInAnyOrder("Pen", "Notebook");
+        assertThat(statistics.getEntityStatistics(Product.class.getName()).getLoadCount()).isZero();
+        assertThat(productRepository.findById(pen.getId()).orElseThrow().getReservedStock()).isEqualTo(2);
+        assertThat(cartService.view(TENANT, buyerId).getItems()).isEmpty();
+    }
+
+    @Test
+    void checkoutRepricesProductsChangedSinceTheyWereAdded() {
+        Product pen = productRepository.save(product("Pen", "1.50", 10));
+        Product notebook = productRepository.save(product("Notebook", "4.00", 10));
+        cartService.add(TENANT, buyerId, pen.getId(), 2);
+        cartService.add(TENANT, buyerId, notebook.getId(), 1);
+
+        changePrice(notebook.getId(), "6.00");
+        statistics.clear();
+        OrderDto order = cartService.checkout(TENANT, buyerId);
+
+        assertThat(order.getTotalAmount()).isEqualByComparingTo("9.00");
+        assertThat(statistics.getEntityStatistics(Product.class.getName()).getLoadCount()).isEqualTo(1);
+        Order saved = orderRepository.findWithItemsByIdAndTenantId(order.getId(), TENANT).orElseThrow();
+        assertThat(saved.getItems()).filteredOn(item -> item.getProduct().getId().equals(notebook.getId()))
+                .extracting(OrderItem::getPrice)
+                .singleElement()
+                .satisfies(price -> assertThat(price).isEqualByComparingTo("6.00"));
+        // Only the retried attempt's reservation is held.
+        assertThat(productRepository.findById(pen.getId()).orElseThrow().getReservedStock()).isEqualTo(2);
+    }
+
+    @Test
+    void checkoutFailsWhenCartProductIsShort() {
+        Product pen = productRepository.save(product("Pen", "1.50", 1));
+        cartService.add(TENANT, buyerId, pen.getId(), 2);
+
+        assertThatThrownBy(() -> cartService.checkout(TENANT, buyerId))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode().value()).isEqualTo(409));
+        assertThat(productRepository.findById(pen.getId()).orElseThrow().getReservedStock()).isZero();
+        assertThat(cartService.view(TENANT, buyerId).getItems()).hasSize(1);
+    }
+
+    private void changePrice(UUID productId, String price) {
+        Product product = productRepository.findById(productId).orElseThrow();
+        product.setPrice(new BigDecimal(price));
+        productRepository.save(product);
+    }
+
+    private static Product product(String name, String price, int stock) {
+        Product product = new Product();
+        product.setTenantId(TENANT);
+        product.setSellerId(UUID.randomUUID());
+        product.setName(name);
+        product.setPrice(new BigDecimal(price));
+        product.setStock(stock);
+        return product;
+    }
+}
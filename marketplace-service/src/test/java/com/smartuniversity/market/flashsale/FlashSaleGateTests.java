@@ -0,0 +1,119 @@
+package com.smartuniversity.market.flashsale;
+
+import com.smartuniversity.market.service.StockReleasedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FlashSaleGateTests {
+
+    private static final String TENANT = "engineering";
+
+    private LocalFlashSaleStore store;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        store = new LocalFlashSaleStore();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void instancesSharingCounterNeverAdmitMoreThanStock() throws Exception {
+        UUID product = UUID.randomUUID();
+        FlashSaleGate first = gate();
+        FlashSaleGate second = gate();
+        first.enable(TENANT, product, 50);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger admitted = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < 200; i++) {
+                FlashSaleGate gate = i % 2 == 0 ? first : second;
+                futures.add(executor.submit(() -> {
+                    try {
+                        gate.admit(TENANT, Map.of(product, 1));
+                        admitted.incrementAndGet();
+                    } catch (ResponseStatusException ex) {
+                        assertThat(ex.getStatusCode().value()).isEqualTo(409);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(admitted.get()).isEqualTo(50);
+        assertThat(meterRegistry.get("market.flash-sale.admissions").tag("outcome", "rejected").counter().count())
+                .isEqualTo(150);
+    }
+
+    @Test
+    void rejectedCheckoutHoldsNoUnits() {
+        UUID scarce = UUID.randomUUID();
+        UUID plentiful = UUID.randomUUID();
+        FlashSaleGate gate = gate();
+        gate.enable(TENANT, scarce, 1);
+        gate.enable(TENANT, plentiful, 5);
+
+        gate.admit(TENANT, Map.of(scarce, 1));
+        assertThatThrownBy(() -> gate.admit(TENANT, Map.of(plentiful, 5, scarce, 1)))
+                .isInstanceOf(ResponseStatusException.class);
+
+        // The plentiful units taken before the rejection went back.
+        assertThat(gate.admit(TENANT, Map.of(plentiful, 5))).containsEntry(plentiful, 5);
+    }
+
+    @Test
+    void productsNotOnFlashSaleAreIgnored() {
+        assertThat(gate().admit(TENANT, Map.of(UUID.randomUUID(), 3))).isEmpty();
+    }
+
+    @Test
+    void releasedStockIsReturnedToCounter() {
+        UUID product = UUID.randomUUID();
+        FlashSaleGate gate = gate();
+        gate.enable(TENANT, product, 2);
+        gate.admit(TENANT, Map.of(product, 2));
+
+        gate.onStockReleased(new StockReleasedEvent(TENANT, Map.of(product, 2)));
+
+        assertThat(gate().admit(TENANT, Map.of(product, 2))).containsEntry(product, 2);
+    }
+
+    @Test
+    void disabledFlashSaleFallsBackToRegularCheckout() {
+        UUID product = UUID.randomUUID();
+        FlashSaleGate gate = gate();
+        gate.enable(TENANT, product, 0);
+        assertThatThrownBy(() -> gate.admit(TENANT, Map.of(product, 1)))
+                .isInstanceOf(ResponseStatusException.class);
+
+        gate.disable(TENANT, product);
+
+        assertThat(gate.admit(TENANT, Map.of(product, 1))).isEmpty();
+    }
+
+    private FlashSaleGate gate() {
+        return new FlashSaleGate(store, meterRegistry, 3, Duration.ofMinutes(1));
+    }
+}
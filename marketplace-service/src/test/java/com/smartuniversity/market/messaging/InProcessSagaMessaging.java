@@ -0,0 +1,108 @@
+package com.smartuniversity.market.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartuniversity.common.outbox.OutboxRelay;
+import com.smartuniversity.market.config.MessagingConfig;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Stands in for the broker behind a mocked {@link RabbitTemplate}: outbox messages
+ * are confirmed immediately and, on {@link #deliverAll()}, saga commands are routed
+ * to their handler on the calling thread. Replies go straight to the reply listener.
+ */
+public final class InProcessSagaMessaging {
+
+    private final OutboxRelay outboxRelay;
+    private final PaymentCommandHandler commandHandler;
+    private final ObjectMapper objectMapper;
+    private final Queue<Message> inFlight = new ConcurrentLinkedQueue<>();
+    private final List<Message> published = new ArrayList<>();
+
+    private InProcessSagaMessaging(OutboxRelay outboxRelay, PaymentCommandHandler commandHandler,
+                                   ObjectMapper objectMapper) {
+        this.outboxRelay = outboxRelay;
+        this.commandHandler = commandHandler;
+        this.objectMapper = objectMapper;
+    }
+
+    public static InProcessSagaMessaging install(RabbitTemplate rabbitTemplate,
+                                                 OutboxRelay outboxRelay,
+                                                 PaymentCommandHandler commandHandler,
+                                                 OrderSagaReplyListener replyListener,
+                                                 ObjectMapper objectMapper) {
+        InProcessSagaMessaging messaging = new InProcessSagaMessaging(outboxRelay, commandHandler, objectMapper);
+        doAnswer(invocation -> {
+            Message message = invocation.getArgument(2);
+            message.getMessageProperties().setReceivedRoutingKey(invocation.getArgument(1));
+            messaging.inFlight.add(message);
+            CorrelationData correlation = invocation.getArgument(3);
+            correlation.getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+        doAnswer(invocation -> {
+            replyListener.onReply(invocation.getArgument(2));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(eq(MessagingConfig.EXCHANGE_NAME),
+                eq(MessagingConfig.SAGA_REPLY_ROUTING_KEY), any(Object.class));
+        return messaging;
+    }
+
+    /**
+     * Relays the outbox and handles the resulting commands until nothing is left.
+     */
+    public void deliverAll() {
+        while (outboxRelay.relayPending() > 0 || !inFlight.isEmpty()) {
+            Message message;
+            while ((message = inFlight.poll()) != null) {
+                published.add(message);
+                if (MessagingConfig.SAGA_COMMAND_ROUTING_KEY.equals(routingKey(message))) {
+                    commandHandler.onCommand(read(message, SagaCommand.class));
+                }
+            }
+        }
+    }
+
+    /**
+     * Relays the outbox but loses every message, as a broker failure after the confirm would.
+     */
+    public void dropAll() {
+        outboxRelay.relayPending();
+        inFlight.clear();
+    }
+
+    public <T> List<T> published(String routingKey, Class<T> type) {
+        List<T> payloads = new ArrayList<>();
+        for (Message message : published) {
+            if (routingKey.equals(routingKey(message))) {
+                payloads.add(read(message, type));
+            }
+        }
+        return payloads;
+    }
+
+    private static String routingKey(Message message) {
+        return message.getMessageProperties().getReceivedRoutingKey();
+    }
+
+    private <T> T read(Message message, Class<T> type) {
+        try {
+            return objectMapper.readValue(message.getBody(), type);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.smartuniversity.market.messaging;
+
+import com.smartuniversity.common.events.OrderConfirmedEvent;
+import com.smartuniversity.common.outbox.OutboxEventRepository;
+import com.smartuniversity.common.outbox.OutboxRelay;
+import com.smartuniversity.common.outbox.OutboxService;
+import com.smartuniversity.market.config.MessagingConfig;
+import com.smartuniversity.market.service.PaymentClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OutboxRelayTest {
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @MockBean
+    private PaymentClient paymentClient;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    void committedEventsArePublishedWithConfirmsAndMarkedSent() {
+        confirmWith(true);
+        double publishedBefore = meterRegistry.get("outbox.published").counter().count();
+        UUID orderId = UUID.randomUUID();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < 3; i++) {
+                outboxService.append("market.order.confirmed", new OrderConfirmedEvent(
+                        i == 0 ? orderId : UUID.randomUUID(), UUID.randomUUID(), "engineering",
+                        BigDecimal.TEN, Instant.now()));
+            }
+        });
+
+        assertThat(outboxRelay.relayPending()).isEqualTo(3);
+
+        ArgumentCaptor<Message> messages = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate, times(3)).send(eq(MessagingConfig.EXCHANGE_NAME), eq("market.order.confirmed"),
+                messages.capture(), any(CorrelationData.class));
+        Message first = messages.getAllValues().get(0);
+        assertThat(first.getMessageProperties().getContentType()).isEqualTo(MessageProperties.CONTENT_TYPE_JSON);
+        assertThat(first.getMessageProperties().getMessageId()).isNotBlank();
+        assertThat(new String(first.getBody(), StandardCharsets.UTF_8)).contains(orderId.toString());
+
+        assertThat(outboxEventRepository.countByPublishedAtIsNull()).isZero();
+        assertThat(meterRegistry.get("outbox.published").counter().count() - publishedBefore).isEqualTo(3);
+        assertThat(meterRegistry.get("outbox.pending").gauge().value()).isZero();
+        // Already published events are not sent again.
+        assertThat(outboxRelay.relayPending()).isZero();
+    }
+
+    @Test
+    void nackedEventsStayPendingForTheNextRun() {
+        confirmWith(false);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                outboxService.append("market.order.confirmed", new OrderConfirmedEvent(
+                        UUID.randomUUID(), UUID.randomUUID(), "engineering", BigDecimal.ONE, Instant.now())));
+
+        assertThat(outboxRelay.relayPending()).isZero();
+        assertThat(outboxEventRepository.countByPublishedAtIsNull()).isEqualTo(1);
+        assertThat(meterRegistry.get("outbox.pending").gauge().value()).isEqualTo(1);
+
+        confirmWith(true);
+        assertThat(outboxRelay.relayPending()).isEqualTo(1);
+        assertThat(outboxEventRepository.countByPublishedAtIsNull()).isZero();
+    }
+
+    @Test
+    void appendRequiresSurroundingTransaction() {
+        assertThatThrownBy(() -> outboxService.append("market.order.confirmed", "payload"))
+                .isInstanceOf(IllegalTransactionStateException.class);
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    private void confirmWith(boolean ack) {
+        doAnswer(invocation -> {
+            CorrelationData correlation = invocation.getArgument(3);
+            correlation.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "queue full"));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+}
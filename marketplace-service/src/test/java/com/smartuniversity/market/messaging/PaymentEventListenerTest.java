@@ -0,0 +1,152 @@
+package com.smartuniversity.market.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartuniversity.common.events.PaymentCommand;
+import com.smartuniversity.common.events.PaymentEvent;
+import com.smartuniversity.common.outbox.OutboxEventRepository;
+import com.smartuniversity.common.outbox.OutboxRelay;
+import com.smartuniversity.market.domain.OrderStatus;
+import com.smartuniversity.market.domain.Product;
+import com.smartuniversity.market.repository.OrderRepository;
+import com.smartuniversity.market.repository.OrderSagaRepository;
+import com.smartuniversity.market.repository.OrderSummaryRepository;
+import com.smartuniversity.market.repository.ProductRepository;
+import com.smartuniversity.market.service.OrderSagaService;
+import com.smartuniversity.market.service.PaymentClient;
+import com.smartuniversity.market.web.dto.CheckoutRequest;
+import com.smartuniversity.market.web.dto.OrderItemRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checkout with {@code market.payment.transport=amqp}: payment commands go to the
+ * Payment service through the outbox and its events drive the saga, without HTTP.
+ */
+@SpringBootTest(properties = "market.payment.transport=amqp")
+@ActiveProfiles("test")
+class PaymentEventListenerTest {
+
+    private static final String TENANT = "engineering";
+
+    @Autowired
+    private OrderSagaService orderSagaService;
+
+    @Autowired
+    private PaymentEventListener paymentEventListener;
+
+    @Autowired
+    private PaymentCommandHandler paymentCommandHandler;
+
+    @Autowired
+    private OrderSagaReplyListener orderSagaReplyListener;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OrderSagaRepository sagaRepository;
+
+    @Autowired
+    private OrderSummaryRepository orderSummaryRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @MockBean
+    private PaymentClient paymentClient;
+
+    private InProcessSagaMessaging messaging;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        sagaRepository.deleteAll();
+        orderSummaryRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+
+        product = new Product();
+        product.setTenantId(TENANT);
+        product.setSellerId(UUID.randomUUID());
+        product.setName("Lab coat");
+        product.setPrice(BigDecimal.valueOf(25));
+        product.setStock(5);
+        product = productRepository.save(product);
+
+        messaging = InProcessSagaMessaging.install(rabbitTemplate, outboxRelay, paymentCommandHandler,
+                orderSagaReplyListener, objectMapper);
+    }
+
+    @Test
+    void authorizedEventConfirmsOrderWithoutCallingPaymentOverHttp() {
+        UUID buyerId = UUID.randomUUID();
+        UUID orderId = orderSagaService.checkout(TENANT, buyerId, request(2)).getId();
+        messaging.deliverAll();
+
+        List<PaymentCommand> commands = messaging.published(PaymentCommand.AUTHORIZE_ROUTING_KEY,
+                PaymentCommand.class);
+        assertThat(commands).singleElement().satisfies(command -> {
+            assertThat(command.type()).isEqualTo(PaymentCommand.Type.AUTHORIZE);
+            assertThat(command.orderId()).isEqualTo(orderId);
+            assertThat(command.userId()).isEqualTo(buyerId);
+            assertThat(command.amount()).isEqualByComparingTo("50");
+        });
+
+        paymentEventListener.onEvent(new PaymentEvent(PaymentEvent.Type.AUTHORIZED, orderId, TENANT,
+                UUID.randomUUID(), null, Instant.now()));
+        messaging.deliverAll();
+
+        assertThat(orderRepository.findById(orderId).orElseThrow().getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(3);
+        Mockito.verifyNoInteractions(paymentClient);
+    }
+
+    @Test
+    void declinedEventCancelsOrderAndReleasesStock() {
+        UUID orderId = orderSagaService.checkout(TENANT, UUID.randomUUID(), request(1)).getId();
+        messaging.deliverAll();
+
+        paymentEventListener.onEvent(new PaymentEvent(PaymentEvent.Type.DECLINED, orderId, TENANT, null,
+                "Payment not authorized", Instant.now()));
+        messaging.deliverAll();
+
+        assertThat(orderRepository.findById(orderId).orElseThrow().getStatus()).isEqualTo(OrderStatus.CANCELED);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getReservedStock()).isZero();
+        Mockito.verifyNoInteractions(paymentClient);
+    }
+
+    private CheckoutRequest request(int quantity) {
+        OrderItemRequest item = new OrderItemRequest();
+        item.setProductId(product.getId());
+        item.setQuantity(quantity);
+        CheckoutRequest request = new CheckoutRequest();
+        request.setItems(List.of(item));
+        return request;
+    }
+}
@@ -0,0 +1,177 @@
+package com.smartuniversity.market.search;
+
+import com.smartuniversity.market.domain.Product;
+import com.smartuniversity.market.web.dto.ProductDto;
+import com.smartuniversity.market.web.dto.ProductSearchPage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductSearchIndexTests {
+
+    private static final String TENANT = "engineering";
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(new SimpleMeterRegistry());
+    }
+
+    @Test
+    void textQueryMatchesWordPrefixesInNameAndDescription() {
+        index.upsertAll(List.of(
+                product("Algorithms Textbook", "Core data structures", "50.00", 3),
+                product("Campus Notebook", "A5 ruled, university logo", "5.00", 100),
+                product("Lab coat", "Cotton, size M", "25.00", 0)));
+
+        assertThat(names(index.search(TENANT, query("algo struct")))).containsExactly("Algorithms Textbook");
+        assertThat(names(index.search(TENANT, query("UNIVERSITY")))).containsExactly("Campus Notebook");
+        assertThat(names(index.search(TENANT, query("notebook coat")))).isEmpty();
+        assertThat(index.search("medicine", query("notebook")).getItems()).isEmpty();
+    }
+
+    @Test
+    void accentsAreIgnored() {
+        index.upsertAll(List.of(product("Cuaderno de \u00C1lgebra", "Matem\u00E1ticas", "8.00", 5)));
+
+        assertThat(names(index.search(TENANT, query("algebra matematicas")))).containsExactly("Cuaderno de \u00C1lgebra");
+    }
+
+    @Test
+    void priceAndStockFiltersApply() {
+        index.upsertAll(List.of(
+                product("Pen", null, "1.20", 10),
+                product("Pencil", null, "0.80", 0),
+                product("Marker", null, "3.50", 4)));
+
+        ProductSearchQuery query = query(null);
+        query.setMinPrice(new BigDecimal("1.00"));
+        query.setMaxPrice(new BigDecimal("3.50"));
+        assertThat(names(index.search(TENANT, query))).containsExactly("Marker", "Pen");
+
+        query = query(null);
+        query.setInStock(true);
+        query.setSort(ProductSort.PRICE_DESC);
+        assertThat(names(index.search(TENANT, query))).containsExactly("Marker", "Pen");
+    }
+
+    @Test
+    void keysetPagesCoverAllMatchesOnce() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            // Equal prices force the id tie-breaker to be used across page boundaries.
+            products.add(product("Item " + i, null, i % 2 == 0 ? "2.00" : "3.00", 1));
+        }
+        index.upsertAll(products);
+
+        ProductSearchQuery query = query(null);
+        query.setSort(ProductSort.PRICE_ASC);
+        query.setLimit(10);
+        List<UUID> seen = new ArrayList<>();
+        int pages = 0;
+        do {
+            ProductSearchPage page = index.search(TENANT, query);
+            page.getItems().forEach(item -> seen.add(item.getId()));
+            query.setCursor(page.getNextCursor());
+            pages++;
+        } while (query.getCursor() != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).doesNotHaveDuplicates().hasSize(25);
+    }
+
+    @Test
+    void updatesReplaceIndexedWordsAndStock() {
+        Product product = product("Old name", null, "4.00", 0);
+        index.upsertAll(List.of(product));
+
+        product.setName("Renamed hoodie");
+        product.setStock(7);
+        index.upsertAll(List.of(product));
+
+        ProductSearchQuery inStock = query("hoodie");
+        inStock.setInStock(true);
+        assertThat(names(index.search(TENANT, inStock))).containsExactly("Renamed hoodie");
+        assertThat(index.search(TENANT, query("old")).getItems()).isEmpty();
+        assertThat(index.size(TENANT)).isEqualTo(1);
+
+        index.remove(TENANT, product.getId());
+        assertThat(index.search(TENANT, query("hoodie")).getItems()).isEmpty();
+    }
+
+    @Test
+    void cursorFromAnotherSortIsRejected() {
+        for (int i = 0; i < 3; i++) {
+            index.upsertAll(List.of(product("Item " + i, null, "1.00", 1)));
+        }
+        ProductSearchQuery query = query(null);
+        query.setLimit(1);
+        String cursor = index.search(TENANT, query).getNextCursor();
+
+        query.setSort(ProductSort.NEWEST);
+        query.setCursor(cursor);
+        assertThatThrownBy(() -> index.search(TENANT, query))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void searchesLargeCatalog() {
+        String[] words = {"notebook", "pen", "hoodie", "textbook", "calculator", "lab", "coat", "mug", "poster", "cable"};
+        ProductSearchIndex.Rebuild rebuild = index.beginRebuild();
+        List<Product> batch = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            batch.add(product(words[i % words.length] + " model " + i, "Campus edition " + words[(i / 10) % words.length],
+                    BigDecimal.valueOf(i % 500, 1).toPlainString(), i % 7));
+            if (batch.size() == 1_000) {
+                rebuild.addAll(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        rebuild.publish();
+
+        ProductSearchQuery query = query("hoodie cable");
+        query.setInStock(true);
+        query.setMaxPrice(new BigDecimal("25.00"));
+        query.setSort(ProductSort.PRICE_ASC);
+        ProductSearchPage page = index.search(TENANT, query);
+
+        assertThat(page.getItems()).hasSize(20);
+        assertThat(page.getItems()).allMatch(item -> (item.getName() + " " + item.getDescription()).contains("hoodie")
+                && (item.getName() + " " + item.getDescription()).contains("cable")
+                && item.getStock() > 0);
+    }
+
+    private static ProductSearchQuery query(String text) {
+        ProductSearchQuery query = new ProductSearchQuery();
+        query.setText(text);
+        return query;
+    }
+
+    private static List<String> names(ProductSearchPage page) {
+        return page.getItems().stream().map(ProductDto::getName).toList();
+    }
+
+    private static Product product(String name, String description, String price, int stock) {
+        Product product = new Product();
+        product.setId(UUID.randomUUID());
+        product.setTenantId(TENANT);
+        product.setSellerId(UUID.randomUUID());
+        product.setName(name);
+        product.setDescription(description);
+        product.setPrice(new BigDecimal(price));
+        product.setStock(stock);
+        product.setCreatedAt(Instant.now());
+        return product;
+    }
+}
@@ -0,0 +1,239 @@
+package com.smartuniversity.market.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartuniversity.common.outbox.OutboxEventRepository;
+import com.smartuniversity.common.outbox.OutboxRelay;
+import com.smartuniversity.market.domain.Order;
+import com.smartuniversity.market.domain.OrderStatus;
+import com.smartuniversity.market.domain.Product;
+import com.smartuniversity.market.flashsale.FlashSaleGate;
+import com.smartuniversity.market.messaging.InProcessSagaMessaging;
+import com.smartuniversity.market.messaging.OrderSagaReplyListener;
+import com.smartuniversity.market.messaging.PaymentCommandHandler;
+import com.smartuniversity.market.repository.OrderRepository;
+import com.smartuniversity.market.repository.ProductRepository;
+import com.smartuniversity.market.web.dto.CheckoutRequest;
+import com.smartuniversity.market.web.dto.OrderItemRequest;
+import com.smartuniversity.market.web.dto.PaymentResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+/**
+ * Runs many concurrent checkouts against a scarce product and verifies that stock
+ * never goes negative and multi-item orders are decremented all-or-nothing.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderSagaContentionTest {
+
+    private static final String TENANT = "engineering";
+    private static final int SCARCE_STOCK = 25;
+    private static final int PLENTIFUL_STOCK = 1_000;
+    private static final int BUYERS = 120;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private OrderSagaService orderSagaService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentCommandHandler paymentCommandHandler;
+
+    @Autowired
+    private OrderSagaReplyListener orderSagaReplyListener;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private FlashSaleGate flashSaleGate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private InProcessSagaMessaging messaging;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @MockBean
+    private PaymentClient paymentClient;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        messaging = InProcessSagaMessaging.install(rabbitTemplate, outboxRelay, paymentCommandHandler,
+                orderSagaReplyListener, objectMapper);
+
+        PaymentResponse authorized = new PaymentResponse();
+        authorized.setPaymentId(UUID.randomUUID());
+        authorized.setStatus("AUTHORIZED");
+        Mockito.when(paymentClient.authorize(eq(TENANT), any())).thenReturn(authorized);
+    }
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        Product scarce = productRepository.save(product("Limited hoodie", SCARCE_STOCK));
+        Product plentiful = productRepository.save(product("Sticker", PLENTIFUL_STOCK));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger confirmed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < BUYERS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        orderSagaService.checkout(TENANT, UUID.randomUUID(), request(scarce, plentiful));
+                        confirmed.incrementAndGet();
+                    } catch (ResponseStatusException ex) {
+                        assertThat(ex.getStatusCode().value()).isEqualTo(409);
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        messaging.deliverAll();
+
+        assertThat(confirmed.get()).isEqualTo(SCARCE_STOCK);
+        assertThat(rejected.get()).isEqualTo(BUYERS - SCARCE_STOCK);
+        assertThat(productRepository.findById(scarce.getId()).orElseThrow().getStock()).isZero();
+        // The plentiful item must only be decremented for orders that also got the scarce one.
+        assertThat(productRepository.findById(plentiful.getId()).orElseThrow().getStock())
+                .isEqualTo(PLENTIFUL_STOCK - SCARCE_STOCK);
+
+        assertThat(productRepository.findById(scarce.getId()).orElseThrow().getReservedStock()).isZero();
+
+        // Losers are turned away at reservation time, before an order or payment exists.
+        List<Order> orders = orderRepository.findAll();
+        assertThat(orders).hasSize(SCARCE_STOCK);
+        assertThat(orders).allMatch(o -> o.getStatus() == OrderStatus.CONFIRMED);
+        Mockito.verify(paymentClient, Mockito.times(SCARCE_STOCK)).authorize(eq(TENANT), any());
+        Mockito.verify(paymentClient, Mockito.never()).cancel(eq(TENANT), any());
+    }
+
+    @Test
+    void flashSaleRejectsLosersAtCounterWithoutDatabaseOrPayment() throws Exception {
+        Product scarce = productRepository.save(product("Signed textbook", SCARCE_STOCK));
+        flashSaleGate.enable(TENANT, scarce.getId(), SCARCE_STOCK);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger confirmed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < BUYERS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        orderSagaService.checkout(TENANT, UUID.randomUUID(), request(scarce));
+                        confirmed.incrementAndGet();
+                    } catch (ResponseStatusException ex) {
+                        assertThat(ex.getStatusCode().value()).isEqualTo(409);
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+            flashSaleGate.disable(TENANT, scarce.getId());
+        }
+        messaging.deliverAll();
+
+        assertThat(confirmed.get()).isEqualTo(SCARCE_STOCK);
+        assertThat(rejected.get()).isEqualTo(BUYERS - SCARCE_STOCK);
+        assertThat(orderRepository.findAll()).hasSize(SCARCE_STOCK);
+        assertThat(productRepository.findById(scarce.getId()).orElseThrow().getStock()).isZero();
+        Mockito.verify(paymentClient, Mockito.times(SCARCE_STOCK)).authorize(eq(TENANT), any());
+
+        // A loser never reaches the database.
+        flashSaleGate.enable(TENANT, scarce.getId(), 0);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        try {
+            orderSagaService.checkout(TENANT, UUID.randomUUID(), request(scarce));
+        } catch (ResponseStatusException ex) {
+            assertThat(ex.getStatusCode().value()).isEqualTo(409);
+        } finally {
+            flashSaleGate.disable(TENANT, scarce.getId());
+        }
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getTransactionCount()).isZero();
+    }
+
+    private static Product product(String name, int stock) {
+        Product product = new Product();
+        product.setTenantId(TENANT);
+        product.setSellerId(UUID.randomUUID());
+        product.setName(name);
+        product.setPrice(BigDecimal.valueOf(10));
+        product.setStock(stock);
+        return product;
+    }
+
+    private static CheckoutRequest request(Product... products) {
+        List<OrderItemRequest> items = new ArrayList<>();
+        for (Product product : products) {
+            OrderItemRequest item = new OrderItemRequest();
+            item.setProductId(product.getId());
+            item.setQuantity(1);
+            items.add(item);
+        }
+        CheckoutRequest request = new CheckoutRequest();
+        request.setItems(items);
+        return request;
+    }
+}
@@ -0,0 +1,161 @@
+package com.smartuniversity.market.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartuniversity.common.outbox.OutboxEventRepository;
+import com.smartuniversity.common.outbox.OutboxRelay;
+import com.smartuniversity.market.domain.OrderStatus;
+import com.smartuniversity.market.domain.Product;
+import com.smartuniversity.market.messaging.InProcessSagaMessaging;
+import com.smartuniversity.market.messaging.OrderSagaReplyListener;
+import com.smartuniversity.market.messaging.PaymentCommandHandler;
+import com.smartuniversity.market.repository.OrderRepository;
+import com.smartuniversity.market.repository.OrderSummaryRepository;
+import com.smartuniversity.market.repository.ProductRepository;
+import com.smartuniversity.market.web.dto.CheckoutRequest;
+import com.smartuniversity.market.web.dto.OrderDto;
+import com.smartuniversity.market.web.dto.OrderItemRequest;
+import com.smartuniversity.market.web.dto.PaymentResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+/**
+ * Guards the number of statements Hibernate issues per checkout. The budgets do not
+ * depend on the number of items in the cart; lazy loading of items or products
+ * shows up as entity or collection fetches and fails the test.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderSagaQueryCountTest {
+
+    private static final String TENANT = "engineering";
+    private static final int CART_SIZE = 20;
+
+    // Order, items, reservations, saga, outbox and summary, plus the product lookup.
+    private static final long CHECKOUT_STATEMENT_BUDGET = 8;
+    // Saga transitions, the order fetch-join, status updates, outbox writes and the relay.
+    private static final long COMPLETION_STATEMENT_BUDGET = 20;
+
+    @Autowired
+    private OrderSagaService orderSagaService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderSummaryRepository orderSummaryRepository;
+
+    @Autowired
+    private PaymentCommandHandler paymentCommandHandler;
+
+    @Autowired
+    private OrderSagaReplyListener orderSagaReplyListener;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @MockBean
+    private PaymentClient paymentClient;
+
+    private InProcessSagaMessaging messaging;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        orderSummaryRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        messaging = InProcessSagaMessaging.install(rabbitTemplate, outboxRelay, paymentCommandHandler,
+                orderSagaReplyListener, objectMapper);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        PaymentResponse authorized = new PaymentResponse();
+        authorized.setPaymentId(UUID.randomUUID());
+        authorized.setStatus("AUTHORIZED");
+        Mockito.when(paymentClient.authorize(eq(TENANT), any())).thenReturn(authorized);
+    }
+
+    @Test
+    void checkoutStatementCountDoesNotGrowWithCartSize() {
+        List<OrderItemRequest> items = new ArrayList<>();
+        for (int i = 0; i < CART_SIZE; i++) {
+            Product product = productRepository.save(product("Item " + i));
+            OrderItemRequest item = new OrderItemRequest();
+            item.setProductId(product.getId());
+            item.setQuantity(1);
+            items.add(item);
+        }
+        CheckoutRequest request = new CheckoutRequest();
+        request.setItems(items);
+        UUID buyerId = UUID.randomUUID();
+
+        statistics.clear();
+        OrderDto order = orderSagaService.checkout(TENANT, buyerId, request);
+        long checkoutStatements = statistics.getPrepareStatementCount();
+        assertNoLazyLoading();
+
+        statistics.clear();
+        messaging.deliverAll();
+        long completionStatements = statistics.getPrepareStatementCount();
+        assertNoLazyLoading();
+
+        statistics.clear();
+        OrderDto confirmed = orderSagaService.getOrder(TENANT, buyerId, order.getId());
+        long readStatements = statistics.getPrepareStatementCount();
+        assertNoLazyLoading();
+
+        assertThat(confirmed.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        assertThat(confirmed.getItems()).hasSize(CART_SIZE);
+        assertThat(checkoutStatements).isLessThanOrEqualTo(CHECKOUT_STATEMENT_BUDGET);
+        assertThat(completionStatements).isLessThanOrEqualTo(COMPLETION_STATEMENT_BUDGET);
+        assertThat(readStatements).isEqualTo(1);
+    }
+
+    private void assertNoLazyLoading() {
+        assertThat(statistics.getEntityFetchCount()).as("lazy entity fetches").isZero();
+        assertThat(statistics.getCollectionFetchCount()).as("lazy collection fetches").isZero();
+    }
+
+    private static Product product(String name) {
+        Product product = new Product();
+        product.setTenantId(TENANT);
+        product.setSellerId(UUID.randomUUID());
+        product.setName(name);
+        product.setPrice(BigDecimal.valueOf(3));
+        product.setStock(10);
+        return product;
+    }
+}
@@ -0,0 +1,271 @@
+package com.smartuniversity.market.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartuniversity.common.events.OrderConfirmedEvent;
+import com.smartuniversity.common.outbox.OutboxEventRepository;
+import com.smartuniversity.common.outbox.OutboxRelay;
+import com.smartuniversity.market.config.MessagingConfig;
+import com.smartuniversity.market.domain.OrderSaga;
+import com.smartuniversity.market.domain.OrderStatus;
+import com.smartuniversity.market.domain.Product;
+import com.smartuniversity.market.domain.SagaState;
+import com.smartuniversity.market.messaging.InProcessSagaMessaging;
+import com.smartuniversity.market.messaging.OrderSagaReplyListener;
+import com.smartuniversity.market.messaging.PaymentCommandHandler;
+import com.smartuniversity.market.messaging.SagaCommand;
+import com.smartuniversity.market.messaging.SagaReply;
+import com.smartuniversity.market.repository.OrderRepository;
+import com.smartuniversity.market.repository.OrderSagaRepository;
+import com.smartuniversity.market.repository.ProductRepository;
+import com.smartuniversity.market.web.dto.CheckoutRequest;
+import com.smartuniversity.market.web.dto.OrderItemRequest;
+import com.smartuniversity.market.web.dto.PaymentResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+@SpringBootTest(properties = "market.saga.max-attempts=2")
+@ActiveProfiles("test")
+class OrderSagaRecoveryWorkerTest {
+
+    private static final String TENANT = "engineering";
+
+    @Autowired
+    private OrderSagaService orderSagaService;
+
+    @SpyBean
+    private OrderSagaSteps steps;
+
+    @Autowired
+    private OrderSagaRecoveryWorker recoveryWorker;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PaymentCommandHandler paymentCommandHandler;
+
+    @Autowired
+    private OrderSagaReplyListener orderSagaReplyListener;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderSagaRepository sagaRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @MockBean
+    private PaymentClient paymentClient;
+
+    private Product product;
+
+    private InProcessSagaMessaging messaging;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        sagaRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+
+        product = new Product();
+        product.setTenantId(TENANT);
+        product.setSellerId(UUID.randomUUID());
+        product.setName("Calculator");
+        product.setPrice(BigDecimal.valueOf(30));
+        product.setStock(10);
+        product = productRepository.save(product);
+
+        PaymentResponse authorized = new PaymentResponse();
+        authorized.setPaymentId(UUID.randomUUID());
+        authorized.setStatus("AUTHORIZED");
+        Mockito.when(paymentClient.authorize(eq(TENANT), any())).thenReturn(authorized);
+        Mockito.when(paymentClient.cancel(eq(TENANT), any())).thenReturn(new PaymentResponse());
+
+        messaging = InProcessSagaMessaging.install(rabbitTemplate, outboxRelay, paymentCommandHandler,
+                orderSagaReplyListener, objectMapper);
+    }
+
+    @Test
+    void lostAuthorizeCommandIsResentAndSagaCompletes() {
+        // The broker loses the first command after confirming it.
+        UUID orderId = orderSagaService.checkout(TENANT, UUID.randomUUID(), request()).getId();
+        messaging.dropAll();
+        Mockito.verifyNoInteractions(paymentClient);
+        assertThat(saga(orderId).getState()).isEqualTo(SagaState.PAYMENT_PENDING);
+
+        makeIdle(orderId);
+        recoveryWorker.resumeStalledSagas();
+        messaging.deliverAll();
+
+        assertThat(saga(orderId).getState()).isEqualTo(SagaState.COMPLETED);
+        assertThat(orderRepository.findById(orderId).orElseThrow().getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(9);
+    }
+
+    @Test
+    void authorizedSagaIsCompletedAfterRestart() {
+        UUID orderId = orderSagaService.checkout(TENANT, UUID.randomUUID(), request()).getId();
+        messaging.dropAll();
+        // Reply recorded, then the node went down before confirming the order.
+        steps.recordPaymentAuthorized(orderId, UUID.randomUUID());
+        makeIdle(orderId);
+
+        recoveryWorker.resumeStalledSagas();
+        messaging.deliverAll();
+
+        assertThat(saga(orderId).getState()).isEqualTo(SagaState.COMPLETED);
+        assertThat(orderRepository.findById(orderId).orElseThrow().getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        assertThat(messaging.published("market.order.confirmed", OrderConfirmedEvent.class))
+                .extracting(OrderConfirmedEvent::orderId)
+                .containsExactly(orderId);
+    }
+
+    @Test
+    void authorizationStillInProgressIsRetriedInsteadOfDeclined() {
+        PaymentResponse authorized = new PaymentResponse();
+        authorized.setPaymentId(UUID.randomUUID());
+        authorized.setStatus("AUTHORIZED");
+        // A resend reaches payment-service while the first authorization is still running.
+        Mockito.when(paymentClient.authorize(eq(TENANT), any()))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.CONFLICT, "Conflict", null, null, null))
+                .thenReturn(authorized);
+        UUID orderId = orderSagaService.checkout(TENANT, UUID.randomUUID(), request()).getId();
+
+        messaging.deliverAll();
+        assertThat(saga(orderId).getState()).isEqualTo(SagaState.PAYMENT_PENDING);
+
+        makeIdle(orderId);
+        recoveryWorker.resumeStalledSagas();
+        messaging.deliverAll();
+
+        assertThat(saga(orderId).getState()).isEqualTo(SagaState.COMPLETED);
+        Mockito.verify(paymentClient, Mockito.never()).cancel(any(), any());
+    }
+
+    @Test
+    void unansweredAuthorizationIsCompensatedAfterMaxAttempts() {
+        Mockito.when(paymentClient.authorize(eq(TENANT), any())).thenThrow(new IllegalStateException("timeout"));
+        UUID orderId = orderSagaService.checkout(TENANT, UUID.randomUUID(), request()).getId();
+        messaging.deliverAll();
+
+        makeIdle(orderId);
+        recoveryWorker.resumeStalledSagas();
+        messaging.deliverAll();
+        makeIdle(orderId);
+        recoveryWorker.resumeStalledSagas();
+        messaging.deliverAll();
+
+        assertThat(saga(orderId).getState()).isEqualTo(SagaState.FAILED);
+        assertThat(orderRepository.findById(orderId).orElseThrow().getStatus()).isEqualTo(OrderStatus.CANCELED);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getReservedStock()).isZero();
+        Mockito.verify(paymentClient).cancel(eq(TENANT), eq(orderId.toString()));
+    }
+
+    @Test
+    void failureWhileConfirmingOrderCompensatesPayment() {
+        Mockito.doThrow(new DataIntegrityViolationException("constraint violated"))
+                .when(steps).completeSaga(eq(TENANT), any());
+        UUID orderId = orderSagaService.checkout(TENANT, UUID.randomUUID(), request()).getId();
+
+        messaging.deliverAll();
+
+        assertThat(saga(orderId).getState()).isEqualTo(SagaState.FAILED);
+        assertThat(orderRepository.findById(orderId).orElseThrow().getStatus()).isEqualTo(OrderStatus.CANCELED);
+        Mockito.verify(paymentClient).cancel(eq(TENANT), eq(orderId.toString()));
+    }
+
+    @Test
+    void transientFailureWhileConfirmingOrderIsRetried() {
+        Mockito.doThrow(new QueryTimeoutException("statement timed out"))
+                .doCallRealMethod()
+                .when(steps).completeSaga(eq(TENANT), any());
+        UUID orderId = orderSagaService.checkout(TENANT, UUID.randomUUID(), request()).getId();
+
+        messaging.deliverAll();
+        assertThat(saga(orderId).getState()).isEqualTo(SagaState.PAYMENT_AUTHORIZED);
+
+        makeIdle(orderId);
+        recoveryWorker.resumeStalledSagas();
+        messaging.deliverAll();
+
+        assertThat(saga(orderId).getState()).isEqualTo(SagaState.COMPLETED);
+        Mockito.verify(paymentClient, Mockito.never()).cancel(any(), any());
+    }
+
+    @Test
+    void lateAuthorizationAfterFailureIsCanceled() {
+        UUID orderId = orderSagaService.checkout(TENANT, UUID.randomUUID(), request()).getId();
+        messaging.dropAll();
+        orderSagaService.onReply(new SagaReply(SagaReply.Type.PAYMENT_DECLINED, orderId, TENANT, null, "declined"));
+        assertThat(saga(orderId).getState()).isEqualTo(SagaState.FAILED);
+
+        orderSagaService.onReply(new SagaReply(SagaReply.Type.PAYMENT_AUTHORIZED, orderId, TENANT,
+                UUID.randomUUID(), null));
+
+        messaging.deliverAll();
+
+        assertThat(messaging.published(MessagingConfig.SAGA_COMMAND_ROUTING_KEY, SagaCommand.class))
+                .singleElement()
+                .satisfies(command -> {
+                    assertThat(command.type()).isEqualTo(SagaCommand.Type.CANCEL_PAYMENT);
+                    assertThat(command.orderId()).isEqualTo(orderId);
+                });
+        Mockito.verify(paymentClient).cancel(eq(TENANT), eq(orderId.toString()));
+        assertThat(orderRepository.findById(orderId).orElseThrow().getStatus()).isEqualTo(OrderStatus.CANCELED);
+    }
+
+    private OrderSaga saga(UUID orderId) {
+        return sagaRepository.findByOrderId(orderId).orElseThrow();
+    }
+
+    private void makeIdle(UUID orderId) {
+        jdbcTemplate.update("UPDATE order_sagas SET updated_at = ? WHERE order_id = ?",
+                Timestamp.from(Instant.now().minusSeconds(600)), orderId);
+    }
+
+    private CheckoutRequest request() {
+        OrderItemRequest item = new OrderItemRequest();
+        item.setProductId(product.getId());
+        item.setQuantity(1);
+        CheckoutRequest request = new CheckoutRequest();
+        request.setItems(List.of(item));
+        return request;
+    }
+}
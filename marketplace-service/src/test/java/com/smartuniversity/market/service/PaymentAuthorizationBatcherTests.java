@@ -0,0 +1,157 @@
+package com.smartuniversity.market.service;
+
+import com.smartuniversity.market.web.dto.PaymentAuthorizationRequest;
+import com.smartuniversity.market.web.dto.PaymentBatchItemResult;
+import com.smartuniversity.market.web.dto.PaymentResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+class PaymentAuthorizationBatcherTests {
+
+    private final PaymentClient paymentClient = Mockito.mock(PaymentClient.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PaymentAuthorizationBatcher batcher;
+
+    @AfterEach
+    void tearDown() {
+        batcher.shutdown();
+    }
+
+    @Test
+    void authorizationsWithinWindowShareOneCall() throws Exception {
+        batcher = batcher(Duration.ofMillis(200), 50);
+        Mockito.when(paymentClient.authorizeBatch(anyString(), anyList())).thenAnswer(inv -> echo(inv.getArgument(1)));
+
+        List<PaymentAuthorizationRequest> requests = new ArrayList<>();
+        List<CompletableFuture<PaymentResponse>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            requests.add(request());
+            results.add(batcher.submit("engineering", requests.get(i)));
+        }
+
+        for (int i = 0; i < 5; i++) {
+            PaymentResponse response = results.get(i).get(5, TimeUnit.SECONDS);
+            assertThat(response.getOrderId()).isEqualTo(requests.get(i).getOrderId());
+            assertThat(response.getStatus()).isEqualTo("AUTHORIZED");
+        }
+        Mockito.verify(paymentClient, Mockito.times(1)).authorizeBatch(eq("engineering"), anyList());
+        assertThat(meterRegistry.get("market.payment.batch.size").summary().max()).isEqualTo(5);
+    }
+
+    @Test
+    void fullBatchIsSentWithoutWaitingForWindow() throws Exception {
+        batcher = batcher(Duration.ofMinutes(1), 2);
+        Mockito.when(paymentClient.authorizeBatch(anyString(), anyList())).thenAnswer(inv -> echo(inv.getArgument(1)));
+
+        CompletableFuture<PaymentResponse> first = batcher.submit("engineering", request());
+        CompletableFuture<PaymentResponse> second = batcher.submit("engineering", request());
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo("AUTHORIZED");
+        assertThat(second.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo("AUTHORIZED");
+    }
+
+    @Test
+    void tenantsAreBatchedSeparately() throws Exception {
+        batcher = batcher(Duration.ofMillis(50), 50);
+        Mockito.when(paymentClient.authorizeBatch(anyString(), anyList())).thenAnswer(inv -> echo(inv.getArgument(1)));
+
+        CompletableFuture<PaymentResponse> engineering = batcher.submit("engineering", request());
+        CompletableFuture<PaymentResponse> medicine = batcher.submit("medicine", request());
+
+        engineering.get(5, TimeUnit.SECONDS);
+        medicine.get(5, TimeUnit.SECONDS);
+        Mockito.verify(paymentClient).authorizeBatch(eq("engineering"), anyList());
+        Mockito.verify(paymentClient).authorizeBatch(eq("medicine"), anyList());
+    }
+
+    @Test
+    void failedBatchCallFailsEveryItemWithOriginalException() {
+        batcher = batcher(Duration.ofMillis(20), 50);
+        Mockito.when(paymentClient.authorizeBatch(anyString(), anyList()))
+                .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+        CompletableFuture<PaymentResponse> other = batcher.submit("engineering", request());
+
+        assertThatThrownBy(() -> batcher.authorize("engineering", request()))
+                .isInstanceOf(HttpServerErrorException.class);
+        assertThat(other).isCompletedExceptionally();
+    }
+
+    @Test
+    void rejectedItemHasNoStatus() throws Exception {
+        batcher = batcher(Duration.ofMillis(20), 50);
+        Mockito.when(paymentClient.authorizeBatch(anyString(), anyList())).thenAnswer(inv -> {
+            PaymentBatchItemResult rejected = new PaymentBatchItemResult();
+            rejected.setError("amount must not be null");
+            return List.of(rejected);
+        });
+
+        assertThat(batcher.authorize("engineering", request()).getStatus()).isNull();
+    }
+
+    @Test
+    void retryableItemFailsLikeAnUnavailableService() throws Exception {
+        batcher = batcher(Duration.ofMillis(20), 50);
+        Mockito.when(paymentClient.authorizeBatch(anyString(), anyList())).thenAnswer(inv -> {
+            List<PaymentBatchItemResult> results = echo(inv.getArgument(1));
+            PaymentBatchItemResult unavailable = new PaymentBatchItemResult();
+            unavailable.setOrderId(results.get(0).getOrderId());
+            unavailable.setError("Payment provider MOCK unavailable: timeout");
+            unavailable.setRetryable(true);
+            results.set(0, unavailable);
+            return results;
+        });
+
+        CompletableFuture<PaymentResponse> first = batcher.submit("engineering", request());
+        CompletableFuture<PaymentResponse> second = batcher.submit("engineering", request());
+
+        assertThatThrownBy(first::join)
+                .hasCauseInstanceOf(HttpServerErrorException.class)
+                .cause()
+                .satisfies(ex -> assertThat(((HttpServerErrorException) ex).getStatusCode())
+                        .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(second.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo("AUTHORIZED");
+    }
+
+    private PaymentAuthorizationBatcher batcher(Duration window, int maxSize) {
+        return new PaymentAuthorizationBatcher(paymentClient, meterRegistry, window, maxSize, 2);
+    }
+
+    private static PaymentAuthorizationRequest request() {
+        PaymentAuthorizationRequest request = new PaymentAuthorizationRequest();
+        request.setOrderId(UUID.randomUUID());
+        request.setUserId(UUID.randomUUID());
+        request.setAmount(BigDecimal.TEN);
+        return request;
+    }
+
+    private static List<PaymentBatchItemResult> echo(List<PaymentAuthorizationRequest> requests) {
+        List<PaymentBatchItemResult> results = new ArrayList<>();
+        for (PaymentAuthorizationRequest request : requests) {
+            PaymentBatchItemResult result = new PaymentBatchItemResult();
+            result.setOrderId(request.getOrderId());
+            result.setPaymentId(UUID.randomUUID());
+            result.setStatus("AUTHORIZED");
+            results.add(result);
+        }
+        return results;
+    }
+}
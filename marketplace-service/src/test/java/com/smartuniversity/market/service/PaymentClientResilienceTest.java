@@ -0,0 +1,123 @@
+package com.smartuniversity.market.service;
+
+import com.smartuniversity.market.web.dto.PaymentAuthorizationRequest;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+@SpringBootTest(properties = {
+        "resilience4j.circuitbreaker.instances.paymentCb.slidingWindowSize=4",
+        "resilience4j.circuitbreaker.instances.paymentCb.minimumNumberOfCalls=4",
+        "resilience4j.circuitbreaker.instances.paymentCb.waitDurationInOpenState=1m"
+})
+@ActiveProfiles("test")
+class PaymentClientResilienceTest {
+
+    private static final String AUTHORIZE_URL = "http://localhost:8084/payment/payments/authorize";
+
+    @Autowired
+    private PaymentClient paymentClient;
+
+    @Autowired
+    private RestTemplate paymentRestTemplate;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    private MockRestServiceServer server;
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        server = MockRestServiceServer.bindTo(paymentRestTemplate).build();
+        circuitBreaker = circuitBreakerRegistry.circuitBreaker("paymentCb");
+        circuitBreaker.reset();
+    }
+
+    @Test
+    void authorizeSendsIdempotencyKeyAndRecordsLatency() {
+        PaymentAuthorizationRequest request = request();
+        server.expect(requestTo(AUTHORIZE_URL))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(header("Idempotency-Key", "authorize-" + request.getOrderId()))
+                .andRespond(withSuccess("{\"paymentId\":\"" + UUID.randomUUID() + "\",\"status\":\"AUTHORIZED\"}",
+                        MediaType.APPLICATION_JSON));
+
+        assertThat(paymentClient.authorize("engineering", request).getStatus()).isEqualTo("AUTHORIZED");
+
+        server.verify();
+        assertThat(meterRegistry.get("http.client.requests").tag("outcome", "SUCCESS").timer().count())
+                .isPositive();
+    }
+
+    @Test
+    void serverErrorsOpenCircuitAndLaterCallsFailFast() {
+        server.expect(ExpectedCount.times(4), requestTo(AUTHORIZE_URL)).andRespond(withServerError());
+
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> paymentClient.authorize("engineering", request()))
+                    .isInstanceOf(HttpServerErrorException.class);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> paymentClient.authorize("engineering", request()))
+                .isInstanceOf(CallNotPermittedException.class);
+        server.verify();
+    }
+
+    @Test
+    void declinedPaymentsDoNotOpenCircuit() {
+        server.expect(ExpectedCount.times(6), requestTo(AUTHORIZE_URL))
+                .andRespond(withStatus(HttpStatus.PAYMENT_REQUIRED));
+
+        for (int i = 0; i < 6; i++) {
+            assertThatThrownBy(() -> paymentClient.authorize("engineering", request()))
+                    .isInstanceOf(HttpClientErrorException.class);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        server.verify();
+    }
+
+    private static PaymentAuthorizationRequest request() {
+        PaymentAuthorizationRequest request = new PaymentAuthorizationRequest();
+        request.setOrderId(UUID.randomUUID());
+        request.setUserId(UUID.randomUUID());
+        request.setAmount(BigDecimal.TEN);
+        return request;
+    }
+}
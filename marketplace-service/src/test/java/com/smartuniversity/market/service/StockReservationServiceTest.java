@@ -0,0 +1,157 @@
+package com.smartuniversity.market.service;
+
+import com.smartuniversity.market.domain.Order;
+import com.smartuniversity.market.domain.OrderStatus;
+import com.smartuniversity.market.domain.Product;
+import com.smartuniversity.market.domain.ReservationStatus;
+import com.smartuniversity.market.domain.StockReservation;
+import com.smartuniversity.market.repository.OrderRepository;
+import com.smartuniversity.market.repository.ProductRepository;
+import com.smartuniversity.market.repository.StockReservationRepository;
+import com.smartuniversity.market.web.dto.CheckoutRequest;
+import com.smartuniversity.market.web.dto.OrderItemRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StockReservationServiceTest {
+
+    private static final String TENANT = "engineering";
+
+    @Autowired
+    private OrderSagaSteps steps;
+
+    @Autowired
+    private StockReservationExpiryWorker expiryWorker;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @MockBean
+    private PaymentClient paymentClient;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void reservationHoldsStockUntilConfirmed() {
+        Product product = productRepository.save(product(5));
+
+        Order order = steps.createPendingOrder(TENANT, UUID.randomUUID(), request(product, 3));
+
+        Product held = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(held.getStock()).isEqualTo(5);
+        assertThat(held.getReservedStock()).isEqualTo(3);
+        assertThatThrownBy(() -> steps.createPendingOrder(TENANT, UUID.randomUUID(), request(product, 3)))
+                .isInstanceOf(ResponseStatusException.class);
+
+        steps.confirmOrderAndDecrementStock(TENANT, order.getId());
+
+        Product confirmed = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(confirmed.getStock()).isEqualTo(2);
+        assertThat(confirmed.getReservedStock()).isZero();
+        assertThat(reservationRepository.findByOrderId(order.getId()))
+                .extracting(StockReservation::getStatus)
+                .containsOnly(ReservationStatus.CONFIRMED);
+    }
+
+    @Test
+    void cancelingOrderReleasesReservation() {
+        Product product = productRepository.save(product(5));
+        Order order = steps.createPendingOrder(TENANT, UUID.randomUUID(), request(product, 4));
+
+        steps.markOrderCanceled(TENANT, order.getId());
+
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getReservedStock()).isZero();
+        assertThat(reservationRepository.findByOrderId(order.getId()))
+                .extracting(StockReservation::getStatus)
+                .containsOnly(ReservationStatus.RELEASED);
+    }
+
+    @Test
+    void expiredReservationIsReleasedAndConfirmFallsBackToAvailableStock() {
+        Product product = productRepository.save(product(5));
+        Order order = steps.createPendingOrder(TENANT, UUID.randomUUID(), request(product, 3));
+        expire(order);
+
+        expiryWorker.expireStaleReservations();
+
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getReservedStock()).isZero();
+        assertThat(reservationRepository.findByOrderId(order.getId()))
+                .extracting(StockReservation::getStatus)
+                .containsOnly(ReservationStatus.EXPIRED);
+
+        // Stock is still there, so the late confirmation succeeds without the reservation.
+        steps.confirmOrderAndDecrementStock(TENANT, order.getId());
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(2);
+    }
+
+    @Test
+    void confirmFailsWhenExpiredStockWasTakenByAnotherOrder() {
+        Product product = productRepository.save(product(3));
+        Order stalled = steps.createPendingOrder(TENANT, UUID.randomUUID(), request(product, 3));
+        expire(stalled);
+        expiryWorker.expireStaleReservations();
+
+        Order other = steps.createPendingOrder(TENANT, UUID.randomUUID(), request(product, 3));
+        steps.confirmOrderAndDecrementStock(TENANT, other.getId());
+
+        assertThatThrownBy(() -> steps.confirmOrderAndDecrementStock(TENANT, stalled.getId()))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThat(orderRepository.findById(stalled.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.PENDING);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isZero();
+    }
+
+    private void expire(Order order) {
+        List<StockReservation> entries = reservationRepository.findByOrderId(order.getId());
+        entries.forEach(entry -> entry.setExpiresAt(Instant.now().minusSeconds(1)));
+        reservationRepository.saveAll(entries);
+    }
+
+    private static Product product(int stock) {
+        Product product = new Product();
+        product.setTenantId(TENANT);
+        product.setSellerId(UUID.randomUUID());
+        product.setName("Lab goggles");
+        product.setPrice(BigDecimal.valueOf(12));
+        product.setStock(stock);
+        return product;
+    }
+
+    private static CheckoutRequest request(Product product, int quantity) {
+        OrderItemRequest item = new OrderItemRequest();
+        item.setProductId(product.getId());
+        item.setQuantity(quantity);
+        CheckoutRequest request = new CheckoutRequest();
+        request.setItems(List.of(item));
+        return request;
+    }
+}
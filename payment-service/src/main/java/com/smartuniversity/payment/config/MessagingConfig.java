@@ -0,0 +1,98 @@
+package com.smartuniversity.payment.config;
+
+import com.smartuniversity.common.events.PaymentCommand;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * RabbitMQ configuration for the Payment service.
+ * Declares the shared topic exchange and the payment command queue, and a listener
+ * container factory that hands commands to the listener in batches.
+ */
+@Configuration
+public class MessagingConfig {
+
+    public static final String EXCHANGE_NAME = "university.events";
+    public static final String COMMAND_QUEUE = "payment.commands";
+
+    @Bean
+    public TopicExchange universityExchange() {
+        return new TopicExchange(EXCHANGE_NAME, true, false);
+    }
+
+    @Bean
+    public Queue paymentCommandQueue() {
+        return new Queue(COMMAND_QUEUE, true);
+    }
+
+    @Bean
+    public Binding paymentAuthorizeBinding(Queue paymentCommandQueue, TopicExchange universityExchange) {
+        return BindingBuilder.bind(paymentCommandQueue)
+                .to(universityExchange)
+                .with(PaymentCommand.AUTHORIZE_ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding paymentCancelBinding(Queue paymentCommandQueue, TopicExchange universityExchange) {
+        return BindingBuilder.bind(paymentCommandQueue)
+                .to(universityExchange)
+                .with(PaymentCommand.CANCEL_ROUTING_KEY);
+    }
+
+    @Bean
+    public MessageConverter jacksonMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+
+    @Bean
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory,
+                                         MessageConverter jacksonMessageConverter) {
+        RabbitTemplate template = new RabbitTemplate(connectionFactory);
+        template.setMessageConverter(jacksonMessageConverter);
+        return template;
+    }
+
+    /**
+     * Consumers receive up to {@code batch-size} commands at once, or fewer after
+     * {@code batch-timeout} without new messages, and acknowledge the whole batch with
+     * a single ack once it has been handled. A failing batch is redelivered; handling
+     * is idempotent per order.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory paymentCommandContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            MessageConverter jacksonMessageConverter,
+            @Value("${payment.messaging.prefetch:250}") int prefetch,
+            @Value("${payment.messaging.concurrency:2}") int concurrency,
+            @Value("${payment.messaging.max-concurrency:8}") int maxConcurrency,
+            @Value("${payment.messaging.batch-size:50}") int batchSize,
+            @Value("${payment.messaging.batch-timeout:50ms}") Duration batchTimeout) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setMessageConverter(jacksonMessageConverter);
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(Math.max(concurrency, maxConcurrency));
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(batchTimeout.toMillis());
+        return factory;
+    }
+}
@@ -7,16 +7,26 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
 
+/**
+ * At most one payment exists per order and tenant; the unique index also serves the
+ * by-order lookups used for compensation. Settlement walks payments by status in id
+ * order.
+ */
 @Entity
-@Table(name = "payments")
+@Table(name = "payments",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_payments_order_tenant", columnNames = {"order_id", "tenant_id"}),
+        indexes = @Index(name = "idx_payments_status_id", columnList = "status, id"))
 public class Payment {
 
     @Id
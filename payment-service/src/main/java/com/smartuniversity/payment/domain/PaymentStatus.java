@@ -5,6 +5,18 @@ package com.smartuniversity.payment.domain;
  */
 public enum PaymentStatus {
     AUTHORIZED,
+    /**
+     * Claimed by a settlement run while its provider captures it; cannot be canceled.
+     */
+    SETTLING,
+    /**
+     * Settled: the authorized funds were collected.
+     */
+    CAPTURED,
+    /**
+     * Claimed by a cancellation while its provider releases it; cannot be settled.
+     */
+    CANCELING,
     CANCELED,
     FAILED
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.smartuniversity.payment.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Progress of a settlement run, saved with every chunk so that a restarted job
+ * continues after the last settled payment instead of starting over.
+ *
+ * The row also carries the job's lease: only the instance named in
+ * {@code lease_owner} runs the job until {@code lease_until}. The lease columns are
+ * written with conditional updates only (see {@link
+ * com.smartuniversity.payment.repository.SettlementCheckpointRepositoryCustom}), never
+ * by saving the entity.
+ */
+@Entity
+@Table(name = "settlement_checkpoints")
+public class SettlementCheckpoint {
+
+    @Id
+    @Column(name = "job_name", length = 64)
+    private String jobName;
+
+    /**
+     * Payments created after this instant belong to the next run.
+     */
+    @Column(nullable = false)
+    private Instant cutoff;
+
+    @Column(name = "last_id")
+    private UUID lastId;
+
+    @Column(nullable = false)
+    private long processed;
+
+    @Column(nullable = false)
+    private long captured;
+
+    @Column(nullable = false)
+    private long failed;
+
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    @Column(name = "lease_owner", length = 64, insertable = false, updatable = false)
+    private String leaseOwner;
+
+    @Column(name = "lease_until", insertable = false, updatable = false)
+    private Instant leaseUntil;
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public Instant getCutoff() {
+        return cutoff;
+    }
+
+    public void setCutoff(Instant cutoff) {
+        this.cutoff = cutoff;
+    }
+
+    public UUID getLastId() {
+        return lastId;
+    }
+
+    public void setLastId(UUID lastId) {
+        this.lastId = lastId;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(long processed) {
+        this.processed = processed;
+    }
+
+    public long getCaptured() {
+        return captured;
+    }
+
+    public void setCaptured(long captured) {
+        this.captured = captured;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Instant completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public Instant getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public boolean isCompleted() {
+        return completedAt != null;
+    }
+}
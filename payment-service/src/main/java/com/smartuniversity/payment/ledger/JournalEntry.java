@@ -0,0 +1,34 @@
+package com.smartuniversity.payment.ledger;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One side of a journal posting. Postings always come in balanced pairs with the
+ * same {@code event}, payment and amount.
+ *
+ * @param event what happened to the payment, e.g. {@code AUTHORIZED}
+ */
+public record JournalEntry(UUID id,
+                           String tenantId,
+                           UUID paymentId,
+                           UUID orderId,
+                           String event,
+                           LedgerAccount account,
+                           Direction direction,
+                           BigDecimal amount,
+                           Instant bookedAt) {
+
+    public enum Direction {
+        DEBIT,
+        CREDIT
+    }
+
+    /**
+     * The entry's effect on its account balance.
+     */
+    public BigDecimal signedAmount() {
+        return direction == Direction.DEBIT ? amount : amount.negate();
+    }
+}
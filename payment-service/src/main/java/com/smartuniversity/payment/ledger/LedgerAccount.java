@@ -0,0 +1,20 @@
+package com.smartuniversity.payment.ledger;
+
+/**
+ * Accounts of the payment journal. Balances are debits minus credits, so the
+ * {@link #CUSTOMER} account goes negative by the amount customers owe in total.
+ */
+public enum LedgerAccount {
+    /**
+     * Funds promised by customers.
+     */
+    CUSTOMER,
+    /**
+     * Funds held by open authorizations.
+     */
+    AUTHORIZED,
+    /**
+     * Funds captured from authorizations.
+     */
+    CAPTURED
+}
@@ -0,0 +1,12 @@
+package com.smartuniversity.payment.ledger;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Running balance of one account of a tenant.
+ *
+ * @param entries number of journal entries posted to the account
+ */
+public record LedgerBalance(LedgerAccount account, BigDecimal balance, long entries, Instant updatedAt) {
+}
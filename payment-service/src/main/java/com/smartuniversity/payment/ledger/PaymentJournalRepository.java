@@ -0,0 +1,127 @@
+package com.smartuniversity.payment.ledger;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Appends journal entries and maintains the per-tenant balance summary. Entries are
+ * never updated or deleted.
+ */
+@Repository
+public class PaymentJournalRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO payment_journal (id, tenant_id, payment_id, order_id, event, account, direction, amount, "
+                    + "booked_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String ADD_TO_BALANCE_SQL =
+            "UPDATE payment_balances SET balance = balance + ?, entry_count = entry_count + ?, updated_at = ? "
+                    + "WHERE tenant_id = ? AND account = ?";
+
+    private static final String INSERT_BALANCE_SQL =
+            "INSERT INTO payment_balances (tenant_id, account, balance, entry_count, updated_at) "
+                    + "VALUES (?, ?, 0, 0, ?) ON CONFLICT DO NOTHING";
+
+    private static final String SELECT_SQL =
+            "SELECT id, tenant_id, payment_id, order_id, event, account, direction, amount, booked_at "
+                    + "FROM payment_journal WHERE tenant_id = ? AND payment_id = ? ORDER BY booked_at, event, direction";
+
+    private static final int JDBC_BATCH_SIZE = 200;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PaymentJournalRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Appends the entries in one JDBC batch and adds them to the running balances,
+     * with one update per tenant and account. Must run in the transaction that
+     * changes the payments, so the journal, balances and payments agree.
+     */
+    public void append(List<JournalEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, JDBC_BATCH_SIZE, (ps, entry) -> {
+            ps.setObject(1, entry.id());
+            ps.setString(2, entry.tenantId());
+            ps.setObject(3, entry.paymentId());
+            ps.setObject(4, entry.orderId());
+            ps.setString(5, entry.event());
+            ps.setString(6, entry.account().name());
+            ps.setString(7, entry.direction().name());
+            ps.setBigDecimal(8, entry.amount());
+            ps.setTimestamp(9, Timestamp.from(entry.bookedAt()));
+        });
+
+        // Sorted so concurrent appends lock balance rows in the same order.
+        Map<BalanceKey, Delta> deltas = new TreeMap<>(BalanceKey.ORDER);
+        for (JournalEntry entry : entries) {
+            deltas.computeIfAbsent(new BalanceKey(entry.tenantId(), entry.account()), key -> new Delta())
+                    .add(entry.signedAmount());
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        deltas.forEach((key, delta) -> addToBalance(key, delta, now));
+    }
+
+    public List<JournalEntry> findByPayment(String tenantId, UUID paymentId) {
+        return jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new JournalEntry(
+                rs.getObject("id", UUID.class),
+                rs.getString("tenant_id"),
+                rs.getObject("payment_id", UUID.class),
+                rs.getObject("order_id", UUID.class),
+                rs.getString("event"),
+                LedgerAccount.valueOf(rs.getString("account")),
+                JournalEntry.Direction.valueOf(rs.getString("direction")),
+                rs.getBigDecimal("amount"),
+                rs.getTimestamp("booked_at").toInstant()), tenantId, paymentId);
+    }
+
+    public List<LedgerBalance> findBalances(String tenantId) {
+        return jdbcTemplate.query(
+                "SELECT account, balance, entry_count, updated_at FROM payment_balances WHERE tenant_id = ? "
+                        + "ORDER BY account",
+                (rs, rowNum) -> new LedgerBalance(
+                        LedgerAccount.valueOf(rs.getString("account")),
+                        rs.getBigDecimal("balance"),
+                        rs.getLong("entry_count"),
+                        rs.getTimestamp("updated_at").toInstant()),
+                tenantId);
+    }
+
+    private void addToBalance(BalanceKey key, Delta delta, Timestamp now) {
+        Object[] args = {delta.amount, delta.entries, now, key.tenantId(), key.account().name()};
+        if (jdbcTemplate.update(ADD_TO_BALANCE_SQL, args) == 0) {
+            // First posting to this account; a concurrent first posting may create the row instead.
+            jdbcTemplate.update(INSERT_BALANCE_SQL, key.tenantId(), key.account().name(), now);
+            jdbcTemplate.update(ADD_TO_BALANCE_SQL, args);
+        }
+    }
+
+    private record BalanceKey(String tenantId, LedgerAccount account) {
+
+        static final Comparator<BalanceKey> ORDER = Comparator.comparing(BalanceKey::tenantId)
+                .thenComparing(BalanceKey::account);
+    }
+
+    private static final class Delta {
+
+        private BigDecimal amount = BigDecimal.ZERO;
+        private long entries;
+
+        void add(BigDecimal signedAmount) {
+            amount = amount.add(signedAmount);
+            entries++;
+        }
+    }
+}
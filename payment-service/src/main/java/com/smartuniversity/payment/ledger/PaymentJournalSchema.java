@@ -0,0 +1,108 @@
+package com.smartuniversity.payment.ledger;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Creates the journal and balance tables, which are written with plain JDBC and not
+ * managed by Hibernate.
+ *
+ * On PostgreSQL the journal is range-partitioned by month of {@code booked_at}, so
+ * reports and reconciliations of a period only read that period's partitions and
+ * old months can be detached or archived as a whole. Partitions are created
+ * {@code months-ahead} in advance; a default partition catches anything else.
+ * Other databases get a plain table.
+ */
+@Component
+public class PaymentJournalSchema {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentJournalSchema.class);
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private static final String JOURNAL_COLUMNS = "("
+            + "id UUID NOT NULL, "
+            + "tenant_id VARCHAR(64) NOT NULL, "
+            + "payment_id UUID NOT NULL, "
+            + "order_id UUID NOT NULL, "
+            + "event VARCHAR(20) NOT NULL, "
+            + "account VARCHAR(20) NOT NULL, "
+            + "direction VARCHAR(6) NOT NULL, "
+            + "amount NUMERIC(12, 2) NOT NULL, "
+            + "booked_at TIMESTAMP NOT NULL, "
+            + "PRIMARY KEY (id, booked_at))";
+
+    private static final String BALANCES_TABLE = "CREATE TABLE IF NOT EXISTS payment_balances ("
+            + "tenant_id VARCHAR(64) NOT NULL, "
+            + "account VARCHAR(20) NOT NULL, "
+            + "balance NUMERIC(16, 2) NOT NULL, "
+            + "entry_count BIGINT NOT NULL, "
+            + "updated_at TIMESTAMP NOT NULL, "
+            + "PRIMARY KEY (tenant_id, account))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private boolean partitioned;
+
+    public PaymentJournalSchema(JdbcTemplate jdbcTemplate,
+                                @Value("${payment.ledger.partitions.months-ahead:3}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @PostConstruct
+    public void createTables() throws Exception {
+        DataSource dataSource = jdbcTemplate.getDataSource();
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        partitioned = "PostgreSQL".equalsIgnoreCase(product);
+
+        if (partitioned) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS payment_journal " + JOURNAL_COLUMNS
+                    + " PARTITION BY RANGE (booked_at)");
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS payment_journal_default "
+                    + "PARTITION OF payment_journal DEFAULT");
+        } else {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS payment_journal " + JOURNAL_COLUMNS);
+        }
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_payment_journal_tenant_booked "
+                + "ON payment_journal (tenant_id, booked_at)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_payment_journal_payment "
+                + "ON payment_journal (payment_id)");
+        jdbcTemplate.execute(BALANCES_TABLE);
+        createPartitions();
+    }
+
+    /**
+     * Creates the partitions for the current month and the following ones.
+     */
+    @Scheduled(cron = "${payment.ledger.partitions.cron:0 0 3 * * *}")
+    public void createPartitions() {
+        if (!partitioned) {
+            return;
+        }
+        YearMonth month = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth partition = month.plusMonths(i);
+            try {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS payment_journal_" + partition.format(SUFFIX)
+                        + " PARTITION OF payment_journal FOR VALUES FROM ('" + partition.atDay(1)
+                        + "') TO ('" + partition.plusMonths(1).atDay(1) + "')");
+            } catch (DataAccessException ex) {
+                // Typically rows for that month already sit in the default partition.
+                log.warn("Could not create journal partition for {}: {}", partition, ex.getMessage());
+            }
+        }
+    }
+}
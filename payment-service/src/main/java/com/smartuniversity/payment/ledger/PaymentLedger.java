@@ -0,0 +1,75 @@
+package com.smartuniversity.payment.ledger;
+
+import com.smartuniversity.payment.domain.Payment;
+import com.smartuniversity.payment.domain.PaymentStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Turns payment status changes into balanced journal postings:
+ *
+ * <ul>
+ *   <li>{@code AUTHORIZED}: debit {@link LedgerAccount#AUTHORIZED}, credit {@link LedgerAccount#CUSTOMER}</li>
+ *   <li>{@code CANCELED}: the reverse, releasing the hold</li>
+ *   <li>{@code CAPTURED}: debit {@link LedgerAccount#CAPTURED}, credit {@link LedgerAccount#AUTHORIZED}</li>
+ * </ul>
+ *
+ * Declined authorizations move no money and are not posted.
+ */
+@Component
+public class PaymentLedger {
+
+    private final PaymentJournalRepository journalRepository;
+
+    public PaymentLedger(PaymentJournalRepository journalRepository) {
+        this.journalRepository = journalRepository;
+    }
+
+    /**
+     * Posts newly stored payments; only {@link PaymentStatus#AUTHORIZED} ones hold funds.
+     */
+    public void recordAuthorized(Collection<Payment> payments) {
+        Instant now = Instant.now();
+        List<JournalEntry> entries = new ArrayList<>();
+        for (Payment payment : payments) {
+            if (payment.getStatus() == PaymentStatus.AUTHORIZED) {
+                post(entries, payment, "AUTHORIZED", LedgerAccount.AUTHORIZED, LedgerAccount.CUSTOMER, now);
+            }
+        }
+        journalRepository.append(entries);
+    }
+
+    /**
+     * Posts the release of an authorized payment.
+     */
+    public void recordCanceled(Payment payment) {
+        List<JournalEntry> entries = new ArrayList<>(2);
+        post(entries, payment, "CANCELED", LedgerAccount.CUSTOMER, LedgerAccount.AUTHORIZED, Instant.now());
+        journalRepository.append(entries);
+    }
+
+    /**
+     * Posts the capture of authorized payments, in one batch.
+     */
+    public void recordCaptured(Collection<Payment> payments) {
+        Instant now = Instant.now();
+        List<JournalEntry> entries = new ArrayList<>(payments.size() * 2);
+        for (Payment payment : payments) {
+            post(entries, payment, "CAPTURED", LedgerAccount.CAPTURED, LedgerAccount.AUTHORIZED, now);
+        }
+        journalRepository.append(entries);
+    }
+
+    private static void post(List<JournalEntry> entries, Payment payment, String event,
+                             LedgerAccount debit, LedgerAccount credit, Instant now) {
+        entries.add(new JournalEntry(UUID.randomUUID(), payment.getTenantId(), payment.getId(), payment.getOrderId(),
+                event, debit, JournalEntry.Direction.DEBIT, payment.getAmount(), now));
+        entries.add(new JournalEntry(UUID.randomUUID(), payment.getTenantId(), payment.getId(), payment.getOrderId(),
+                event, credit, JournalEntry.Direction.CREDIT, payment.getAmount(), now));
+    }
+}
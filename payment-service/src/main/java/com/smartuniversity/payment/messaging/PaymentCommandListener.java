@@ -0,0 +1,147 @@
+package com.smartuniversity.payment.messaging;
+
+import com.smartuniversity.common.events.PaymentCommand;
+import com.smartuniversity.common.events.PaymentEvent;
+import com.smartuniversity.payment.config.MessagingConfig;
+import com.smartuniversity.payment.domain.Payment;
+import com.smartuniversity.payment.domain.PaymentStatus;
+import com.smartuniversity.payment.repository.PaymentRepository;
+import com.smartuniversity.payment.service.PaymentService;
+import com.smartuniversity.payment.web.dto.PaymentAuthorizationRequest;
+import com.smartuniversity.payment.web.dto.PaymentBatchItemResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Executes {@link PaymentCommand}s received from RabbitMQ and publishes the outcome
+ * as {@link PaymentEvent}s.
+ *
+ * Commands arrive in batches. Repeated commands for the same order and type are
+ * handled once; authorizations are grouped per tenant into batch authorizations,
+ * cancellations follow them. Both are idempotent per order, so a redelivered batch
+ * yields the same events again. Commands that fail transiently (provider
+ * unavailable, payment being settled) get no event; the sender re-sends them when it
+ * hears nothing back. Cancelling a payment that was already captured cannot succeed
+ * later, so it is answered with a {@code CANCELED} event carrying the reason.
+ */
+@Component
+public class PaymentCommandListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentCommandListener.class);
+
+    private final PaymentService paymentService;
+    private final PaymentRepository paymentRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final Counter deduplicated;
+
+    public PaymentCommandListener(PaymentService paymentService,
+                                  PaymentRepository paymentRepository,
+                                  RabbitTemplate rabbitTemplate,
+                                  MeterRegistry meterRegistry) {
+        this.paymentService = paymentService;
+        this.paymentRepository = paymentRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.deduplicated = Counter.builder("payment.commands.deduplicated")
+                .description("Payment commands dropped as repeats of another command in the same batch")
+                .register(meterRegistry);
+    }
+
+    @RabbitListener(queues = MessagingConfig.COMMAND_QUEUE, containerFactory = "paymentCommandContainerFactory")
+    public void onCommands(List<PaymentCommand> commands) {
+        Map<String, Map<UUID, PaymentCommand>> authorizations = new LinkedHashMap<>();
+        Map<UUID, PaymentCommand> cancellations = new LinkedHashMap<>();
+        for (PaymentCommand command : commands) {
+            if (command.type() == null || command.orderId() == null || command.tenantId() == null) {
+                logger.error("Dropping malformed payment command {}", command);
+                continue;
+            }
+            PaymentCommand previous = command.type() == PaymentCommand.Type.AUTHORIZE
+                    ? authorizations.computeIfAbsent(command.tenantId(), tenant -> new LinkedHashMap<>())
+                            .putIfAbsent(command.orderId(), command)
+                    : cancellations.putIfAbsent(command.orderId(), command);
+            if (previous != null) {
+                deduplicated.increment();
+            }
+        }
+
+        authorizations.forEach(this::authorize);
+        cancellations.values().forEach(this::cancel);
+    }
+
+    private void authorize(String tenantId, Map<UUID, PaymentCommand> commands) {
+        List<PaymentAuthorizationRequest> requests = new ArrayList<>(commands.size());
+        for (PaymentCommand command : commands.values()) {
+            PaymentAuthorizationRequest request = new PaymentAuthorizationRequest();
+            request.setOrderId(command.orderId());
+            request.setUserId(command.userId());
+            request.setAmount(command.amount());
+            requests.add(request);
+        }
+
+        for (PaymentBatchItemResult result : paymentService.authorizeBatch(tenantId, requests)) {
+            if (result.getError() == null) {
+                boolean authorized = result.getStatus() == PaymentStatus.AUTHORIZED;
+                publish(authorized ? PaymentEvent.Type.AUTHORIZED : PaymentEvent.Type.DECLINED,
+                        result.getOrderId(), tenantId, result.getPaymentId(),
+                        authorized ? null : "Payment not authorized");
+            } else if (result.isRetryable()) {
+                logger.warn("Payment authorization for order {} failed transiently: {}",
+                        result.getOrderId(), result.getError());
+            } else if (result.getOrderId() != null) {
+                publish(PaymentEvent.Type.DECLINED, result.getOrderId(), tenantId, null, result.getError());
+            } else {
+                logger.error("Dropping authorization command without order id: {}", result.getError());
+            }
+        }
+    }
+
+    private void cancel(PaymentCommand command) {
+        try {
+            Payment payment = paymentService.cancel(command.tenantId(), command.orderId());
+            publish(PaymentEvent.Type.CANCELED, command.orderId(), command.tenantId(), payment.getId(), null);
+        } catch (ResponseStatusException ex) {
+            if (ex.getStatusCode() == HttpStatus.NOT_FOUND) {
+                // Authorization never went through, so there is nothing to cancel.
+                publish(PaymentEvent.Type.CANCELED, command.orderId(), command.tenantId(), null, null);
+                return;
+            }
+            Optional<Payment> captured = ex.getStatusCode() == HttpStatus.CONFLICT
+                    ? capturedPayment(command) : Optional.empty();
+            if (captured.isPresent()) {
+                // Retrying cannot release captured funds; answer so the saga stops re-sending.
+                logger.error("Payment {} for canceled order {} was already captured and needs a refund",
+                        captured.get().getId(), command.orderId());
+                publish(PaymentEvent.Type.CANCELED, command.orderId(), command.tenantId(), captured.get().getId(),
+                        "Payment already captured");
+            } else {
+                logger.warn("Payment cancellation for order {} failed transiently: {}",
+                        command.orderId(), ex.getReason());
+            }
+        }
+    }
+
+    private Optional<Payment> capturedPayment(PaymentCommand command) {
+        return paymentRepository.findByOrderIdAndTenantId(command.orderId(), command.tenantId())
+                .filter(payment -> payment.getStatus() == PaymentStatus.CAPTURED);
+    }
+
+    private void publish(PaymentEvent.Type type, UUID orderId, String tenantId, UUID paymentId, String reason) {
+        PaymentEvent event = new PaymentEvent(type, orderId, tenantId, paymentId, reason, Instant.now());
+        rabbitTemplate.convertAndSend(MessagingConfig.EXCHANGE_NAME, event.routingKey(), event);
+    }
+}
@@ -3,10 +3,14 @@ package com.smartuniversity.payment.repository;
 import com.smartuniversity.payment.domain.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface PaymentRepository extends JpaRepository<Payment, UUID> {
+public interface PaymentRepository extends JpaRepository<Payment, UUID>, PaymentRepositoryCustom {
 
     Optional<Payment> findByOrderIdAndTenantId(UUID orderId, String tenantId);
+
+    List<Payment> findByTenantIdAndOrderIdIn(String tenantId, Collection<UUID> orderIds);
 }
\ No newline at end of file
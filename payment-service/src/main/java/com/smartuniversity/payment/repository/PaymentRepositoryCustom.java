@@ -0,0 +1,55 @@
+package com.smartuniversity.payment.repository;
+
+import com.smartuniversity.payment.domain.Payment;
+import com.smartuniversity.payment.domain.PaymentStatus;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Bulk operations on payments that bypass the persistence context.
+ */
+public interface PaymentRepositoryCustom {
+
+    /**
+     * Inserts a new payment unless its order already has one. The id and timestamps
+     * are assigned here when missing.
+     *
+     * @return {@code false} if another payment for the order exists
+     */
+    boolean insertIfAbsent(Payment payment);
+
+    /**
+     * Inserts new payments with JDBC batching, skipping orders that already have a
+     * payment. Ids and timestamps are assigned here when missing.
+     *
+     * @return order ids whose payment may not have been inserted, either because the
+     *         order already had one or because the driver did not report the outcome
+     */
+    Set<UUID> insertAllIfAbsent(List<Payment> payments);
+
+    /**
+     * Moves the order's payment from {@code from} to {@code to} with a single
+     * conditional update.
+     *
+     * @return {@code false} if there is no payment for the order or it is no longer in {@code from}
+     */
+    boolean transition(String tenantId, UUID orderId, PaymentStatus from, PaymentStatus to);
+
+    /**
+     * Moves many payments from {@code from} to {@code to} with batched conditional
+     * updates.
+     *
+     * @return the payments that were still in {@code from} and have been moved
+     */
+    List<Payment> transitionAll(List<Payment> payments, PaymentStatus from, PaymentStatus to);
+
+    /**
+     * Reads up to {@code limit} payments in {@code status} created no later than
+     * {@code createdUntil}, in id order, starting after {@code afterId} (or from the
+     * start if {@code null}). Keyset pagination keeps each chunk an index range scan.
+     */
+    List<Payment> findChunkByStatus(PaymentStatus status, Instant createdUntil, UUID afterId, int limit);
+}
@@ -0,0 +1,155 @@
+package com.smartuniversity.payment.repository;
+
+import com.smartuniversity.payment.domain.Payment;
+import com.smartuniversity.payment.domain.PaymentStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+class PaymentRepositoryCustomImpl implements PaymentRepositoryCustom {
+
+    // Conflicts can only come from uk_payments_order_tenant: ids are fresh UUIDs.
+    private static final String INSERT_SQL =
+            "INSERT INTO payments (id, tenant_id, order_id, user_id, amount, status, provider, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private static final String TRANSITION_SQL =
+            "UPDATE payments SET status = ?, updated_at = ? "
+                    + "WHERE order_id = ? AND tenant_id = ? AND status = ?";
+
+    private static final String TRANSITION_BY_ID_SQL =
+            "UPDATE payments SET status = ?, updated_at = ? WHERE id = ? AND status = ?";
+
+    private static final String CHUNK_SQL =
+            "SELECT id, tenant_id, order_id, user_id, amount, status, provider, created_at, updated_at "
+                    + "FROM payments WHERE status = ? AND created_at <= ?";
+
+    private static final int JDBC_BATCH_SIZE = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    PaymentRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public boolean insertIfAbsent(Payment payment) {
+        prepare(payment, Instant.now());
+        return jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, payment)) == 1;
+    }
+
+    @Override
+    public Set<UUID> insertAllIfAbsent(List<Payment> payments) {
+        if (payments.isEmpty()) {
+            return Set.of();
+        }
+        Instant now = Instant.now();
+        for (Payment payment : payments) {
+            prepare(payment, now);
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, payments, JDBC_BATCH_SIZE, this::bind);
+
+        Set<UUID> unconfirmed = new HashSet<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count != 1) {
+                    unconfirmed.add(payments.get(index).getOrderId());
+                }
+                index++;
+            }
+        }
+        return unconfirmed;
+    }
+
+    @Override
+    public boolean transition(String tenantId, UUID orderId, PaymentStatus from, PaymentStatus to) {
+        return jdbcTemplate.update(TRANSITION_SQL,
+                to.name(),
+                Timestamp.from(Instant.now()),
+                orderId,
+                tenantId,
+                from.name()) == 1;
+    }
+
+    @Override
+    public List<Payment> transitionAll(List<Payment> payments, PaymentStatus from, PaymentStatus to) {
+        if (payments.isEmpty()) {
+            return List.of();
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        int[][] counts = jdbcTemplate.batchUpdate(TRANSITION_BY_ID_SQL, payments, JDBC_BATCH_SIZE, (ps, payment) -> {
+            ps.setString(1, to.name());
+            ps.setTimestamp(2, now);
+            ps.setObject(3, payment.getId());
+            ps.setString(4, from.name());
+        });
+
+        List<Payment> moved = new ArrayList<>(payments.size());
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 1) {
+                    Payment payment = payments.get(index);
+                    payment.setStatus(to);
+                    payment.setUpdatedAt(now.toInstant());
+                    moved.add(payment);
+                }
+                index++;
+            }
+        }
+        return moved;
+    }
+
+    @Override
+    public List<Payment> findChunkByStatus(PaymentStatus status, Instant createdUntil, UUID afterId, int limit) {
+        RowMapper<Payment> mapper = (rs, rowNum) -> {
+            Payment payment = new Payment();
+            payment.setId(rs.getObject("id", UUID.class));
+            payment.setTenantId(rs.getString("tenant_id"));
+            payment.setOrderId(rs.getObject("order_id", UUID.class));
+            payment.setUserId(rs.getObject("user_id", UUID.class));
+            payment.setAmount(rs.getBigDecimal("amount"));
+            payment.setStatus(PaymentStatus.valueOf(rs.getString("status")));
+            payment.setProvider(rs.getString("provider"));
+            payment.setCreatedAt(rs.getTimestamp("created_at").toInstant());
+            payment.setUpdatedAt(rs.getTimestamp("updated_at").toInstant());
+            return payment;
+        };
+        Timestamp until = Timestamp.from(createdUntil);
+        if (afterId == null) {
+            return jdbcTemplate.query(CHUNK_SQL + " ORDER BY id LIMIT ?", mapper, status.name(), until, limit);
+        }
+        return jdbcTemplate.query(CHUNK_SQL + " AND id > ? ORDER BY id LIMIT ?", mapper,
+                status.name(), until, afterId, limit);
+    }
+
+    private static void prepare(Payment payment, Instant now) {
+        if (payment.getId() == null) {
+            payment.setId(UUID.randomUUID());
+        }
+        payment.setCreatedAt(now);
+        payment.setUpdatedAt(now);
+    }
+
+    private void bind(PreparedStatement ps, Payment payment) throws SQLException {
+        ps.setObject(1, payment.getId());
+        ps.setString(2, payment.getTenantId());
+        ps.setObject(3, payment.getOrderId());
+        ps.setObject(4, payment.getUserId());
+        ps.setBigDecimal(5, payment.getAmount());
+        ps.setString(6, payment.getStatus().name());
+        ps.setString(7, payment.getProvider());
+        ps.setTimestamp(8, Timestamp.from(payment.getCreatedAt()));
+        ps.setTimestamp(9, Timestamp.from(payment.getUpdatedAt()));
+    }
+}
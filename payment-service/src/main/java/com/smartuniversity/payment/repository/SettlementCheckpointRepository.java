@@ -0,0 +1,8 @@
+package com.smartuniversity.payment.repository;
+
+import com.smartuniversity.payment.domain.SettlementCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface SettlementCheckpointRepository extends JpaRepository<SettlementCheckpoint, String>,
+        SettlementCheckpointRepositoryCustom {
+}
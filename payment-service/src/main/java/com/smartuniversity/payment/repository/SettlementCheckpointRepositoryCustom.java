@@ -0,0 +1,31 @@
+package com.smartuniversity.payment.repository;
+
+import java.time.Instant;
+
+/**
+ * Cluster-wide lease on a settlement job, held in its checkpoint row so that only
+ * one instance runs the job at a time.
+ */
+public interface SettlementCheckpointRepositoryCustom {
+
+    /**
+     * Takes the job's lease for {@code owner} until {@code until} if it is free,
+     * expired or already held by {@code owner}. Creates the checkpoint row, marked
+     * completed, on the job's first run.
+     *
+     * @return {@code false} if another owner holds an unexpired lease
+     */
+    boolean acquireLease(String jobName, String owner, Instant until);
+
+    /**
+     * Extends a lease held by {@code owner}.
+     *
+     * @return {@code false} if the lease expired and another owner has taken it
+     */
+    boolean renewLease(String jobName, String owner, Instant until);
+
+    /**
+     * Gives up a lease held by {@code owner}; a no-op if it has been taken over.
+     */
+    void releaseLease(String jobName, String owner);
+}
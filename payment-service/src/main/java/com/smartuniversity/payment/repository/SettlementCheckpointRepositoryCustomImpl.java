@@ -0,0 +1,52 @@
+package com.smartuniversity.payment.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+class SettlementCheckpointRepositoryCustomImpl implements SettlementCheckpointRepositoryCustom {
+
+    private static final String ACQUIRE_SQL =
+            "UPDATE settlement_checkpoints SET lease_owner = ?, lease_until = ? "
+                    + "WHERE job_name = ? AND (lease_owner IS NULL OR lease_owner = ? OR lease_until < ?)";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO settlement_checkpoints (job_name, cutoff, processed, captured, failed, started_at, "
+                    + "updated_at, completed_at, lease_owner, lease_until) "
+                    + "VALUES (?, ?, 0, 0, 0, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private static final String RENEW_SQL =
+            "UPDATE settlement_checkpoints SET lease_until = ? WHERE job_name = ? AND lease_owner = ?";
+
+    private static final String RELEASE_SQL =
+            "UPDATE settlement_checkpoints SET lease_owner = NULL, lease_until = NULL "
+                    + "WHERE job_name = ? AND lease_owner = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    SettlementCheckpointRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public boolean acquireLease(String jobName, String owner, Instant until) {
+        Timestamp now = Timestamp.from(Instant.now());
+        Timestamp leaseUntil = Timestamp.from(until);
+        if (jdbcTemplate.update(ACQUIRE_SQL, owner, leaseUntil, jobName, owner, now) == 1) {
+            return true;
+        }
+        // No row yet: the first instance to insert it holds the lease.
+        return jdbcTemplate.update(INSERT_SQL, jobName, now, now, now, now, owner, leaseUntil) == 1;
+    }
+
+    @Override
+    public boolean renewLease(String jobName, String owner, Instant until) {
+        return jdbcTemplate.update(RENEW_SQL, Timestamp.from(until), jobName, owner) == 1;
+    }
+
+    @Override
+    public void releaseLease(String jobName, String owner) {
+        jdbcTemplate.update(RELEASE_SQL, jobName, owner);
+    }
+}
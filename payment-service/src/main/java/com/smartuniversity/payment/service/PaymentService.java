@@ -2,47 +2,263 @@ package com.smartuniversity.payment.service;
 
 import com.smartuniversity.payment.domain.Payment;
 import com.smartuniversity.payment.domain.PaymentStatus;
+import com.smartuniversity.payment.ledger.PaymentLedger;
 import com.smartuniversity.payment.repository.PaymentRepository;
+import com.smartuniversity.payment.strategy.PaymentProviderGateway;
 import com.smartuniversity.payment.strategy.PaymentStrategy;
+import com.smartuniversity.payment.strategy.PaymentStrategyRegistry;
+import com.smartuniversity.payment.strategy.ProviderUnavailableException;
 import com.smartuniversity.payment.web.dto.PaymentAuthorizationRequest;
+import com.smartuniversity.payment.web.dto.PaymentBatchItemResult;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 public class PaymentService {
 
     private final PaymentRepository paymentRepository;
-    private final PaymentStrategy paymentStrategy;
+    private final PaymentStrategyRegistry strategies;
+    private final PaymentProviderGateway providerGateway;
+    private final PaymentLedger ledger;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
 
     public PaymentService(PaymentRepository paymentRepository,
-                          PaymentStrategy paymentStrategy) {
+                          PaymentStrategyRegistry strategies,
+                          PaymentProviderGateway providerGateway,
+                          PaymentLedger ledger,
+                          PlatformTransactionManager transactionManager,
+                          Validator validator) {
         this.paymentRepository = paymentRepository;
-        this.paymentStrategy = paymentStrategy;
+        this.strategies = strategies;
+        this.providerGateway = providerGateway;
+        this.ledger = ledger;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
     }
 
-    @Transactional
+    /**
+     * Authorizes a payment with the provider chosen by the routing rules. The
+     * provider is called outside any transaction, so a slow provider holds no
+     * database connection.
+     *
+     * An order has at most one payment: if it already has one, that payment is
+     * returned, including when a concurrent request stored it first.
+     *
+     * @throws ResponseStatusException with 503 if the provider is unavailable
+     */
     public Payment authorize(String tenantId, PaymentAuthorizationRequest request) {
-        Payment payment = paymentStrategy.authorize(
-                tenantId,
-                request.getOrderId(),
-                request.getUserId(),
-                request.getAmount()
-        );
+        Payment payment = paymentRepository.findByOrderIdAndTenantId(request.getOrderId(), tenantId)
+                .orElse(null);
+        if (payment == null) {
+            PaymentStrategy strategy = strategies.route(tenantId, request.getAmount(), request.getMethod());
+            Payment evaluated = callProvider(strategy, "authorize", () -> strategy.evaluateAuthorization(
+                    tenantId, request.getOrderId(), request.getUserId(), request.getAmount()));
+            boolean inserted = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (!paymentRepository.insertIfAbsent(evaluated)) {
+                    return false;
+                }
+                ledger.recordAuthorized(List.of(evaluated));
+                return true;
+            }));
+            payment = evaluated;
+            if (!inserted) {
+                payment = paymentRepository.findByOrderIdAndTenantId(request.getOrderId(), tenantId)
+                        .orElseThrow(() -> new IllegalStateException(
+                                "Payment for order " + request.getOrderId() + " vanished after a conflict"));
+            }
+        }
         if (payment.getStatus() == PaymentStatus.FAILED) {
             throw new ResponseStatusException(HttpStatus.PAYMENT_REQUIRED, "Payment authorization failed");
         }
         return payment;
     }
 
-    @Transactional
+    /**
+     * Authorizes many payments of one tenant at once and returns one result per item,
+     * in request order.
+     *
+     * Invalid items are rejected individually, orders that already have a payment get
+     * that payment back, and repeated order ids within the batch share one outcome.
+     * Declined authorizations are reported as {@link PaymentStatus#FAILED} rather than
+     * failing the whole batch, and items whose provider is unavailable get an error.
+     * Provider calls run concurrently, each within its provider's limits. New payments
+     * are written with a single JDBC batch.
+     */
+    public List<PaymentBatchItemResult> authorizeBatch(String tenantId, List<PaymentAuthorizationRequest> requests) {
+        Map<UUID, PaymentAuthorizationRequest> valid = new LinkedHashMap<>();
+        Map<Integer, String> errors = new HashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            PaymentAuthorizationRequest request = requests.get(i);
+            String error = validate(request);
+            if (error != null) {
+                errors.put(i, error);
+            } else {
+                valid.putIfAbsent(request.getOrderId(), request);
+            }
+        }
+
+        Map<UUID, Payment> payments = new HashMap<>();
+        Map<UUID, String> unavailable = new HashMap<>();
+        if (!valid.isEmpty()) {
+            for (Payment existing : paymentRepository.findByTenantIdAndOrderIdIn(tenantId, valid.keySet())) {
+                payments.putIfAbsent(existing.getOrderId(), existing);
+            }
+            Map<UUID, CompletableFuture<Payment>> pending = new LinkedHashMap<>();
+            for (PaymentAuthorizationRequest request : valid.values()) {
+                if (payments.containsKey(request.getOrderId())) {
+                    continue;
+                }
+                PaymentStrategy strategy = strategies.route(tenantId, request.getAmount(), request.getMethod());
+                pending.put(request.getOrderId(), providerGateway.submit(strategy.getProviderName(), "authorize",
+                        () -> strategy.evaluateAuthorization(tenantId, request.getOrderId(), request.getUserId(),
+                                request.getAmount())));
+            }
+            List<Payment> created = new ArrayList<>(pending.size());
+            for (Map.Entry<UUID, CompletableFuture<Payment>> entry : pending.entrySet()) {
+                try {
+                    Payment payment = entry.getValue().join();
+                    created.add(payment);
+                    payments.put(entry.getKey(), payment);
+                } catch (CompletionException ex) {
+                    // The reason marks the item as failed, so it must not be null.
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    unavailable.put(entry.getKey(),
+                            Objects.toString(cause.getMessage(), cause.getClass().getSimpleName()));
+                }
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<UUID> unconfirmed = paymentRepository.insertAllIfAbsent(created);
+                List<Payment> inserted = new ArrayList<>(created.size());
+                if (!unconfirmed.isEmpty()) {
+                    // Concurrent authorizations may have stored these orders first; theirs wins.
+                    for (Payment stored : paymentRepository.findByTenantIdAndOrderIdIn(tenantId, unconfirmed)) {
+                        if (stored.getId().equals(payments.get(stored.getOrderId()).getId())) {
+                            inserted.add(stored);
+                        }
+                        payments.put(stored.getOrderId(), stored);
+                    }
+                }
+                for (Payment payment : created) {
+                    if (!unconfirmed.contains(payment.getOrderId())) {
+                        inserted.add(payment);
+                    }
+                }
+                ledger.recordAuthorized(inserted);
+            });
+        }
+
+        List<PaymentBatchItemResult> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            PaymentAuthorizationRequest request = requests.get(i);
+            UUID orderId = request != null ? request.getOrderId() : null;
+            String error = errors.containsKey(i) ? errors.get(i) : unavailable.get(orderId);
+            if (error != null) {
+                PaymentBatchItemResult result = new PaymentBatchItemResult(orderId, null, null, null, null, null, error);
+                result.setRetryable(!errors.containsKey(i));
+                results.add(result);
+                continue;
+            }
+            Payment payment = payments.get(orderId);
+            results.add(new PaymentBatchItemResult(orderId, payment.getId(), payment.getUserId(),
+                    payment.getAmount(), payment.getStatus(), payment.getProvider(), null));
+        }
+        return results;
+    }
+
+    private String validate(PaymentAuthorizationRequest request) {
+        if (request == null) {
+            return "Item must not be null";
+        }
+        Set<ConstraintViolation<PaymentAuthorizationRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Cancels the order's payment with the provider that authorized it, then records
+     * the cancellation with a single conditional update and, for authorized payments,
+     * posts the release to the ledger. Cancelling twice is a no-op.
+     *
+     * An authorized payment is first claimed by moving it to {@code CANCELING}, so that
+     * a settlement run cannot capture it while the provider releases it. If the
+     * provider is unavailable the payment stays {@code CANCELING} and a retry finishes
+     * the cancellation.
+     *
+     * @throws ResponseStatusException with 409 if the payment was already captured or is
+     *                                 being settled, or 503 if the provider is unavailable
+     */
     public Payment cancel(String tenantId, UUID orderId) {
         Payment payment = paymentRepository.findByOrderIdAndTenantId(orderId, tenantId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Payment not found"));
+        if (payment.getStatus() == PaymentStatus.CANCELED) {
+            return payment;
+        }
+        requireNotSettled(payment);
+        if (payment.getStatus() == PaymentStatus.AUTHORIZED) {
+            if (!paymentRepository.transition(tenantId, orderId, PaymentStatus.AUTHORIZED, PaymentStatus.CANCELING)) {
+                // Claimed by a settlement run or another cancellation; decide on its new status.
+                return cancel(tenantId, orderId);
+            }
+            payment.setStatus(PaymentStatus.CANCELING);
+        }
+
+        PaymentStatus previous = payment.getStatus();
+        PaymentStrategy strategy = strategies.get(payment.getProvider());
+        Payment canceled = callProvider(strategy, "cancel", () -> strategy.cancel(payment));
+        boolean transitioned = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (!paymentRepository.transition(tenantId, orderId, previous, PaymentStatus.CANCELED)) {
+                return false;
+            }
+            if (previous == PaymentStatus.CANCELING) {
+                ledger.recordCanceled(canceled);
+            }
+            return true;
+        }));
+        if (transitioned) {
+            return canceled;
+        }
+        // A concurrent cancellation got there first and posted the release.
+        return paymentRepository.findByOrderIdAndTenantId(orderId, tenantId).orElseThrow();
+    }
 
-        return paymentStrategy.cancel(payment);
+    private static void requireNotSettled(Payment payment) {
+        if (payment.getStatus() == PaymentStatus.CAPTURED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Payment already captured");
+        }
+        if (payment.getStatus() == PaymentStatus.SETTLING) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Payment is being captured");
+        }
+    }
+
+    private <T> T callProvider(PaymentStrategy strategy, String operation, Supplier<T> call) {
+        try {
+            return providerGateway.call(strategy.getProviderName(), operation, call);
+        } catch (ProviderUnavailableException ex) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), ex);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,404 @@
+package com.smartuniversity.payment.settlement;
+
+import com.smartuniversity.payment.domain.Payment;
+import com.smartuniversity.payment.domain.PaymentStatus;
+import com.smartuniversity.payment.domain.SettlementCheckpoint;
+import com.smartuniversity.payment.ledger.PaymentLedger;
+import com.smartuniversity.payment.repository.PaymentRepository;
+import com.smartuniversity.payment.repository.SettlementCheckpointRepository;
+import com.smartuniversity.payment.strategy.PaymentProviderGateway;
+import com.smartuniversity.payment.strategy.PaymentStrategy;
+import com.smartuniversity.payment.strategy.PaymentStrategyRegistry;
+import com.smartuniversity.payment.strategy.ProviderUnavailableException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Captures authorized payments in bulk.
+ *
+ * A run settles every payment that was {@code AUTHORIZED} when it started. Payments
+ * are read in id order in keyset chunks and claimed by moving them to
+ * {@code SETTLING}, so that a concurrent cancellation is refused instead of racing the
+ * capture. The claimed payments are captured with their provider through the
+ * {@link PaymentProviderGateway} with at most {@code payment.settlement.parallelism}
+ * calls in flight, and each chunk's status changes, ledger postings and checkpoint
+ * are written in one transaction. A run that stops part-way resumes after the last
+ * checkpointed payment and first finishes the payments it left {@code SETTLING}.
+ * Payments the provider declined, or that were never sent to it, go back to
+ * {@code AUTHORIZED} for the next run. A capture that timed out or failed may still
+ * have taken the money, so its payment stays {@code SETTLING}, where it cannot be
+ * canceled, and the next run captures it again.
+ *
+ * Only one run is in progress across the cluster: a run holds a lease on the job's
+ * checkpoint row for {@code payment.settlement.lease}, renewed before every chunk, and
+ * instances that cannot take it skip the run. A run that loses its lease stops after
+ * recording its current chunk.
+ */
+@Component
+public class SettlementJob {
+
+    static final String JOB_NAME = "payment-settlement";
+
+    private static final Logger log = LoggerFactory.getLogger(SettlementJob.class);
+
+    private final PaymentRepository paymentRepository;
+    private final SettlementCheckpointRepository checkpointRepository;
+    private final PaymentStrategyRegistry strategies;
+    private final PaymentProviderGateway providerGateway;
+    private final PaymentLedger ledger;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int parallelism;
+    private final Duration lease;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong processed = new AtomicLong();
+    private final ExecutorService trigger;
+
+    private final Counter capturedCounter;
+    private final Counter failedCounter;
+    private final Counter conflictCounter;
+    private final Counter unknownCounter;
+    private final Timer chunkTimer;
+
+    public SettlementJob(PaymentRepository paymentRepository,
+                         SettlementCheckpointRepository checkpointRepository,
+                         PaymentStrategyRegistry strategies,
+                         PaymentProviderGateway providerGateway,
+                         PaymentLedger ledger,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${payment.settlement.chunk-size:1000}") int chunkSize,
+                         @Value("${payment.settlement.parallelism:16}") int parallelism,
+                         @Value("${payment.settlement.lease:10m}") Duration lease) {
+        this.paymentRepository = paymentRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.strategies = strategies;
+        this.providerGateway = providerGateway;
+        this.ledger = ledger;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.lease = lease;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("payment-settlement-");
+        threadFactory.setDaemon(true);
+        this.trigger = Executors.newSingleThreadExecutor(threadFactory);
+
+        this.capturedCounter = outcome(meterRegistry, "captured");
+        this.failedCounter = outcome(meterRegistry, "failed");
+        this.conflictCounter = outcome(meterRegistry, "conflict");
+        this.unknownCounter = outcome(meterRegistry, "unknown");
+        this.chunkTimer = Timer.builder("payment.settlement.chunks")
+                .description("Time to capture and record one settlement chunk")
+                .register(meterRegistry);
+        Gauge.builder("payment.settlement.processed", processed, AtomicLong::get)
+                .description("Payments processed by the current or last settlement run")
+                .register(meterRegistry);
+        Gauge.builder("payment.settlement.running", running, r -> r.get() ? 1 : 0)
+                .description("Whether a settlement run is in progress")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${payment.settlement.cron:0 0 2 * * *}")
+    public void scheduledRun() {
+        run();
+    }
+
+    /**
+     * Starts a run in the background.
+     *
+     * @return {@code false} if a run is already in progress
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        trigger.execute(() -> {
+            try {
+                settle(Integer.MAX_VALUE);
+            } catch (RuntimeException ex) {
+                log.error("Settlement run failed; it resumes from the last checkpoint", ex);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Runs to completion on the calling thread.
+     *
+     * @return the final checkpoint, or {@code null} if a run is already in progress
+     *         here or on another instance
+     */
+    public SettlementCheckpoint run() {
+        return run(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Settles at most {@code maxChunks} chunks and leaves the rest for a later run.
+     */
+    SettlementCheckpoint run(int maxChunks) {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Settlement run skipped; another run is in progress");
+            return null;
+        }
+        try {
+            return settle(maxChunks);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public Optional<SettlementCheckpoint> lastCheckpoint() {
+        return checkpointRepository.findById(JOB_NAME);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        trigger.shutdownNow();
+    }
+
+    private SettlementCheckpoint settle(int maxChunks) {
+        if (!checkpointRepository.acquireLease(JOB_NAME, instanceId, leaseUntil())) {
+            log.info("Settlement run skipped; another instance holds the lease");
+            return null;
+        }
+        try {
+            return settleUnderLease(maxChunks);
+        } finally {
+            checkpointRepository.releaseLease(JOB_NAME, instanceId);
+        }
+    }
+
+    private SettlementCheckpoint settleUnderLease(int maxChunks) {
+        SettlementCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME)
+                .filter(c -> !c.isCompleted())
+                .orElse(null);
+        if (checkpoint == null) {
+            checkpoint = save(newRun());
+        } else {
+            log.info("Resuming settlement started at {} after payment {} ({} processed)",
+                    checkpoint.getStartedAt(), checkpoint.getLastId(), checkpoint.getProcessed());
+        }
+        processed.set(checkpoint.getProcessed());
+        finishClaimed();
+
+        for (int chunk = 0; chunk < maxChunks; chunk++) {
+            if (!checkpointRepository.renewLease(JOB_NAME, instanceId, leaseUntil())) {
+                return leaseLost(checkpoint);
+            }
+            List<Payment> payments = paymentRepository.findChunkByStatus(PaymentStatus.AUTHORIZED,
+                    checkpoint.getCutoff(), checkpoint.getLastId(), chunkSize);
+            if (payments.isEmpty()) {
+                checkpoint.setCompletedAt(Instant.now());
+                checkpoint = save(checkpoint);
+                log.info("Settlement finished: {} processed, {} captured, {} failed",
+                        checkpoint.getProcessed(), checkpoint.getCaptured(), checkpoint.getFailed());
+                return checkpoint;
+            }
+            SettlementCheckpoint current = checkpoint;
+            checkpoint = chunkTimer.record(() -> settleChunk(current, payments));
+            if (checkpoint == null) {
+                return leaseLost(current);
+            }
+        }
+        return checkpoint;
+    }
+
+    /**
+     * @return the saved checkpoint, or {@code null} if the lease was lost
+     */
+    private SettlementCheckpoint settleChunk(SettlementCheckpoint checkpoint, List<Payment> payments) {
+        List<Payment> claimed = transactionTemplate.execute(status ->
+                paymentRepository.transitionAll(payments, PaymentStatus.AUTHORIZED, PaymentStatus.SETTLING));
+        // The others were canceled between the read and the claim.
+        int conflicts = payments.size() - claimed.size();
+        conflictCounter.increment(conflicts);
+        Captures captures = capture(claimed);
+
+        SettlementCheckpoint saved = transactionTemplate.execute(status -> {
+            int moved = record(captures);
+            checkpoint.setLastId(payments.get(payments.size() - 1).getId());
+            checkpoint.setProcessed(checkpoint.getProcessed() + payments.size());
+            checkpoint.setCaptured(checkpoint.getCaptured() + moved);
+            checkpoint.setFailed(checkpoint.getFailed() + payments.size() - moved);
+            if (!checkpointRepository.renewLease(JOB_NAME, instanceId, leaseUntil())) {
+                // The new holder owns the checkpoint; the payments above are recorded either way.
+                return null;
+            }
+            return save(checkpoint);
+        });
+        if (saved != null) {
+            processed.set(saved.getProcessed());
+        }
+        return saved;
+    }
+
+    /**
+     * Captures the payments a stopped run left {@code SETTLING} and records them like
+     * a chunk; the provider is asked again because the earlier call's outcome is unknown.
+     */
+    private void finishClaimed() {
+        Instant until = Instant.now();
+        UUID afterId = null;
+        int finished = 0;
+        while (true) {
+            List<Payment> claimed = paymentRepository.findChunkByStatus(PaymentStatus.SETTLING, until, afterId,
+                    chunkSize);
+            if (claimed.isEmpty()) {
+                break;
+            }
+            Captures captures = capture(claimed);
+            transactionTemplate.executeWithoutResult(status -> record(captures));
+            afterId = claimed.get(claimed.size() - 1).getId();
+            finished += claimed.size();
+        }
+        if (finished > 0) {
+            log.info("Finished {} payments left settling by an earlier run", finished);
+        }
+    }
+
+    /**
+     * Moves captured payments to {@code CAPTURED} and declined ones back to
+     * {@code AUTHORIZED}; payments whose outcome is unknown stay {@code SETTLING}.
+     *
+     * @return the number of payments captured
+     */
+    private int record(Captures captures) {
+        List<Payment> moved = paymentRepository.transitionAll(captures.captured(), PaymentStatus.SETTLING,
+                PaymentStatus.CAPTURED);
+        ledger.recordCaptured(moved);
+        paymentRepository.transitionAll(captures.declined(), PaymentStatus.SETTLING, PaymentStatus.AUTHORIZED);
+        capturedCounter.increment(moved.size());
+        failedCounter.increment(captures.declined().size());
+        unknownCounter.increment(captures.unknown());
+        return moved.size();
+    }
+
+    private SettlementCheckpoint leaseLost(SettlementCheckpoint checkpoint) {
+        log.warn("Settlement run stopped after payment {}; its lease was taken over by another instance",
+                checkpoint.getLastId());
+        return checkpoint;
+    }
+
+    /**
+     * Captures the chunk with bounded concurrency and sorts the payments by what the
+     * providers answered.
+     */
+    private Captures capture(List<Payment> payments) {
+        Semaphore permits = new Semaphore(parallelism);
+        List<Payment> declined = new ArrayList<>();
+        List<Payment> sent = new ArrayList<>(payments.size());
+        List<CompletableFuture<Payment>> pending = new ArrayList<>(payments.size());
+        for (Payment payment : payments) {
+            PaymentStrategy strategy;
+            try {
+                strategy = strategies.get(payment.getProvider());
+            } catch (IllegalStateException ex) {
+                log.warn("Cannot settle payment {}: {}", payment.getId(), ex.getMessage());
+                declined.add(payment);
+                continue;
+            }
+            permits.acquireUninterruptibly();
+            CompletableFuture<Payment> call = providerGateway.submit(strategy.getProviderName(), "capture",
+                    () -> strategy.capture(payment));
+            call.whenComplete((result, error) -> permits.release());
+            sent.add(payment);
+            pending.add(call);
+        }
+
+        List<Payment> captured = new ArrayList<>(payments.size());
+        int unknown = 0;
+        for (int i = 0; i < pending.size(); i++) {
+            try {
+                Payment payment = pending.get(i).join();
+                if (payment.getStatus() == PaymentStatus.CAPTURED) {
+                    captured.add(payment);
+                } else {
+                    declined.add(payment);
+                }
+            } catch (CompletionException ex) {
+                if (wasNotCalled(ex.getCause())) {
+                    declined.add(sent.get(i));
+                } else {
+                    // The call may still complete on the provider's side.
+                    log.debug("Capture of payment {} has an unknown outcome; it stays settling",
+                            sent.get(i).getId(), ex.getCause());
+                    unknown++;
+                }
+            }
+        }
+        return new Captures(captured, declined, unknown);
+    }
+
+    /**
+     * Whether the provider call was refused before it started, so nothing was captured.
+     */
+    private static boolean wasNotCalled(Throwable error) {
+        Throwable cause = error instanceof ProviderUnavailableException ? error.getCause() : error;
+        return cause instanceof BulkheadFullException || cause instanceof CallNotPermittedException;
+    }
+
+    private SettlementCheckpoint newRun() {
+        Instant now = Instant.now();
+        SettlementCheckpoint checkpoint = new SettlementCheckpoint();
+        checkpoint.setJobName(JOB_NAME);
+        checkpoint.setCutoff(now);
+        checkpoint.setStartedAt(now);
+        log.info("Starting settlement of payments authorized until {}", now);
+        return checkpoint;
+    }
+
+    private SettlementCheckpoint save(SettlementCheckpoint checkpoint) {
+        checkpoint.setUpdatedAt(Instant.now());
+        return checkpointRepository.save(checkpoint);
+    }
+
+    private Instant leaseUntil() {
+        return Instant.now().plus(lease);
+    }
+
+    private record Captures(List<Payment> captured, List<Payment> declined, int unknown) {
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("payment.settlement.payments")
+                .description("Payments handled by settlement runs")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,134 @@
+package com.smartuniversity.payment.strategy;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs calls to payment providers in isolation from each other.
+ *
+ * Every provider gets its own thread-pool bulkhead, time limiter and circuit breaker,
+ * named after the provider and configured under {@code resilience4j.*} (instances
+ * without their own settings use the {@code default} config). A slow provider can
+ * only exhaust its own threads and queue; callers wait at most its timeout, and
+ * further calls are rejected right away. Each call is timed in
+ * {@code payment.provider.calls} with the configured latency SLO buckets.
+ */
+@Component
+public class PaymentProviderGateway {
+
+    private final ThreadPoolBulkheadRegistry bulkheadRegistry;
+    private final TimeLimiterRegistry timeLimiterRegistry;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final MeterRegistry meterRegistry;
+    private final Duration[] slo;
+    private final ScheduledExecutorService timeoutScheduler;
+
+    public PaymentProviderGateway(ThreadPoolBulkheadRegistry bulkheadRegistry,
+                                  TimeLimiterRegistry timeLimiterRegistry,
+                                  CircuitBreakerRegistry circuitBreakerRegistry,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${payment.providers.slo:100ms,250ms,500ms,1s}") Duration[] slo) {
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.timeLimiterRegistry = timeLimiterRegistry;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.meterRegistry = meterRegistry;
+        this.slo = slo.clone();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("payment-provider-timeout-");
+        threadFactory.setDaemon(true);
+        this.timeoutScheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    /**
+     * Starts {@code call} on the provider's bulkhead. The returned future fails with
+     * {@link ProviderUnavailableException} if the call is rejected, times out or throws.
+     */
+    public <T> CompletableFuture<T> submit(String provider, String operation, Supplier<T> call) {
+        ThreadPoolBulkhead bulkhead = bulkheadRegistry.bulkhead(provider);
+        TimeLimiter timeLimiter = timeLimiterRegistry.timeLimiter(provider);
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(provider);
+
+        Supplier<CompletionStage<T>> guarded = CircuitBreaker.decorateCompletionStage(circuitBreaker,
+                timeLimiter.decorateCompletionStage(timeoutScheduler, () -> bulkhead.executeSupplier(call)));
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        guarded.get().whenComplete((value, error) -> {
+            if (error == null) {
+                sample.stop(timer(provider, operation, "success"));
+                result.complete(value);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            String outcome = outcome(cause);
+            sample.stop(timer(provider, operation, outcome));
+            result.completeExceptionally(new ProviderUnavailableException(provider, outcome, cause));
+        });
+        return result;
+    }
+
+    /**
+     * Like {@link #submit}, but waits for the outcome.
+     *
+     * @throws ProviderUnavailableException if the call did not succeed
+     */
+    public <T> T call(String provider, String operation, Supplier<T> call) {
+        try {
+            return submit(provider, operation, call).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof ProviderUnavailableException unavailable) {
+                throw unavailable;
+            }
+            throw ex;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timeoutScheduler.shutdownNow();
+    }
+
+    private Timer timer(String provider, String operation, String outcome) {
+        return Timer.builder("payment.provider.calls")
+                .description("Calls to payment providers")
+                .tag("provider", provider)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .serviceLevelObjectives(slo)
+                .register(meterRegistry);
+    }
+
+    private static String outcome(Throwable cause) {
+        if (cause instanceof BulkheadFullException) {
+            return "rejected";
+        }
+        if (cause instanceof CallNotPermittedException) {
+            return "circuit-open";
+        }
+        if (cause instanceof TimeoutException) {
+            return "timeout";
+        }
+        return "error";
+    }
+}
@@ -0,0 +1,52 @@
+package com.smartuniversity.payment.strategy;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Which provider handles an authorization. Rules are tried in order and the first
+ * match wins; a rule's empty criteria match anything.
+ *
+ * @param defaultProvider provider used when no rule matches
+ */
+@ConfigurationProperties(prefix = "payment.routing")
+public record PaymentRoutingProperties(String defaultProvider, List<Rule> rules) {
+
+    public PaymentRoutingProperties {
+        if (defaultProvider == null) {
+            defaultProvider = "MOCK";
+        }
+        rules = rules != null ? List.copyOf(rules) : List.of();
+    }
+
+    /**
+     * @param minAmount inclusive lower bound on the amount
+     * @param maxAmount exclusive upper bound on the amount
+     * @param methods   payment methods, compared case-insensitively
+     */
+    public record Rule(String provider, Set<String> tenants, BigDecimal minAmount, BigDecimal maxAmount,
+                       Set<String> methods) {
+
+        boolean matches(String tenantId, BigDecimal amount, String method) {
+            if (tenants != null && !tenants.isEmpty() && !tenants.contains(tenantId)) {
+                return false;
+            }
+            if (minAmount != null && amount.compareTo(minAmount) < 0) {
+                return false;
+            }
+            if (maxAmount != null && amount.compareTo(maxAmount) >= 0) {
+                return false;
+            }
+            return methods == null || methods.isEmpty()
+                    || (method != null && methods.stream().anyMatch(m -> m.equalsIgnoreCase(method.trim())));
+        }
+    }
+
+    static String normalize(String provider) {
+        return provider.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -13,12 +13,20 @@ public interface PaymentStrategy {
     String getProviderName();
 
     /**
-     * Authorizes a payment for an order.
+     * Decides the outcome of an authorization without persisting it, so that callers
+     * authorizing many orders at once can store the results in one batch.
      */
-    Payment authorize(String tenantId, UUID orderId, UUID userId, BigDecimal amount);
+    Payment evaluateAuthorization(String tenantId, UUID orderId, UUID userId, BigDecimal amount);
 
     /**
-     * Cancels an existing payment if supported by the provider.
+     * Collects the funds of an authorized payment and marks it captured. The caller
+     * records the new status.
+     */
+    Payment capture(Payment payment);
+
+    /**
+     * Releases an existing payment with the provider and marks it canceled. The caller
+     * records the new status.
      */
     Payment cancel(Payment payment);
 }
\ No newline at end of file
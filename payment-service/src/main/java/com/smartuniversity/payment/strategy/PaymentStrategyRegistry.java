@@ -0,0 +1,74 @@
+package com.smartuniversity.payment.strategy;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * All {@link PaymentStrategy} beans keyed by {@link PaymentStrategy#getProviderName()},
+ * and the routing rules that pick one for an authorization. Rules naming an unknown
+ * provider fail at startup.
+ */
+@Component
+@EnableConfigurationProperties(PaymentRoutingProperties.class)
+public class PaymentStrategyRegistry {
+
+    private final Map<String, PaymentStrategy> strategies = new HashMap<>();
+    private final PaymentRoutingProperties routing;
+
+    public PaymentStrategyRegistry(List<PaymentStrategy> strategies, PaymentRoutingProperties routing) {
+        for (PaymentStrategy strategy : strategies) {
+            String name = PaymentRoutingProperties.normalize(strategy.getProviderName());
+            if (this.strategies.putIfAbsent(name, strategy) != null) {
+                throw new IllegalStateException("Duplicate payment provider " + name);
+            }
+        }
+        this.routing = routing;
+        require(routing.defaultProvider());
+        routing.rules().forEach(rule -> require(rule.provider()));
+    }
+
+    /**
+     * Picks the provider for an authorization.
+     *
+     * @param method payment method, may be {@code null}
+     */
+    public PaymentStrategy route(String tenantId, BigDecimal amount, String method) {
+        for (PaymentRoutingProperties.Rule rule : routing.rules()) {
+            if (rule.matches(tenantId, amount, method)) {
+                return get(rule.provider());
+            }
+        }
+        return get(routing.defaultProvider());
+    }
+
+    /**
+     * Returns the provider of an existing payment.
+     *
+     * @throws IllegalStateException if no such provider is deployed
+     */
+    public PaymentStrategy get(String provider) {
+        PaymentStrategy strategy = strategies.get(PaymentRoutingProperties.normalize(provider));
+        if (strategy == null) {
+            throw new IllegalStateException("Unknown payment provider " + provider);
+        }
+        return strategy;
+    }
+
+    public Set<String> providerNames() {
+        return Collections.unmodifiableSet(strategies.keySet());
+    }
+
+    private void require(String provider) {
+        if (provider == null || !strategies.containsKey(PaymentRoutingProperties.normalize(provider))) {
+            throw new IllegalStateException("Payment routing refers to unknown provider " + provider
+                    + "; known providers are " + strategies.keySet());
+        }
+    }
+}
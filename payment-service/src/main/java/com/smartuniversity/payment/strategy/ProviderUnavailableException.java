@@ -0,0 +1,19 @@
+package com.smartuniversity.payment.strategy;
+
+/**
+ * A provider call was not made or did not complete: its bulkhead was full, its
+ * circuit breaker was open, it timed out or it failed.
+ */
+public class ProviderUnavailableException extends RuntimeException {
+
+    private final String provider;
+
+    public ProviderUnavailableException(String provider, String reason, Throwable cause) {
+        super("Payment provider " + provider + " unavailable: " + reason, cause);
+        this.provider = provider;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+}
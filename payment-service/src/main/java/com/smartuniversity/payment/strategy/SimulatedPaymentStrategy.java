@@ -0,0 +1,109 @@
+package com.smartuniversity.payment.strategy;
+
+import com.smartuniversity.payment.domain.Payment;
+import com.smartuniversity.payment.domain.PaymentStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Local stand-in for a real provider, for load tests.
+ *
+ * Each call takes a log-normally distributed time with the configured median and
+ * 99th percentile. A share of authorizations is declined ({@code decline-rate}) and a
+ * share of calls fails outright ({@code error-rate}), which counts against the
+ * provider's circuit breaker. A fixed {@code seed} makes runs repeatable.
+ */
+@Component
+public class SimulatedPaymentStrategy implements PaymentStrategy {
+
+    /**
+     * z-score of the 99th percentile of the standard normal distribution.
+     */
+    private static final double Z_99 = 2.326;
+
+    private final double medianMillis;
+    private final double sigma;
+    private final double maxMillis;
+    private final double declineRate;
+    private final double errorRate;
+    private final Random random;
+
+    public SimulatedPaymentStrategy(@Value("${payment.simulated.latency.median:20ms}") Duration median,
+                                    @Value("${payment.simulated.latency.p99:200ms}") Duration p99,
+                                    @Value("${payment.simulated.decline-rate:0.0}") double declineRate,
+                                    @Value("${payment.simulated.error-rate:0.0}") double errorRate,
+                                    @Value("${payment.simulated.seed:#{null}}") Long seed) {
+        if (p99.compareTo(median) < 0) {
+            throw new IllegalArgumentException("payment.simulated.latency.p99 must not be below the median");
+        }
+        this.medianMillis = median.toNanos() / 1_000_000.0;
+        this.sigma = medianMillis > 0 ? Math.log((p99.toNanos() / 1_000_000.0) / medianMillis) / Z_99 : 0;
+        // Cap the tail so a single sample cannot stall a thread indefinitely.
+        this.maxMillis = p99.toNanos() / 1_000_000.0 * 10;
+        this.declineRate = declineRate;
+        this.errorRate = errorRate;
+        this.random = seed != null ? new Random(seed) : new Random();
+    }
+
+    @Override
+    public String getProviderName() {
+        return "SIMULATED";
+    }
+
+    @Override
+    public Payment evaluateAuthorization(String tenantId, UUID orderId, UUID userId, BigDecimal amount) {
+        simulateCall();
+        Payment payment = new Payment();
+        payment.setTenantId(tenantId);
+        payment.setOrderId(orderId);
+        payment.setUserId(userId);
+        payment.setAmount(amount);
+        payment.setProvider(getProviderName());
+        payment.setStatus(random.nextDouble() < declineRate ? PaymentStatus.FAILED : PaymentStatus.AUTHORIZED);
+        return payment;
+    }
+
+    @Override
+    public Payment capture(Payment payment) {
+        simulateCall();
+        payment.setStatus(PaymentStatus.CAPTURED);
+        return payment;
+    }
+
+    @Override
+    public Payment cancel(Payment payment) {
+        simulateCall();
+        payment.setStatus(PaymentStatus.CANCELED);
+        return payment;
+    }
+
+    /**
+     * Draws one call latency in milliseconds.
+     */
+    double sampleLatencyMillis() {
+        if (medianMillis <= 0) {
+            return 0;
+        }
+        return Math.min(medianMillis * Math.exp(sigma * random.nextGaussian()), maxMillis);
+    }
+
+    private void simulateCall() {
+        long nanos = (long) (sampleLatencyMillis() * 1_000_000);
+        if (nanos > 0) {
+            try {
+                Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Simulated provider call interrupted", ex);
+            }
+        }
+        if (random.nextDouble() < errorRate) {
+            throw new IllegalStateException("Simulated provider error");
+        }
+    }
+}
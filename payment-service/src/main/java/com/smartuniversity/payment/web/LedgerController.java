@@ -0,0 +1,62 @@
+package com.smartuniversity.payment.web;
+
+import com.smartuniversity.payment.ledger.PaymentJournalRepository;
+import com.smartuniversity.payment.web.dto.JournalEntryDto;
+import com.smartuniversity.payment.web.dto.LedgerBalanceDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Read-only access to the payment journal for finance reports and reconciliation.
+ */
+@RestController
+@RequestMapping("/payment/ledger")
+@Tag(name = "Ledger", description = "Double-entry payment journal and running balances")
+public class LedgerController {
+
+    private final PaymentJournalRepository journalRepository;
+
+    public LedgerController(PaymentJournalRepository journalRepository) {
+        this.journalRepository = journalRepository;
+    }
+
+    @GetMapping("/balances")
+    @Operation(summary = "Account balances", description = "Returns the tenant's running balance per ledger account from the summary table (ADMIN only)")
+    public ResponseEntity<List<LedgerBalanceDto>> balances(@RequestHeader("X-Tenant-Id") String tenantId,
+            @RequestHeader("X-User-Role") String role) {
+
+        if (!"ADMIN".equals(role)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(journalRepository.findBalances(tenantId).stream()
+                .map(b -> new LedgerBalanceDto(b.account(), b.balance(), b.entries(), b.updatedAt()))
+                .collect(Collectors.toList()));
+    }
+
+    @GetMapping("/payments/{paymentId}")
+    @Operation(summary = "Payment journal", description = "Returns the journal entries of a payment in booking order (ADMIN only)")
+    public ResponseEntity<List<JournalEntryDto>> paymentJournal(@PathVariable("paymentId") UUID paymentId,
+            @RequestHeader("X-Tenant-Id") String tenantId,
+            @RequestHeader("X-User-Role") String role) {
+
+        if (!"ADMIN".equals(role)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(journalRepository.findByPayment(tenantId, paymentId).stream()
+                .map(e -> new JournalEntryDto(e.event(), e.account(), e.direction(), e.amount(), e.bookedAt()))
+                .collect(Collectors.toList()));
+    }
+}
@@ -1,8 +1,11 @@
 package com.smartuniversity.payment.web;
 
+import com.smartuniversity.common.idempotency.IdempotencyService;
 import com.smartuniversity.payment.domain.Payment;
 import com.smartuniversity.payment.service.PaymentService;
 import com.smartuniversity.payment.web.dto.PaymentAuthorizationRequest;
+import com.smartuniversity.payment.web.dto.PaymentBatchRequest;
+import com.smartuniversity.payment.web.dto.PaymentBatchResponse;
 import com.smartuniversity.payment.web.dto.PaymentResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -28,24 +31,45 @@ import java.util.UUID;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
 
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, IdempotencyService idempotencyService) {
         this.paymentService = paymentService;
+        this.idempotencyService = idempotencyService;
     }
 
     @PostMapping("/authorize")
     @Operation(summary = "Authorize payment", description = "Authorizes a payment for an order and persists payment state")
     public ResponseEntity<PaymentResponse> authorize(
             @Valid @RequestBody PaymentAuthorizationRequest request,
+            @RequestHeader("X-Tenant-Id") String tenantId,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+
+        if (!StringUtils.hasText(tenantId)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        // Retries with the same key return the original payment instead of charging again.
+        return idempotencyService.execute("authorize", tenantId, request.getUserId(), idempotencyKey, request,
+                PaymentResponse.class, () -> {
+                    Payment payment = paymentService.authorize(tenantId, request);
+                    return ResponseEntity.status(HttpStatus.CREATED).body(toResponse(payment));
+                });
+    }
+
+    @PostMapping("/authorize/batch")
+    @Operation(summary = "Authorize payments in bulk",
+            description = "Authorizes many payments of one tenant in a single call and returns per-item results")
+    public ResponseEntity<PaymentBatchResponse> authorizeBatch(
+            @Valid @RequestBody PaymentBatchRequest request,
             @RequestHeader("X-Tenant-Id") String tenantId) {
 
         if (!StringUtils.hasText(tenantId)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        Payment payment = paymentService.authorize(tenantId, request);
-        PaymentResponse response = toResponse(payment);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        // Safe to retry as a whole: orders that already have a payment get it back.
+        return ResponseEntity.ok(new PaymentBatchResponse(paymentService.authorizeBatch(tenantId, request.getItems())));
     }
 
     @PostMapping("/cancel/{orderId}")
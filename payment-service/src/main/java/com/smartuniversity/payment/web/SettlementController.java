@@ -0,0 +1,63 @@
+package com.smartuniversity.payment.web;
+
+import com.smartuniversity.payment.domain.SettlementCheckpoint;
+import com.smartuniversity.payment.settlement.SettlementJob;
+import com.smartuniversity.payment.web.dto.SettlementStatusDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Operator access to the settlement job, in addition to its schedule.
+ */
+@RestController
+@RequestMapping("/payment/settlement")
+@Tag(name = "Settlement", description = "Bulk capture of authorized payments")
+public class SettlementController {
+
+    private final SettlementJob settlementJob;
+
+    public SettlementController(SettlementJob settlementJob) {
+        this.settlementJob = settlementJob;
+    }
+
+    @PostMapping("/run")
+    @Operation(summary = "Start settlement", description = "Starts a settlement run in the background, resuming an interrupted one (ADMIN only)")
+    public ResponseEntity<SettlementStatusDto> run(@RequestHeader("X-User-Role") String role) {
+        if (!"ADMIN".equals(role)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (!settlementJob.start()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(status());
+        }
+        return ResponseEntity.accepted().body(status());
+    }
+
+    @GetMapping
+    @Operation(summary = "Settlement status", description = "Returns the progress of the current or last settlement run (ADMIN only)")
+    public ResponseEntity<SettlementStatusDto> status(@RequestHeader("X-User-Role") String role) {
+        if (!"ADMIN".equals(role)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(status());
+    }
+
+    private SettlementStatusDto status() {
+        boolean running = settlementJob.isRunning();
+        return settlementJob.lastCheckpoint()
+                .map(c -> toDto(running, c))
+                .orElseGet(() -> new SettlementStatusDto(running, null, 0, 0, 0, null, null, null));
+    }
+
+    private static SettlementStatusDto toDto(boolean running, SettlementCheckpoint checkpoint) {
+        return new SettlementStatusDto(running, checkpoint.getCutoff(), checkpoint.getProcessed(),
+                checkpoint.getCaptured(), checkpoint.getFailed(), checkpoint.getStartedAt(),
+                checkpoint.getUpdatedAt(), checkpoint.getCompletedAt());
+    }
+}
@@ -0,0 +1,68 @@
+package com.smartuniversity.payment.web.dto;
+
+import com.smartuniversity.payment.ledger.JournalEntry;
+import com.smartuniversity.payment.ledger.LedgerAccount;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public class JournalEntryDto {
+
+    private String event;
+    private LedgerAccount account;
+    private JournalEntry.Direction direction;
+    private BigDecimal amount;
+    private Instant bookedAt;
+
+    public JournalEntryDto() {
+    }
+
+    public JournalEntryDto(String event, LedgerAccount account, JournalEntry.Direction direction, BigDecimal amount,
+                           Instant bookedAt) {
+        this.event = event;
+        this.account = account;
+        this.direction = direction;
+        this.amount = amount;
+        this.bookedAt = bookedAt;
+    }
+
+    public String getEvent() {
+        return event;
+    }
+
+    public void setEvent(String event) {
+        this.event = event;
+    }
+
+    public LedgerAccount getAccount() {
+        return account;
+    }
+
+    public void setAccount(LedgerAccount account) {
+        this.account = account;
+    }
+
+    public JournalEntry.Direction getDirection() {
+        return direction;
+    }
+
+    public void setDirection(JournalEntry.Direction direction) {
+        this.direction = direction;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public Instant getBookedAt() {
+        return bookedAt;
+    }
+
+    public void setBookedAt(Instant bookedAt) {
+        this.bookedAt = bookedAt;
+    }
+}
@@ -0,0 +1,56 @@
+package com.smartuniversity.payment.web.dto;
+
+import com.smartuniversity.payment.ledger.LedgerAccount;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public class LedgerBalanceDto {
+
+    private LedgerAccount account;
+    private BigDecimal balance;
+    private long entries;
+    private Instant updatedAt;
+
+    public LedgerBalanceDto() {
+    }
+
+    public LedgerBalanceDto(LedgerAccount account, BigDecimal balance, long entries, Instant updatedAt) {
+        this.account = account;
+        this.balance = balance;
+        this.entries = entries;
+        this.updatedAt = updatedAt;
+    }
+
+    public LedgerAccount getAccount() {
+        return account;
+    }
+
+    public void setAccount(LedgerAccount account) {
+        this.account = account;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    public long getEntries() {
+        return entries;
+    }
+
+    public void setEntries(long entries) {
+        this.entries = entries;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
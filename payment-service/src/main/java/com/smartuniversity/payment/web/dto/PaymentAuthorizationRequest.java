@@ -2,6 +2,7 @@ package com.smartuniversity.payment.web.dto;
 
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 import java.math.BigDecimal;
 import java.util.UUID;
@@ -21,6 +22,12 @@ public class PaymentAuthorizationRequest {
     @Min(0)
     private BigDecimal amount;
 
+    /**
+     * Payment method, e.g. {@code CARD}; optional and only used to route to a provider.
+     */
+    @Size(max = 32)
+    private String method;
+
     public UUID getOrderId() {
         return orderId;
     }
@@ -44,4 +51,12 @@ public class PaymentAuthorizationRequest {
     public void setAmount(BigDecimal amount) {
         this.amount = amount;
     }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.smartuniversity.payment.web.dto;
+
+import com.smartuniversity.payment.domain.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Outcome of one item of a batch authorization. Either {@code paymentId} and
+ * {@code status} are set, or {@code error} explains why the item was rejected.
+ * {@code retryable} errors (provider unavailable) may succeed when sent again.
+ */
+public class PaymentBatchItemResult {
+
+    private UUID orderId;
+    private UUID paymentId;
+    private UUID userId;
+    private BigDecimal amount;
+    private PaymentStatus status;
+    private String provider;
+    private String error;
+    private boolean retryable;
+
+    public PaymentBatchItemResult() {
+    }
+
+    public PaymentBatchItemResult(UUID orderId, UUID paymentId, UUID userId, BigDecimal amount,
+                                  PaymentStatus status, String provider, String error) {
+        this.orderId = orderId;
+        this.paymentId = paymentId;
+        this.userId = userId;
+        this.amount = amount;
+        this.status = status;
+        this.provider = provider;
+        this.error = error;
+    }
+
+    public UUID getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(UUID orderId) {
+        this.orderId = orderId;
+    }
+
+    public UUID getPaymentId() {
+        return paymentId;
+    }
+
+    public void setPaymentId(UUID paymentId) {
+        this.paymentId = paymentId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public PaymentStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(PaymentStatus status) {
+        this.status = status;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public void setProvider(String provider) {
+        this.provider = provider;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+
+    public void setRetryable(boolean retryable) {
+        this.retryable = retryable;
+    }
+}
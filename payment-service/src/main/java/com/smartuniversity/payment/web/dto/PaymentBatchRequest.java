@@ -0,0 +1,36 @@
+package com.smartuniversity.payment.web.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Request body for authorizing several payments of one tenant in a single call.
+ *
+ * Items are validated individually so that one malformed entry does not fail the
+ * rest of the batch.
+ */
+public class PaymentBatchRequest {
+
+    public static final int MAX_ITEMS = 500;
+
+    @NotEmpty
+    @Size(max = MAX_ITEMS)
+    private List<PaymentAuthorizationRequest> items;
+
+    public PaymentBatchRequest() {
+    }
+
+    public PaymentBatchRequest(List<PaymentAuthorizationRequest> items) {
+        this.items = items;
+    }
+
+    public List<PaymentAuthorizationRequest> getItems() {
+        return items;
+    }
+
+    public void setItems(List<PaymentAuthorizationRequest> items) {
+        this.items = items;
+    }
+}
@@ -0,0 +1,26 @@
+package com.smartuniversity.payment.web.dto;
+
+import java.util.List;
+
+/**
+ * Per-item results of a batch authorization, in the order of the request items.
+ */
+public class PaymentBatchResponse {
+
+    private List<PaymentBatchItemResult> results;
+
+    public PaymentBatchResponse() {
+    }
+
+    public PaymentBatchResponse(List<PaymentBatchItemResult> results) {
+        this.results = results;
+    }
+
+    public List<PaymentBatchItemResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<PaymentBatchItemResult> results) {
+        this.results = results;
+    }
+}
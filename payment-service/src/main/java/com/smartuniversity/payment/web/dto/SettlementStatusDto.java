@@ -0,0 +1,94 @@
+package com.smartuniversity.payment.web.dto;
+
+import java.time.Instant;
+
+public class SettlementStatusDto {
+
+    private boolean running;
+    private Instant cutoff;
+    private long processed;
+    private long captured;
+    private long failed;
+    private Instant startedAt;
+    private Instant updatedAt;
+    private Instant completedAt;
+
+    public SettlementStatusDto() {
+    }
+
+    public SettlementStatusDto(boolean running, Instant cutoff, long processed, long captured, long failed,
+                               Instant startedAt, Instant updatedAt, Instant completedAt) {
+        this.running = running;
+        this.cutoff = cutoff;
+        this.processed = processed;
+        this.captured = captured;
+        this.failed = failed;
+        this.startedAt = startedAt;
+        this.updatedAt = updatedAt;
+        this.completedAt = completedAt;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void setRunning(boolean running) {
+        this.running = running;
+    }
+
+    public Instant getCutoff() {
+        return cutoff;
+    }
+
+    public void setCutoff(Instant cutoff) {
+        this.cutoff = cutoff;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(long processed) {
+        this.processed = processed;
+    }
+
+    public long getCaptured() {
+        return captured;
+    }
+
+    public void setCaptured(long captured) {
+        this.captured = captured;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Instant completedAt) {
+        this.completedAt = completedAt;
+    }
+}
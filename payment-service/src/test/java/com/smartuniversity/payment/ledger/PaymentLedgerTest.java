@@ -0,0 +1,115 @@
+package com.smartuniversity.payment.ledger;
+
+import com.smartuniversity.payment.domain.Payment;
+import com.smartuniversity.payment.domain.PaymentStatus;
+import com.smartuniversity.payment.service.PaymentService;
+import com.smartuniversity.payment.web.dto.PaymentAuthorizationRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PaymentLedgerTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentJournalRepository journalRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void authorizationAndCancellationPostBalancedEntriesAndKeepRunningBalances() {
+        String tenant = "ledger-" + UUID.randomUUID();
+        Payment kept = paymentService.authorize(tenant, request(new BigDecimal("30.00")));
+        Payment canceled = paymentService.authorize(tenant, request(new BigDecimal("12.50")));
+        paymentService.cancel(tenant, canceled.getOrderId());
+        paymentService.cancel(tenant, canceled.getOrderId());
+
+        List<JournalEntry> entries = journalRepository.findByPayment(tenant, canceled.getId());
+        assertThat(entries).hasSize(4);
+        assertThat(entries).extracting(JournalEntry::event)
+                .containsExactly("AUTHORIZED", "AUTHORIZED", "CANCELED", "CANCELED");
+        assertThat(entries.stream().map(JournalEntry::signedAmount).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .isZero();
+
+        Map<LedgerAccount, LedgerBalance> balances = balances(tenant);
+        assertThat(balances.get(LedgerAccount.AUTHORIZED).balance()).isEqualByComparingTo(kept.getAmount());
+        assertThat(balances.get(LedgerAccount.CUSTOMER).balance()).isEqualByComparingTo(kept.getAmount().negate());
+        assertThat(balances.get(LedgerAccount.AUTHORIZED).entries()).isEqualTo(3);
+    }
+
+    @Test
+    void batchAuthorizationPostsEachNewPaymentOnce() {
+        String tenant = "ledger-" + UUID.randomUUID();
+        PaymentAuthorizationRequest first = request(new BigDecimal("5.00"));
+        PaymentAuthorizationRequest second = request(new BigDecimal("7.00"));
+        paymentService.authorize(tenant, first);
+
+        paymentService.authorizeBatch(tenant, List.of(first, second, second));
+        paymentService.authorizeBatch(tenant, List.of(first, second));
+
+        Map<LedgerAccount, LedgerBalance> balances = balances(tenant);
+        assertThat(balances.get(LedgerAccount.AUTHORIZED).balance()).isEqualByComparingTo("12.00");
+        assertThat(balances.get(LedgerAccount.AUTHORIZED).entries()).isEqualTo(2);
+        assertThat(balances.get(LedgerAccount.CUSTOMER).balance()).isEqualByComparingTo("-12.00");
+    }
+
+    @Test
+    void balancesAreReadFromTheSummaryForAdminsOnly() throws Exception {
+        String tenant = "ledger-" + UUID.randomUUID();
+        Payment payment = paymentService.authorize(tenant, request(new BigDecimal("40.00")));
+
+        mockMvc.perform(get("/payment/ledger/balances")
+                        .header("X-Tenant-Id", tenant)
+                        .header("X-User-Role", "ADMIN"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].account", is("AUTHORIZED")))
+                .andExpect(jsonPath("$[0].balance", is(40.0)));
+
+        mockMvc.perform(get("/payment/ledger/payments/{paymentId}", payment.getId())
+                        .header("X-Tenant-Id", tenant)
+                        .header("X-User-Role", "ADMIN"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        mockMvc.perform(get("/payment/ledger/balances")
+                        .header("X-Tenant-Id", tenant)
+                        .header("X-User-Role", "STUDENT"))
+                .andExpect(status().isForbidden());
+    }
+
+    private Map<LedgerAccount, LedgerBalance> balances(String tenant) {
+        return journalRepository.findBalances(tenant).stream()
+                .collect(Collectors.toMap(LedgerBalance::account, balance -> balance));
+    }
+
+    private static PaymentAuthorizationRequest request(BigDecimal amount) {
+        PaymentAuthorizationRequest request = new PaymentAuthorizationRequest();
+        request.setOrderId(UUID.randomUUID());
+        request.setUserId(UUID.randomUUID());
+        request.setAmount(amount);
+        return request;
+    }
+}
@@ -0,0 +1,137 @@
+package com.smartuniversity.payment.messaging;
+
+import com.smartuniversity.common.events.PaymentCommand;
+import com.smartuniversity.common.events.PaymentEvent;
+import com.smartuniversity.payment.config.MessagingConfig;
+import com.smartuniversity.payment.domain.PaymentStatus;
+import com.smartuniversity.payment.repository.PaymentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentCommandListenerTest {
+
+    private static final String TENANT = "engineering";
+
+    @Autowired
+    private PaymentCommandListener listener;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.reset(rabbitTemplate);
+    }
+
+    @Test
+    void batchIsDeduplicatedByOrderAndAnsweredWithEvents() {
+        UUID authorized = UUID.randomUUID();
+        UUID canceled = UUID.randomUUID();
+        UUID invalid = UUID.randomUUID();
+        UUID neverAuthorized = UUID.randomUUID();
+        PaymentCommand authorize = PaymentCommand.authorize(authorized, TENANT, UUID.randomUUID(), BigDecimal.TEN);
+        double dedupedBefore = meterRegistry.counter("payment.commands.deduplicated").count();
+
+        listener.onCommands(List.of(
+                authorize,
+                PaymentCommand.authorize(canceled, TENANT, UUID.randomUUID(), BigDecimal.ONE),
+                authorize,
+                PaymentCommand.authorize(invalid, TENANT, UUID.randomUUID(), null),
+                PaymentCommand.cancel(canceled, TENANT),
+                PaymentCommand.cancel(canceled, TENANT),
+                PaymentCommand.cancel(neverAuthorized, TENANT)));
+
+        Map<UUID, PaymentEvent> events = publishedEvents();
+        assertThat(events).hasSize(4);
+        assertThat(events.get(authorized).type()).isEqualTo(PaymentEvent.Type.AUTHORIZED);
+        assertThat(events.get(invalid).type()).isEqualTo(PaymentEvent.Type.DECLINED);
+        assertThat(events.get(invalid).reason()).isEqualTo("amount must not be null");
+        // Authorized first, then canceled by the later command.
+        assertThat(events.get(canceled).type()).isEqualTo(PaymentEvent.Type.CANCELED);
+        assertThat(events.get(canceled).paymentId()).isNotNull();
+        assertThat(events.get(neverAuthorized).type()).isEqualTo(PaymentEvent.Type.CANCELED);
+        assertThat(events.get(neverAuthorized).paymentId()).isNull();
+
+        assertThat(meterRegistry.counter("payment.commands.deduplicated").count() - dedupedBefore).isEqualTo(2);
+        assertThat(paymentRepository.findByOrderIdAndTenantId(canceled, TENANT))
+                .hasValueSatisfying(payment -> assertThat(payment.getStatus()).isEqualTo(PaymentStatus.CANCELED));
+    }
+
+    @Test
+    void redeliveredBatchRepeatsTheSameOutcome() {
+        UUID orderId = UUID.randomUUID();
+        List<PaymentCommand> batch = List.of(
+                PaymentCommand.authorize(orderId, TENANT, UUID.randomUUID(), BigDecimal.valueOf(20)));
+
+        listener.onCommands(batch);
+        UUID paymentId = publishedEvents().get(orderId).paymentId();
+        Mockito.reset(rabbitTemplate);
+        listener.onCommands(batch);
+
+        PaymentEvent replayed = publishedEvents().get(orderId);
+        assertThat(replayed.type()).isEqualTo(PaymentEvent.Type.AUTHORIZED);
+        assertThat(replayed.paymentId()).isEqualTo(paymentId);
+        assertThat(paymentRepository.findByTenantIdAndOrderIdIn(TENANT, List.of(orderId))).hasSize(1);
+    }
+
+    @Test
+    void cancellingACapturedPaymentIsAnsweredButASettlingOneIsRetried() {
+        UUID captured = UUID.randomUUID();
+        UUID settling = UUID.randomUUID();
+        listener.onCommands(List.of(
+                PaymentCommand.authorize(captured, TENANT, UUID.randomUUID(), BigDecimal.TEN),
+                PaymentCommand.authorize(settling, TENANT, UUID.randomUUID(), BigDecimal.TEN)));
+        assertThat(paymentRepository.transition(TENANT, captured, PaymentStatus.AUTHORIZED, PaymentStatus.CAPTURED))
+                .isTrue();
+        assertThat(paymentRepository.transition(TENANT, settling, PaymentStatus.AUTHORIZED, PaymentStatus.SETTLING))
+                .isTrue();
+        Mockito.reset(rabbitTemplate);
+
+        listener.onCommands(List.of(PaymentCommand.cancel(captured, TENANT), PaymentCommand.cancel(settling, TENANT)));
+
+        Map<UUID, PaymentEvent> events = publishedEvents();
+        assertThat(events).containsOnlyKeys(captured);
+        assertThat(events.get(captured).type()).isEqualTo(PaymentEvent.Type.CANCELED);
+        assertThat(events.get(captured).paymentId()).isNotNull();
+        assertThat(events.get(captured).reason()).isEqualTo("Payment already captured");
+    }
+
+    /**
+     * The last event published per order.
+     */
+    private Map<UUID, PaymentEvent> publishedEvents() {
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        Mockito.verify(rabbitTemplate, Mockito.atLeastOnce())
+                .convertAndSend(eq(MessagingConfig.EXCHANGE_NAME), anyString(), captor.capture());
+        return captor.getAllValues().stream()
+                .map(PaymentEvent.class::cast)
+                .collect(Collectors.toMap(PaymentEvent::orderId, Function.identity(), (first, last) -> last));
+    }
+}
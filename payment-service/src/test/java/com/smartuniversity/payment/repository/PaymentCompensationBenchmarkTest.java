@@ -0,0 +1,119 @@
+package com.smartuniversity.payment.repository;
+
+import com.smartuniversity.payment.domain.Payment;
+import com.smartuniversity.payment.domain.PaymentStatus;
+import com.smartuniversity.payment.service.PaymentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that compensation looks payments up through the order index. The latency
+ * measurement against a large table only runs when its size is given, e.g.
+ * {@code -Dpayment.benchmark.payments=2000000} for a production-sized table.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentCompensationBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentCompensationBenchmarkTest.class);
+
+    private static final String TENANT = "benchmark";
+    private static final int INDEXED_PAYMENTS = 1_000;
+    private static final int CANCELLATIONS = 2_000;
+    private static final int CHUNK = 10_000;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM payments WHERE tenant_id = ?", TENANT);
+        jdbcTemplate.update("DELETE FROM payment_journal WHERE tenant_id = ?", TENANT);
+        jdbcTemplate.update("DELETE FROM payment_balances WHERE tenant_id = ?", TENANT);
+    }
+
+    @Test
+    void compensationUsesTheOrderIndex() {
+        List<UUID> orderIds = seed(INDEXED_PAYMENTS);
+
+        // A second payment for an existing order is refused by the unique index.
+        assertThat(paymentRepository.insertIfAbsent(payment(orderIds.get(0)))).isFalse();
+
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT id FROM payments WHERE order_id = ? AND tenant_id = ?", String.class,
+                orderIds.get(0), TENANT);
+        assertThat(plan).containsIgnoringCase("uk_payments_order_tenant");
+        assertThat(paymentService.cancel(TENANT, orderIds.get(0)).getStatus()).isEqualTo(PaymentStatus.CANCELED);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "payment.benchmark.payments", matches = "\\d+")
+    void measureCompensationLatencyOnALargeTable() {
+        int payments = Integer.getInteger("payment.benchmark.payments");
+        long seeding = System.nanoTime();
+        List<UUID> orderIds = seed(payments);
+        long seedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seeding);
+
+        long[] latencies = new long[CANCELLATIONS];
+        for (int i = 0; i < CANCELLATIONS; i++) {
+            UUID orderId = orderIds.get(ThreadLocalRandom.current().nextInt(orderIds.size()));
+            long began = System.nanoTime();
+            assertThat(paymentService.cancel(TENANT, orderId).getStatus()).isEqualTo(PaymentStatus.CANCELED);
+            latencies[i] = System.nanoTime() - began;
+        }
+        Arrays.sort(latencies);
+        double p50 = latencies[CANCELLATIONS / 2] / 1_000_000.0;
+        double p99 = latencies[(int) (CANCELLATIONS * 0.99)] / 1_000_000.0;
+
+        log.info("Compensation over {} payments (seeded in {} ms): p50 {} ms, p99 {} ms",
+                payments, seedMillis, String.format("%.2f", p50), String.format("%.2f", p99));
+    }
+
+    private List<UUID> seed(int payments) {
+        List<UUID> orderIds = new ArrayList<>(payments);
+        for (int offset = 0; offset < payments; offset += CHUNK) {
+            List<Payment> chunk = new ArrayList<>(CHUNK);
+            for (int i = offset; i < Math.min(offset + CHUNK, payments); i++) {
+                Payment payment = payment(UUID.randomUUID());
+                orderIds.add(payment.getOrderId());
+                chunk.add(payment);
+            }
+            assertThat(paymentRepository.insertAllIfAbsent(chunk)).isEmpty();
+        }
+        return orderIds;
+    }
+
+    private static Payment payment(UUID orderId) {
+        Payment payment = new Payment();
+        payment.setTenantId(TENANT);
+        payment.setOrderId(orderId);
+        payment.setUserId(UUID.randomUUID());
+        payment.setAmount(BigDecimal.TEN);
+        payment.setStatus(PaymentStatus.AUTHORIZED);
+        payment.setProvider("MOCK");
+        return payment;
+    }
+}
@@ -0,0 +1,228 @@
+package com.smartuniversity.payment.settlement;
+
+import com.smartuniversity.payment.domain.Payment;
+import com.smartuniversity.payment.domain.PaymentStatus;
+import com.smartuniversity.payment.domain.SettlementCheckpoint;
+import com.smartuniversity.payment.ledger.LedgerAccount;
+import com.smartuniversity.payment.ledger.LedgerBalance;
+import com.smartuniversity.payment.ledger.PaymentJournalRepository;
+import com.smartuniversity.payment.ledger.PaymentLedger;
+import com.smartuniversity.payment.repository.PaymentRepository;
+import com.smartuniversity.payment.repository.SettlementCheckpointRepository;
+import com.smartuniversity.payment.service.PaymentService;
+import com.smartuniversity.payment.strategy.MockPaymentStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Settles a table of authorized payments. The size defaults to a value that keeps
+ * the build fast; run with {@code -Dpayment.settlement.benchmark.payments=1000000}
+ * to settle a full nightly batch.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SettlementJobTest {
+
+    private static final String TENANT = "settlement";
+    private static final int PAYMENTS = Integer.getInteger("payment.settlement.benchmark.payments", 20_000);
+    private static final int CHUNK = 10_000;
+
+    @Autowired
+    private SettlementJob settlementJob;
+
+    @Autowired
+    private SettlementCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentLedger ledger;
+
+    @Autowired
+    private PaymentJournalRepository journalRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @SpyBean
+    private MockPaymentStrategy mockStrategy;
+
+    @BeforeEach
+    void setUp() {
+        checkpointRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM payments WHERE tenant_id = ?", TENANT);
+        jdbcTemplate.update("DELETE FROM payment_journal WHERE tenant_id = ?", TENANT);
+        jdbcTemplate.update("DELETE FROM payment_balances WHERE tenant_id = ?", TENANT);
+    }
+
+    @Test
+    void settlesEveryAuthorizedPaymentAndMovesTheHoldToCaptured() {
+        List<UUID> orderIds = seed();
+
+        SettlementCheckpoint checkpoint = settlementJob.run();
+
+        assertThat(checkpoint.isCompleted()).isTrue();
+        assertThat(checkpoint.getFailed()).isZero();
+        assertThat(capturedCount()).isEqualTo(PAYMENTS);
+        assertBalancesSettled();
+
+        // Captured funds cannot be released by a late compensation.
+        assertThatThrownBy(() -> paymentService.cancel(TENANT, orderIds.get(0)))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode().value()).isEqualTo(409));
+
+        // Nothing is left for the next run.
+        assertThat(settlementJob.run().getProcessed()).isZero();
+    }
+
+    @Test
+    void interruptedRunResumesFromItsCheckpoint() {
+        seed();
+
+        SettlementCheckpoint partial = settlementJob.run(3);
+        assertThat(partial.isCompleted()).isFalse();
+        assertThat(partial.getLastId()).isNotNull();
+        long settledBeforeRestart = capturedCount();
+        assertThat(settledBeforeRestart).isPositive().isLessThan(PAYMENTS);
+
+        SettlementCheckpoint resumed = settlementJob.run();
+        assertThat(resumed.isCompleted()).isTrue();
+        assertThat(resumed.getStartedAt().truncatedTo(ChronoUnit.MILLIS))
+                .isEqualTo(partial.getStartedAt().truncatedTo(ChronoUnit.MILLIS));
+        assertThat(resumed.getProcessed()).isGreaterThan(partial.getProcessed());
+        assertThat(capturedCount()).isEqualTo(PAYMENTS);
+        // Each payment was posted exactly once across both runs.
+        assertBalancesSettled();
+    }
+
+    @Test
+    void runIsSkippedWhileAnotherInstanceHoldsTheLease() {
+        seed();
+        assertThat(checkpointRepository.acquireLease(SettlementJob.JOB_NAME, "other-instance",
+                Instant.now().plusSeconds(60))).isTrue();
+
+        assertThat(settlementJob.run()).isNull();
+        assertThat(capturedCount()).isZero();
+
+        // The other instance died; its lease expires and this instance takes over.
+        jdbcTemplate.update("UPDATE settlement_checkpoints SET lease_until = ? WHERE job_name = ?",
+                Timestamp.from(Instant.now().minusSeconds(1)), SettlementJob.JOB_NAME);
+        assertThat(settlementJob.run().isCompleted()).isTrue();
+        assertThat(capturedCount()).isEqualTo(PAYMENTS);
+        assertThat(settlementJob.lastCheckpoint()).get()
+                .extracting(SettlementCheckpoint::getLeaseOwner).isNull();
+    }
+
+    @Test
+    void paymentLeftSettlingCannotBeCanceledAndIsCapturedByTheNextRun() {
+        List<UUID> orderIds = seed();
+        // A run claimed the payment and stopped before recording its capture.
+        jdbcTemplate.update("UPDATE payments SET status = 'SETTLING' WHERE tenant_id = ? AND order_id = ?",
+                TENANT, orderIds.get(0));
+
+        assertThatThrownBy(() -> paymentService.cancel(TENANT, orderIds.get(0)))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode().value()).isEqualTo(409));
+
+        assertThat(settlementJob.run().isCompleted()).isTrue();
+        assertThat(capturedCount()).isEqualTo(PAYMENTS);
+        assertBalancesSettled();
+    }
+
+    @Test
+    void captureThatTimesOutStaysSettlingAndIsCapturedByTheNextRun() {
+        List<UUID> orderIds = seed();
+        UUID slowOrder = orderIds.get(0);
+        AtomicBoolean slowed = new AtomicBoolean();
+        // The provider answers after the time limit; whether it captured is unknown.
+        Mockito.doAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            if (payment.getOrderId().equals(slowOrder) && slowed.compareAndSet(false, true)) {
+                Thread.sleep(2_500);
+            }
+            return invocation.callRealMethod();
+        }).when(mockStrategy).capture(Mockito.any());
+
+        SettlementCheckpoint checkpoint = settlementJob.run();
+        assertThat(checkpoint.isCompleted()).isTrue();
+        assertThat(checkpoint.getFailed()).isEqualTo(1);
+        assertThat(capturedCount()).isEqualTo(PAYMENTS - 1);
+        assertThat(paymentRepository.findByOrderIdAndTenantId(slowOrder, TENANT)).get()
+                .extracting(Payment::getStatus).isEqualTo(PaymentStatus.SETTLING);
+        assertThatThrownBy(() -> paymentService.cancel(TENANT, slowOrder))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode().value()).isEqualTo(409));
+
+        assertThat(settlementJob.run().isCompleted()).isTrue();
+        assertThat(capturedCount()).isEqualTo(PAYMENTS);
+        assertBalancesSettled();
+    }
+
+    private List<UUID> seed() {
+        List<UUID> orderIds = new ArrayList<>(PAYMENTS);
+        for (int offset = 0; offset < PAYMENTS; offset += CHUNK) {
+            List<Payment> chunk = new ArrayList<>(CHUNK);
+            for (int i = offset; i < Math.min(offset + CHUNK, PAYMENTS); i++) {
+                Payment payment = new Payment();
+                payment.setTenantId(TENANT);
+                payment.setOrderId(UUID.randomUUID());
+                payment.setUserId(UUID.randomUUID());
+                payment.setAmount(BigDecimal.TEN);
+                payment.setStatus(PaymentStatus.AUTHORIZED);
+                payment.setProvider("MOCK");
+                orderIds.add(payment.getOrderId());
+                chunk.add(payment);
+            }
+            assertThat(paymentRepository.insertAllIfAbsent(chunk)).isEmpty();
+            ledger.recordAuthorized(chunk);
+        }
+        return orderIds;
+    }
+
+    private long capturedCount() {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM payments WHERE tenant_id = ? AND status = 'CAPTURED'", Long.class, TENANT);
+        return count == null ? 0 : count;
+    }
+
+    private void assertBalancesSettled() {
+        Map<LedgerAccount, LedgerBalance> balances = journalRepository.findBalances(TENANT).stream()
+                .collect(Collectors.toMap(LedgerBalance::account, Function.identity()));
+        BigDecimal total = BigDecimal.TEN.multiply(BigDecimal.valueOf(PAYMENTS));
+        assertThat(balances.get(LedgerAccount.CAPTURED).balance()).isEqualByComparingTo(total);
+        assertThat(balances.get(LedgerAccount.CAPTURED).entries()).isEqualTo(PAYMENTS);
+        assertThat(balances.get(LedgerAccount.AUTHORIZED).balance()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(balances.get(LedgerAccount.CUSTOMER).balance()).isEqualByComparingTo(total.negate());
+    }
+}
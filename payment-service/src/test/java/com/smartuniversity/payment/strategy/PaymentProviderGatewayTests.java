@@ -0,0 +1,111 @@
+package com.smartuniversity.payment.strategy;
+
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PaymentProviderGatewayTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final PaymentProviderGateway gateway = new PaymentProviderGateway(
+            ThreadPoolBulkheadRegistry.of(ThreadPoolBulkheadConfig.custom()
+                    .coreThreadPoolSize(2)
+                    .maxThreadPoolSize(2)
+                    .queueCapacity(2)
+                    .build()),
+            TimeLimiterRegistry.of(TimeLimiterConfig.custom()
+                    .timeoutDuration(Duration.ofMillis(300))
+                    .build()),
+            CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                    .slidingWindowSize(4)
+                    .minimumNumberOfCalls(4)
+                    .failureRateThreshold(50)
+                    .waitDurationInOpenState(Duration.ofMinutes(1))
+                    .build()),
+            meterRegistry,
+            new Duration[]{Duration.ofMillis(100), Duration.ofSeconds(1)});
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        gateway.shutdown();
+    }
+
+    @Test
+    void slowProviderOnlyExhaustsItsOwnBulkhead() {
+        List<CompletableFuture<String>> stuck = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            stuck.add(gateway.submit("SLOW", "authorize", this::blockUntilReleased));
+        }
+
+        assertThatThrownBy(() -> gateway.call("SLOW", "authorize", () -> "late"))
+                .isInstanceOf(ProviderUnavailableException.class)
+                .satisfies(ex -> assertThat(((ProviderUnavailableException) ex).getProvider()).isEqualTo("SLOW"));
+        assertThat(gateway.call("FAST", "authorize", () -> "ok")).isEqualTo("ok");
+
+        assertThat(count("SLOW", "rejected")).isEqualTo(1);
+        assertThat(count("FAST", "success")).isEqualTo(1);
+        release.countDown();
+        stuck.forEach(future -> future.handle((value, error) -> null).join());
+    }
+
+    @Test
+    void callsExceedingTheTimeoutFailFast() {
+        long began = System.nanoTime();
+        assertThatThrownBy(() -> gateway.call("SLOW", "cancel", this::blockUntilReleased))
+                .isInstanceOf(ProviderUnavailableException.class);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - began)).isLessThan(2_000);
+        assertThat(count("SLOW", "timeout")).isEqualTo(1);
+    }
+
+    @Test
+    void failingProviderOpensItsCircuit() {
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> gateway.call("BROKEN", "authorize", () -> {
+                throw new IllegalStateException("provider down");
+            })).isInstanceOf(ProviderUnavailableException.class);
+        }
+
+        assertThatThrownBy(() -> gateway.call("BROKEN", "authorize", () -> "ok"))
+                .isInstanceOf(ProviderUnavailableException.class);
+        assertThat(count("BROKEN", "error")).isEqualTo(4);
+        assertThat(count("BROKEN", "circuit-open")).isEqualTo(1);
+        assertThat(gateway.call("HEALTHY", "authorize", () -> "ok")).isEqualTo("ok");
+    }
+
+    private String blockUntilReleased() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+
+    private long count(String provider, String outcome) {
+        var timer = meterRegistry.find("payment.provider.calls")
+                .tag("provider", provider)
+                .tag("outcome", outcome)
+                .timer();
+        return timer != null ? timer.count() : 0;
+    }
+}
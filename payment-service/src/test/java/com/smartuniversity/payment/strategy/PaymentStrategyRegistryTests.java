@@ -0,0 +1,95 @@
+package com.smartuniversity.payment.strategy;
+
+import com.smartuniversity.payment.domain.Payment;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PaymentStrategyRegistryTests {
+
+    private final PaymentStrategy mock = new NamedStrategy("MOCK");
+    private final PaymentStrategy card = new NamedStrategy("CARD_PSP");
+    private final PaymentStrategy wallet = new NamedStrategy("WALLET_PSP");
+
+    @Test
+    void routesByTenantAmountAndMethodWithFirstMatchWinning() {
+        PaymentStrategyRegistry registry = new PaymentStrategyRegistry(List.of(mock, card, wallet),
+                new PaymentRoutingProperties("MOCK", List.of(
+                        new PaymentRoutingProperties.Rule("wallet_psp", Set.of("medicine"), null, null, null),
+                        new PaymentRoutingProperties.Rule("CARD_PSP", null, new BigDecimal("100"), null,
+                                Set.of("card")))));
+
+        assertThat(registry.route("medicine", new BigDecimal("500"), "CARD")).isSameAs(wallet);
+        assertThat(registry.route("engineering", new BigDecimal("100"), "Card")).isSameAs(card);
+        assertThat(registry.route("engineering", new BigDecimal("99.99"), "CARD")).isSameAs(mock);
+        assertThat(registry.route("engineering", new BigDecimal("500"), null)).isSameAs(mock);
+        assertThat(registry.route("engineering", new BigDecimal("500"), "BANK")).isSameAs(mock);
+    }
+
+    @Test
+    void amountUpperBoundIsExclusive() {
+        PaymentStrategyRegistry registry = new PaymentStrategyRegistry(List.of(mock, card),
+                new PaymentRoutingProperties(null, List.of(
+                        new PaymentRoutingProperties.Rule("CARD_PSP", null, null, new BigDecimal("50"), null))));
+
+        assertThat(registry.route("engineering", new BigDecimal("49.99"), null)).isSameAs(card);
+        assertThat(registry.route("engineering", new BigDecimal("50"), null)).isSameAs(mock);
+    }
+
+    @Test
+    void looksUpProvidersOfExistingPayments() {
+        PaymentStrategyRegistry registry = new PaymentStrategyRegistry(List.of(mock, card),
+                new PaymentRoutingProperties(null, null));
+
+        assertThat(registry.get("card_psp")).isSameAs(card);
+        assertThat(registry.providerNames()).containsExactlyInAnyOrder("MOCK", "CARD_PSP");
+        assertThatThrownBy(() -> registry.get("LEGACY"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("LEGACY");
+    }
+
+    @Test
+    void rejectsRoutingToUnknownProvidersAndDuplicateNames() {
+        assertThatThrownBy(() -> new PaymentStrategyRegistry(List.of(mock),
+                new PaymentRoutingProperties("MOCK", List.of(
+                        new PaymentRoutingProperties.Rule("CARD_PSP", null, null, null, null)))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("CARD_PSP");
+        assertThatThrownBy(() -> new PaymentStrategyRegistry(List.of(mock),
+                new PaymentRoutingProperties("CARD_PSP", null)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new PaymentStrategyRegistry(List.of(mock, new NamedStrategy("mock")),
+                new PaymentRoutingProperties(null, null)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Duplicate");
+    }
+
+    private record NamedStrategy(String name) implements PaymentStrategy {
+
+        @Override
+        public String getProviderName() {
+            return name;
+        }
+
+        @Override
+        public Payment evaluateAuthorization(String tenantId, UUID orderId, UUID userId, BigDecimal amount) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Payment cancel(Payment payment) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Payment capture(Payment payment) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
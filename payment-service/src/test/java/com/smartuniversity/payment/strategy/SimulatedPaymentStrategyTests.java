@@ -0,0 +1,28 @@
+package com.smartuniversity.payment.strategy;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SimulatedPaymentStrategyTests {
+
+    @Test
+    void latencyFollowsConfiguredMedianAndTail() {
+        SimulatedPaymentStrategy strategy = new SimulatedPaymentStrategy(
+                Duration.ofMillis(20), Duration.ofMillis(200), 0.0, 0.0, 42L);
+
+        double[] samples = new double[20_000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = strategy.sampleLatencyMillis();
+        }
+        Arrays.sort(samples);
+
+        assertThat(samples[samples.length / 2]).isCloseTo(20, within(2.0));
+        assertThat(samples[(int) (samples.length * 0.99)]).isCloseTo(200, within(30.0));
+        assertThat(samples[samples.length - 1]).isLessThanOrEqualTo(2_000);
+    }
+}
@@ -2,7 +2,9 @@ package com.smartuniversity.payment.web;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.smartuniversity.payment.domain.PaymentStatus;
+import com.smartuniversity.payment.repository.PaymentRepository;
 import com.smartuniversity.payment.web.dto.PaymentAuthorizationRequest;
+import com.smartuniversity.payment.web.dto.PaymentBatchRequest;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -12,11 +14,17 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -31,6 +39,9 @@ class PaymentControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private PaymentRepository paymentRepository;
+
     private final String tenantId = "engineering";
 
     @Test
@@ -61,4 +72,113 @@ class PaymentControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.status", is(PaymentStatus.CANCELED.name())));
     }
-}
\ No newline at end of file
+
+    @Test
+    void retriedAuthorizationWithSameIdempotencyKeyReturnsOriginalPayment() throws Exception {
+        PaymentAuthorizationRequest request = new PaymentAuthorizationRequest();
+        request.setOrderId(UUID.randomUUID());
+        request.setUserId(UUID.randomUUID());
+        request.setAmount(BigDecimal.valueOf(40.00));
+        String body = objectMapper.writeValueAsString(request);
+        String key = "authorize-" + request.getOrderId();
+
+        String paymentId = mockMvc.perform(post("/payment/payments/authorize")
+                        .header("X-Tenant-Id", tenantId)
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(post("/payment/payments/authorize")
+                        .header("X-Tenant-Id", tenantId)
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.paymentId", is(objectMapper.readTree(paymentId).get("paymentId").asText())));
+
+        assertThat(paymentRepository.findAll())
+                .filteredOn(payment -> payment.getOrderId().equals(request.getOrderId()))
+                .hasSize(1);
+    }
+
+    @Test
+    void retriedAuthorizationWithoutKeyReturnsExistingPaymentAndCancelIsRepeatable() throws Exception {
+        PaymentAuthorizationRequest request = authorizationRequest(BigDecimal.valueOf(25.00));
+        String body = objectMapper.writeValueAsString(request);
+
+        String first = mockMvc.perform(post("/payment/payments/authorize")
+                        .header("X-Tenant-Id", tenantId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String paymentId = objectMapper.readTree(first).get("paymentId").asText();
+
+        mockMvc.perform(post("/payment/payments/authorize")
+                        .header("X-Tenant-Id", tenantId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.paymentId", is(paymentId)));
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/payment/payments/cancel/{orderId}", request.getOrderId())
+                            .header("X-Tenant-Id", tenantId))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.paymentId", is(paymentId)))
+                    .andExpect(jsonPath("$.status", is(PaymentStatus.CANCELED.name())));
+        }
+
+        assertThat(paymentRepository.findByOrderIdAndTenantId(request.getOrderId(), tenantId))
+                .hasValueSatisfying(payment -> assertThat(payment.getStatus()).isEqualTo(PaymentStatus.CANCELED));
+        assertThat(paymentRepository.findByTenantIdAndOrderIdIn(tenantId, List.of(request.getOrderId())))
+                .hasSize(1);
+    }
+
+    @Test
+    void batchAuthorizationReturnsPerItemResultsAndReusesExistingPayments() throws Exception {
+        PaymentAuthorizationRequest existing = authorizationRequest(BigDecimal.valueOf(15.00));
+        String existingBody = mockMvc.perform(post("/payment/payments/authorize")
+                        .header("X-Tenant-Id", tenantId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(existing)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String existingPaymentId = objectMapper.readTree(existingBody).get("paymentId").asText();
+
+        PaymentAuthorizationRequest fresh = authorizationRequest(BigDecimal.valueOf(20.00));
+        PaymentAuthorizationRequest invalid = authorizationRequest(null);
+        PaymentBatchRequest batch = new PaymentBatchRequest(Arrays.asList(fresh, existing, invalid, fresh));
+
+        String body = mockMvc.perform(post("/payment/payments/authorize/batch")
+                        .header("X-Tenant-Id", tenantId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results", hasSize(4)))
+                .andExpect(jsonPath("$.results[0].status", is(PaymentStatus.AUTHORIZED.name())))
+                .andExpect(jsonPath("$.results[1].paymentId", is(existingPaymentId)))
+                .andExpect(jsonPath("$.results[2].status", nullValue()))
+                .andExpect(jsonPath("$.results[2].error", is("amount must not be null")))
+                .andReturn().getResponse().getContentAsString();
+
+        var results = objectMapper.readTree(body).get("results");
+        assertThat(results.get(3).get("paymentId").asText()).isEqualTo(results.get(0).get("paymentId").asText());
+        assertThat(paymentRepository.findByOrderIdAndTenantId(fresh.getOrderId(), tenantId)).isPresent();
+        assertThat(paymentRepository.findAll())
+                .filteredOn(payment -> payment.getOrderId().equals(fresh.getOrderId())
+                        || payment.getOrderId().equals(existing.getOrderId()))
+                .hasSize(2);
+    }
+
+    private static PaymentAuthorizationRequest authorizationRequest(BigDecimal amount) {
+        PaymentAuthorizationRequest request = new PaymentAuthorizationRequest();
+        request.setOrderId(UUID.randomUUID());
+        request.setUserId(UUID.randomUUID());
+        request.setAmount(amount);
+        return request;
+    }
+}